@@ -49,13 +49,27 @@
 package org.knime.ext.ftp.filehandling.fs;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.io.IOException;
 import java.time.Duration;
-import java.util.HashSet;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.After;
 import org.junit.Test;
@@ -67,7 +81,7 @@
  */
 public class ClientPoolTest extends ClientPool {
     private FtpFSConnectionConfig m_config;
-    private LinkedList<FtpClientResource> m_freeResources;
+    private Deque<FtpClientResource> m_freeResources;
     private Set<FtpClientResource> m_busyResources;
     private final MockFtpClientFactory m_clientFactory;
 
@@ -75,10 +89,11 @@ public class ClientPoolTest extends ClientPool {
      * Default constructor.
      */
     public ClientPoolTest() {
-        this(new FtpFSConnectionConfig(), new LinkedList<>(), new HashSet<>(), new MockFtpClientFactory());
+        this(new FtpFSConnectionConfig(), new ConcurrentLinkedDeque<>(), ConcurrentHashMap.newKeySet(),
+                new MockFtpClientFactory());
     }
 
-    private ClientPoolTest(final FtpFSConnectionConfig cfg, final LinkedList<FtpClientResource> freeResources,
+    private ClientPoolTest(final FtpFSConnectionConfig cfg, final Deque<FtpClientResource> freeResources,
             final Set<FtpClientResource> busyResources, final MockFtpClientFactory clientFactory) {
         super(cfg, freeResources, busyResources, clientFactory);
         m_config = cfg;
@@ -191,7 +206,7 @@ public void testProcessIdleResources() throws IOException {
         assertEquals(2, m_freeResources.size());
 
         // shift released time of one resource
-        m_freeResources.get(0).setAsFreeOn(releaseTime - maxIdleTime - 1l);
+        m_freeResources.peekFirst().setAsFreeOn(releaseTime - maxIdleTime - 1l);
 
         processIdleResources();
         assertEquals(1, m_freeResources.size());
@@ -232,11 +247,158 @@ public void testWaitResourceTimeOut() throws IOException, InterruptedException {
         m_config.setConnectionTimeOut(Duration.ofSeconds(2));
         start();
 
-        m_freeResources.clear();
-        m_busyResources.add(new FtpClientResource(m_clientFactory.createClient()));
-        m_busyResources.add(new FtpClientResource(m_clientFactory.createClient()));
+        // borrow all permitted resources
+        take();
+        take();
+
+        take();
+    }
+
+    /**
+     * Tests the borrow which can't be served in time is counted as wait and time
+     * out.
+     *
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    @Test
+    public void testWaitResourceTimeOutStatistics() throws IOException, InterruptedException {
+        setPoolSizes(0, 1, 1);
+        m_config.setConnectionTimeOut(Duration.ofMillis(50));
+        start();
 
         take();
+        try {
+            take();
+            fail("IOException expected");
+        } catch (IOException ex) { // NOSONAR expected
+        }
+
+        final ClientPoolStatistics stats = getStatistics();
+        assertEquals(1, stats.getNumBorrows());
+        assertEquals(1, stats.getNumWaits());
+        assertEquals(1, stats.getNumTimeouts());
+    }
+
+    /**
+     * Tests the waiting borrower gets the resource as soon as it is released.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testWaitingConsumerGetsReleasedResource() throws Exception {
+        setPoolSizes(1, 1, 1);
+        m_config.setConnectionTimeOut(Duration.ofSeconds(30));
+        start();
+
+        final FtpClientResource resource = take();
+
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Future<FtpClientResource> waiting = executor.submit(this::take);
+            // give the consumer a chance to start waiting
+            Thread.sleep(100); // NOSONAR just a short delay
+            assertFalse(waiting.isDone());
+
+            release(resource);
+            assertSame(resource, waiting.get(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, getStatistics().getNumWaits());
+    }
+
+    /**
+     * Tests the bounded wait of a borrower which does not fail if all
+     * resources stay busy.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testTryTakeWithTimeout() throws Exception {
+        setPoolSizes(1, 1, 1);
+        m_config.setConnectionTimeOut(Duration.ofSeconds(30));
+        start();
+
+        final FtpClientResource resource = take();
+        assertNull(tryTake(Duration.ofMillis(50)));
+
+        release(resource);
+        assertSame(resource, tryTake(Duration.ofMillis(50)));
+        // the borrower did not fail, so the wait is not counted as time out
+        assertEquals(1, getStatistics().getNumWaits());
+        assertEquals(0, getStatistics().getNumTimeouts());
+    }
+
+    /**
+     * Tests the pool under concurrent access of many threads. The number of
+     * resources in use never exceeds the max pool size and each borrowed
+     * resource is returned.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testConcurrentTakeRelease() throws Exception {
+        final int maxPoolSize = 4;
+        final int numThreads = 32;
+        final int numIterations = 500;
+
+        setPoolSizes(1, maxPoolSize, maxPoolSize);
+        m_config.setMaxIdleTime(1000000000l);
+        m_config.setConnectionTimeOut(Duration.ofSeconds(60));
+        start();
+
+        final AtomicInteger inUse = new AtomicInteger();
+        final AtomicInteger maxInUse = new AtomicInteger();
+        final Set<FtpClientResource> concurrentlyUsed = ConcurrentHashMap.newKeySet();
+
+        runConcurrently(numThreads, () -> {
+            for (int i = 0; i < numIterations; i++) {
+                final FtpClientResource resource = take();
+                try {
+                    // the same resource must never be used by two borrowers at once
+                    assertTrue(concurrentlyUsed.add(resource));
+                    maxInUse.accumulateAndGet(inUse.incrementAndGet(), Math::max);
+                    Thread.yield();
+                    inUse.decrementAndGet();
+                    concurrentlyUsed.remove(resource);
+                } finally {
+                    release(resource);
+                }
+            }
+            return null;
+        });
+
+        assertTrue(maxInUse.get() <= maxPoolSize);
+        assertEquals(0, m_busyResources.size());
+        assertTrue(m_freeResources.size() <= maxPoolSize);
+
+        final ClientPoolStatistics stats = getStatistics();
+        assertEquals((long)numThreads * numIterations, stats.getNumBorrows());
+        assertEquals((long)numThreads * numIterations, stats.getNumReturns());
+        assertEquals(0, stats.getNumTimeouts());
+        assertTrue(stats.getNumCreatedConnections() <= maxPoolSize);
+    }
+
+    private static void runConcurrently(final int numThreads, final Callable<Void> task) throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        try {
+            final CountDownLatch startSignal = new CountDownLatch(1);
+            final List<Future<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < numThreads; i++) {
+                futures.add(executor.submit(() -> {
+                    startSignal.await();
+                    return task.call();
+                }));
+            }
+
+            startSignal.countDown();
+            for (Future<Void> f : futures) {
+                f.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
     }
 
     /**
@@ -309,6 +471,144 @@ public void testCheckStartedStopped() throws IOException, InterruptedException {
         take();
     }
 
+    /**
+     * Tests the minimum number of connections is opened in parallel on start.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testParallelPrewarm() throws IOException {
+        final int minPoolSize = 8;
+        final long connectDelay = 300;
+        setPoolSizes(minPoolSize, minPoolSize, minPoolSize);
+        m_clientFactory.setConnectDelay(connectDelay);
+
+        start();
+
+        assertEquals(minPoolSize, m_freeResources.size());
+        for (FtpClientResource resource : m_freeResources) {
+            assertTrue(resource.isInitialized());
+        }
+
+        final ClientPoolStatistics stats = getStatistics();
+        assertEquals(minPoolSize, stats.getNumCreatedConnections());
+        assertTrue(stats.getAverageConnectLatency().toMillis() >= connectDelay);
+        // the first connection is opened alone, the others at the same time
+        assertTrue(stats.getStartupTime().toMillis() < minPoolSize * connectDelay / 2);
+    }
+
+    /**
+     * Tests FTPS connections are opened one after another on start.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testSequentialPrewarmForFtps() throws IOException {
+        final int minPoolSize = 4;
+        final long connectDelay = 100;
+        setPoolSizes(minPoolSize, minPoolSize, minPoolSize);
+        m_config.setUseFTPS(true);
+        m_clientFactory.setConnectDelay(connectDelay);
+
+        start();
+
+        assertEquals(minPoolSize, m_freeResources.size());
+        final ClientPoolStatistics stats = getStatistics();
+        assertEquals(minPoolSize, stats.getNumCreatedConnections());
+        assertTrue(stats.getStartupTime().toMillis() >= minPoolSize * connectDelay);
+    }
+
+    /**
+     * Tests a stale broken connection is evicted on borrow and the borrower
+     * gets a working one.
+     *
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    @Test
+    public void testValidateOnBorrowEvictsBrokenConnection() throws IOException, InterruptedException {
+        setPoolSizes(0, 2, 2);
+        m_config.setValidateOnBorrow(true);
+        m_config.setStalenessThreshold(Duration.ZERO);
+        start();
+        // remove the resource opened on start
+        m_freeResources.clear();
+
+        final MockFtpClient broken = new MockFtpClient();
+        broken.setBroken(true);
+        final MockFtpClient healthy = new MockFtpClient();
+        addFreeResource(new FtpClientResource(broken), System.currentTimeMillis());
+        addFreeResource(new FtpClientResource(healthy), System.currentTimeMillis());
+
+        assertSame(healthy, take().get());
+        assertTrue(broken.isClosed());
+        assertFalse(healthy.isClosed());
+
+        final ClientPoolStatistics stats = getStatistics();
+        assertEquals(1, stats.getNumEvictedConnections());
+        assertEquals(1, stats.getNumRevalidatedConnections());
+    }
+
+    /**
+     * Tests a connection used recently is not validated on borrow.
+     *
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    @Test
+    public void testValidateOnBorrowSkipsFreshConnection() throws IOException, InterruptedException {
+        setPoolSizes(0, 1, 1);
+        m_config.setValidateOnBorrow(true);
+        m_config.setStalenessThreshold(Duration.ofMinutes(1));
+        start();
+        m_freeResources.clear();
+
+        final MockFtpClient client = new MockFtpClient();
+        final FtpClientResource resource = new FtpClientResource(client);
+        resource.setCheckedOn(System.currentTimeMillis());
+        addFreeResource(resource, System.currentTimeMillis());
+
+        assertSame(resource, take());
+        assertEquals(0, client.getNumKeepAlives());
+        assertEquals(0, getStatistics().getNumRevalidatedConnections());
+    }
+
+    /**
+     * Tests the keep alive task evicts broken connections and keeps the
+     * working ones in the pool.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testKeepAliveEvictsBrokenConnection() throws IOException {
+        setPoolSizes(0, 2, 2);
+        // the background task starts after the half of connection time out
+        m_config.setConnectionTimeOut(Duration.ofSeconds(30));
+        start();
+
+        final MockFtpClient broken = new MockFtpClient();
+        broken.setBroken(true);
+        final MockFtpClient healthy = new MockFtpClient();
+        final MockFtpClient fresh = new MockFtpClient();
+        addFreeResource(new FtpClientResource(broken), 0);
+        addFreeResource(new FtpClientResource(healthy), 0);
+        final FtpClientResource freshResource = new FtpClientResource(fresh);
+        freshResource.setCheckedOn(System.currentTimeMillis());
+        addFreeResource(freshResource, System.currentTimeMillis());
+
+        sendKeepAlive();
+
+        assertTrue(broken.isClosed());
+        assertEquals(1, healthy.getNumKeepAlives());
+        assertEquals(0, fresh.getNumKeepAlives());
+        // the resource opened on start has just been checked
+        assertEquals(3, m_freeResources.size());
+
+        final ClientPoolStatistics stats = getStatistics();
+        assertEquals(1, stats.getNumEvictedConnections());
+        assertEquals(1, stats.getNumRevalidatedConnections());
+    }
+
     private void setPoolSizes(final int minPoolSize, final int corePoolSize, final int maxPoolSize) {
         m_config.setMinConnectionPoolSize(minPoolSize);
         m_config.setCoreConnectionPoolSize(corePoolSize);
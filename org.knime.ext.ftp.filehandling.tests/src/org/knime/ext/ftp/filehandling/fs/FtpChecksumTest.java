@@ -0,0 +1,296 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   2026-10-17 (Vyacheslav Soldatov): created
+ */
+package org.knime.ext.ftp.filehandling.fs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.ProviderMismatchException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ftpserver.ftplet.DefaultFtpReply;
+import org.apache.ftpserver.ftplet.DefaultFtplet;
+import org.apache.ftpserver.ftplet.FtpException;
+import org.apache.ftpserver.ftplet.FtpFile;
+import org.apache.ftpserver.ftplet.FtpRequest;
+import org.apache.ftpserver.ftplet.FtpSession;
+import org.apache.ftpserver.ftplet.FtpletResult;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of the file checksums computed by server or locally.
+ *
+ * @author Vyacheslav Soldatov <vyacheslav@redfield.se>
+ */
+public class FtpChecksumTest {
+    private static final byte[] CONTENT = "The quick brown fox jumps over the lazy dog"
+            .getBytes(StandardCharsets.US_ASCII);
+
+    private static final String MD5 = "9e107d9d372bb6826bd81d3542a419d6";
+
+    private static final String SHA_1 = "2fd4e1c67a2d28fced849ee1bb76e7391b93eb12";
+
+    private static final String SHA_256 = "d7a8fbb307d7809469ca9abcb0082e4f8d5651e46d3cdb762d02d0bf37c9e592";
+
+    private static final String CRC32 = "414fa339";
+
+    private FtpFSConnectionConfig m_config;
+
+    private EmbeddedFtpServerContainer m_server;
+
+    private final AtomicInteger m_numServerChecksums = new AtomicInteger();
+
+    /**
+     * Starts the server and creates a test file.
+     *
+     * @throws Exception
+     */
+    @Before
+    public void setUp() throws Exception {
+        m_config = new FtpFSConnectionConfig();
+        m_config.setUser("junit");
+        m_config.setPassword("password");
+        m_config.setServerTimeZoneOffset(Duration.ZERO);
+
+        m_server = new EmbeddedFtpServerContainer(m_config);
+        m_server.startAndGetConnectionConfiguration();
+        Files.write(Path.of(m_server.convertToRealPath("/fox.txt")), CONTENT);
+    }
+
+    /**
+     * Stops the server.
+     */
+    @After
+    public void tearDown() {
+        m_server.clearTestHome();
+        m_server.stopServer();
+    }
+
+    /**
+     * Tests the locally computed checksums.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testComputeLocally() throws IOException {
+        assertEquals(CRC32, compute(FtpChecksumAlgorithm.CRC32));
+        assertEquals(MD5, compute(FtpChecksumAlgorithm.MD5));
+        assertEquals(SHA_1, compute(FtpChecksumAlgorithm.SHA_1));
+        assertEquals(SHA_256, compute(FtpChecksumAlgorithm.SHA_256));
+    }
+
+    private static String compute(final FtpChecksumAlgorithm algorithm) throws IOException {
+        try (InputStream in = new ByteArrayInputStream(CONTENT)) {
+            return algorithm.compute(in);
+        }
+    }
+
+    /**
+     * Tests the checksums computed with HASH command.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testHash() throws IOException {
+        m_server.getFtplets().put("checksum", new ChecksumFtplet(m_numServerChecksums, //
+                " HASH SHA-1*;SHA-256;MD5", " XCRC"));
+
+        final FtpClient client = new FtpClientFactory(m_config).createClient();
+        try {
+            final FtpClientFeatures features = client.getFeatures();
+            assertEquals(Arrays.asList("SHA-1", "SHA-256", "MD5"), List.copyOf(features.getHashAlgorithms()));
+            assertEquals("SHA-1", features.getDefaultHashAlgorithm());
+            assertTrue(features.isXCrcSupported());
+
+            assertEquals(SHA_256, client.getChecksum("/fox.txt", FtpChecksumAlgorithm.SHA_256));
+            assertEquals(SHA_1, client.getChecksum("/fox.txt", FtpChecksumAlgorithm.SHA_1));
+            assertEquals(MD5, client.getChecksum("/fox.txt", FtpChecksumAlgorithm.MD5));
+            assertEquals(CRC32, client.getChecksum("/fox.txt", FtpChecksumAlgorithm.CRC32));
+            assertNull(client.getChecksum("/fox.txt", FtpChecksumAlgorithm.SHA_512));
+            assertEquals(4, m_numServerChecksums.get());
+        } finally {
+            client.close();
+        }
+    }
+
+    /**
+     * Tests the checksums computed with legacy XMD5 and XSHA1 commands.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testLegacyCommands() throws IOException {
+        m_server.getFtplets().put("checksum", new ChecksumFtplet(m_numServerChecksums, " XMD5", " XSHA1"));
+
+        final FtpClient client = new FtpClientFactory(m_config).createClient();
+        try {
+            assertEquals(MD5, client.getChecksum("/fox.txt", FtpChecksumAlgorithm.MD5));
+            assertEquals(SHA_1, client.getChecksum("/fox.txt", FtpChecksumAlgorithm.SHA_1));
+            assertNull(client.getChecksum("/fox.txt", FtpChecksumAlgorithm.SHA_256));
+            assertEquals(2, m_numServerChecksums.get());
+        } finally {
+            client.close();
+        }
+    }
+
+    /**
+     * Tests the checksum attribute of a server without checksum commands, it
+     * is computed locally.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testChecksumAttribute() throws IOException {
+        try (FtpFileSystem fs = new FtpFileSystem(m_config)) {
+            final Path file = fs.getPath("/fox.txt");
+            assertEquals(MD5, Files.getAttribute(file, "ftp:md5"));
+            assertEquals(CRC32, fs.provider().readAttributes(file, "ftp:crc32,sha256").get("crc32"));
+        }
+        assertEquals(0, m_numServerChecksums.get());
+    }
+
+    /**
+     * Tests that the checksum attributes of a path of another provider are
+     * rejected.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testChecksumAttributeOfForeignPath() throws IOException {
+        final Path local = Path.of(m_server.convertToRealPath("/fox.txt"));
+        try (FtpFileSystem fs = new FtpFileSystem(m_config)) {
+            assertThrows(ProviderMismatchException.class, () -> fs.provider().readAttributes(local, "ftp:md5"));
+        }
+    }
+
+    /**
+     * Advertises given checksum features and computes the checksums of HASH,
+     * XCRC, XMD5 and XSHA1 commands.
+     */
+    private static final class ChecksumFtplet extends DefaultFtplet {
+        private static final String HASH_ATTRIBUTE = "hashAlgorithm";
+
+        private final AtomicInteger m_numChecksums;
+
+        private final List<String> m_features;
+
+        ChecksumFtplet(final AtomicInteger numChecksums, final String... features) {
+            m_numChecksums = numChecksums;
+            m_features = Arrays.asList(features);
+        }
+
+        @Override
+        public FtpletResult beforeCommand(final FtpSession session, final FtpRequest request)
+                throws FtpException, IOException {
+            // the server strips the X prefix of XCRC, use the original command
+            final String command = request.getRequestLine().split(" ")[0].toUpperCase(Locale.ENGLISH);
+            final String argument = request.getArgument();
+
+            if ("FEAT".equals(command)) {
+                final String[] lines = new String[m_features.size() + 2];
+                lines[0] = "Extensions supported";
+                for (int i = 0; i < m_features.size(); i++) {
+                    lines[i + 1] = m_features.get(i);
+                }
+                lines[lines.length - 1] = "End";
+                session.write(new DefaultFtpReply(211, lines));
+            } else if ("OPTS".equals(command) && argument.toUpperCase(Locale.ENGLISH).startsWith("HASH ")) {
+                session.setAttribute(HASH_ATTRIBUTE, argument.substring(5).trim());
+                session.write(new DefaultFtpReply(200, argument.substring(5).trim()));
+            } else if ("HASH".equals(command)) {
+                String algorithm = (String) session.getAttribute(HASH_ATTRIBUTE);
+                if (algorithm == null) {
+                    algorithm = "SHA-1";
+                }
+                final FtpFile file = session.getFileSystemView().getFile(argument);
+                if (file.doesExist()) {
+                    session.write(new DefaultFtpReply(213,
+                            algorithm + " 0-" + file.getSize() + " " + checksum(file, algorithm) + " " + argument));
+                } else {
+                    session.write(new DefaultFtpReply(550, argument + ": No such file"));
+                }
+            } else if ("XCRC".equals(command) || "XMD5".equals(command) || "XSHA1".equals(command)) {
+                final String algorithm = "XCRC".equals(command) ? "CRC32"
+                        : ("XMD5".equals(command) ? "MD5" : "SHA-1");
+                final FtpFile file = session.getFileSystemView().getFile(argument.replace("\"", ""));
+                if (file.doesExist()) {
+                    session.write(new DefaultFtpReply(250, checksum(file, algorithm)));
+                } else {
+                    session.write(new DefaultFtpReply(550, argument + ": No such file"));
+                }
+            } else {
+                return super.beforeCommand(session, request);
+            }
+            return FtpletResult.SKIP;
+        }
+
+        private String checksum(final FtpFile file, final String algorithm) throws IOException {
+            m_numChecksums.incrementAndGet();
+            final FtpChecksumAlgorithm checksumAlgorithm = Arrays.stream(FtpChecksumAlgorithm.values())
+                    .filter(a -> a.getHashName().equals(algorithm)).findAny().orElseThrow();
+            try (InputStream in = file.createInputStream(0)) {
+                return checksumAlgorithm.compute(in).toUpperCase(Locale.ENGLISH);
+            }
+        }
+    }
+}
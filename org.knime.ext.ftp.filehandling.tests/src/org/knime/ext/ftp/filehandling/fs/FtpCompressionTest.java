@@ -0,0 +1,163 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   2026-10-17 (Vyacheslav Soldatov): created
+ */
+package org.knime.ext.ftp.filehandling.fs;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of the compressed (MODE Z) file transfers.
+ *
+ * @author Vyacheslav Soldatov <vyacheslav@redfield.se>
+ */
+public class FtpCompressionTest {
+    private FtpFSConnectionConfig m_config;
+
+    private EmbeddedFtpServerContainer m_server;
+
+    /**
+     * Starts the server.
+     *
+     * @throws Exception
+     */
+    @Before
+    public void setUp() throws Exception {
+        m_config = new FtpFSConnectionConfig();
+        m_config.setUser("junit");
+        m_config.setPassword("password");
+        m_config.setServerTimeZoneOffset(Duration.ZERO);
+        m_config.setUseCompression(true);
+
+        m_server = new EmbeddedFtpServerContainer(m_config);
+        m_server.startAndGetConnectionConfiguration();
+    }
+
+    /**
+     * Stops the server.
+     */
+    @After
+    public void tearDown() {
+        m_server.clearTestHome();
+        m_server.stopServer();
+    }
+
+    /**
+     * Tests that the content written and read with compression enabled is
+     * stored uncompressed on server and that the listings still work.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testCompressedRoundTrip() throws IOException {
+        final byte[] content = createText(100000);
+        final byte[] tail = "the end\n".getBytes(StandardCharsets.US_ASCII);
+
+        final FtpClient client = new FtpClientFactory(m_config).createClient();
+        try {
+            assertTrue(client.getFeatures().isModeZSupported());
+            assertTrue(client.isUseCompression());
+
+            try (OutputStream out = client.openForRewrite("/text.txt")) {
+                out.write(content);
+            }
+            try (OutputStream out = client.openForAppend("/text.txt")) {
+                out.write(tail);
+            }
+
+            final byte[] expected = new byte[content.length + tail.length];
+            System.arraycopy(content, 0, expected, 0, content.length);
+            System.arraycopy(tail, 0, expected, content.length, tail.length);
+            assertArrayEquals(expected, Files.readAllBytes(Path.of(m_server.convertToRealPath("/text.txt"))));
+
+            try (InputStream in = client.getFileContentAsStream("/text.txt")) {
+                assertArrayEquals(expected, in.readAllBytes());
+            }
+
+            // listing is done in stream mode
+            assertEquals(1, client.listFiles("/").length);
+
+            client.createFile("/copy.txt", new ByteArrayInputStream(content));
+            final ByteArrayOutputStream copy = new ByteArrayOutputStream();
+            client.getFileContent("/copy.txt", copy);
+            assertArrayEquals(content, copy.toByteArray());
+        } finally {
+            client.close();
+        }
+    }
+
+    /**
+     * @return well compressible text of given size.
+     */
+    private static byte[] createText(final int size) {
+        final String[] words = { "alpha", "beta", "gamma", "delta", "file", "handling", "knime", "server" };
+        final Random random = new Random(17);
+        final StringBuilder text = new StringBuilder(size + 16);
+        while (text.length() < size) {
+            text.append(words[random.nextInt(words.length)]).append(random.nextInt(10) == 0 ? '\n' : ' ');
+        }
+        text.setLength(size);
+        return text.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,290 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   2026-10-17 (Vyacheslav Soldatov): created
+ */
+package org.knime.ext.ftp.filehandling.fs;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ftpserver.ftplet.DefaultFtpReply;
+import org.apache.ftpserver.ftplet.DefaultFtplet;
+import org.apache.ftpserver.ftplet.FtpException;
+import org.apache.ftpserver.ftplet.FtpRequest;
+import org.apache.ftpserver.ftplet.FtpSession;
+import org.apache.ftpserver.ftplet.FtpletResult;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of the file copies by streaming between two connections and server to
+ * server (FXP).
+ *
+ * @author Vyacheslav Soldatov <vyacheslav@redfield.se>
+ */
+public class FtpCopyTest {
+    private final AtomicInteger m_numActiveTransfers = new AtomicInteger();
+
+    private FtpFSConnectionConfig m_config;
+
+    private EmbeddedFtpServerContainer m_server;
+
+    private FtpFileSystem m_fs;
+
+    private byte[] m_content;
+
+    /**
+     * Starts the server and creates a test file.
+     *
+     * @throws Exception
+     */
+    @Before
+    public void setUp() throws Exception {
+        m_config = new FtpFSConnectionConfig();
+        m_config.setUser("junit");
+        m_config.setPassword("password");
+        m_config.setServerTimeZoneOffset(Duration.ZERO);
+        m_config.setMaxConnectionPoolSize(4);
+
+        m_server = new EmbeddedFtpServerContainer(m_config);
+        m_server.startAndGetConnectionConfiguration();
+
+        // spans several buffers of the transfer pipe
+        m_content = new byte[256 * 1024 + 17];
+        new Random(17).nextBytes(m_content);
+        Files.write(Path.of(m_server.convertToRealPath("/source.bin")), m_content);
+    }
+
+    /**
+     * Closes the file system and stops the server.
+     *
+     * @throws IOException
+     */
+    @After
+    public void tearDown() throws IOException {
+        try {
+            if (m_fs != null) {
+                m_fs.close();
+            }
+        } finally {
+            m_server.clearTestHome();
+            m_server.stopServer();
+        }
+    }
+
+    /**
+     * Tests the copy streaming the content from one connection to another one.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testStreamingCopy() throws IOException {
+        countActiveTransfers(false);
+        m_fs = new FtpFileSystem(m_config);
+
+        Files.copy(m_fs.getPath("/source.bin"), m_fs.getPath("/target.bin"));
+
+        assertTargetContent();
+        assertEquals(0, m_numActiveTransfers.get());
+    }
+
+    /**
+     * Tests the server to server copy.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testServerToServerCopy() throws IOException {
+        m_config.setUseServerToServerCopy(true);
+        countActiveTransfers(false);
+        m_fs = new FtpFileSystem(m_config);
+
+        Files.copy(m_fs.getPath("/source.bin"), m_fs.getPath("/target.bin"));
+
+        assertTargetContent();
+        assertEquals(1, m_numActiveTransfers.get());
+        assertEquals(0, m_fs.provider().getPoolStatistics().getNumEvictedConnections());
+    }
+
+    /**
+     * Tests that a rejected server to server copy falls back to the streaming
+     * copy, the connections used by the failed copy are not reused and the
+     * server to server copy is not tried again.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testRejectedServerToServerCopy() throws IOException {
+        m_config.setUseServerToServerCopy(true);
+        countActiveTransfers(true);
+        m_fs = new FtpFileSystem(m_config);
+
+        Files.copy(m_fs.getPath("/source.bin"), m_fs.getPath("/target.bin"));
+
+        assertTargetContent();
+        assertEquals(1, m_numActiveTransfers.get());
+        assertEquals(2, m_fs.provider().getPoolStatistics().getNumEvictedConnections());
+
+        Files.copy(m_fs.getPath("/source.bin"), m_fs.getPath("/target2.bin"));
+        assertArrayEquals(m_content, Files.readAllBytes(Path.of(m_server.convertToRealPath("/target2.bin"))));
+        assertEquals(1, m_numActiveTransfers.get());
+    }
+
+    /**
+     * Tests that a copy whose source connection is closed in the middle of the
+     * download fails and does not leave a truncated target.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testSourceClosedDuringCopy() throws IOException {
+        abortDownloads(true);
+        m_fs = new FtpFileSystem(m_config);
+
+        assertCopyFails();
+    }
+
+    /**
+     * Tests that a copy whose download is aborted by the server fails and
+     * does not leave a truncated target.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testSourceAbortedDuringCopy() throws IOException {
+        abortDownloads(false);
+        m_fs = new FtpFileSystem(m_config);
+
+        assertCopyFails();
+
+        // the connections are usable for the next copy
+        m_server.getFtplets().remove("abort");
+        Files.copy(m_fs.getPath("/source.bin"), m_fs.getPath("/target.bin"));
+        assertTargetContent();
+    }
+
+    private void assertCopyFails() throws IOException {
+        assertThrows(IOException.class,
+                () -> Files.copy(m_fs.getPath("/source.bin"), m_fs.getPath("/target.bin")));
+        assertFalse(Files.exists(Path.of(m_server.convertToRealPath("/target.bin"))));
+    }
+
+    private void assertTargetContent() throws IOException {
+        assertArrayEquals(m_content, Files.readAllBytes(Path.of(m_server.convertToRealPath("/target.bin"))));
+    }
+
+    /**
+     * Sends just the first part of the file on download and then closes the
+     * control connection or replies that the transfer is aborted.
+     *
+     * @param disconnect
+     *            whether to close the control connection.
+     */
+    private void abortDownloads(final boolean disconnect) {
+        m_server.getFtplets().put("abort", new DefaultFtplet() {
+            @Override
+            public FtpletResult beforeCommand(final FtpSession session, final FtpRequest request)
+                    throws FtpException, IOException {
+                if (!"RETR".equalsIgnoreCase(request.getCommand())) {
+                    return super.beforeCommand(session, request);
+                }
+
+                session.write(new DefaultFtpReply(150, "Opening data connection"));
+                try {
+                    session.getDataConnection().openConnection().transferToClient(session,
+                            new ByteArrayInputStream(m_content, 0, m_content.length / 2));
+                } catch (IOException ex) {
+                    throw ex;
+                } catch (Exception ex) { // NOSONAR thrown by the ftplet API
+                    throw new FtpException(ex);
+                } finally {
+                    session.getDataConnection().closeDataConnection();
+                }
+                if (disconnect) {
+                    return FtpletResult.DISCONNECT;
+                }
+                session.write(new DefaultFtpReply(426, "Connection closed; transfer aborted"));
+                return FtpletResult.SKIP;
+            }
+        });
+    }
+
+    /**
+     * Counts the PORT commands, which are sent just by the server to server
+     * copy as the client uses passive mode otherwise.
+     *
+     * @param reject
+     *            whether to reject the PORT commands.
+     */
+    private void countActiveTransfers(final boolean reject) {
+        m_server.getFtplets().put("port", new DefaultFtplet() {
+            @Override
+            public FtpletResult beforeCommand(final FtpSession session, final FtpRequest request)
+                    throws FtpException, IOException {
+                if ("PORT".equalsIgnoreCase(request.getCommand())) {
+                    m_numActiveTransfers.incrementAndGet();
+                    if (reject) {
+                        session.write(new DefaultFtpReply(504, "Active mode is not allowed"));
+                        return FtpletResult.SKIP;
+                    }
+                }
+                return super.beforeCommand(session, request);
+            }
+        });
+    }
+}
@@ -0,0 +1,317 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   2026-10-17 (Vyacheslav Soldatov): created
+ */
+package org.knime.ext.ftp.filehandling.fs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntFunction;
+
+import org.apache.commons.net.ftp.FTPClientConfig;
+import org.apache.commons.net.ftp.FTPFile;
+import org.apache.commons.net.ftp.FTPFileEntryParser;
+import org.apache.commons.net.ftp.FTPListParseEngine;
+import org.apache.commons.net.ftp.parser.DefaultFTPFileEntryParserFactory;
+import org.apache.commons.net.ftp.parser.MLSxEntryParser;
+import org.junit.Test;
+
+/**
+ * Tests that the {@link FtpListEntryParser} and the {@link FtpMlsxEntryParser}
+ * parse the listings exactly like the parsers of Commons Net.
+ *
+ * @author Vyacheslav Soldatov <vyacheslav@redfield.se>
+ */
+public class FtpEntryParserTest {
+    private static final String TIME_ZONE = "GMT+02:00";
+
+    private static final List<String> UNIX_ENTRIES = Arrays.asList( //
+            "-rw-r--r--   1 user     group        1234 Oct 17 00:56 file.txt", //
+            "-rw-r--r-- 1 user group 12 Jan  1 00:00 new year", //
+            "drwxr-xr-x   2 user group 4096 Jan  5  2019 dir with  spaces", //
+            "drwxr-xr-x   2 1000 1000 4096 Dec 31  1999  leading space", //
+            "lrwxrwxrwx   1 root root 7 Mar  3  2020 link -> target dir", //
+            "-rwsr-sr-t+  1 user group 0 Feb 29  2020 sticky", //
+            "-rw-------   1 user group 1099511627776 May 31 23:59 huge", //
+            "-rw-r--r--   1 user group 5 Feb 29 12:00 leap day", //
+            "crw-rw-rw-   1 root root 1,   3 Jun  1  2021 null", //
+            "-rw-r--r--   1 user group 5 2021-06-01 12:00 iso date", //
+            "-rw-r--r--   1 user group 5 Foo  1  2021 bad month", //
+            "-rw-r--r--   1 user group 5 Jun 31  2021 bad day", //
+            "-rw-r--r--   1 user group 5 Jun  1 24:00 bad time", //
+            "drwxr-xr-x   2 user group 4096 Oct 17 00:56 .", //
+            "not a listing entry");
+
+    private static final List<String> WINDOWS_ENTRIES = Arrays.asList( //
+            "10-17-20  12:56AM       <DIR>          folder", //
+            "01-05-19  03:04PM                 1234 file name.txt", //
+            "12-31-99  11:59PM                    0 old", //
+            "02-29-20  12:00PM                   42  leading space", //
+            "10-17-20  12:56AM       <DIR>          .", //
+            "10-17-2020  00:56       <DIR>          four digit year");
+
+    private static final List<String> MLSD_ENTRIES = Arrays.asList( //
+            "type=file;size=1024;modify=20201017005600;perm=rw;unix.mode=0644;unix.owner=user;unix.group=grp; name.txt", //
+            "Type=dir;Modify=20201017005600.123;Perm=flcdmpe; dir with  spaces", //
+            "type=cdir;modify=20201017005600;perm=el; .", //
+            "type=pdir;modify=20201017005600;perm=el; ..", //
+            "type=OS.unix=slink:/target;modify=20201017005600; link", //
+            "type=file;sizd=77;modify=20201017005600;perm=adfrw; no mode", //
+            "type=file;size=1;modify=20201317005600; bad date", //
+            "size=10; no type", //
+            "type=file;size=1;  two spaces", //
+            "missing separator", //
+            " no facts");
+
+    /**
+     * Tests the Unix LIST entries.
+     */
+    @Test
+    public void testUnixEntries() {
+        final FTPFileEntryParser parser = new FtpListEntryParser.Factory()
+                .createFileEntryParser(createConfig(FTPClientConfig.SYST_UNIX));
+        assertTrue(parser instanceof FtpListEntryParser);
+
+        assertSameEntries(
+                new DefaultFTPFileEntryParserFactory().createFileEntryParser(createConfig(FTPClientConfig.SYST_UNIX)),
+                parser, UNIX_ENTRIES);
+    }
+
+    /**
+     * Tests the Windows LIST entries, with the Unix ones which are listed by
+     * some Windows servers.
+     */
+    @Test
+    public void testWindowsEntries() {
+        final String systemKey = "WINDOWS_NT";
+        final FTPFileEntryParser parser = new FtpListEntryParser.Factory()
+                .createFileEntryParser(createConfig(systemKey));
+        assertTrue(parser instanceof FtpListEntryParser);
+
+        // the parsers of Commons Net change the configuration and stick to the
+        // format of the first parsed entry
+        final DefaultFTPFileEntryParserFactory factory = new DefaultFTPFileEntryParserFactory();
+        assertSameEntries(factory.createFileEntryParser(createConfig(systemKey)), parser, WINDOWS_ENTRIES);
+        assertSameEntries(factory.createFileEntryParser(createConfig(systemKey)), parser, UNIX_ENTRIES);
+    }
+
+    /**
+     * Tests that the "total" lines are discarded.
+     */
+    @Test
+    public void testPreParse() {
+        final FTPFileEntryParser parser = new FtpListEntryParser.Factory()
+                .createFileEntryParser(createConfig(FTPClientConfig.SYST_UNIX));
+        final List<String> entries = parser.preParse(new ArrayList<>(Arrays.asList( //
+                "total 8", //
+                "total", //
+                UNIX_ENTRIES.get(0))));
+        assertEquals(Arrays.asList("total", UNIX_ENTRIES.get(0)), entries);
+    }
+
+    /**
+     * Tests that the parsers of Commons Net are used for the configured date
+     * formats and the other systems.
+     */
+    @Test
+    public void testFactoryFallback() {
+        final FtpListEntryParser.Factory factory = new FtpListEntryParser.Factory();
+
+        final FTPClientConfig dateFormat = createConfig(FTPClientConfig.SYST_UNIX);
+        dateFormat.setDefaultDateFormatStr("yyyy-MM-dd HH:mm");
+        assertFalse(factory.createFileEntryParser(dateFormat) instanceof FtpListEntryParser);
+
+        final FTPClientConfig summerTime = createConfig(FTPClientConfig.SYST_UNIX);
+        summerTime.setServerTimeZoneId("Europe/Zurich");
+        assertFalse(factory.createFileEntryParser(summerTime) instanceof FtpListEntryParser);
+
+        assertFalse(
+                factory.createFileEntryParser(createConfig(FTPClientConfig.SYST_VMS)) instanceof FtpListEntryParser);
+        assertFalse(factory.createFileEntryParser(createConfig(FTPClientConfig.SYST_UNIX_TRIM_LEADING))
+                instanceof FtpListEntryParser);
+    }
+
+    /**
+     * Tests the MLSD entries.
+     */
+    @Test
+    public void testMlsdEntries() {
+        assertSameEntries(MLSxEntryParser.getInstance(), FtpMlsxEntryParser.INSTANCE, MLSD_ENTRIES);
+    }
+
+    /**
+     * Tests that the MLSD timestamps are in GMT and keep the milliseconds.
+     */
+    @Test
+    public void testMlsdTimestamp() {
+        final FTPFile file = FtpMlsxEntryParser.INSTANCE
+                .parseFTPEntry("type=file;modify=20201017005600.123; name");
+        assertNotNull(file);
+        assertEquals(1602896160123L, file.getTimestamp().getTimeInMillis());
+        assertEquals(123, file.getTimestamp().get(Calendar.MILLISECOND));
+        assertEquals(FTPFile.FILE_TYPE, file.getType());
+        assertEquals("name", file.getName());
+    }
+
+    /**
+     * Tests large synthetic listings read like
+     * {@link FtpClient#listFiles(String)} does, the parsers of Commons Net and
+     * the fast parsers must return the same entries.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testLargeListings() throws IOException {
+        final int numEntries = 10_000;
+        final String[] months = { "Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul", "Aug", "Sep", "Oct", "Nov",
+                "Dec" };
+        final Random random = new Random(17);
+
+        assertSameListing(
+                new DefaultFTPFileEntryParserFactory().createFileEntryParser(createConfig(FTPClientConfig.SYST_UNIX)),
+                new FtpListEntryParser.Factory().createFileEntryParser(createConfig(FTPClientConfig.SYST_UNIX)),
+                numEntries,
+                i -> String.format("%srw-r--r--   1 user     group    %10d %s %2d %s file-%d.csv",
+                        i % 10 == 0 ? "d" : "-", random.nextInt(1 << 30), months[i % 12], 1 + i % 28,
+                        i % 2 == 0 ? " 2019" : "13:45", i));
+
+        assertSameListing(
+                new DefaultFTPFileEntryParserFactory().createFileEntryParser(createConfig(FTPClientConfig.SYST_NT)),
+                new FtpListEntryParser.Factory().createFileEntryParser(createConfig(FTPClientConfig.SYST_NT)),
+                numEntries,
+                i -> String.format("%02d-%02d-19  %02d:%02dPM %20s file-%d.csv", 1 + i % 12, 1 + i % 28,
+                        1 + i % 12, i % 60, i % 10 == 0 ? "<DIR>         " : random.nextInt(1 << 30), i));
+
+        assertSameListing(MLSxEntryParser.getInstance(), FtpMlsxEntryParser.INSTANCE, numEntries,
+                i -> String.format("type=%s;size=%d;modify=2019%02d%02d134500;perm=adfrw;unix.mode=0644; file-%d.csv",
+                        i % 10 == 0 ? "dir" : "file", random.nextInt(1 << 30), 1 + i % 12, 1 + i % 28, i));
+    }
+
+    private static void assertSameListing(final FTPFileEntryParser expectedParser,
+            final FTPFileEntryParser actualParser, final int numEntries, final IntFunction<String> entries)
+            throws IOException {
+        final StringBuilder listing = new StringBuilder();
+        for (int i = 0; i < numEntries; i++) {
+            listing.append(entries.apply(i)).append("\r\n");
+        }
+        final byte[] bytes = listing.toString().getBytes(StandardCharsets.UTF_8);
+
+        final FTPFile[] expected = parse(expectedParser, bytes);
+        final FTPFile[] actual = parse(actualParser, bytes);
+        assertEquals(numEntries, expected.length);
+        assertEquals(numEntries, actual.length);
+        for (int i = 0; i < numEntries; i++) {
+            assertSameFile(expected[i].getRawListing(), expected[i], actual[i]);
+        }
+    }
+
+    private static FTPFile[] parse(final FTPFileEntryParser parser, final byte[] listing) throws IOException {
+        final FTPListParseEngine engine = new FTPListParseEngine(parser);
+        engine.readServerList(new ByteArrayInputStream(listing), StandardCharsets.UTF_8.name());
+        return engine.getFiles();
+    }
+
+    private static FTPClientConfig createConfig(final String systemKey) {
+        final FTPClientConfig config = new FTPClientConfig(systemKey);
+        config.setServerTimeZoneId(TIME_ZONE);
+        return config;
+    }
+
+    private static void assertSameEntries(final FTPFileEntryParser expectedParser,
+            final FTPFileEntryParser actualParser, final List<String> entries) {
+        for (String entry : entries) {
+            final FTPFile expected = expectedParser.parseFTPEntry(entry);
+            final FTPFile actual = actualParser.parseFTPEntry(entry);
+            if (expected == null) {
+                assertNull(entry, actual);
+            } else {
+                assertNotNull(entry, actual);
+                assertSameFile(entry, expected, actual);
+            }
+        }
+    }
+
+    private static void assertSameFile(final String entry, final FTPFile expected, final FTPFile actual) {
+        assertEquals(entry, expected.getName(), actual.getName());
+        assertEquals(entry, expected.getType(), actual.getType());
+        assertEquals(entry, expected.getSize(), actual.getSize());
+        assertEquals(entry, expected.getHardLinkCount(), actual.getHardLinkCount());
+        assertEquals(entry, expected.getUser(), actual.getUser());
+        assertEquals(entry, expected.getGroup(), actual.getGroup());
+        assertEquals(entry, expected.getLink(), actual.getLink());
+        assertEquals(entry, expected.isValid(), actual.isValid());
+        if (expected.getTimestamp() == null) {
+            assertNull(entry, actual.getTimestamp());
+        } else {
+            assertEquals(entry, expected.getTimestamp().getTimeInMillis(), actual.getTimestamp().getTimeInMillis());
+            assertEquals(entry, expected.getTimestamp().getTimeZone().getRawOffset(),
+                    actual.getTimestamp().getTimeZone().getRawOffset());
+            for (int field : new int[] { Calendar.HOUR_OF_DAY, Calendar.MINUTE, Calendar.SECOND,
+                    Calendar.MILLISECOND }) {
+                assertEquals(entry, expected.getTimestamp().isSet(field), actual.getTimestamp().isSet(field));
+            }
+        }
+        for (int access = FTPFile.USER_ACCESS; access <= FTPFile.WORLD_ACCESS; access++) {
+            for (int permission = FTPFile.READ_PERMISSION; permission <= FTPFile.EXECUTE_PERMISSION; permission++) {
+                assertEquals(entry, expected.hasPermission(access, permission),
+                        actual.hasPermission(access, permission));
+            }
+        }
+    }
+}
@@ -0,0 +1,311 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   2026-10-17 (Vyacheslav Soldatov): created
+ */
+package org.knime.ext.ftp.filehandling.fs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.net.ftp.FTPFile;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of {@link FtpListingCache}.
+ *
+ * @author Vyacheslav Soldatov <vyacheslav@redfield.se>
+ */
+public class FtpListingCacheTest {
+    private final AtomicInteger m_numListings = new AtomicInteger();
+
+    private EmbeddedFtpServerContainer m_server;
+
+    private FtpFileSystem m_fs;
+
+    /**
+     * Starts the server.
+     *
+     * @throws Exception
+     */
+    @Before
+    public void setUp() throws Exception {
+        final FtpFSConnectionConfig config = new FtpFSConnectionConfig();
+        config.setUser("junit");
+        config.setPassword("password");
+        config.setServerTimeZoneOffset(Duration.ZERO);
+        config.setListingCacheTtl(Duration.ofMinutes(1));
+
+        m_server = new EmbeddedFtpServerContainer(config);
+        m_server.startAndGetConnectionConfiguration();
+        m_fs = new FtpFileSystem(config);
+    }
+
+    /**
+     * Closes the file system and stops the server.
+     *
+     * @throws IOException
+     */
+    @After
+    public void tearDown() throws IOException {
+        try {
+            m_fs.close();
+        } finally {
+            m_server.clearTestHome();
+            m_server.stopServer();
+        }
+    }
+
+    /**
+     * Tests the cache is disabled by default.
+     */
+    @Test
+    public void testDisabledByDefault() {
+        assertFalse(new FtpListingCache(FtpFSConnectionConfig.DEFAULT_LISTING_CACHE_TTL).isEnabled());
+        assertFalse(new FtpListingCache(Duration.ZERO).isEnabled());
+        assertTrue(m_fs.provider().getListingCache().isEnabled());
+    }
+
+    /**
+     * Tests the siblings are answered from one listing until it expires.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testTtlExpiry() throws Exception {
+        final FtpListingCache cache = new FtpListingCache(Duration.ofMillis(300));
+
+        assertEquals(1, cache.getFileInfo(m_fs.getPath("/dir/a"), this::list).getSize());
+        assertEquals(2, cache.getFileInfo(m_fs.getPath("/dir/b"), this::list).getSize());
+        assertEquals(1, m_numListings.get());
+        assertNotNull(cache.getCachedListing("/dir"));
+
+        Thread.sleep(400);
+
+        assertNull(cache.getCachedListing("/dir"));
+        cache.getFileInfo(m_fs.getPath("/dir/a"), this::list);
+        assertEquals(2, m_numListings.get());
+        // the lookup of the sibling and the listing read before the expiry
+        assertEquals(2, cache.getNumHits());
+        assertEquals(2, cache.getNumMisses());
+    }
+
+    /**
+     * Tests files missing in a cached listing are reported as not existing
+     * without listing the directory again.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testNegativeCaching() throws IOException {
+        final FtpListingCache cache = new FtpListingCache(Duration.ofMinutes(1));
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                cache.getFileInfo(m_fs.getPath("/dir/missing"), this::list);
+                fail("Missing file expected");
+            } catch (NoSuchFileException ex) { // NOSONAR expected
+            }
+        }
+        assertEquals(1, m_numListings.get());
+    }
+
+    /**
+     * Tests failed listings are not cached.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testFailureNotCached() throws IOException {
+        final FtpListingCache cache = new FtpListingCache(Duration.ofMinutes(1));
+
+        try {
+            cache.getFileInfo(m_fs.getPath("/dir/a"), d -> {
+                throw new IOException("listing failed");
+            });
+            fail("Listing failure expected");
+        } catch (IOException ex) {
+            assertEquals("listing failed", ex.getMessage());
+        }
+
+        assertNull(cache.getCachedListing("/dir"));
+        assertEquals(1, cache.getFileInfo(m_fs.getPath("/dir/a"), this::list).getSize());
+    }
+
+    /**
+     * Tests concurrent lookups in the same directory share one listing.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testConcurrentLoad() throws Exception {
+        final FtpListingCache cache = new FtpListingCache(Duration.ofMinutes(1));
+        final int numThreads = 8;
+        final CountDownLatch listingStarted = new CountDownLatch(1);
+        final CountDownLatch releaseListing = new CountDownLatch(1);
+        final FtpListingCache.DirectoryLister slowLister = dir -> {
+            listingStarted.countDown();
+            try {
+                releaseListing.await();
+            } catch (InterruptedException ex) { // NOSONAR test thread
+                throw new IOException(ex);
+            }
+            return list(dir);
+        };
+
+        final ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        try {
+            final List<Future<FTPFile>> results = new ArrayList<>();
+            for (int i = 0; i < numThreads; i++) {
+                final FtpPath path = m_fs.getPath("/dir", i % 2 == 0 ? "a" : "b");
+                results.add(executor.submit(() -> cache.getFileInfo(path, slowLister)));
+            }
+            assertTrue(listingStarted.await(10, TimeUnit.SECONDS));
+            // give the other lookups time to join the running listing
+            Thread.sleep(200);
+            releaseListing.countDown();
+
+            for (int i = 0; i < numThreads; i++) {
+                assertEquals(i % 2 == 0 ? 1 : 2, results.get(i).get(10, TimeUnit.SECONDS).getSize());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, m_numListings.get());
+        assertEquals(1, cache.getNumMisses());
+    }
+
+    /**
+     * Tests invalidating a path removes the listings of its parent, of itself
+     * and of its descendants only.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testInvalidate() throws IOException {
+        final FtpListingCache cache = new FtpListingCache(Duration.ofMinutes(1));
+        for (String dir : new String[]{"/", "/a", "/a/b", "/a/b/c", "/a/bc", "/x"}) {
+            cache.put(dir, Arrays.asList(file("f", 1)));
+        }
+
+        cache.invalidate(m_fs.getPath("/a/b"));
+
+        assertNotNull(cache.getCachedListing("/"));
+        assertNull(cache.getCachedListing("/a"));
+        assertNull(cache.getCachedListing("/a/b"));
+        assertNull(cache.getCachedListing("/a/b/c"));
+        assertNotNull(cache.getCachedListing("/a/bc"));
+        assertNotNull(cache.getCachedListing("/x"));
+        assertEquals(1, cache.getNumInvalidations());
+    }
+
+    /**
+     * Tests the modifications through the file system invalidate the cached
+     * listings.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testInvalidationHooks() throws IOException {
+        final FtpListingCache cache = m_fs.provider().getListingCache();
+        Files.createDirectories(Path.of(m_server.convertToRealPath("/dir/sub")));
+        Files.write(Path.of(m_server.convertToRealPath("/dir/existing")), new byte[1]);
+
+        final FtpPath dir = m_fs.getPath("/dir");
+        assertInvalidated(cache, () -> Files.write(dir.resolve("new"), new byte[3]));
+        assertInvalidated(cache, () -> Files.createDirectory(dir.resolve("newDir")));
+        assertInvalidated(cache, () -> Files.move(dir.resolve("new"), dir.resolve("moved")));
+        assertInvalidated(cache, () -> Files.copy(dir.resolve("existing"), dir.resolve("copy")));
+        assertInvalidated(cache, () -> Files.delete(dir.resolve("moved")));
+    }
+
+    @FunctionalInterface
+    private interface Modification {
+        void run() throws IOException;
+    }
+
+    private static void assertInvalidated(final FtpListingCache cache, final Modification modification)
+            throws IOException {
+        cache.put("/dir", Arrays.asList(file("existing", 1), file("sub", 0)));
+        modification.run();
+        assertNull(cache.getCachedListing("/dir"));
+    }
+
+    private FTPFile[] list(final String dir) {
+        assertEquals("/dir", dir);
+        m_numListings.incrementAndGet();
+        return new FTPFile[]{file("a", 1), file("b", 2)};
+    }
+
+    private static FTPFile file(final String name, final long size) {
+        final FTPFile file = new FTPFile();
+        file.setName(name);
+        file.setSize(size);
+        file.setType(FTPFile.FILE_TYPE);
+        return file;
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   2026-10-17 (Vyacheslav Soldatov): created
+ */
+package org.knime.ext.ftp.filehandling.fs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.commons.net.ftp.FTPFile;
+import org.apache.commons.net.ftp.FTPListParseEngine;
+import org.apache.commons.net.ftp.parser.UnixFTPEntryParser;
+import org.apache.ftpserver.ftplet.DefaultFtplet;
+import org.apache.ftpserver.ftplet.FtpException;
+import org.apache.ftpserver.ftplet.FtpRequest;
+import org.apache.ftpserver.ftplet.FtpSession;
+import org.apache.ftpserver.ftplet.FtpletResult;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of {@link FtpListingIterator} with listings spanning several pages.
+ *
+ * @author Vyacheslav Soldatov <vyacheslav@redfield.se>
+ */
+public class FtpListingIteratorTest {
+    private static final int NUM_FILES = 2 * FtpListingIterator.PAGE_SIZE + 500;
+
+    private final List<String> m_commands = Collections.synchronizedList(new ArrayList<>());
+
+    private EmbeddedFtpServerContainer m_server;
+
+    private FtpFileSystem m_fs;
+
+    /**
+     * Starts the server and creates a large directory.
+     *
+     * @throws Exception
+     */
+    @Before
+    public void setUp() throws Exception {
+        final FtpFSConnectionConfig config = new FtpFSConnectionConfig();
+        config.setUser("junit");
+        config.setPassword("password");
+        config.setServerTimeZoneOffset(Duration.ZERO);
+
+        m_server = new EmbeddedFtpServerContainer(config);
+        m_server.getFtplets().put("commands", new DefaultFtplet() {
+            @Override
+            public FtpletResult beforeCommand(final FtpSession session, final FtpRequest request)
+                    throws FtpException, IOException {
+                m_commands.add(request.getCommand());
+                return super.beforeCommand(session, request);
+            }
+        });
+        m_server.startAndGetConnectionConfiguration();
+        m_fs = new FtpFileSystem(config);
+
+        final Path dir = Path.of(m_server.convertToRealPath("/dir"));
+        Files.createDirectories(dir.resolve("sub"));
+        for (int i = 0; i < NUM_FILES; i++) {
+            Files.write(dir.resolve(fileName(i)), new byte[i % 100]);
+        }
+    }
+
+    /**
+     * Closes the file system and stops the server.
+     *
+     * @throws IOException
+     */
+    @After
+    public void tearDown() throws IOException {
+        try {
+            m_fs.close();
+        } finally {
+            m_server.clearTestHome();
+            m_server.stopServer();
+        }
+    }
+
+    /**
+     * Tests the filter is applied to the entries of all pages.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testFilteredListing() throws IOException {
+        final Set<String> expected = new HashSet<>();
+        for (int i = 0; i < NUM_FILES; i += 7) {
+            expected.add("/dir/" + fileName(i));
+        }
+
+        final Set<String> actual = new HashSet<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(m_fs.getPath("/dir"),
+                p -> expected.contains(p.toString()))) {
+            stream.forEach(p -> actual.add(p.toString()));
+        }
+
+        assertEquals(expected, actual);
+    }
+
+    /**
+     * Tests the attributes of the listed entries are cached, so reading them
+     * does not need further requests.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testAttributesCachedFromListing() throws IOException {
+        final List<Path> listed = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(m_fs.getPath("/dir"))) {
+            stream.forEach(listed::add);
+        }
+        assertEquals(NUM_FILES + 1, listed.size());
+
+        m_commands.clear();
+        for (int i : new int[]{0, FtpListingIterator.PAGE_SIZE + 1, NUM_FILES - 1}) {
+            final BasicFileAttributes attrs = Files.readAttributes(m_fs.getPath("/dir", fileName(i)),
+                    BasicFileAttributes.class);
+            assertTrue(attrs.isRegularFile());
+            assertEquals(i % 100, attrs.size());
+        }
+        assertTrue(Files.readAttributes(m_fs.getPath("/dir/sub"), BasicFileAttributes.class).isDirectory());
+
+        assertEquals(Collections.emptyList(), m_commands);
+    }
+
+    /**
+     * Tests the parse engine is consumed page by page, unparsable lines and the
+     * "." and ".." entries are skipped and the attributes are passed on when
+     * the entry is reached.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testPages() throws IOException {
+        final StringBuilder listing = new StringBuilder();
+        listing.append("drwxr-xr-x 1 user group 0 Jan 01 2020 .\r\n");
+        listing.append("drwxr-xr-x 1 user group 0 Jan 01 2020 ..\r\n");
+        for (int i = 0; i < NUM_FILES; i++) {
+            listing.append("-rw-r--r-- 1 user group ").append(i).append(" Jan 01 2020 ").append(fileName(i))
+                    .append("\r\n");
+            if (i == FtpListingIterator.PAGE_SIZE) {
+                listing.append("unparsable line\r\n");
+            }
+        }
+        final FTPListParseEngine engine = new FTPListParseEngine(new UnixFTPEntryParser());
+        engine.readServerList(new ByteArrayInputStream(listing.toString().getBytes(StandardCharsets.US_ASCII)),
+                StandardCharsets.US_ASCII.name());
+
+        final List<FtpPath> attributed = new ArrayList<>();
+        final Iterator<FtpPath> iterator = new FtpListingIterator(m_fs.getPath("/dir"),
+                FtpListingIterator.pages(engine), (p, a) -> {
+                    assertEquals(attributed.size(), a.size());
+                    attributed.add(p);
+                });
+
+        for (int i = 0; i < NUM_FILES; i++) {
+            assertTrue(iterator.hasNext());
+            assertEquals(i, attributed.size() - 1);
+            assertEquals("/dir/" + fileName(i), iterator.next().toString());
+        }
+        assertFalse(iterator.hasNext());
+        assertEquals(NUM_FILES, attributed.size());
+    }
+
+    private static String fileName(final int i) {
+        return String.format("file%05d.csv", i);
+    }
+}
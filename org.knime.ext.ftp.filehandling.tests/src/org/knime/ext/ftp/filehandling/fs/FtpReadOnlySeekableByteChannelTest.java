@@ -0,0 +1,288 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   2026-10-17 (Vyacheslav Soldatov): created
+ */
+package org.knime.ext.ftp.filehandling.fs;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.ftpserver.ftplet.DefaultFtplet;
+import org.apache.ftpserver.ftplet.FtpException;
+import org.apache.ftpserver.ftplet.FtpRequest;
+import org.apache.ftpserver.ftplet.FtpSession;
+import org.apache.ftpserver.ftplet.FtpletResult;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of {@link FtpReadOnlySeekableByteChannel}.
+ *
+ * @author Vyacheslav Soldatov <vyacheslav@redfield.se>
+ */
+public class FtpReadOnlySeekableByteChannelTest {
+    private static final int BLOCK_SIZE = FtpReadOnlySeekableByteChannel.BLOCK_SIZE;
+
+    private static final int NUM_BLOCKS = FtpReadOnlySeekableByteChannel.MAX_CACHED_BLOCKS + 2;
+
+    /**
+     * Indexes of the blocks requested from server in the order of the
+     * requests.
+     */
+    private final List<Long> m_readBlocks = Collections.synchronizedList(new ArrayList<>());
+
+    private EmbeddedFtpServerContainer m_server;
+
+    private FtpFileSystem m_fs;
+
+    private byte[] m_content;
+
+    /**
+     * Starts the server and creates a test file.
+     *
+     * @throws Exception
+     */
+    @Before
+    public void setUp() throws Exception {
+        final FtpFSConnectionConfig config = new FtpFSConnectionConfig();
+        config.setUser("junit");
+        config.setPassword("password");
+        config.setServerTimeZoneOffset(Duration.ZERO);
+        config.setMaxConnectionPoolSize(4);
+
+        m_server = new EmbeddedFtpServerContainer(config);
+        m_server.getFtplets().put("blocks", new BlockRequestsFtplet(m_readBlocks));
+        m_server.startAndGetConnectionConfiguration();
+        m_fs = new FtpFileSystem(config);
+
+        // the last block is shorter than the others
+        m_content = new byte[NUM_BLOCKS * BLOCK_SIZE - 1000];
+        new Random(17).nextBytes(m_content);
+        Files.write(Path.of(m_server.convertToRealPath("/file.bin")), m_content);
+    }
+
+    /**
+     * Closes the file system and stops the server.
+     *
+     * @throws IOException
+     */
+    @After
+    public void tearDown() throws IOException {
+        try {
+            m_fs.close();
+        } finally {
+            m_server.clearTestHome();
+            m_server.stopServer();
+        }
+    }
+
+    /**
+     * Tests reads at random positions including reads across block borders and
+     * the read of the shorter last block.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testBlockReads() throws IOException {
+        try (SeekableByteChannel channel = Files.newByteChannel(m_fs.getPath("/file.bin"))) {
+            assertTrue(channel instanceof FtpReadOnlySeekableByteChannel);
+            assertEquals(m_content.length, channel.size());
+
+            // across the border of blocks 2 and 3
+            assertContent(channel, 3L * BLOCK_SIZE - 100, 200);
+            assertEquals(Arrays.asList(2L, 3L), m_readBlocks);
+
+            // served from the cached blocks
+            assertContent(channel, 3L * BLOCK_SIZE - 50, 100);
+            assertContent(channel, 2L * BLOCK_SIZE, 10);
+            assertEquals(2, m_readBlocks.size());
+
+            // the last block is read until the end of file
+            final long lastBlockStart = (NUM_BLOCKS - 1L) * BLOCK_SIZE;
+            channel.position(lastBlockStart);
+            final ByteBuffer buffer = ByteBuffer.allocate(BLOCK_SIZE);
+            assertEquals(m_content.length - lastBlockStart, channel.read(buffer));
+            assertArrayEquals(Arrays.copyOfRange(m_content, (int) lastBlockStart, m_content.length),
+                    Arrays.copyOf(buffer.array(), buffer.position()));
+            assertEquals(m_content.length, channel.position());
+            assertEquals(-1, channel.read(buffer.clear()));
+        }
+    }
+
+    /**
+     * Tests that the least recently used block is evicted when more than
+     * {@link FtpReadOnlySeekableByteChannel#MAX_CACHED_BLOCKS} blocks are read.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testLeastRecentlyUsedBlockEvicted() throws IOException {
+        try (SeekableByteChannel channel = Files.newByteChannel(m_fs.getPath("/file.bin"))) {
+            // read in reverse order to not trigger the prefetch
+            for (long block = FtpReadOnlySeekableByteChannel.MAX_CACHED_BLOCKS; block >= 0; block--) {
+                assertContent(channel, block * BLOCK_SIZE + 7, 10);
+            }
+            assertEquals(FtpReadOnlySeekableByteChannel.MAX_CACHED_BLOCKS + 1, m_readBlocks.size());
+
+            // block 0 is the most recently used one
+            assertContent(channel, 5, 10);
+            assertEquals(FtpReadOnlySeekableByteChannel.MAX_CACHED_BLOCKS + 1, m_readBlocks.size());
+
+            // block read first is evicted and requested again
+            assertContent(channel, FtpReadOnlySeekableByteChannel.MAX_CACHED_BLOCKS * (long) BLOCK_SIZE, 10);
+            assertEquals(FtpReadOnlySeekableByteChannel.MAX_CACHED_BLOCKS + 2, m_readBlocks.size());
+            assertEquals(Long.valueOf(FtpReadOnlySeekableByteChannel.MAX_CACHED_BLOCKS),
+                    m_readBlocks.get(m_readBlocks.size() - 1));
+        }
+    }
+
+    /**
+     * Tests that the next block is requested in background when the channel is
+     * read sequentially.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testPrefetchOnSequentialRead() throws Exception {
+        try (SeekableByteChannel channel = Files.newByteChannel(m_fs.getPath("/file.bin"))) {
+            // random access does not prefetch
+            assertContent(channel, 5L * BLOCK_SIZE, 10);
+            Thread.sleep(200);
+            assertEquals(Arrays.asList(5L), m_readBlocks);
+
+            // reading over to the next block prefetches the block after it
+            assertContent(channel, 6L * BLOCK_SIZE - 10, 20);
+            waitForBlocks(3);
+            assertEquals(Arrays.asList(5L, 6L, 7L), m_readBlocks);
+
+            // the prefetched block is not requested again
+            assertContent(channel, 7L * BLOCK_SIZE, BLOCK_SIZE - 10);
+            waitForBlocks(4);
+            assertEquals(Arrays.asList(5L, 6L, 7L, 8L), m_readBlocks);
+        }
+    }
+
+    /**
+     * Tests positioning of the channel beyond the end of file.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testSeekPastEndOfFile() throws IOException {
+        try (SeekableByteChannel channel = Files.newByteChannel(m_fs.getPath("/file.bin"))) {
+            channel.position(m_content.length + 100L);
+            assertEquals(m_content.length + 100L, channel.position());
+            assertEquals(-1, channel.read(ByteBuffer.allocate(10)));
+            assertEquals(m_content.length + 100L, channel.position());
+            assertEquals(m_content.length, channel.size());
+            assertTrue(m_readBlocks.isEmpty());
+
+            // the channel still can be read after seeking back
+            assertContent(channel, 0, 100);
+        }
+    }
+
+    private void assertContent(final SeekableByteChannel channel, final long position, final int length)
+            throws IOException {
+        channel.position(position);
+        final ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining() && channel.read(buffer) > 0) {
+            // read until the buffer is full
+        }
+        assertArrayEquals(Arrays.copyOfRange(m_content, (int) position, (int) position + length), buffer.array());
+        assertEquals(position + length, channel.position());
+    }
+
+    private void waitForBlocks(final int numBlocks) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 10000;
+        while (m_readBlocks.size() < numBlocks && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        // give a wrongly requested block a chance to show up
+        Thread.sleep(100);
+    }
+
+    /**
+     * Records the indexes of the blocks requested by REST + RETR.
+     */
+    private static final class BlockRequestsFtplet extends DefaultFtplet {
+        private static final String OFFSET_ATTRIBUTE = "restOffset";
+
+        private final List<Long> m_blocks;
+
+        BlockRequestsFtplet(final List<Long> blocks) {
+            m_blocks = blocks;
+        }
+
+        @Override
+        public FtpletResult beforeCommand(final FtpSession session, final FtpRequest request)
+                throws FtpException, IOException {
+            if ("REST".equalsIgnoreCase(request.getCommand())) {
+                session.setAttribute(OFFSET_ATTRIBUTE, Long.valueOf(request.getArgument()));
+            } else if ("RETR".equalsIgnoreCase(request.getCommand())) {
+                final Long offset = (Long) session.getAttribute(OFFSET_ATTRIBUTE);
+                session.removeAttribute(OFFSET_ATTRIBUTE);
+                m_blocks.add(offset == null ? 0 : offset / BLOCK_SIZE);
+            }
+            return super.beforeCommand(session, request);
+        }
+    }
+}
@@ -0,0 +1,388 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   2026-10-17 (Vyacheslav Soldatov): created
+ */
+package org.knime.ext.ftp.filehandling.fs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.commons.net.ftp.FTPFile;
+import org.apache.ftpserver.ftplet.DefaultFtpReply;
+import org.apache.ftpserver.ftplet.DefaultFtplet;
+import org.apache.ftpserver.ftplet.FtpException;
+import org.apache.ftpserver.ftplet.FtpFile;
+import org.apache.ftpserver.ftplet.FtpRequest;
+import org.apache.ftpserver.ftplet.FtpSession;
+import org.apache.ftpserver.ftplet.FtpletResult;
+import org.junit.Test;
+
+/**
+ * Tests of the recursive directory listing.
+ *
+ * @author Vyacheslav Soldatov <vyacheslav@redfield.se>
+ */
+public class FtpRecursiveListingTest {
+    private static final String DATE = "Oct 17 00:56";
+
+    private final FtpRecursiveListingParser m_parser = new FtpRecursiveListingParser(Duration.ZERO);
+
+    /**
+     * Tests listing with absolute directory headers.
+     */
+    @Test
+    public void testParseAbsoluteHeaders() {
+        final Map<String, List<FTPFile>> listings = m_parser.parse("/data", Arrays.asList( //
+                dir("a"), //
+                file("x.txt", 10), //
+                "", //
+                "/data/a:", //
+                dir("b"), //
+                "", //
+                "/data/a/b:", //
+                file("y.txt", 20)));
+
+        assertEquals(Arrays.asList("/data", "/data/a", "/data/a/b"), new ArrayList<>(listings.keySet()));
+        assertEquals(Arrays.asList("a", "x.txt"), names(listings.get("/data")));
+        assertEquals(Arrays.asList("y.txt"), names(listings.get("/data/a/b")));
+        assertEquals(20, listings.get("/data/a/b").get(0).getSize());
+    }
+
+    /**
+     * Tests listing with relative directory headers, "total" lines and the
+     * "." and ".." entries.
+     */
+    @Test
+    public void testParseRelativeHeaders() {
+        final Map<String, List<FTPFile>> listings = m_parser.parse("/", Arrays.asList( //
+                ".:", //
+                "total 8", //
+                dir("."), //
+                dir(".."), //
+                dir("a"), //
+                "", //
+                "./a:", //
+                "total 0"));
+
+        assertEquals(Arrays.asList("/", "/a"), new ArrayList<>(listings.keySet()));
+        assertEquals(Arrays.asList("a"), names(listings.get("/")));
+        assertEquals(0, listings.get("/a").size());
+    }
+
+    /**
+     * Tests that a listing of a server ignoring the recursive option is
+     * rejected.
+     */
+    @Test
+    public void testParseNotRecursive() {
+        assertNull(m_parser.parse("/data", Arrays.asList(dir("a"), file("x.txt", 10))));
+    }
+
+    private static String dir(final String name) {
+        return "drwxr-xr-x   2 user group         4096 " + DATE + " " + name;
+    }
+
+    private static String file(final String name, final long size) {
+        return String.format("-rw-r--r--   1 user group %12d %s %s", size, DATE, name);
+    }
+
+    private static List<String> names(final List<FTPFile> files) {
+        return files.stream().map(FTPFile::getName).collect(Collectors.toList());
+    }
+
+    /**
+     * Tests that the listings deeper than
+     * {@link FtpRecursiveListingParser#MAX_DEPTH} are skipped and do not need
+     * to be complete.
+     */
+    @Test
+    public void testParseDepthLimit() {
+        final Map<String, List<FTPFile>> listings = m_parser.parse("/data", Arrays.asList( //
+                dir("a"), //
+                "", //
+                "/data/a:", //
+                dir("b"), //
+                "", //
+                "/data/a/b:", //
+                dir("c"), //
+                "", //
+                "/data/a/b/c:", //
+                dir("d"), //
+                file("x.txt", 10), //
+                "", //
+                "/data/a/b/c/d:", //
+                dir("e")));
+
+        assertEquals(Arrays.asList("/data", "/data/a", "/data/a/b", "/data/a/b/c"),
+                new ArrayList<>(listings.keySet()));
+        assertEquals(Arrays.asList("d", "x.txt"), names(listings.get("/data/a/b/c")));
+    }
+
+    /**
+     * Tests that a tree is walked with one recursive listing instead of one
+     * listing per directory.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testWalkRoundTrips() throws Exception {
+        withServer((server, config, ftplet) -> {
+            final int numDirs = createTree(Path.of(server.convertToRealPath("/tree")), 2, 3, 5);
+
+            config.setUseRecursiveListing(false);
+            final long numPaths = walk(config, "/tree");
+            assertEquals(numDirs, ftplet.m_numListings.get());
+            assertEquals(0, ftplet.m_numRecursiveListings.get());
+
+            ftplet.reset();
+            config.setUseRecursiveListing(true);
+            assertEquals(numPaths, walk(config, "/tree"));
+            assertEquals(0, ftplet.m_numListings.get());
+            assertEquals(1, ftplet.m_numRecursiveListings.get());
+        });
+    }
+
+    /**
+     * Tests that the directories deeper than
+     * {@link FtpRecursiveListingParser#MAX_DEPTH} are listed by further
+     * recursive listings.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testWalkDepthLimit() throws Exception {
+        withServer((server, config, ftplet) -> {
+            final int depth = FtpRecursiveListingParser.MAX_DEPTH + 1;
+            final int numDirs = createTree(Path.of(server.convertToRealPath("/tree")), depth, 2, 1);
+
+            config.setUseRecursiveListing(true);
+            assertEquals(numDirs * 2L, walk(config, "/tree"));
+            assertEquals(0, ftplet.m_numListings.get());
+            assertEquals(1 + (1 << depth), ftplet.m_numRecursiveListings.get());
+        });
+    }
+
+    /**
+     * Tests the recursive listing of a directory with spaces in its path.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testWalkPathWithSpaces() throws Exception {
+        withServer((server, config, ftplet) -> {
+            final int numDirs = createTree(Path.of(server.convertToRealPath("/my tree")), 2, 2, 1);
+
+            config.setUseRecursiveListing(true);
+            assertEquals(numDirs * 2L, walk(config, "/my tree"));
+            assertEquals(0, ftplet.m_numListings.get());
+            assertEquals(1, ftplet.m_numRecursiveListings.get());
+        });
+    }
+
+    /**
+     * Tests that an incomplete recursive listing falls back to listing the
+     * subtree directory by directory without disabling the recursive listing
+     * of other directories.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testWalkAfterIncompleteListing() throws Exception {
+        withServer((server, config, ftplet) -> {
+            final int numDirs = createTree(Path.of(server.convertToRealPath("/a")), 1, 2, 1);
+            createTree(Path.of(server.convertToRealPath("/b")), 1, 2, 1);
+            ftplet.m_notRecursive = "/a";
+
+            config.setUseRecursiveListing(true);
+            try (FtpFileSystem fs = new FtpFileSystem(config)) {
+                assertEquals(numDirs * 2L, walk(fs, "/a"));
+                assertEquals(numDirs, ftplet.m_numListings.get());
+                assertEquals(1, ftplet.m_numRecursiveListings.get());
+
+                ftplet.reset();
+                assertEquals(numDirs * 2L, walk(fs, "/b"));
+                assertEquals(0, ftplet.m_numListings.get());
+                assertEquals(1, ftplet.m_numRecursiveListings.get());
+            }
+        });
+    }
+
+    private static long walk(final FtpFSConnectionConfig config, final String dir) throws IOException {
+        try (FtpFileSystem fs = new FtpFileSystem(config)) {
+            return walk(fs, dir);
+        }
+    }
+
+    private static long walk(final FtpFileSystem fs, final String dir) throws IOException {
+        try (Stream<Path> walk = Files.walk(fs.getPath(dir))) {
+            return walk.count();
+        }
+    }
+
+    private static void withServer(final ServerTest test) throws Exception {
+        final FtpFSConnectionConfig config = new FtpFSConnectionConfig();
+        config.setUser("junit");
+        config.setPassword("password");
+        config.setServerTimeZoneOffset(Duration.ZERO);
+        config.setMaxConnectionPoolSize(2);
+        config.setListingCacheTtl(Duration.ofMinutes(1));
+
+        final EmbeddedFtpServerContainer server = new EmbeddedFtpServerContainer(config);
+        final RecursiveStatFtplet ftplet = new RecursiveStatFtplet();
+        server.getFtplets().put("recursiveStat", ftplet);
+        server.startAndGetConnectionConfiguration();
+        try {
+            test.run(server, config, ftplet);
+        } finally {
+            server.clearTestHome();
+            server.stopServer();
+        }
+    }
+
+    @FunctionalInterface
+    private interface ServerTest {
+        void run(EmbeddedFtpServerContainer server, FtpFSConnectionConfig config, RecursiveStatFtplet ftplet)
+                throws Exception;
+    }
+
+    private static int createTree(final Path dir, final int depth, final int numSubDirs, final int numFiles)
+            throws IOException {
+        Files.createDirectories(dir);
+        for (int i = 0; i < numFiles; i++) {
+            Files.write(dir.resolve("file" + i + ".txt"), new byte[i]);
+        }
+
+        int numDirs = 1;
+        if (depth > 0) {
+            for (int i = 0; i < numSubDirs; i++) {
+                numDirs += createTree(dir.resolve("dir" + i), depth - 1, numSubDirs, numFiles);
+            }
+        }
+        return numDirs;
+    }
+
+    /**
+     * Counts the listings and answers STAT -R with a recursive listing in
+     * <code>ls -lR</code> format.
+     */
+    private static final class RecursiveStatFtplet extends DefaultFtplet {
+        private final AtomicInteger m_numListings = new AtomicInteger();
+
+        private final AtomicInteger m_numRecursiveListings = new AtomicInteger();
+
+        /**
+         * Directory whose recursive listing contains the top level only.
+         */
+        private volatile String m_notRecursive;
+
+        void reset() {
+            m_numListings.set(0);
+            m_numRecursiveListings.set(0);
+        }
+
+        @Override
+        public FtpletResult beforeCommand(final FtpSession session, final FtpRequest request)
+                throws FtpException, IOException {
+            final String command = request.getCommand().toUpperCase(Locale.ENGLISH);
+            if ("LIST".equals(command) || "MLSD".equals(command)) {
+                m_numListings.incrementAndGet();
+            }
+
+            final String argument = request.getArgument();
+            if (!"STAT".equals(command) || argument == null || !argument.startsWith("-")
+                    || argument.indexOf('R') < 0) {
+                return super.beforeCommand(session, request);
+            }
+            m_numRecursiveListings.incrementAndGet();
+
+            String dir = argument.substring(argument.indexOf(' ') + 1);
+            if (dir.length() > 1 && dir.startsWith("\"") && dir.endsWith("\"")) {
+                dir = dir.substring(1, dir.length() - 1);
+            }
+            final List<String> lines = new ArrayList<>();
+            lines.add("Status follows:");
+            listRecursively(session.getFileSystemView().getFile(dir), dir, !dir.equals(m_notRecursive), lines);
+            lines.add("End of status");
+            session.write(new DefaultFtpReply(212, lines.toArray(new String[0])));
+            return FtpletResult.SKIP;
+        }
+
+        private static void listRecursively(final FtpFile dir, final String path, final boolean recursive,
+                final List<String> lines) {
+            final SimpleDateFormat format = new SimpleDateFormat("MMM dd HH:mm", Locale.US);
+            final List<? extends FtpFile> files = dir.listFiles();
+            for (FtpFile file : files) {
+                lines.add(String.format("%s   1 user group %12d %s %s", file.isDirectory() ? "drwx------"
+                        : "-rw-------", file.getSize(), format.format(new Date(file.getLastModified())),
+                        file.getName()));
+            }
+            for (FtpFile file : files) {
+                if (recursive && file.isDirectory()) {
+                    final String subPath = path + "/" + file.getName();
+                    lines.add("");
+                    lines.add(subPath + ":");
+                    listRecursively(file, subPath, true, lines);
+                }
+            }
+        }
+    }
+}
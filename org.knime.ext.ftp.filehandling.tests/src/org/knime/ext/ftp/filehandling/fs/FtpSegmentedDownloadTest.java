@@ -0,0 +1,174 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   2026-10-17 (Vyacheslav Soldatov): created
+ */
+package org.knime.ext.ftp.filehandling.fs;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ftpserver.ftplet.DefaultFtplet;
+import org.apache.ftpserver.ftplet.FtpException;
+import org.apache.ftpserver.ftplet.FtpRequest;
+import org.apache.ftpserver.ftplet.FtpSession;
+import org.apache.ftpserver.ftplet.FtpletResult;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of the parallel segmented downloads.
+ *
+ * @author Vyacheslav Soldatov <vyacheslav@redfield.se>
+ */
+public class FtpSegmentedDownloadTest {
+    private static final int SEGMENT_SIZE = 64 * 1024;
+
+    private final AtomicInteger m_numRestarts = new AtomicInteger();
+
+    private EmbeddedFtpServerContainer m_server;
+
+    private FtpFileSystem m_fs;
+
+    /**
+     * Starts the server and opens the file system.
+     *
+     * @throws Exception
+     */
+    @Before
+    public void setUp() throws Exception {
+        final FtpFSConnectionConfig config = new FtpFSConnectionConfig();
+        config.setUser("junit");
+        config.setPassword("password");
+        config.setServerTimeZoneOffset(Duration.ZERO);
+        config.setMaxConnectionPoolSize(4);
+        config.setDownloadParallelism(3);
+        config.setDownloadSegmentSize(SEGMENT_SIZE);
+
+        m_server = new EmbeddedFtpServerContainer(config);
+        m_server.getFtplets().put("rest", new DefaultFtplet() {
+            @Override
+            public FtpletResult beforeCommand(final FtpSession session, final FtpRequest request)
+                    throws FtpException, IOException {
+                if ("REST".equalsIgnoreCase(request.getCommand()) && !"0".equals(request.getArgument())) {
+                    m_numRestarts.incrementAndGet();
+                }
+                return super.beforeCommand(session, request);
+            }
+        });
+        m_server.startAndGetConnectionConfiguration();
+        m_fs = new FtpFileSystem(config);
+    }
+
+    /**
+     * Closes the file system and stops the server.
+     *
+     * @throws IOException
+     */
+    @After
+    public void tearDown() throws IOException {
+        try {
+            m_fs.close();
+        } finally {
+            m_server.clearTestHome();
+            m_server.stopServer();
+        }
+    }
+
+    /**
+     * Tests that a file of several segments, the last one shorter than the
+     * others, is downloaded in segments and the content is returned in order.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testDownloadSegments() throws IOException {
+        final byte[] content = createContent(10 * SEGMENT_SIZE + 1234);
+        Files.write(Path.of(m_server.convertToRealPath("/segmented.bin")), content);
+
+        try (InputStream in = Files.newInputStream(m_fs.getPath("/segmented.bin"))) {
+            assertEquals(content[0] & 0xFF, in.read());
+            assertArrayEquals(Arrays.copyOfRange(content, 1, content.length), in.readAllBytes());
+            assertEquals(-1, in.read());
+        }
+
+        // all segments except of the first one are started at an offset
+        assertEquals(10, m_numRestarts.get());
+    }
+
+    /**
+     * Tests that a file not larger than one segment is downloaded over a single
+     * connection.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testDownloadSmallFile() throws IOException {
+        final byte[] content = createContent(SEGMENT_SIZE);
+        Files.write(Path.of(m_server.convertToRealPath("/small.bin")), content);
+
+        try (InputStream in = Files.newInputStream(m_fs.getPath("/small.bin"))) {
+            assertArrayEquals(content, in.readAllBytes());
+        }
+        assertEquals(0, m_numRestarts.get());
+    }
+
+    private static byte[] createContent(final int size) {
+        final byte[] content = new byte[size];
+        new Random(17).nextBytes(content);
+        return content;
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   2026-10-17 (Vyacheslav Soldatov): created
+ */
+package org.knime.ext.ftp.filehandling.fs;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link FtpTransferPipe}.
+ *
+ * @author Vyacheslav Soldatov <vyacheslav@redfield.se>
+ */
+public class FtpTransferPipeTest {
+    private ExecutorService m_executor;
+
+    /**
+     * Creates the executor for the reading task.
+     */
+    @Before
+    public void setUp() {
+        m_executor = Executors.newSingleThreadExecutor();
+    }
+
+    /**
+     * Shuts the executor down.
+     */
+    @After
+    public void tearDown() {
+        m_executor.shutdownNow();
+    }
+
+    /**
+     * Tests the content spanning many buffers is copied unchanged.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testCopy() throws IOException {
+        final byte[] content = new byte[1024 * 1024 + 17];
+        new Random(17).nextBytes(content);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        FtpTransferPipe.copy(new ByteArrayInputStream(content), out, m_executor);
+
+        assertArrayEquals(content, out.toByteArray());
+    }
+
+    /**
+     * Tests an error of the reading task is thrown by the copy.
+     */
+    @Test
+    public void testReadError() {
+        final InputStream in = new InputStream() {
+            private int m_remaining = 100_000;
+
+            @Override
+            public int read() throws IOException {
+                if (m_remaining-- <= 0) {
+                    throw new IOException("read failed");
+                }
+                return 0;
+            }
+        };
+
+        try {
+            FtpTransferPipe.copy(in, new ByteArrayOutputStream(), m_executor);
+            fail("Read error expected");
+        } catch (IOException ex) {
+            assertEquals("read failed", ex.getMessage());
+        }
+    }
+
+    /**
+     * Tests the interrupted copy does not return before the reading task
+     * stopped accessing the input stream, even when the read cannot be
+     * interrupted.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testInterruptWaitsForReader() throws Exception {
+        final CountDownLatch readStarted = new CountDownLatch(1);
+        final CountDownLatch releaseRead = new CountDownLatch(1);
+        final AtomicBoolean readFinished = new AtomicBoolean();
+        final InputStream in = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                return read(new byte[1], 0, 1);
+            }
+
+            @Override
+            public int read(final byte[] b, final int off, final int len) throws IOException {
+                readStarted.countDown();
+                awaitUninterruptibly(releaseRead);
+                readFinished.set(true);
+                return -1;
+            }
+        };
+
+        final AtomicReference<Throwable> copyError = new AtomicReference<>();
+        final AtomicBoolean readFinishedOnReturn = new AtomicBoolean();
+        final AtomicBoolean interruptedOnReturn = new AtomicBoolean();
+        final Thread copier = new Thread(() -> {
+            try {
+                FtpTransferPipe.copy(in, new ByteArrayOutputStream(), m_executor);
+            } catch (Throwable ex) { // NOSONAR checked by the test
+                copyError.set(ex);
+            }
+            readFinishedOnReturn.set(readFinished.get());
+            interruptedOnReturn.set(Thread.currentThread().isInterrupted());
+        });
+        copier.start();
+
+        assertTrue(readStarted.await(10, TimeUnit.SECONDS));
+        copier.interrupt();
+        copier.join(500);
+        assertTrue("Copy returned before the reader was done", copier.isAlive());
+
+        releaseRead.countDown();
+        copier.join(10_000);
+        assertFalse(copier.isAlive());
+
+        assertTrue(copyError.get() instanceof InterruptedIOException);
+        assertTrue(readFinishedOnReturn.get());
+        assertTrue(interruptedOnReturn.get());
+    }
+
+    private static void awaitUninterruptibly(final CountDownLatch latch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException ex) { // NOSONAR the flag is restored below
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
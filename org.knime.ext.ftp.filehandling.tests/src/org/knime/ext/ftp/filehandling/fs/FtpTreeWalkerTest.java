@@ -0,0 +1,267 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   2026-10-17 (Vyacheslav Soldatov): created
+ */
+package org.knime.ext.ftp.filehandling.fs;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.ftpserver.ftplet.DefaultFtplet;
+import org.apache.ftpserver.ftplet.FtpException;
+import org.apache.ftpserver.ftplet.FtpRequest;
+import org.apache.ftpserver.ftplet.FtpSession;
+import org.apache.ftpserver.ftplet.FtpletResult;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of the parallel tree operations of {@link FtpFileSystemProvider}.
+ *
+ * @author Vyacheslav Soldatov <vyacheslav@redfield.se>
+ */
+public class FtpTreeWalkerTest {
+    private final AtomicInteger m_numListings = new AtomicInteger();
+
+    /**
+     * Copied file names by the session which downloaded and uploaded them. A
+     * copy over a local temporary file downloads and uploads the file over the
+     * same connection.
+     */
+    private final Map<UUID, Set<String>> m_retrievedFiles = new ConcurrentHashMap<>();
+
+    private final Set<String> m_copiedOverTempFile = ConcurrentHashMap.newKeySet();
+
+    private FtpFSConnectionConfig m_config;
+
+    private EmbeddedFtpServerContainer m_server;
+
+    private FtpFileSystem m_fs;
+
+    private Path m_localTree;
+
+    /**
+     * Starts the server and creates a test tree.
+     *
+     * @throws Exception
+     */
+    @Before
+    public void setUp() throws Exception {
+        m_config = new FtpFSConnectionConfig();
+        m_config.setUser("junit");
+        m_config.setPassword("password");
+        m_config.setServerTimeZoneOffset(Duration.ZERO);
+        m_config.setMaxConnectionPoolSize(4);
+
+        m_server = new EmbeddedFtpServerContainer(m_config);
+        m_server.getFtplets().put("listings", new DefaultFtplet() {
+            @Override
+            public FtpletResult beforeCommand(final FtpSession session, final FtpRequest request)
+                    throws FtpException, IOException {
+                final String command = request.getCommand().toUpperCase(Locale.ENGLISH);
+                if ("LIST".equals(command) || "MLSD".equals(command)) {
+                    m_numListings.incrementAndGet();
+                } else if ("RETR".equals(command)) {
+                    m_retrievedFiles.computeIfAbsent(session.getSessionId(), k -> ConcurrentHashMap.newKeySet())
+                            .add(getTreeRelativePath(request.getArgument()));
+                } else if ("STOR".equals(command)) {
+                    final String file = getTreeRelativePath(request.getArgument());
+                    if (m_retrievedFiles.getOrDefault(session.getSessionId(), Set.of()).contains(file)) {
+                        m_copiedOverTempFile.add(file);
+                    }
+                }
+                return super.beforeCommand(session, request);
+            }
+        });
+        m_server.startAndGetConnectionConfiguration();
+        m_fs = new FtpFileSystem(m_config);
+
+        m_localTree = Path.of(m_server.convertToRealPath("/tree"));
+        createTree(m_localTree, 3, 3, 4);
+    }
+
+    /**
+     * Closes the file system and stops the server.
+     *
+     * @throws IOException
+     */
+    @After
+    public void tearDown() throws IOException {
+        try {
+            m_fs.close();
+        } finally {
+            m_server.clearTestHome();
+            m_server.stopServer();
+        }
+    }
+
+    /**
+     * Tests that the parallel walk returns the same paths in the same order as
+     * the sequential one.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testWalkTree() throws IOException {
+        final FtpPath root = m_fs.getPath("/tree");
+
+        final List<String> expected;
+        try (Stream<Path> walk = Files.walk(root)) {
+            expected = walk.map(Path::toString).collect(Collectors.toList());
+        }
+        final List<String> actual = m_fs.provider().walkTree(root).stream().map(Path::toString)
+                .collect(Collectors.toList());
+
+        assertEquals(expected, actual);
+    }
+
+    /**
+     * Tests deleting a tree.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testDeleteTree() throws IOException {
+        m_fs.provider().deleteTree(m_fs.getPath("/tree"));
+
+        assertFalse(Files.exists(m_localTree));
+        assertFalse(Files.exists(m_fs.getPath("/tree")));
+    }
+
+    /**
+     * Tests copying a tree.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testCopyTree() throws IOException {
+        m_fs.provider().copyTree(m_fs.getPath("/tree"), m_fs.getPath("/copy"));
+
+        final Path localCopy = Path.of(m_server.convertToRealPath("/copy"));
+        try (Stream<Path> walk = Files.walk(m_localTree)) {
+            for (Path source : (Iterable<Path>)walk::iterator) {
+                final Path target = localCopy.resolve(m_localTree.relativize(source).toString());
+                assertEquals(Files.isDirectory(source), Files.isDirectory(target));
+                if (Files.isRegularFile(source)) {
+                    assertArrayEquals(Files.readAllBytes(source), Files.readAllBytes(target));
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests that the files of a tree copy are streamed from one connection to
+     * another one and not copied over a local temporary file, which happens if
+     * the second connection of a copy is not available.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testCopyTreeWithoutTempFiles() throws IOException {
+        m_fs.provider().copyTree(m_fs.getPath("/tree"), m_fs.getPath("/copy"));
+
+        assertFalse(m_retrievedFiles.isEmpty());
+        assertEquals(Set.of(), m_copiedOverTempFile);
+    }
+
+    /**
+     * Tests that listing a single directory lists just that directory when the
+     * recursive listing is enabled but not supported by the server. The
+     * embedded server ignores the recursive option of STAT.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testListWithoutRecursiveListingSupport() throws IOException {
+        m_fs.close();
+        m_config.setUseRecursiveListing(true);
+        m_config.setListingCacheTtl(Duration.ofMinutes(1));
+        m_fs = new FtpFileSystem(m_config);
+        m_numListings.set(0);
+
+        try (Stream<Path> list = Files.list(m_fs.getPath("/tree"))) {
+            assertEquals(3 + 4, list.count());
+        }
+        assertEquals(1, m_numListings.get());
+    }
+
+    /**
+     * @return the path of a source or target file relative to the copied tree.
+     */
+    private static String getTreeRelativePath(final String path) {
+        return path.replaceFirst("^.*?/(tree|copy)/", "");
+    }
+
+    private static void createTree(final Path dir, final int depth, final int numSubDirs, final int numFiles)
+            throws IOException {
+        Files.createDirectories(dir);
+        for (int i = 0; i < numFiles; i++) {
+            Files.write(dir.resolve("file" + i + ".txt"), ("content of " + dir + i).getBytes());
+        }
+        if (depth > 0) {
+            for (int i = 0; i < numSubDirs; i++) {
+                createTree(dir.resolve("dir" + i), depth - 1, numSubDirs, numFiles);
+            }
+        }
+    }
+}
@@ -0,0 +1,266 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   2026-10-17 (Vyacheslav Soldatov): created
+ */
+package org.knime.ext.ftp.filehandling.fs;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of {@link FtpWriteOnlySeekableByteChannel}.
+ *
+ * @author Vyacheslav Soldatov <vyacheslav@redfield.se>
+ */
+public class FtpWriteOnlySeekableByteChannelTest {
+    private EmbeddedFtpServerContainer m_server;
+
+    private FtpFileSystem m_fs;
+
+    private final Random m_random = new Random(17);
+
+    /**
+     * Starts the server.
+     *
+     * @throws Exception
+     */
+    @Before
+    public void setUp() throws Exception {
+        final FtpFSConnectionConfig config = new FtpFSConnectionConfig();
+        config.setUser("junit");
+        config.setPassword("password");
+        config.setServerTimeZoneOffset(Duration.ZERO);
+
+        m_server = new EmbeddedFtpServerContainer(config);
+        m_server.startAndGetConnectionConfiguration();
+        m_fs = new FtpFileSystem(config);
+    }
+
+    /**
+     * Closes the file system and stops the server.
+     *
+     * @throws IOException
+     */
+    @After
+    public void tearDown() throws IOException {
+        try {
+            m_fs.close();
+        } finally {
+            m_server.clearTestHome();
+            m_server.stopServer();
+        }
+    }
+
+    /**
+     * Tests sequential writes of heap and direct buffers.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testSequentialWrite() throws IOException {
+        final byte[] first = randomBytes(100_000);
+        final byte[] second = randomBytes(1000);
+
+        try (SeekableByteChannel channel = newChannel("/file.bin")) {
+            assertTrue(channel instanceof FtpWriteOnlySeekableByteChannel);
+
+            assertEquals(first.length, channel.write(ByteBuffer.wrap(first)));
+            assertEquals(first.length, channel.position());
+
+            final ByteBuffer direct = ByteBuffer.allocateDirect(second.length);
+            direct.put(second).flip();
+            assertEquals(second.length, channel.write(direct));
+            assertEquals(0, direct.remaining());
+            assertEquals(first.length + second.length, channel.position());
+        }
+
+        assertArrayEquals(concat(first, second), readFile("/file.bin"));
+    }
+
+    /**
+     * Tests positioning forward fills the gap with zeros.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testForwardSeekFillsZeros() throws IOException {
+        final byte[] head = randomBytes(10);
+        final byte[] tail = randomBytes(5);
+        // the gap is larger than the buffer of zeros
+        final int gapEnd = 20_000;
+
+        try (SeekableByteChannel channel = newChannel("/file.bin")) {
+            channel.write(ByteBuffer.wrap(head));
+            channel.position(gapEnd);
+            assertEquals(gapEnd, channel.position());
+            assertEquals(gapEnd, channel.size());
+            channel.write(ByteBuffer.wrap(tail));
+        }
+
+        final byte[] expected = new byte[gapEnd + tail.length];
+        System.arraycopy(head, 0, expected, 0, head.length);
+        System.arraycopy(tail, 0, expected, gapEnd, tail.length);
+        assertArrayEquals(expected, readFile("/file.bin"));
+    }
+
+    /**
+     * Tests positioning backward fails and does not break the channel.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testBackwardSeekFails() throws IOException {
+        final byte[] first = randomBytes(10);
+        final byte[] second = randomBytes(10);
+
+        try (SeekableByteChannel channel = newChannel("/file.bin")) {
+            channel.write(ByteBuffer.wrap(first));
+            try {
+                channel.position(5);
+                fail("Backward seek should fail");
+            } catch (IOException ex) { // NOSONAR expected
+            }
+            assertEquals(first.length, channel.position());
+
+            // positioning to the current position is no seek
+            channel.position(first.length);
+            channel.write(ByteBuffer.wrap(second));
+        }
+
+        assertArrayEquals(concat(first, second), readFile("/file.bin"));
+    }
+
+    /**
+     * Tests the size follows the written content and truncating below it
+     * fails.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testTruncateAndSize() throws IOException {
+        final byte[] content = randomBytes(100);
+
+        try (SeekableByteChannel channel = newChannel("/file.bin")) {
+            assertEquals(0, channel.size());
+            channel.write(ByteBuffer.wrap(content));
+            assertEquals(content.length, channel.size());
+
+            // nothing to cut off
+            channel.truncate(content.length);
+            channel.truncate(content.length + 10L);
+            assertEquals(content.length, channel.size());
+
+            try {
+                channel.truncate(50);
+                fail("Truncating written content should fail");
+            } catch (IOException ex) { // NOSONAR expected
+            }
+            assertEquals(content.length, channel.size());
+        }
+
+        assertArrayEquals(content, readFile("/file.bin"));
+    }
+
+    /**
+     * Tests appending starts at the end of the existing file.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testAppend() throws IOException {
+        final byte[] existing = randomBytes(1000);
+        final byte[] appended = randomBytes(500);
+        Files.write(Path.of(m_server.convertToRealPath("/file.bin")), existing);
+
+        try (SeekableByteChannel channel = Files.newByteChannel(m_fs.getPath("/file.bin"),
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            assertTrue(channel instanceof FtpWriteOnlySeekableByteChannel);
+            assertEquals(existing.length, channel.position());
+            assertEquals(existing.length, channel.size());
+            channel.write(ByteBuffer.wrap(appended));
+        }
+
+        assertArrayEquals(concat(existing, appended), readFile("/file.bin"));
+    }
+
+    private SeekableByteChannel newChannel(final String path) throws IOException {
+        return Files.newByteChannel(m_fs.getPath(path), StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    private byte[] readFile(final String path) throws IOException {
+        return Files.readAllBytes(Path.of(m_server.convertToRealPath(path)));
+    }
+
+    private byte[] randomBytes(final int length) {
+        final byte[] bytes = new byte[length];
+        m_random.nextBytes(bytes);
+        return bytes;
+    }
+
+    private static byte[] concat(final byte[] first, final byte[] second) {
+        final byte[] result = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+}
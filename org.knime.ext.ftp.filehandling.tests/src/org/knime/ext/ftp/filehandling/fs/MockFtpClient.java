@@ -48,6 +48,8 @@
  */
 package org.knime.ext.ftp.filehandling.fs;
 
+import java.io.IOException;
+
 /**
  * Not initialized not connect instance of {@link FtpClient}
  *
@@ -55,6 +57,8 @@
  */
 public class MockFtpClient extends FtpClient {
     private boolean m_closed;
+    private volatile boolean m_broken;
+    private int m_numKeepAlives;
 
     /**
      * Default constructor.
@@ -77,4 +81,30 @@ public void close() {
     public boolean isClosed() {
         return m_closed;
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void sendKeepAlive() throws IOException {
+        m_numKeepAlives++;
+        if (m_broken) {
+            throw new IOException("Connection reset");
+        }
+    }
+
+    /**
+     * @param broken
+     *            whether the keep alive request should fail.
+     */
+    public void setBroken(final boolean broken) {
+        m_broken = broken;
+    }
+
+    /**
+     * @return number of keep alive requests sent.
+     */
+    public synchronized int getNumKeepAlives() {
+        return m_numKeepAlives;
+    }
 }
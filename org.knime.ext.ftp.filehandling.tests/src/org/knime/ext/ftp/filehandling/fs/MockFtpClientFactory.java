@@ -48,11 +48,16 @@
  */
 package org.knime.ext.ftp.filehandling.fs;
 
+import java.io.IOException;
+import java.io.InterruptedIOException;
+
 /**
  *
  * @author Vyacheslav Soldatov <vyacheslav@redfield.se>
  */
 public class MockFtpClientFactory extends FtpClientFactory {
+    private volatile long m_connectDelay;
+
     /**
      * Default constructor.
      */
@@ -64,7 +69,23 @@ public MockFtpClientFactory() {
      * {@inheritDoc}
      */
     @Override
-    public FtpClient createClient() {
+    public FtpClient createClient() throws IOException {
+        if (m_connectDelay > 0) {
+            try {
+                Thread.sleep(m_connectDelay);
+            } catch (InterruptedException e) { // NOSONAR interrupted state is restored
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+        }
         return new MockFtpClient();
     }
+
+    /**
+     * @param connectDelay
+     *            time in milliseconds to emulate the connect and login.
+     */
+    public void setConnectDelay(final long connectDelay) {
+        m_connectDelay = connectDelay;
+    }
 }
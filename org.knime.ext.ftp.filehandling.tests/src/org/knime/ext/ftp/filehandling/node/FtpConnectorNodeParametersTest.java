@@ -45,13 +45,18 @@
  */
 package org.knime.ext.ftp.filehandling.node;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
 import java.io.FileInputStream;
 import java.io.IOException;
 
+import org.junit.jupiter.api.Test;
 import org.knime.core.node.InvalidSettingsException;
 import org.knime.core.node.NodeSettings;
 import org.knime.core.webui.node.dialog.SettingsType;
 import org.knime.core.webui.node.dialog.defaultdialog.NodeParametersUtil;
+import org.knime.ext.ftp.filehandling.fs.FtpFSConnectionConfig;
 import org.knime.testing.node.dialog.DefaultNodeSettingsSnapshotTest;
 import org.knime.testing.node.dialog.SnapshotTestConfiguration;
 
@@ -75,6 +80,24 @@ private static SnapshotTestConfiguration getConfig() {
             .build();
     }
 
+    /**
+     * The stored settings were saved before the transfer options were added, so
+     * loading them has to fall back to the defaults.
+     */
+    @Test
+    void testLoadSettingsWithoutTransferOptions() {
+        final var params = readSettings();
+
+        assertFalse(params.m_useCompression);
+        assertEquals(FtpFSConnectionConfig.DEFAULT_DOWNLOAD_PARALLELISM, params.m_downloadParallelism);
+        assertEquals(FtpFSConnectionConfig.DEFAULT_DOWNLOAD_SEGMENT_SIZE / (1024 * 1024),
+            params.m_downloadSegmentSize);
+        assertFalse(params.m_useServerToServerCopy);
+        assertEquals(0, params.m_listingCacheTtl);
+        assertFalse(params.m_useRecursiveListing);
+        assertFalse(params.m_validateOnBorrow);
+    }
+
     private static FtpConnectorNodeParameters readSettings() {
         try {
             var path = getSnapshotPath(FtpConnectorNodeParameters.class).getParent().resolve("node_settings")
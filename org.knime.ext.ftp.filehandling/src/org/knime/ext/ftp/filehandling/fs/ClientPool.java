@@ -50,22 +50,47 @@
 package org.knime.ext.ftp.filehandling.fs;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.time.Duration;
-import java.util.HashSet;
-import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.knime.core.node.NodeLogger;
 
 /**
  * Resource pool implementation.
  *
+ * The number of busy resources is limited by a fair {@link Semaphore} with
+ * {@link FtpFSConnectionConfig#getMaxConnectionPoolSize()} permits, free
+ * resources are kept in a concurrent deque. Therefore borrowing and returning
+ * a resource does not need any pool wide lock and waiting borrowers are served
+ * in FIFO order.
+ *
+ * The health of the free resources is checked by a background task which
+ * checks out one resource at a time like a borrower, so a borrower is never
+ * blocked by the keep alive requests to other resources. Optionally a stale
+ * resource is validated by the borrower itself before it is returned by
+ * {@link #take()}, broken resources are closed and the next one is taken.
+ *
+ * On start the minimum number of connections is opened in parallel, after the
+ * first connection has detected the server features.
+ *
  * @author Vyacheslav Soldatov <vyacheslav@redfield.se>
  *
  */
@@ -73,7 +98,12 @@ public class ClientPool {
 
     private static final NodeLogger LOGGER = NodeLogger.getLogger(ClientPool.class);
 
-    private final LinkedList<FtpClientResource> m_freeResources;
+    /**
+     * Max number of connections opened at the same time on pool start.
+     */
+    private static final int MAX_PREWARM_THREADS = 8;
+
+    private final Deque<FtpClientResource> m_freeResources;
 
     private final Set<FtpClientResource> m_busyResources;
 
@@ -83,28 +113,38 @@ public class ClientPool {
 
     private final AtomicBoolean m_isStarted = new AtomicBoolean();
 
+    private final ClientPoolStatistics m_statistics = new ClientPoolStatistics();
+
+    /**
+     * Permits for busy resources. Is created when pool started because the pool
+     * size can be changed in configuration until then.
+     */
+    private volatile Semaphore m_permits;
+
     private List<ScheduledFuture<?>> m_scheduledTasks = new LinkedList<>();
 
+    private ScheduledThreadPoolExecutor m_scheduler;
+
     /**
      * @param cfg
      *            FTP connection configuration.
      */
     public ClientPool(final FtpFSConnectionConfig cfg) {
-        this(cfg, new LinkedList<>(), new HashSet<>(), new FtpClientFactory(cfg));
+        this(cfg, new ConcurrentLinkedDeque<>(), ConcurrentHashMap.newKeySet(), new FtpClientFactory(cfg));
     }
 
     /**
      * @param cfg
      *            FTP connection configuration.
      * @param freeResources
-     *            free resources container.
+     *            free resources container, should be thread safe.
      * @param busyResources
-     *            busy resources container.
+     *            busy resources container, should be thread safe.
      * @param clientFactory
      *            client factory.
      */
     protected ClientPool(final FtpFSConnectionConfig cfg, //
-            final LinkedList<FtpClientResource> freeResources,
+            final Deque<FtpClientResource> freeResources,
             final Set<FtpClientResource> busyResources, final FtpClientFactory clientFactory) {
         super();
         this.m_freeResources = freeResources;
@@ -121,47 +161,121 @@ protected ClientPool(final FtpFSConnectionConfig cfg, //
      * @throws IOException
      * @throws InterruptedException
      */
-    public synchronized FtpClientResource take() throws IOException, InterruptedException {
-        long startTime = System.currentTimeMillis();
-        final Duration timeout = m_configuration.getConnectionTimeOut();
+    public FtpClientResource take() throws IOException, InterruptedException {
+        checkStarted();
 
-        while (true) {
-            try {
-                return takeImpl();
-            } catch (ResourcesLimitExceedException ex) { // NOSONAR is correct if not available resources
-                long waitTime = timeout.toMillis() - (System.currentTimeMillis() - startTime);
-                if (waitTime > 0) {
-                    wait(waitTime);
-                } else {
-                    throw new IOException("Wait of resource time out exceeded");
-                }
+        final long startTime = System.nanoTime();
+        final Semaphore permits = m_permits;
+
+        // zero time out acquire respects the fairness in opposite to tryAcquire()
+        if (!permits.tryAcquire(0, TimeUnit.NANOSECONDS)) {
+            m_statistics.waited();
+
+            final Duration timeout = m_configuration.getConnectionTimeOut();
+            if (!permits.tryAcquire(timeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                m_statistics.timedOut();
+                throw new IOException("Wait of resource time out exceeded");
             }
         }
+
+        return takeWithPermit(permits, startTime);
     }
 
-    private FtpClientResource takeImpl() throws ResourcesLimitExceedException {
+    /**
+     * Marks resource as busy and returns it if it is available without waiting.
+     *
+     * @return resource or <code>null</code> if all resources are busy.
+     * @throws IOException
+     */
+    public FtpClientResource tryTake() throws IOException {
         checkStarted();
 
-        FtpClientResource resource = null;
-        if (!m_freeResources.isEmpty()) {
-            resource = m_freeResources.removeFirst();
-        } else if (getNumResources() < m_configuration.getMaxConnectionPoolSize()) {
-            try {
-                resource = createResource(true);
-            } catch (IOException ex) { // NOSONAR this exception is impossible because lazy initialization
-                // nothing
+        final long startTime = System.nanoTime();
+        final Semaphore permits = m_permits;
+        if (!permits.tryAcquire()) {
+            return null;
+        }
+        return takeWithPermit(permits, startTime);
+    }
+
+    /**
+     * Marks resource as busy and returns it if it gets available within given
+     * time.
+     *
+     * @param timeout
+     *            maximum time to wait for a resource.
+     * @return resource or <code>null</code> if all resources are busy until the
+     *         time out.
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    public FtpClientResource tryTake(final Duration timeout) throws IOException, InterruptedException {
+        checkStarted();
+
+        final long startTime = System.nanoTime();
+        final Semaphore permits = m_permits;
+        if (!permits.tryAcquire(0, TimeUnit.NANOSECONDS)) {
+            m_statistics.waited();
+            if (!permits.tryAcquire(timeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                return null;
             }
         }
+        return takeWithPermit(permits, startTime);
+    }
+
+    private FtpClientResource takeWithPermit(final Semaphore permits, final long startTime) throws IOException {
+        if (!m_isStarted.get()) {
+            // pool is stopped while waiting, pass the wake up to next waiter
+            permits.release();
+            throw new IllegalStateException("Resource pool is not started");
+        }
+
+        FtpClientResource resource;
+        do {
+            resource = m_freeResources.pollFirst();
+        } while (resource != null && !validateOnBorrow(resource));
 
         if (resource == null) {
-            throw new ResourcesLimitExceedException();
-        } else {
-            m_busyResources.add(resource);
+            // the permit guarantees the max pool size is not exceeded
+            resource = createResource(true);
         }
+        m_busyResources.add(resource);
 
+        m_statistics.borrowed(System.nanoTime() - startTime);
         return resource;
     }
 
+    /**
+     * Validates the resource which is not used for the staleness threshold if
+     * the validation on borrow is enabled. A broken resource is closed.
+     *
+     * @param resource
+     *            resource checked out by the calling borrower.
+     * @return false if the resource is broken and closed.
+     */
+    private boolean validateOnBorrow(final FtpClientResource resource) {
+        if (!m_configuration.isValidateOnBorrow() || !resource.isInitialized()) {
+            return true;
+        }
+
+        final long now = System.currentTimeMillis();
+        if (now - resource.getCheckedOn() < m_configuration.getStalenessThreshold().toMillis()) {
+            return true;
+        }
+
+        try {
+            resource.get().sendKeepAlive();
+        } catch (IOException ex) {
+            LOGGER.debug("Validation of free connection failed, the connection is closed", ex);
+            evictResource(resource);
+            return false;
+        }
+
+        resource.setCheckedOn(now);
+        m_statistics.connectionRevalidated();
+        return true;
+    }
+
     private int getNumResources() {
         return m_busyResources.size() + m_freeResources.size();
     }
@@ -176,20 +290,30 @@ private void checkStarted() {
      * Move resource as available again.
      * @param resource resource.
      */
-    public synchronized void release(final FtpClientResource resource) {
+    public void release(final FtpClientResource resource) {
 
         final boolean wasBusy = m_busyResources.remove(resource);
         if (wasBusy && m_isStarted.get()) {
-            if (getNumResources() + 1 > m_configuration.getCoreConnectionPoolSize()) {
+            m_statistics.returned();
+            if (resource.isBroken()) {
+                evictResource(resource);
+            } else if (getNumResources() + 1 > m_configuration.getCoreConnectionPoolSize()) {
                 // close resource immediately and not return it into pool
-                resource.close();
+                closeResource(resource);
             } else {
                 addToFreeResources(resource);
             }
+
+            // notify first resource consumer if any waits it
+            m_permits.release();
         }
+    }
 
-        // notify resource consumers if any waits it
-        notifyAll();
+    /**
+     * @return borrow/return statistics of this pool.
+     */
+    public ClientPoolStatistics getStatistics() {
+        return m_statistics;
     }
 
     /**
@@ -198,53 +322,114 @@ public synchronized void release(final FtpClientResource resource) {
      * @throws IOException
      */
     public synchronized void start() throws IOException {
+        m_permits = new Semaphore(m_configuration.getMaxConnectionPoolSize(), true);
         m_isStarted.set(true);
 
-        IOException exc = null;
+        final long startTime = System.nanoTime();
         final int len = Math.max(1, m_configuration.getMinConnectionPoolSize());
 
-        for (int i = 0; i < len; i++) {
-            try {
-                addToFreeResources(createResource(false));
-            } catch (IOException e) {
-                exc = e;
-                LOGGER.warn(String.format(
-                        "Failed to create %d-th FTP session (%d sessions already opened). Please consider decreasing the maximum FTP sessions.",
-                        i + 1, i), e);
-                break;
-            }
+        // the first connection is opened alone. It detects the server features
+        // and its TLS session is resumed by all other connections
+        try {
+            addToFreeResources(createConnectedResource());
+        } catch (IOException e) {
+            LOGGER.error("Failed to initialize FTP client pool", e);
+            throw e;
         }
 
-        if (m_freeResources.isEmpty()) {
-            LOGGER.error("Failed to initialize FTP client pool", exc);
-            if (exc != null) {
-                throw exc;
-            }
+        if (len > 1) {
+            prewarm(len - 1);
         }
+        m_statistics.started(System.nanoTime() - startTime);
 
         // if and only if resource pool is initialized should
         // start resource idle time handler
         startTasks();
     }
 
+    /**
+     * Opens the given number of connections in parallel and adds them to the
+     * free resources. FTPS connections are opened one after another, because
+     * some servers reject TLS session resumptions or logins arriving at the
+     * same time. Failed connections are logged only, because the pool is
+     * already usable with the first connection.
+     *
+     * @param numResources
+     *            number of connections to open.
+     * @throws InterruptedIOException
+     *             if interrupted while waiting for the connections.
+     */
+    private void prewarm(final int numResources) throws InterruptedIOException {
+        final int numThreads = m_configuration.isUseFTPS() ? 1 : Math.min(numResources, MAX_PREWARM_THREADS);
+        final ExecutorService executor = Executors.newFixedThreadPool(numThreads,
+                new PoolThreadFactory("knime-ftp-pool-prewarm"));
+        try {
+            final List<Future<Void>> futures = new ArrayList<>(numResources);
+            for (int i = 0; i < numResources; i++) {
+                futures.add(executor.submit(this::prewarmResource));
+            }
+
+            int numFailed = 0;
+            for (Future<Void> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    numFailed++;
+                    LOGGER.debug("Failed to pre-warm FTP session", e.getCause());
+                }
+            }
+
+            if (numFailed > 0) {
+                LOGGER.warn(String.format(
+                        "Failed to create %d of %d FTP sessions (%d sessions opened). Please consider decreasing the minimum FTP sessions.",
+                        numFailed, numResources + 1, numResources + 1 - numFailed));
+            }
+        } catch (InterruptedException e) { // NOSONAR interrupted state is restored
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while opening FTP sessions");
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private Void prewarmResource() throws IOException {
+        final FtpClientResource resource = createConnectedResource();
+        if (m_isStarted.get()) {
+            addToFreeResources(resource);
+        } else {
+            // the pool has been stopped meanwhile
+            closeResource(resource);
+        }
+        return null;
+    }
+
     private void startTasks() {
-        final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1);
+        m_scheduler = new ScheduledThreadPoolExecutor(1, new PoolThreadFactory("knime-ftp-pool-health"));
 
         // start and save scheduled tasks
-        m_scheduledTasks.add(scheduler.scheduleAtFixedRate(this::processIdleResources, 3, 3, TimeUnit.SECONDS));
+        m_scheduledTasks.add(m_scheduler.scheduleAtFixedRate(this::processIdleResources, 3, 3, TimeUnit.SECONDS));
 
         // start connection keep alive task
-        long keepAliveTimeOut = m_configuration.getConnectionTimeOut().toMillis() / 2;
+        final long keepAliveTimeOut = getKeepAliveInterval();
         if (keepAliveTimeOut > 0) {
-            m_scheduledTasks.add(scheduler.scheduleAtFixedRate(this::sendKeepAlive, keepAliveTimeOut, keepAliveTimeOut,
-                    TimeUnit.MILLISECONDS));
+            m_scheduledTasks.add(m_scheduler.scheduleAtFixedRate(this::sendKeepAlive, keepAliveTimeOut,
+                    keepAliveTimeOut, TimeUnit.MILLISECONDS));
         }
     }
 
+    private long getKeepAliveInterval() {
+        return m_configuration.getConnectionTimeOut().toMillis() / 2;
+    }
+
     private void cancelTasks() {
         while (!m_scheduledTasks.isEmpty()) {
             m_scheduledTasks.remove(0).cancel(false);
         }
+        if (m_scheduler != null) {
+            // a running task is completed, it does not return resources into stopped pool
+            m_scheduler.shutdown();
+            m_scheduler = null;
+        }
     }
 
     /**
@@ -253,6 +438,10 @@ private void cancelTasks() {
     public synchronized void stop() {
         cancelTasks();
 
+        // stop the pool before closing resources, so released resources are not
+        // returned into pool anymore
+        final boolean wasStarted = m_isStarted.getAndSet(false);
+
         // close resources
         List<FtpClientResource> toClose = new LinkedList<>(m_freeResources);
         toClose.addAll(m_busyResources);
@@ -260,14 +449,14 @@ public synchronized void stop() {
         m_busyResources.clear();
 
         for (FtpClientResource res : toClose) {
-            res.close();
+            closeResource(res);
         }
 
-        // close session
-        m_isStarted.set(false);
-
-        // notify resource consumers if any waits it
-        notifyAll();
+        if (wasStarted) {
+            LOGGER.debug("FTP client pool stopped: " + m_statistics);
+            // wake up the first waiting resource consumer, it will wake up the next one
+            m_permits.release();
+        }
     }
 
     /**
@@ -275,61 +464,136 @@ public synchronized void stop() {
      *            resource to release.
      */
     private void addToFreeResources(final FtpClientResource resource) {
-        resource.setAsFreeOn(System.currentTimeMillis());
+        final long now = System.currentTimeMillis();
+        resource.setAsFreeOn(now);
+        // the resource has just been used, so it is known to work
+        resource.setCheckedOn(now);
         m_freeResources.add(resource);
     }
 
     /**
      * Have protected modifier for make accessible in unit test.
      */
-    protected synchronized void processIdleResources() {
-        final List<FtpClientResource> toClose = new LinkedList<>();
+    protected void processIdleResources() {
         final long currentTime = System.currentTimeMillis();
 
         int numMoreThanMin = getNumResources() - m_configuration.getMinConnectionPoolSize();
-        final Iterator<FtpClientResource> iter = m_freeResources.iterator();
 
-        while (iter.hasNext() && numMoreThanMin > 0) {
-            final FtpClientResource next = iter.next();
-
-            // just if idle time expired, add resource to closing list.
-            if (currentTime - next.getAsFreeOn() > m_configuration.getMaxIdleTime()) {
-                toClose.add(next);
-                iter.remove();
+        for (FtpClientResource next : m_freeResources) {
+            if (numMoreThanMin <= 0) {
+                break;
+            }
 
+            // just if idle time expired and the resource is not taken concurrently
+            if (currentTime - next.getAsFreeOn() > m_configuration.getMaxIdleTime()
+                    && m_freeResources.removeFirstOccurrence(next)) {
+                closeResource(next);
                 numMoreThanMin--;
             }
         }
-
-        for (FtpClientResource res : toClose) {
-            res.close();
-        }
     }
 
-    private synchronized void sendKeepAlive() {
-        final Iterator<FtpClientResource> iter = m_freeResources.iterator();
+    /**
+     * Sends keep alive requests to the free resources which are not used or
+     * checked during the last keep alive interval. Have protected modifier for
+     * make accessible in unit test.
+     */
+    protected void sendKeepAlive() {
+        final Semaphore permits = m_permits;
+        final long checkedBefore = System.currentTimeMillis() - getKeepAliveInterval();
+
+        for (FtpClientResource next : new LinkedList<>(m_freeResources)) {
+            if (!next.isInitialized() || next.getCheckedOn() > checkedBefore) {
+                // nothing to keep alive or has been used recently
+                continue;
+            }
+
+            // check out the resource like a borrower would do, so the max pool size is
+            // never exceeded and the resource can't be used concurrently. Just one
+            // resource is checked out at a time, so borrowers are not starved
+            if (!permits.tryAcquire()) {
+                return;
+            }
 
-        while (iter.hasNext()) {
-            final FtpClientResource next = iter.next();
             try {
-                next.get().sendKeepAlive();
-            } catch (IOException ex) {
-                LOGGER.error("Keep alive request failed. Connection closed", ex);
-                iter.remove();
-                next.close();
+                if (m_freeResources.removeFirstOccurrence(next)) {
+                    sendKeepAlive(next);
+                }
+            } finally {
+                permits.release();
             }
         }
     }
 
+    private void sendKeepAlive(final FtpClientResource resource) {
+        try {
+            resource.get().sendKeepAlive();
+        } catch (IOException ex) {
+            LOGGER.warn("Keep alive request failed. Connection closed", ex);
+            evictResource(resource);
+            return;
+        }
+
+        resource.setCheckedOn(System.currentTimeMillis());
+        m_statistics.connectionRevalidated();
+
+        if (m_isStarted.get()) {
+            // return without touching the free time, keep alive is not a usage
+            m_freeResources.addLast(resource);
+        } else {
+            closeResource(resource);
+        }
+    }
+
+    private void closeResource(final FtpClientResource resource) {
+        resource.close();
+        m_statistics.connectionClosed();
+    }
+
+    private void evictResource(final FtpClientResource resource) {
+        m_statistics.connectionEvicted();
+        closeResource(resource);
+    }
+
     /**
      * @return FTP client resource.
      * @throws IOException
      */
     private FtpClientResource createResource(final boolean lazyInitialize) throws IOException {
+        final FtpClientResource resource;
         if (lazyInitialize) {
-            return new FtpClientResource(m_clientFactory);
+            resource = new FtpClientResource(m_clientFactory);
         } else {
-            return new FtpClientResource(m_clientFactory.createClient());
+            resource = new FtpClientResource(m_clientFactory.createClient());
+        }
+        m_statistics.connectionCreated();
+        return resource;
+    }
+
+    private FtpClientResource createConnectedResource() throws IOException {
+        final long connectStart = System.nanoTime();
+        final FtpClientResource resource = createResource(false);
+        m_statistics.connected(System.nanoTime() - connectStart);
+        return resource;
+    }
+
+    /**
+     * Creates the daemon threads of the pre-warm, idle and keep alive tasks.
+     */
+    private static final class PoolThreadFactory implements ThreadFactory {
+        private final String m_namePrefix;
+
+        private final AtomicInteger m_threadNumber = new AtomicInteger();
+
+        PoolThreadFactory(final String namePrefix) {
+            m_namePrefix = namePrefix;
+        }
+
+        @Override
+        public Thread newThread(final Runnable r) {
+            final Thread thread = new Thread(r, m_namePrefix + "-" + m_threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
         }
     }
 }
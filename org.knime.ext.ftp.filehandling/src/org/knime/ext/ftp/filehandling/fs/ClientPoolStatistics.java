@@ -0,0 +1,259 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   2026-10-17 (Vyacheslav Soldatov): created
+ */
+package org.knime.ext.ftp.filehandling.fs;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Borrow/return counters of the {@link ClientPool}. All counters are updated
+ * without locking and can be queried at any time while the pool is running.
+ *
+ * @author Vyacheslav Soldatov <vyacheslav@redfield.se>
+ */
+public final class ClientPoolStatistics {
+
+    private final LongAdder m_numBorrows = new LongAdder();
+
+    private final LongAdder m_numReturns = new LongAdder();
+
+    private final LongAdder m_numWaits = new LongAdder();
+
+    private final LongAdder m_numTimeouts = new LongAdder();
+
+    private final LongAdder m_numCreatedConnections = new LongAdder();
+
+    private final LongAdder m_numClosedConnections = new LongAdder();
+
+    private final LongAdder m_numEvictedConnections = new LongAdder();
+
+    private final LongAdder m_numRevalidatedConnections = new LongAdder();
+
+    private final LongAdder m_totalBorrowNanos = new LongAdder();
+
+    private final LongAccumulator m_maxBorrowNanos = new LongAccumulator(Math::max, 0);
+
+    private final LongAdder m_numConnects = new LongAdder();
+
+    private final LongAdder m_totalConnectNanos = new LongAdder();
+
+    private final LongAccumulator m_maxConnectNanos = new LongAccumulator(Math::max, 0);
+
+    private volatile long m_startupNanos;
+
+    void borrowed(final long latencyNanos) {
+        m_numBorrows.increment();
+        m_totalBorrowNanos.add(latencyNanos);
+        m_maxBorrowNanos.accumulate(latencyNanos);
+    }
+
+    void returned() {
+        m_numReturns.increment();
+    }
+
+    void waited() {
+        m_numWaits.increment();
+    }
+
+    void timedOut() {
+        m_numTimeouts.increment();
+    }
+
+    void connectionCreated() {
+        m_numCreatedConnections.increment();
+    }
+
+    void connected(final long latencyNanos) {
+        m_numConnects.increment();
+        m_totalConnectNanos.add(latencyNanos);
+        m_maxConnectNanos.accumulate(latencyNanos);
+    }
+
+    void started(final long startupNanos) {
+        m_startupNanos = startupNanos;
+    }
+
+    void connectionClosed() {
+        m_numClosedConnections.increment();
+    }
+
+    void connectionEvicted() {
+        m_numEvictedConnections.increment();
+    }
+
+    void connectionRevalidated() {
+        m_numRevalidatedConnections.increment();
+    }
+
+    /**
+     * @return number of successful {@link ClientPool#take()} calls.
+     */
+    public long getNumBorrows() {
+        return m_numBorrows.sum();
+    }
+
+    /**
+     * @return number of {@link ClientPool#release(FtpClientResource)} calls
+     *         which returned a busy resource.
+     */
+    public long getNumReturns() {
+        return m_numReturns.sum();
+    }
+
+    /**
+     * @return number of borrows which could not be served immediately and had to
+     *         wait for a free resource.
+     */
+    public long getNumWaits() {
+        return m_numWaits.sum();
+    }
+
+    /**
+     * @return number of borrows which failed because the wait time out was
+     *         exceeded.
+     */
+    public long getNumTimeouts() {
+        return m_numTimeouts.sum();
+    }
+
+    /**
+     * @return number of created FTP connection resources.
+     */
+    public long getNumCreatedConnections() {
+        return m_numCreatedConnections.sum();
+    }
+
+    /**
+     * @return number of closed FTP connection resources.
+     */
+    public long getNumClosedConnections() {
+        return m_numClosedConnections.sum();
+    }
+
+    /**
+     * @return number of broken connections closed because the keep alive
+     *         request or the validation on borrow failed. Evicted connections
+     *         are counted as closed as well.
+     */
+    public long getNumEvictedConnections() {
+        return m_numEvictedConnections.sum();
+    }
+
+    /**
+     * @return number of successful keep alive requests and validations on
+     *         borrow of free connections.
+     */
+    public long getNumRevalidatedConnections() {
+        return m_numRevalidatedConnections.sum();
+    }
+
+    /**
+     * @return the summed up time the borrowers have spent in
+     *         {@link ClientPool#take()}.
+     */
+    public Duration getTotalBorrowLatency() {
+        return Duration.ofNanos(m_totalBorrowNanos.sum());
+    }
+
+    /**
+     * @return the average time of a successful borrow.
+     */
+    public Duration getAverageBorrowLatency() {
+        final long borrows = m_numBorrows.sum();
+        return borrows == 0 ? Duration.ZERO : Duration.ofNanos(m_totalBorrowNanos.sum() / borrows);
+    }
+
+    /**
+     * @return the longest time of a successful borrow.
+     */
+    public Duration getMaxBorrowLatency() {
+        return Duration.ofNanos(m_maxBorrowNanos.get());
+    }
+
+    /**
+     * @return the average time to open and log in one of the connections
+     *         opened on {@link ClientPool#start()}, including the TLS handshake
+     *         for FTPS.
+     */
+    public Duration getAverageConnectLatency() {
+        final long connects = m_numConnects.sum();
+        return connects == 0 ? Duration.ZERO : Duration.ofNanos(m_totalConnectNanos.sum() / connects);
+    }
+
+    /**
+     * @return the longest time to open and log in one of the connections opened
+     *         on {@link ClientPool#start()}.
+     */
+    public Duration getMaxConnectLatency() {
+        return Duration.ofNanos(m_maxConnectNanos.get());
+    }
+
+    /**
+     * @return the time {@link ClientPool#start()} has spent to open the initial
+     *         connections.
+     */
+    public Duration getStartupTime() {
+        return Duration.ofNanos(m_startupNanos);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "borrows=%d, returns=%d, waits=%d, timeouts=%d, created=%d, closed=%d, evicted=%d, revalidated=%d, "
+                        + "avgBorrow=%dus, maxBorrow=%dus, avgConnect=%dms, maxConnect=%dms, startup=%dms",
+                getNumBorrows(), getNumReturns(), getNumWaits(), getNumTimeouts(), getNumCreatedConnections(),
+                getNumClosedConnections(), getNumEvictedConnections(), getNumRevalidatedConnections(),
+                getAverageBorrowLatency().toNanos() / 1000,
+                getMaxBorrowLatency().toNanos() / 1000,
+                getAverageConnectLatency().toMillis(),
+                getMaxConnectLatency().toMillis(),
+                getStartupTime().toMillis());
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   2026-10-17 (Vyacheslav Soldatov): created
+ */
+package org.knime.ext.ftp.filehandling.fs;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.stream.Stream;
+import java.util.zip.Checksum;
+
+/**
+ * Checksum algorithms which can be computed by FTP server with HASH command
+ * or the legacy XCRC, XMD5 and XSHA1 commands. The same checksum can be
+ * computed locally from the file content if the server does not support it.
+ *
+ * @author Vyacheslav Soldatov <vyacheslav@redfield.se>
+ */
+public enum FtpChecksumAlgorithm {
+    /**
+     * CRC-32.
+     */
+    CRC32("crc32", "CRC32", 8),
+    /**
+     * MD5.
+     */
+    MD5("md5", "MD5", 32),
+    /**
+     * SHA-1.
+     */
+    SHA_1("sha1", "SHA-1", 40),
+    /**
+     * SHA-256.
+     */
+    SHA_256("sha256", "SHA-256", 64),
+    /**
+     * SHA-512.
+     */
+    SHA_512("sha512", "SHA-512", 128);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final String m_attributeName;
+
+    private final String m_hashName;
+
+    private final int m_hexLength;
+
+    private FtpChecksumAlgorithm(final String attributeName, final String hashName, final int hexLength) {
+        m_attributeName = attributeName;
+        m_hashName = hashName;
+        m_hexLength = hexLength;
+    }
+
+    /**
+     * @return name of the attribute in the {@link FtpFileSystemProvider#FTP_ATTRIBUTE_VIEW} view.
+     */
+    public String getAttributeName() {
+        return m_attributeName;
+    }
+
+    /**
+     * @return algorithm name used by HASH command, the same as the name of
+     *         {@link MessageDigest} algorithm.
+     */
+    public String getHashName() {
+        return m_hashName;
+    }
+
+    /**
+     * @return length of the checksum in hex digits.
+     */
+    int getHexLength() {
+        return m_hexLength;
+    }
+
+    /**
+     * Computes the checksum from given content.
+     *
+     * @param in
+     *            content, is read until the end but is not closed.
+     * @return checksum as lower case hex string.
+     * @throws IOException
+     */
+    public String compute(final InputStream in) throws IOException {
+        final byte[] buffer = new byte[BUFFER_SIZE];
+
+        if (this == CRC32) {
+            final Checksum crc = new java.util.zip.CRC32();
+            int n;
+            while ((n = in.read(buffer)) >= 0) {
+                crc.update(buffer, 0, n);
+            }
+            return HexFormat.of().toHexDigits((int) crc.getValue());
+        }
+
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance(m_hashName);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IOException("Checksum algorithm " + m_hashName + " is not available", ex);
+        }
+
+        int n;
+        while ((n = in.read(buffer)) >= 0) {
+            digest.update(buffer, 0, n);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * @param attributeName
+     *            attribute name.
+     * @return algorithm with given attribute name.
+     * @throws IllegalArgumentException
+     *             if there is no such algorithm.
+     */
+    public static FtpChecksumAlgorithm fromAttributeName(final String attributeName) {
+        return Stream.of(values())//
+                .filter(a -> a.m_attributeName.equals(attributeName))//
+                .findAny()//
+                .orElseThrow(() -> new IllegalArgumentException("Unknown FTP attribute: " + attributeName));
+    }
+}
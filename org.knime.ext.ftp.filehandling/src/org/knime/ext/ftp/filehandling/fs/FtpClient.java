@@ -53,12 +53,23 @@
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.net.InetAddress;
 import java.nio.file.AccessDeniedException;
 import java.nio.file.NoSuchFileException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
 
 import org.apache.commons.net.ftp.FTPClient;
 import org.apache.commons.net.ftp.FTPFile;
 import org.apache.commons.net.ftp.FTPFileFilter;
+import org.apache.commons.net.ftp.FTPListParseEngine;
 import org.apache.commons.net.ftp.FTPReply;
 import org.knime.core.node.NodeLogger;
 import org.knime.filehandling.core.connections.base.FilterOutputStream;
@@ -87,10 +98,30 @@ public class FtpClient {
     private static final String[] DIR_ALREADY_EXISTS_MESSAGES = new String[] { "Directory already exists",
             "Can't create directory: File exists" };
 
+    /**
+     * Size of the buffers used for compress and decompress the transferred data.
+     */
+    private static final int COMPRESSION_BUFFER_SIZE = 64 * 1024;
 
     private final FTPClient m_client;
     private final FtpClientFeatures m_features;
 
+    /**
+     * Whether file transfers should be compressed with MODE Z.
+     */
+    private boolean m_useCompression;
+
+    /**
+     * Whether the MODE Z is currently set on server.
+     */
+    private boolean m_isCompressedMode;
+
+    /**
+     * The algorithm selected for HASH command, <code>null</code> if the server
+     * default is used.
+     */
+    private String m_hashAlgorithm;
+
     /**
      * @param client
      *            FTP client.
@@ -102,6 +133,55 @@ public FtpClient(final FTPClient client, final FtpClientFeatures features) {
         m_features = features;
     }
 
+    /**
+     * @return features supported by server.
+     */
+    public FtpClientFeatures getFeatures() {
+        return m_features;
+    }
+
+    /**
+     * @param useCompression
+     *            whether file transfers should be compressed with deflate (MODE
+     *            Z). Should be set only if the MODE Z is supported by server.
+     */
+    void setUseCompression(final boolean useCompression) {
+        m_useCompression = useCompression;
+    }
+
+    /**
+     * @return true if file transfers are compressed with MODE Z.
+     */
+    public boolean isUseCompression() {
+        return m_useCompression;
+    }
+
+    /**
+     * Switches the server to MODE Z for file content transfers or back to the
+     * stream mode. The stream mode is used for directory listings, range reads
+     * and server to server transfers because they are handled by
+     * {@link FTPClient} directly or depend on uncompressed offsets.
+     *
+     * @param compressed
+     *            true to request MODE Z if the compression is enabled.
+     * @return true if the next transfer is compressed.
+     */
+    private boolean switchTransferMode(final boolean compressed) throws IOException {
+        final boolean compress = compressed && m_useCompression;
+        if (compress != m_isCompressedMode) {
+            if (FTPReply.isPositiveCompletion(m_client.sendCommand("MODE", compress ? "Z" : "S"))) {
+                m_isCompressedMode = compress;
+            } else if (compress) {
+                // advertised but refused, do not try it again
+                LOGGER.debug("MODE Z refused by server, transfers are not compressed: " + getReplyString());
+                m_useCompression = false;
+            } else {
+                throw makeIOEFromResponse(null);
+            }
+        }
+        return m_isCompressedMode;
+    }
+
     /**
      * closes client.
      */
@@ -205,9 +285,11 @@ public FTPFile[] listFiles(final String dir) throws IOException {
 
         final FTPFileFilter filter = f -> f != null && !".".equals(f.getName()) && !"..".equals(f.getName());
 
+        switchTransferMode(false);
+
         final FTPFile[] files;
         if (m_features.ismListDirSupported()) {
-            files = m_client.mlistDir(dir, filter);
+            files = initiateMListParsing(dir).getFiles(filter);
         } else {
             files = m_client.listFiles(dir, filter);
         }
@@ -215,6 +297,175 @@ public FTPFile[] listFiles(final String dir) throws IOException {
         return files;
     }
 
+    /**
+     * Reads the directory listing from server but does not parse it. The data
+     * connection is completed when the method returns, therefore the client
+     * can be used for other commands while the entries are parsed page by page
+     * with {@link FTPListParseEngine#getNext(int)}. The returned engine can
+     * contain the "." and ".." entries and <code>null</code> entries for the
+     * lines which could not be parsed.
+     *
+     * @param dir
+     *            directory to list.
+     * @return list parse engine.
+     * @throws IOException
+     */
+    public FTPListParseEngine initiateListParsing(final String dir) throws IOException {
+        switchTransferMode(false);
+
+        final FTPListParseEngine engine;
+        if (m_features.ismListDirSupported()) {
+            engine = initiateMListParsing(dir);
+        } else {
+            engine = m_client.initiateListParsing(dir);
+        }
+        checkPositiveResponse(dir);
+        return engine;
+    }
+
+    /**
+     * Reads the MLSD listing to be parsed with the {@link FtpMlsxEntryParser}
+     * if the native client allows it.
+     */
+    private FTPListParseEngine initiateMListParsing(final String dir) throws IOException {
+        if (m_client instanceof MlsdParsingClient) {
+            return ((MlsdParsingClient) m_client).initiateMListParsing(dir, FtpMlsxEntryParser.INSTANCE);
+        }
+        return m_client.initiateMListParsing(dir);
+    }
+
+    /**
+     * Requests the recursive listing of a directory with <code>STAT -aR</code>.
+     * The listing is sent over the control connection, so the whole tree is
+     * listed in one round trip without opening a data connection. The
+     * listing is read line by line and aborted if it has more than
+     * {@link FtpRecursiveListingParser#MAX_ENTRIES} lines or takes longer than
+     * {@link FtpRecursiveListingParser#MAX_DURATION}.
+     *
+     * @param dir
+     *            directory to list.
+     * @return the lines of the listing in <code>ls -lR</code> format or
+     *         <code>null</code> if the server refused the command.
+     * @throws IOException
+     *             if the listing was aborted, the connection can't be used
+     *             anymore then.
+     */
+    public List<String> statRecursive(final String dir) throws IOException {
+        final String args = "-aR " + quote(dir);
+        if (!(m_client instanceof MlsdParsingClient)) {
+            return statRecursiveBuffered(dir, args);
+        }
+
+        final long deadline = System.nanoTime() + FtpRecursiveListingParser.MAX_DURATION.toNanos();
+        final List<String> lines = new ArrayList<>();
+        final int code = ((MlsdParsingClient) m_client).sendCommand("STAT", args, line -> {
+            if (lines.size() >= FtpRecursiveListingParser.MAX_ENTRIES) {
+                throw new IOException("Recursive listing of " + dir + " has more than "
+                        + FtpRecursiveListingParser.MAX_ENTRIES + " lines");
+            }
+            if (System.nanoTime() - deadline > 0) {
+                throw new IOException("Recursive listing of " + dir + " took longer than "
+                        + FtpRecursiveListingParser.MAX_DURATION.toSeconds() + " seconds");
+            }
+            lines.add(line);
+        });
+        return FTPReply.isPositiveCompletion(code) ? lines : null;
+    }
+
+    private List<String> statRecursiveBuffered(final String dir, final String args) throws IOException {
+        if (!FTPReply.isPositiveCompletion(m_client.stat(args))) {
+            return null; // NOSONAR null means not supported
+        }
+
+        // first and last line are the status lines
+        final String[] reply = m_client.getReplyStrings();
+        if (reply.length < 2) {
+            return Collections.emptyList();
+        }
+        if (reply.length - 2 > FtpRecursiveListingParser.MAX_ENTRIES) {
+            throw new IOException("Recursive listing of " + dir + " has more than "
+                    + FtpRecursiveListingParser.MAX_ENTRIES + " lines");
+        }
+        return Arrays.asList(reply).subList(1, reply.length - 1);
+    }
+
+    /**
+     * Requests the checksum of the file computed by server. The HASH command is
+     * preferred, the legacy XCRC, XMD5 and XSHA1 commands are used otherwise.
+     *
+     * @param path
+     *            file path.
+     * @param algorithm
+     *            checksum algorithm.
+     * @return checksum as lower case hex string or <code>null</code> if the
+     *         server can't compute it with given algorithm.
+     * @throws IOException
+     */
+    public String getChecksum(final String path, final FtpChecksumAlgorithm algorithm) throws IOException {
+        final int code;
+        if (m_features.isHashSupported(algorithm.getHashName())) {
+            final String current = m_hashAlgorithm != null ? m_hashAlgorithm : m_features.getDefaultHashAlgorithm();
+            if (!algorithm.getHashName().equals(current)) {
+                if (!FTPReply.isPositiveCompletion(m_client.sendCommand("OPTS", "HASH " + algorithm.getHashName()))) {
+                    return null; // NOSONAR null means not supported
+                }
+                m_hashAlgorithm = algorithm.getHashName();
+            }
+            code = m_client.sendCommand("HASH", path);
+        } else {
+            final String command = getLegacyHashCommand(algorithm);
+            if (command == null) {
+                return null; // NOSONAR null means not supported
+            }
+            code = m_client.sendCommand(command, quote(path));
+        }
+
+        if (code == ERR_FILE_NOT_FOUND_OR_NOT_ACCESS) {
+            throw makeIOEFromResponse(path);
+        }
+        if (!FTPReply.isPositiveCompletion(code)) {
+            LOGGER.debug("Checksum of " + path + " is not computed by server: " + getReplyString());
+            return null; // NOSONAR null means not supported
+        }
+        return findChecksum(getReplyString(), algorithm.getHexLength());
+    }
+
+    private String getLegacyHashCommand(final FtpChecksumAlgorithm algorithm) {
+        switch (algorithm) {
+        case CRC32:
+            return m_features.isXCrcSupported() ? "XCRC" : null;
+        case MD5:
+            return m_features.isXMd5Supported() ? "XMD5" : null;
+        case SHA_1:
+            return m_features.isXSha1Supported() ? "XSHA1" : null;
+        default:
+            return null;
+        }
+    }
+
+    /**
+     * Quotes a path argument containing spaces, which the servers would split
+     * into several arguments otherwise.
+     */
+    private static String quote(final String path) {
+        return path.indexOf(' ') >= 0 ? '"' + path + '"' : path;
+    }
+
+    /**
+     * The reply is "213 SHA-256 0-1234 hash file" for HASH command and just
+     * "250 hash" for the legacy commands in most cases, therefore the first
+     * hex word of the expected length is taken.
+     */
+    private static String findChecksum(final String reply, final int hexLength) {
+        final String text = reply.length() > 3 ? reply.substring(3) : "";
+        for (String word : text.trim().split("\\s+")) {
+            if (word.length() == hexLength && word.chars().allMatch(c -> Character.digit(c, 16) >= 0)) {
+                return word.toLowerCase(Locale.ENGLISH);
+            }
+        }
+        return null;
+    }
+
     /**
      * @param path
      *            file path.
@@ -243,6 +494,14 @@ public void deleteDirectory(final String path) throws IOException {
      * @throws IOException
      */
     public void createFile(final String path, final InputStream in) throws IOException {
+        if (m_useCompression) {
+            try (OutputStream out = openForRewrite(path)) {
+                in.transferTo(out);
+            }
+            return;
+        }
+
+        switchTransferMode(false);
         m_client.storeFile(path, in);
         checkPositiveResponse(path);
     }
@@ -255,11 +514,12 @@ public void createFile(final String path, final InputStream in) throws IOExcepti
      */
     @SuppressWarnings("resource")
     public OutputStream openForRewrite(final String file) throws IOException {
+        final boolean compressed = switchTransferMode(true);
         OutputStream stream = m_client.storeFileStream(file);
         if (stream == null) {
             throw makeIOEFromResponse(file);
         }
-        return wrapToCompletePendingCommand(stream, file);
+        return wrapToCompletePendingCommand(compressed ? deflate(stream) : stream, file);
     }
 
     /**
@@ -270,11 +530,40 @@ public OutputStream openForRewrite(final String file) throws IOException {
      */
     @SuppressWarnings("resource")
     public OutputStream openForAppend(final String file) throws IOException {
+        final boolean compressed = switchTransferMode(true);
         OutputStream stream = m_client.appendFileStream(file);
         if (stream == null) {
             throw makeIOEFromResponse(file);
         }
-        return wrapToCompletePendingCommand(stream, file);
+        return wrapToCompletePendingCommand(compressed ? deflate(stream) : stream, file);
+    }
+
+    private static OutputStream deflate(final OutputStream stream) {
+        final Deflater deflater = new Deflater();
+        return new DeflaterOutputStream(stream, deflater, COMPRESSION_BUFFER_SIZE) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    deflater.end();
+                }
+            }
+        };
+    }
+
+    private static InputStream inflate(final InputStream stream) {
+        final Inflater inflater = new Inflater();
+        return new InflaterInputStream(stream, inflater, COMPRESSION_BUFFER_SIZE) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    inflater.end();
+                }
+            }
+        };
     }
 
     private OutputStream wrapToCompletePendingCommand(final OutputStream stream, final String file) {
@@ -304,10 +593,125 @@ void completePendingCommand(final String file) throws IOException {
      * @throws IOException
      */
     public void getFileContent(final String path, final OutputStream out) throws IOException {
+        if (m_useCompression) {
+            try (InputStream in = getFileContentAsStream(path)) {
+                in.transferTo(out);
+            }
+            return;
+        }
+
+        switchTransferMode(false);
         m_client.retrieveFile(path, out);
         checkPositiveResponse(path);
     }
 
+    /**
+     * Reads a range of the file content. Transfer is started at given offset
+     * with REST command and is aborted as soon as the requested number of bytes
+     * is read, therefore should be used just if REST STREAM is supported by
+     * server.
+     *
+     * @param path
+     *            file path.
+     * @param offset
+     *            offset of the first byte to read.
+     * @param buffer
+     *            buffer to read to.
+     * @param off
+     *            buffer offset.
+     * @param len
+     *            number of bytes to read.
+     * @return number of bytes read, less than requested only if the end of file
+     *         is reached.
+     * @throws IOException
+     */
+    public int readFileRange(final String path, final long offset, final byte[] buffer, final int off,
+            final int len) throws IOException {
+        switchTransferMode(false);
+        m_client.setRestartOffset(offset);
+        final InputStream stream = m_client.retrieveFileStream(path);
+        if (stream == null) {
+            throw makeIOEFromResponse(path);
+        }
+
+        int numRead = 0;
+        try {
+            while (numRead < len) {
+                final int n = stream.read(buffer, off + numRead, len - numRead);
+                if (n < 0) {
+                    break;
+                }
+                numRead += n;
+            }
+        } finally {
+            stream.close();
+            completeRangeTransfer(path, numRead < len);
+        }
+        return numRead;
+    }
+
+    private void completeRangeTransfer(final String file, final boolean isEndOfFile) throws IOException {
+        if (!m_client.completePendingCommand()) {
+            final int code = m_client.getReplyCode();
+            // the transfer is closed by client before the end of file, the server
+            // answers it with 426 or 451 response
+            if (isEndOfFile || (code != FTPReply.TRANSFER_ABORTED && code != FTPReply.ACTION_ABORTED)) {
+                LOGGER.warn(file + ":" + getReplyString());
+            }
+        }
+    }
+
+    /**
+     * Copies file to given target client server to server (FXP). This server
+     * is switched to passive mode and the target server connects its data
+     * connection to it, so the file content is not transferred via the local
+     * host. Both servers should allow such transfers.
+     *
+     * @param path
+     *            source file path on this server.
+     * @param target
+     *            target FTP client.
+     * @param targetPath
+     *            target file path on target server.
+     * @throws IOException
+     */
+    public void transferTo(final String path, final FtpClient target, final String targetPath) throws IOException {
+        switchTransferMode(false);
+        target.switchTransferMode(false);
+        try {
+            if (!m_client.enterRemotePassiveMode()) {
+                throw makeIOEFromResponse(path);
+            }
+
+            final InetAddress host = InetAddress.getByName(m_client.getPassiveHost());
+            if (!target.m_client.enterRemoteActiveMode(host, m_client.getPassivePort())) {
+                throw target.makeIOEFromResponse(targetPath);
+            }
+
+            if (!target.m_client.remoteStore(targetPath)) {
+                throw target.makeIOEFromResponse(targetPath);
+            }
+            if (!m_client.remoteRetrieve(path)) {
+                // target is waiting for the data connection, abort it
+                target.m_client.abort();
+                throw makeIOEFromResponse(path);
+            }
+
+            final boolean retrieved = m_client.completePendingCommand();
+            final boolean stored = target.m_client.completePendingCommand();
+            if (!retrieved) {
+                throw makeIOEFromResponse(path);
+            }
+            if (!stored) {
+                throw target.makeIOEFromResponse(targetPath);
+            }
+        } finally {
+            // restore the default data connection mode
+            m_client.enterLocalPassiveMode();
+            target.m_client.enterLocalPassiveMode();
+        }
+    }
+
     /**
      * @param path
      *            file path.
@@ -317,14 +721,21 @@ public void getFileContent(final String path, final OutputStream out) throws IOE
     @SuppressWarnings("resource")
     public InputStream getFileContentAsStream(final String path) throws IOException {
 
+        final boolean compressed = switchTransferMode(true);
         final InputStream stream = m_client.retrieveFileStream(path);
         if (stream == null) {
             throw makeIOEFromResponse(path);
         }
 
-        return new FilterInputStream(stream) {
+        return new FilterInputStream(compressed ? inflate(stream) : stream) {
+            private boolean m_isClosed;
+
             @Override
             public void close() throws IOException {
+                if (m_isClosed) {
+                    return;
+                }
+                m_isClosed = true;
                 try {
                     super.close();
                 } finally {
@@ -334,6 +745,19 @@ public void close() throws IOException {
         };
     }
 
+    /**
+     * Checks the reply of the last completed transfer, which is just logged
+     * when its stream is closed.
+     *
+     * @param path
+     *            transferred file.
+     * @throws IOException
+     *             if the transfer was not completed successfully.
+     */
+    void checkTransferCompleted(final String path) throws IOException {
+        checkPositiveResponse(path);
+    }
+
     private void checkPositiveResponse(final String file) throws IOException {
         checkPositiveResponse(file, null);
     }
@@ -53,16 +53,22 @@
 import java.net.SocketException;
 import java.time.Duration;
 
+import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLException;
 
 import org.apache.commons.net.PrintCommandListener;
 import org.apache.commons.net.ftp.FTP;
 import org.apache.commons.net.ftp.FTPClient;
 import org.apache.commons.net.ftp.FTPClientConfig;
+import org.apache.commons.net.ftp.FTPCmd;
 import org.apache.commons.net.ftp.FTPConnectionClosedException;
+import org.apache.commons.net.ftp.FTPFileEntryParser;
 import org.apache.commons.net.ftp.FTPHTTPClient;
+import org.apache.commons.net.ftp.FTPListParseEngine;
 import org.apache.commons.net.ftp.FTPReply;
 import org.apache.commons.net.ftp.FTPSClient;
+import org.apache.commons.net.util.SSLContextUtils;
+import org.apache.commons.net.util.TrustManagerUtils;
 import org.apache.http.conn.ssl.DefaultHostnameVerifier;
 
 /**
@@ -73,7 +79,13 @@
 public class FtpClientFactory {
 
     private final FtpFSConnectionConfig m_configuration;
-    private FtpClientFeatures m_features;
+    private volatile FtpClientFeatures m_features;
+
+    /**
+     * SSL context shared by all FTPS clients, so the TLS sessions are cached once
+     * and resumed by the control and data connections of all pooled clients.
+     */
+    private SSLContext m_sslContext;
 
     private volatile boolean m_reuseSslSessions;
 
@@ -92,10 +104,36 @@ public FtpClientFactory(final FtpFSConnectionConfig cfg) {
      */
     public FtpClient createClient() throws IOException {
         FTPClient ftpClient = createNativeClient();
-        if (m_features == null) {
-            m_features = FtpClientFeatures.autodetect(ftpClient);
+        final FtpClientFeatures features = getFeatures(ftpClient);
+        final FtpClient client = new FtpClient(ftpClient, features);
+        client.setUseCompression(m_configuration.isUseCompression() && features.isModeZSupported());
+        return client;
+    }
+
+    /**
+     * Autodetects the server features once, clients may be created concurrently.
+     */
+    private FtpClientFeatures getFeatures(final FTPClient ftpClient) throws IOException {
+        FtpClientFeatures features = m_features;
+        if (features == null) {
+            synchronized (this) {
+                features = m_features;
+                if (features == null) {
+                    features = FtpClientFeatures.autodetect(ftpClient);
+                    m_features = features;
+                }
+            }
         }
-        return new FtpClient(ftpClient, m_features);
+        return features;
+    }
+
+    private synchronized SSLContext getSslContext() throws IOException {
+        if (m_sslContext == null) {
+            // the same trust manager is used by FTPSClient by default
+            m_sslContext = SSLContextUtils.createSSLContext("TLS", null,
+                    TrustManagerUtils.getValidateServerCertificateTrustManager());
+        }
+        return m_sslContext;
     }
 
     /**
@@ -112,7 +150,7 @@ private FTPClient createNativeClient() throws IOException {
         } else if (m_configuration.isUseFTPS()) {
             client = createFtpsClient();
         } else {
-            client = new FTPClient();
+            client = new MlsdFtpClient();
         }
 
         if (m_configuration.isTestMode()) {
@@ -179,8 +217,9 @@ private void configureClientParser(final FTPClient client) throws FTPConnectionC
         } catch (IOException e) { // NOSONAR ignore and proceed with default system type UNIX
             ftpConfig = new FTPClientConfig();
         }
-        ftpConfig.setServerTimeZoneId(constructServerTimeZoneId());
+        ftpConfig.setServerTimeZoneId(constructServerTimeZoneId(m_configuration.getServerTimeZoneOffset()));
         client.configure(ftpConfig);
+        client.setParserFactory(new FtpListEntryParser.Factory());
     }
 
     /**
@@ -195,20 +234,21 @@ private FTPClient createClientWithProxy() throws IOException {
         }
 
         final ProtectedHostConfiguration proxy = m_configuration.getProxy();
-        client = new FTPHTTPClient(proxy.getHost(), proxy.getPort(), proxy.getUser(), proxy.getPassword());
+        client = new MlsdFtpHttpClient(proxy.getHost(), proxy.getPort(), proxy.getUser(), proxy.getPassword());
         return client;
     }
 
     /**
      * @return FTP client with SSL.
+     * @throws IOException
      */
-    private FTPSClient createFtpsClient() {
+    private FTPSClient createFtpsClient() throws IOException {
         final FTPSClient ftpsClient;
         if (m_reuseSslSessions) {
             ftpsClient = new FtpsClientWithSslSessionReuse(() -> m_reuseSslSessions = false,
-                    m_configuration.isUseImplicitFTPS());
+                    m_configuration.isUseImplicitFTPS(), getSslContext());
         } else {
-            ftpsClient = new FTPSClient("TLS", m_configuration.isUseImplicitFTPS());
+            ftpsClient = new MlsdFtpsClient(m_configuration.isUseImplicitFTPS(), getSslContext());
         }
 
         if (m_configuration.isVerifyHostname()) {
@@ -234,11 +274,11 @@ private void configureTestMode(final FTPClient client) {
     }
 
     /**
+     * @param serverTimeZoneOffset
+     *            server time zone offset.
      * @return time zone ID in form GMT+XX:XX
      */
-    private String constructServerTimeZoneId() {
-        final Duration serverTimeZoneOffset = m_configuration.getServerTimeZoneOffset();
-
+    static String constructServerTimeZoneId(final Duration serverTimeZoneOffset) {
         final long absHoursOffset = Math.abs(serverTimeZoneOffset.toHours());
         final long absMinutesOffset = Math.abs(serverTimeZoneOffset.toMinutes()) - absHoursOffset * 60;
 
@@ -253,4 +293,55 @@ private String constructServerTimeZoneId() {
 
         return sb.toString();
     }
+
+    private static final class MlsdFtpClient extends FTPClient implements MlsdParsingClient {
+        @Override
+        public FTPListParseEngine initiateMListParsing(final String dir, final FTPFileEntryParser parser)
+                throws IOException {
+            return MlsdParsingClient.readListing(this, _openDataConnection_(FTPCmd.MLSD, dir), parser);
+        }
+
+        @Override
+        public int sendCommand(final String command, final String args, final ReplyLineHandler handler)
+                throws IOException {
+            return MlsdParsingClient.sendCommand(_controlOutput_, _controlInput_, command, args, handler);
+        }
+    }
+
+    private static final class MlsdFtpHttpClient extends FTPHTTPClient implements MlsdParsingClient {
+        MlsdFtpHttpClient(final String proxyHost, final int proxyPort, final String proxyUser,
+                final String proxyPass) {
+            super(proxyHost, proxyPort, proxyUser, proxyPass);
+        }
+
+        @Override
+        public FTPListParseEngine initiateMListParsing(final String dir, final FTPFileEntryParser parser)
+                throws IOException {
+            return MlsdParsingClient.readListing(this, _openDataConnection_(FTPCmd.MLSD, dir), parser);
+        }
+
+        @Override
+        public int sendCommand(final String command, final String args, final ReplyLineHandler handler)
+                throws IOException {
+            return MlsdParsingClient.sendCommand(_controlOutput_, _controlInput_, command, args, handler);
+        }
+    }
+
+    private static final class MlsdFtpsClient extends FTPSClient implements MlsdParsingClient {
+        MlsdFtpsClient(final boolean isImplicit, final SSLContext context) {
+            super(isImplicit, context);
+        }
+
+        @Override
+        public FTPListParseEngine initiateMListParsing(final String dir, final FTPFileEntryParser parser)
+                throws IOException {
+            return MlsdParsingClient.readListing(this, _openDataConnection_(FTPCmd.MLSD, dir), parser);
+        }
+
+        @Override
+        public int sendCommand(final String command, final String args, final ReplyLineHandler handler)
+                throws IOException {
+            return MlsdParsingClient.sendCommand(_controlOutput_, _controlInput_, command, args, handler);
+        }
+    }
 }
@@ -49,6 +49,10 @@
 package org.knime.ext.ftp.filehandling.fs;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
 
 import org.apache.commons.net.ftp.FTPClient;
 import org.apache.commons.net.ftp.FTPReply;
@@ -75,6 +79,42 @@ public final class FtpClientFeatures {
      */
     private boolean m_mDtmSupported;
 
+    /**
+     * REST STREAM command is used for restart a transfer at given byte offset.
+     */
+    private boolean m_restStreamSupported;
+
+    /**
+     * MODE Z command is used for compress the data connection with deflate.
+     */
+    private boolean m_modeZSupported;
+
+    /**
+     * Algorithms of the HASH command used for request the file checksum computed
+     * by server.
+     */
+    private final Set<String> m_hashAlgorithms = new LinkedHashSet<>();
+
+    /**
+     * The HASH algorithm selected by server by default.
+     */
+    private String m_defaultHashAlgorithm;
+
+    /**
+     * XCRC command is used for request the CRC-32 checksum of the file.
+     */
+    private boolean m_xCrcSupported;
+
+    /**
+     * XMD5 command is used for request the MD5 checksum of the file.
+     */
+    private boolean m_xMd5Supported;
+
+    /**
+     * XSHA1 command is used for request the SHA-1 checksum of the file.
+     */
+    private boolean m_xSha1Supported;
+
     private FtpClientFeatures() {
     }
 
@@ -96,12 +136,24 @@ public static FtpClientFeatures autodetect(final FTPClient client) throws IOExce
 
         for (String feature : client.getReplyStrings()) {
             final String upperCaseFeature = feature.toUpperCase();
-            if (upperCaseFeature.contains("MLST")) {
+            if (upperCaseFeature.trim().startsWith("HASH ")) {
+                features.parseHashAlgorithms(upperCaseFeature.trim().substring(5));
+            } else if (upperCaseFeature.contains("MLST")) {
                 features.m_mListSupported = true;
             } else if (upperCaseFeature.contains("MDTM")) {
                 features.m_mDtmSupported = true;
             } else if (upperCaseFeature.contains("MLSD")) {
                 features.m_mListDirSupported = true;
+            } else if (upperCaseFeature.contains("REST STREAM")) {
+                features.m_restStreamSupported = true;
+            } else if (upperCaseFeature.contains("MODE Z")) {
+                features.m_modeZSupported = true;
+            } else if (upperCaseFeature.contains("XCRC")) {
+                features.m_xCrcSupported = true;
+            } else if (upperCaseFeature.contains("XMD5")) {
+                features.m_xMd5Supported = true;
+            } else if (upperCaseFeature.contains("XSHA1")) {
+                features.m_xSha1Supported = true;
             } else {
                 // possible check other features
             }
@@ -109,6 +161,27 @@ public static FtpClientFeatures autodetect(final FTPClient client) throws IOExce
         return features;
     }
 
+    /**
+     * @param algorithms
+     *            algorithms of HASH feature separated by ';', the default one
+     *            is marked with '*'.
+     */
+    private void parseHashAlgorithms(final String algorithms) {
+        for (String algorithm : algorithms.split(";")) {
+            String name = algorithm.trim();
+            final boolean isDefault = name.endsWith("*");
+            if (isDefault) {
+                name = name.substring(0, name.length() - 1);
+            }
+            if (!name.isEmpty()) {
+                m_hashAlgorithms.add(name);
+                if (isDefault) {
+                    m_defaultHashAlgorithm = name;
+                }
+            }
+        }
+    }
+
     /**
      * @return true if MLST command supported by server.
      */
@@ -130,4 +203,64 @@ public boolean ismDtmSupported() {
         return m_mDtmSupported;
     }
 
+    /**
+     * @return true if REST STREAM command supported by server
+     */
+    public boolean isRestStreamSupported() {
+        return m_restStreamSupported;
+    }
+
+    /**
+     * @return true if MODE Z command supported by server
+     */
+    public boolean isModeZSupported() {
+        return m_modeZSupported;
+    }
+
+    /**
+     * @return upper case names of the algorithms supported by HASH command,
+     *         empty if HASH command is not supported.
+     */
+    public Set<String> getHashAlgorithms() {
+        return Collections.unmodifiableSet(m_hashAlgorithms);
+    }
+
+    /**
+     * @param algorithm
+     *            algorithm name.
+     * @return true if HASH command supports given algorithm.
+     */
+    public boolean isHashSupported(final String algorithm) {
+        return m_hashAlgorithms.contains(algorithm.toUpperCase(Locale.ENGLISH));
+    }
+
+    /**
+     * @return upper case name of the algorithm used by HASH command by default
+     *         or <code>null</code> if it is not known.
+     */
+    public String getDefaultHashAlgorithm() {
+        return m_defaultHashAlgorithm;
+    }
+
+    /**
+     * @return true if XCRC command supported by server
+     */
+    public boolean isXCrcSupported() {
+        return m_xCrcSupported;
+    }
+
+    /**
+     * @return true if XMD5 command supported by server
+     */
+    public boolean isXMd5Supported() {
+        return m_xMd5Supported;
+    }
+
+    /**
+     * @return true if XSHA1 command supported by server
+     */
+    public boolean isXSha1Supported() {
+        return m_xSha1Supported;
+    }
+
 }
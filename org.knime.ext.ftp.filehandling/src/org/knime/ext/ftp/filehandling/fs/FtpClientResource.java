@@ -60,6 +60,8 @@ public class FtpClientResource {
     private final FtpClientFactory m_factory;
     private FtpClient m_client;
     private long m_setAsFreeOn;
+    private long m_checkedOn;
+    private volatile boolean m_isBroken;
 
     /**
      * @param factory
@@ -89,6 +91,13 @@ public synchronized FtpClient get() throws IOException {
         return m_client;
     }
 
+    /**
+     * @return true if the FTP client is created already.
+     */
+    public synchronized boolean isInitialized() {
+        return m_client != null;
+    }
+
     /**
      * closes FTP client.
      */
@@ -98,6 +107,22 @@ public synchronized void close() {
         }
     }
 
+    /**
+     * Marks the client as not usable anymore, e.g. because its control
+     * connection state is unknown after a failed transfer. A broken resource is
+     * closed by the pool when it is released.
+     */
+    public void markBroken() {
+        m_isBroken = true;
+    }
+
+    /**
+     * @return true if the client must not be reused.
+     */
+    public boolean isBroken() {
+        return m_isBroken;
+    }
+
     /**
      * @param date
      *            released date.
@@ -112,4 +137,20 @@ public void setAsFreeOn(final long date) {
     public long getAsFreeOn() {
         return m_setAsFreeOn;
     }
+
+    /**
+     * @param date
+     *            time the connection was known to work last, that is when it
+     *            was released or successfully checked by keep alive request.
+     */
+    public void setCheckedOn(final long date) {
+        m_checkedOn = date;
+    }
+
+    /**
+     * @return time in milliseconds the connection was known to work last.
+     */
+    public long getCheckedOn() {
+        return m_checkedOn;
+    }
 }
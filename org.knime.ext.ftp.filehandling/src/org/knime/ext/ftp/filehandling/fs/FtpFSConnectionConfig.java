@@ -90,11 +90,44 @@ public class FtpFSConnectionConfig extends ProtectedHostConfiguration implements
      */
     private static final long DEFAULT_MAX_IDLE_TIME = 20000l;
 
+    /**
+     * Default size of a segment for parallel segmented downloads.
+     */
+    public static final int DEFAULT_DOWNLOAD_SEGMENT_SIZE = 16 * 1024 * 1024;
+
+    /**
+     * Default number of segments downloaded at the same time. The value of 1
+     * disables segmented downloads.
+     */
+    public static final int DEFAULT_DOWNLOAD_PARALLELISM = 1;
+
+    /**
+     * Default time to live of a cached directory listing used to get file
+     * metadata from servers without MLST support. The cache is disabled by
+     * default because changes made by other clients are not seen while a
+     * listing is cached.
+     */
+    public static final Duration DEFAULT_LISTING_CACHE_TTL = Duration.ZERO;
+
+    /**
+     * Default time after which a free connection is validated before it is
+     * borrowed, if the validation on borrow is enabled.
+     */
+    public static final Duration DEFAULT_STALENESS_THRESHOLD = Duration.ofSeconds(30);
+
     private ProtectedHostConfiguration m_proxy;
     private int m_maxConnectionPoolSize = DEFAULT_MAX_CONNECTIONS;
     private int m_minConnectionPoolSize = DEFAULT_MIN_CONNECTIONS;
     private int m_coreConnectionPoolSize = (DEFAULT_MIN_CONNECTIONS + DEFAULT_MAX_CONNECTIONS) / 2;
     private long m_maxIdleTime = DEFAULT_MAX_IDLE_TIME;
+    private int m_downloadSegmentSize = DEFAULT_DOWNLOAD_SEGMENT_SIZE;
+    private int m_downloadParallelism = DEFAULT_DOWNLOAD_PARALLELISM;
+    private boolean m_useServerToServerCopy;
+    private Duration m_listingCacheTtl = DEFAULT_LISTING_CACHE_TTL;
+    private boolean m_useRecursiveListing;
+    private boolean m_useCompression;
+    private boolean m_validateOnBorrow;
+    private Duration m_stalenessThreshold = DEFAULT_STALENESS_THRESHOLD;
 
     private Duration m_connectionTimeOut = DEFAULT_CONNECTION_TIMEOUT;
     private Duration m_readTimeout = DEFAULT_READ_TIMEOUT;
@@ -192,6 +225,152 @@ public void setMaxIdleTime(final long maxIdleTime) {
         m_maxIdleTime = maxIdleTime;
     }
 
+    /**
+     * @return true if a free connection is validated with NOOP before it is
+     *         borrowed when it was not used for the staleness threshold.
+     */
+    public boolean isValidateOnBorrow() {
+        return m_validateOnBorrow;
+    }
+
+    /**
+     * @param validateOnBorrow
+     *            whether a free connection should be validated with NOOP
+     *            before it is borrowed when it was not used or checked for the
+     *            staleness threshold. Broken connections are closed and the
+     *            next free one is taken instead.
+     */
+    public void setValidateOnBorrow(final boolean validateOnBorrow) {
+        m_validateOnBorrow = validateOnBorrow;
+    }
+
+    /**
+     * @return time after which a free connection is considered as stale and is
+     *         validated before it is borrowed.
+     */
+    public Duration getStalenessThreshold() {
+        return m_stalenessThreshold;
+    }
+
+    /**
+     * @param stalenessThreshold
+     *            time after which a free connection is considered as stale and
+     *            is validated before it is borrowed.
+     */
+    public void setStalenessThreshold(final Duration stalenessThreshold) {
+        m_stalenessThreshold = stalenessThreshold;
+    }
+
+    /**
+     * @return size in bytes of a segment for parallel segmented downloads.
+     */
+    public int getDownloadSegmentSize() {
+        return m_downloadSegmentSize;
+    }
+
+    /**
+     * @param size
+     *            size in bytes of a segment for parallel segmented downloads.
+     */
+    public void setDownloadSegmentSize(final int size) {
+        m_downloadSegmentSize = size;
+    }
+
+    /**
+     * @return number of segments of a file downloaded at the same time over
+     *         different connections, the value of 1 means the file is downloaded
+     *         over a single connection.
+     */
+    public int getDownloadParallelism() {
+        return m_downloadParallelism;
+    }
+
+    /**
+     * @param parallelism
+     *            number of segments of a file downloaded at the same time over
+     *            different connections. Segmented download is used just if the
+     *            server supports REST STREAM.
+     */
+    public void setDownloadParallelism(final int parallelism) {
+        m_downloadParallelism = parallelism;
+    }
+
+    /**
+     * @return true if files should be copied server to server (FXP), so the
+     *         content is not transferred via the local host.
+     */
+    public boolean isUseServerToServerCopy() {
+        return m_useServerToServerCopy;
+    }
+
+    /**
+     * @param useServerToServerCopy
+     *            whether files should be copied server to server (FXP). It is
+     *            used just for plain FTP without proxy and falls back to a
+     *            streaming copy if the server rejects it.
+     */
+    public void setUseServerToServerCopy(final boolean useServerToServerCopy) {
+        m_useServerToServerCopy = useServerToServerCopy;
+    }
+
+    /**
+     * @return time to live of a cached directory listing used to get file
+     *         metadata from servers without MLST support.
+     */
+    public Duration getListingCacheTtl() {
+        return m_listingCacheTtl;
+    }
+
+    /**
+     * @param ttl
+     *            time to live of a cached directory listing used to get file
+     *            metadata from servers without MLST support. Zero duration
+     *            disables the cache.
+     */
+    public void setListingCacheTtl(final Duration ttl) {
+        m_listingCacheTtl = ttl;
+    }
+
+    /**
+     * @return true if a directory should be listed together with all its sub
+     *         directories in one round trip if the server supports it.
+     */
+    public boolean isUseRecursiveListing() {
+        return m_useRecursiveListing;
+    }
+
+    /**
+     * @param useRecursiveListing
+     *            whether a directory should be listed together with all its
+     *            sub directories in one round trip (STAT -R) if the server
+     *            supports it. The listings of the sub directories are kept in
+     *            the listing cache, therefore it speeds up the walks of a
+     *            tree but slows down listing of a single directory of a large
+     *            tree.
+     */
+    public void setUseRecursiveListing(final boolean useRecursiveListing) {
+        m_useRecursiveListing = useRecursiveListing;
+    }
+
+    /**
+     * @return true if the data connections should be compressed (MODE Z) when
+     *         the server supports it.
+     */
+    public boolean isUseCompression() {
+        return m_useCompression;
+    }
+
+    /**
+     * @param useCompression
+     *            whether the data connections should be compressed with
+     *            deflate (MODE Z) when the server supports it. It saves
+     *            bandwidth for text data on slow networks but costs CPU time
+     *            on both sides.
+     */
+    public void setUseCompression(final boolean useCompression) {
+        m_useCompression = useCompression;
+    }
+
     /**
      * @return connection time out.
      */
@@ -56,22 +56,38 @@
 import java.nio.file.AccessMode;
 import java.nio.file.CopyOption;
 import java.nio.file.DirectoryStream.Filter;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystemException;
 import java.nio.file.Files;
 import java.nio.file.LinkOption;
 import java.nio.file.OpenOption;
 import java.nio.file.Path;
+import java.nio.file.ProviderMismatchException;
 import java.nio.file.StandardOpenOption;
 import java.nio.file.attribute.FileAttribute;
 import java.nio.file.attribute.PosixFileAttributes;
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.GregorianCalendar;
 import java.util.HashSet;
 import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinPool.ForkJoinWorkerThreadFactory;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.net.ftp.FTPFile;
+import org.apache.commons.net.ftp.FTPListParseEngine;
+import org.knime.core.node.NodeLogger;
 import org.knime.filehandling.core.connections.base.BaseFileSystemProvider;
 import org.knime.filehandling.core.connections.base.FilterOutputStream;
 import org.knime.filehandling.core.connections.base.attributes.BaseFileAttributes;
@@ -83,24 +99,131 @@
  * @author Vyacheslav Soldatov <vyacheslav@redfield.se>
  */
 public class FtpFileSystemProvider extends BaseFileSystemProvider<FtpPath, FtpFileSystem> {
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(FtpFileSystemProvider.class);
+
+    /**
+     * Name of the attribute view with FTP specific attributes. It provides the
+     * file checksums named by {@link FtpChecksumAlgorithm#getAttributeName()},
+     * e.g. <code>Files.getAttribute(path, "ftp:sha256")</code>.
+     */
+    public static final String FTP_ATTRIBUTE_VIEW = "ftp";
+
+    /**
+     * Maximum time a copy waits for its second connection before the file is
+     * copied over a local temporary file. The wait is bounded, because the
+     * connections can be taken by other copies waiting for their second
+     * connection as well.
+     */
+    private static final Duration SECOND_CONNECTION_WAIT = Duration.ofSeconds(5);
+
+    private final FtpFSConnectionConfig m_config;
+
     private final ClientPool m_clientPool;
 
+    private final ExecutorService m_transferExecutor;
+
+    private final ForkJoinPool m_walkPool;
+
+    private final FtpListingCache m_listingCache;
+
+    /**
+     * Whether the server supports STAT -R, <code>null</code> if not known yet.
+     */
+    private volatile Boolean m_recursiveListingSupported;
+
+    /**
+     * Start times of the recently failed recursive listings by directory, the
+     * subtrees are listed directory by directory until the failure expires.
+     */
+    private final Map<String, Long> m_failedRecursiveListings = new ConcurrentHashMap<>();
+
+    /**
+     * Whether the server supports REST STREAM, <code>null</code> if not known
+     * yet.
+     */
+    private volatile Boolean m_restStreamSupported;
+
+    /**
+     * Whether the servers accept server to server copies (FXP), <code>null</code>
+     * if not known yet.
+     */
+    private volatile Boolean m_serverToServerCopySupported;
+
     /**
      * @param config
      *            FTP connection configuration.
      * @throws IOException
      */
     public FtpFileSystemProvider(final FtpFSConnectionConfig config) throws IOException {
+        m_config = config;
         m_clientPool = new ClientPool(config);
         m_clientPool.start();
+        m_transferExecutor = Executors.newCachedThreadPool(new TransferThreadFactory());
+        m_walkPool = new ForkJoinPool(config.getMaxConnectionPoolSize(), new WalkThreadFactory(), null, false);
+        m_listingCache = new FtpListingCache(config.getListingCacheTtl());
+    }
+
+    /**
+     * @return borrow/return and connection statistics of the client pool.
+     */
+    public ClientPoolStatistics getPoolStatistics() {
+        return m_clientPool.getStatistics();
+    }
+
+    /**
+     * @return cache of directory listings used to get file metadata from
+     *         servers without MLST support.
+     */
+    public FtpListingCache getListingCache() {
+        return m_listingCache;
     }
 
     @Override
     protected SeekableByteChannel newByteChannelInternal(final FtpPath path, final Set<? extends OpenOption> options,
             final FileAttribute<?>... attrs) throws IOException {
+        if (!options.contains(StandardOpenOption.WRITE) && !options.contains(StandardOpenOption.APPEND)
+                && isRestStreamSupported()) {
+            // read-only channel serves the requested blocks without downloading the whole file
+            final FtpFileAttributes attributes = (FtpFileAttributes) readAttributes(path, PosixFileAttributes.class);
+            if (attributes.getMetadata().getType() != FTPFile.FILE_TYPE) {
+                throw new IOException("Not a file: " + path);
+            }
+            return new FtpReadOnlySeekableByteChannel(this, path.toString(), attributes.size(), m_transferExecutor);
+        }
+
+        if (!options.contains(StandardOpenOption.READ)) {
+            final SeekableByteChannel channel = newWriteOnlyByteChannel(path, options);
+            if (channel != null) {
+                return channel;
+            }
+        }
+
+        // temporary file is used for read-write modes and for overwriting the
+        // beginning of an existing file
         return new FtpSeekableByteChannel(path, options);
     }
 
+    /**
+     * @return channel streaming directly to the server or <code>null</code> if
+     *         the options require to keep the existing content.
+     */
+    @SuppressWarnings("resource")
+    private SeekableByteChannel newWriteOnlyByteChannel(final FtpPath path, final Set<? extends OpenOption> options)
+            throws IOException {
+        final boolean exists = exists(path);
+        final Runnable invalidateCache = () -> getFileSystemInternal().removeFromAttributeCache(path);
+
+        if (options.contains(StandardOpenOption.APPEND)) {
+            final long size = exists ? readAttributes(path, PosixFileAttributes.class).size() : 0;
+            return new FtpWriteOnlySeekableByteChannel(path,
+                    newOutputStreamInternal(path, StandardOpenOption.APPEND), size, invalidateCache);
+        } else if (!exists || options.contains(StandardOpenOption.TRUNCATE_EXISTING)) {
+            return new FtpWriteOnlySeekableByteChannel(path, newOutputStreamInternal(path), 0, invalidateCache);
+        } else {
+            return null;
+        }
+    }
+
     @SuppressWarnings("resource")
     @Override
     protected void moveInternal(final FtpPath source, final FtpPath target, final CopyOption... options)
@@ -123,6 +246,8 @@ protected void moveInternal(final FtpPath source, final FtpPath target, final Co
 
         // if not any exceptions thrown should clear the cache deeply
         getFileSystemInternal().removeFromAttributeCacheDeep(source);
+        m_listingCache.invalidate(source);
+        m_listingCache.invalidate(target);
 
         // correct source metadata and cache it for target
         sourceMeta.setTimestamp(new GregorianCalendar());
@@ -147,30 +272,142 @@ protected void copyInternal(final FtpPath source, final FtpPath target, final Co
             // just create new folder
             createDirectoryInternal(target);
         } else {
-            // there is not a simple way to copy the file on server side.
-            // just need to load it locally and push then to server again.
-            // some FTP servers can support proprietary extension for it
-            // but it is not universal approach to use
-            Path tmp = Files.createTempFile("knime-ftp-", ".tmp");
-            try {
-                // copy file from remote to temporary local file
-                try (OutputStream out = Files.newOutputStream(tmp)) {
-                    copyFromRemote(source.toString(), out);
+            copyFile(source.toString(), target.toString());
+            m_listingCache.invalidate(target);
+        }
+    }
+
+    /**
+     * There is not a simple way to copy the file on server side. Some FTP servers
+     * can support proprietary extension for it but it is not universal approach
+     * to use. Therefore the file is read from one connection and written to
+     * another one at the same time, or it is transferred server to server (FXP)
+     * if enabled.
+     */
+    void copyFile(final String source, final String target) throws IOException {
+        if (isServerToServerCopyEnabled() && copyServerToServer(source, target)) {
+            return;
+        }
+
+        final FtpClientResource sourceResource = takeResource();
+        try {
+            final FtpClientResource targetResource = takeSecondResource();
+            if (targetResource == null) {
+                copyUsingTempFile(sourceResource.get(), source, target);
+            } else {
+                try {
+                    copyStreaming(sourceResource, targetResource, source, target);
+                } finally {
+                    releaseResource(targetResource);
                 }
+            }
+        } finally {
+            releaseResource(sourceResource);
+        }
+    }
 
-                // copy temporary local file to FTP server
-                try (InputStream in = Files.newInputStream(tmp)) {
-                    copyToRemote(target.toString(), in);
+    /**
+     * @return true if the file is copied, false if the caller should copy it by
+     *         streaming.
+     */
+    private boolean copyServerToServer(final String source, final String target) throws IOException {
+        final FtpClientResource sourceResource = takeResource();
+        try {
+            final FtpClientResource targetResource = takeSecondResource();
+            if (targetResource == null) {
+                return false;
+            }
+            try {
+                sourceResource.get().transferTo(source, targetResource.get(), target);
+                m_serverToServerCopySupported = Boolean.TRUE;
+                return true;
+            } catch (IOException ex) {
+                LOGGER.debug("Server to server copy of " + source + " failed, falling back to streaming copy", ex);
+                // an aborted transfer can leave data connections or replies behind,
+                // the state of the control connections is unknown
+                sourceResource.markBroken();
+                targetResource.markBroken();
+                if (m_serverToServerCopySupported == null) {
+                    m_serverToServerCopySupported = Boolean.FALSE;
                 }
+                return false;
             } finally {
-                Files.delete(tmp);
+                releaseResource(targetResource);
             }
+        } finally {
+            releaseResource(sourceResource);
+        }
+    }
+
+    /**
+     * The download is completed before the upload, so the target is only
+     * completed if the whole source is read. Closing the upload stream after a
+     * failure would store a truncated target, it is deleted instead.
+     */
+    private void copyStreaming(final FtpClientResource sourceResource, final FtpClientResource targetResource,
+            final String source, final String target) throws IOException {
+        try (InputStream in = sourceResource.get().getFileContentAsStream(source)) {
+            final OutputStream out = targetResource.get().openForRewrite(target);
+            try {
+                FtpTransferPipe.copy(in, out, m_transferExecutor);
+                in.close();
+                sourceResource.get().checkTransferCompleted(source);
+            } catch (IOException ex) {
+                // the state of the source connection is unknown after a failed download
+                sourceResource.markBroken();
+                deleteIncompleteTarget(targetResource, out, target, ex);
+                throw ex;
+            }
+            out.close();
+        }
+    }
+
+    private static void deleteIncompleteTarget(final FtpClientResource resource, final OutputStream out,
+            final String target, final IOException failure) {
+        try {
+            out.close();
+            resource.get().deleteFile(target);
+        } catch (IOException ex) {
+            failure.addSuppressed(ex);
+            resource.markBroken();
+        }
+    }
+
+    private boolean isServerToServerCopyEnabled() {
+        return m_config.isUseServerToServerCopy() && !m_config.isUseFTPS() && m_config.getProxy() == null
+                && !Boolean.FALSE.equals(m_serverToServerCopySupported);
+    }
+
+    private static void copyUsingTempFile(final FtpClient client, final String source, final String target)
+            throws IOException {
+        // just need to load it locally and push then to server again.
+        final Path tmp = Files.createTempFile("knime-ftp-", ".tmp");
+        try {
+            // copy file from remote to temporary local file
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                client.getFileContent(source, out);
+            }
+
+            // copy temporary local file to FTP server
+            try (InputStream in = Files.newInputStream(tmp)) {
+                client.createFile(target, in);
+            }
+        } finally {
+            Files.delete(tmp);
         }
     }
 
     @SuppressWarnings("resource")
     @Override
     protected InputStream newInputStreamInternal(final FtpPath path, final OpenOption... options) throws IOException {
+        if (isSegmentedDownloadEnabled()) {
+            final long size = readAttributes(path, PosixFileAttributes.class).size();
+            if (size > m_config.getDownloadSegmentSize()) {
+                return new FtpSegmentedInputStream(this, path.toString(), size, m_config.getDownloadSegmentSize(),
+                        m_config.getDownloadParallelism(), m_transferExecutor);
+            }
+        }
+
         final FtpClientResource resource = takeResource();
         final InputStream stream = resource.get().getFileContentAsStream(path.toString());
 
@@ -223,6 +460,7 @@ public synchronized void close() throws IOException {
                         super.close();
                     } finally {
                         releaseResource(resource);
+                        m_listingCache.invalidate(path);
                     }
                 }
             }
@@ -232,16 +470,170 @@ public synchronized void close() throws IOException {
     @Override
     protected Iterator<FtpPath> createPathIterator(final FtpPath dir, final Filter<? super Path> filter)
             throws IOException {
-        final FTPFile[] ftpFiles = invokeWithResource(c -> c.listFiles(dir.toString()));
+        Collection<FTPFile> listing = m_listingCache.getCachedListing(dir.toString());
+        if (listing == null && isRecursiveListingEnabled()) {
+            listing = listRecursively(dir);
+        }
+        if (listing != null) {
+            return new FtpPathIterator(dir, new FtpListingIterator(dir, listing.iterator(), this::cacheAttributes),
+                    filter);
+        }
+
+        // the connection is released as soon as the raw listing is transferred,
+        // the entries are parsed and converted to paths page by page
+        final FTPListParseEngine engine = invokeWithResource(c -> c.initiateListParsing(dir.toString()));
+        return new FtpPathIterator(dir,
+                new FtpListingIterator(dir, FtpListingIterator.pages(engine), this::cacheAttributes), filter);
+    }
+
+    private boolean isRecursiveListingEnabled() {
+        return m_config.isUseRecursiveListing() && m_listingCache.isEnabled()
+                && !Boolean.FALSE.equals(m_recursiveListingSupported);
+    }
+
+    /**
+     * Lists given directory with all sub directories in one round trip and
+     * puts the listings to the listing cache, so walking the sub directories
+     * does not need further requests. The recursive listing is only disabled
+     * for the whole file system if the server refuses the command, a listing
+     * which is incomplete or exceeds the limits of
+     * {@link FtpRecursiveListingParser} is retried for the subtree after the
+     * listing cache TTL.
+     *
+     * @return the entries of given directory or <code>null</code> if the
+     *         recursive listing failed, the directory is then listed alone.
+     */
+    private Collection<FTPFile> listRecursively(final FtpPath dir) throws IOException {
+        final String dirString = dir.toString();
+        if (hasFailedRecursiveListing(dirString)) {
+            return null; // NOSONAR null means not listed
+        }
+
+        final List<String> lines;
+        final FtpClientResource resource = takeResource();
+        try {
+            lines = resource.get().statRecursive(dirString);
+        } catch (IOException ex) {
+            // the rest of the reply is not read, the connection can't be used anymore
+            resource.markBroken();
+            LOGGER.debug("Recursive listing of " + dirString + " failed, directories are listed one by one", ex);
+            m_failedRecursiveListings.put(dirString, System.currentTimeMillis());
+            return null; // NOSONAR null means not listed
+        } finally {
+            releaseResource(resource);
+        }
+
+        if (lines == null) {
+            if (m_recursiveListingSupported == null) {
+                LOGGER.debug("Server does not support recursive listing, directories are listed one by one");
+                m_recursiveListingSupported = Boolean.FALSE;
+            }
+            return null; // NOSONAR null means not listed
+        }
+
+        final Map<String, List<FTPFile>> listings = new FtpRecursiveListingParser(
+                m_config.getServerTimeZoneOffset()).parse(dirString, lines);
+        if (listings == null) {
+            LOGGER.debug("Recursive listing of " + dirString + " is incomplete, directories are listed one by one");
+            m_failedRecursiveListings.put(dirString, System.currentTimeMillis());
+            return null; // NOSONAR null means not listed
+        }
+
+        m_recursiveListingSupported = Boolean.TRUE;
+        listings.forEach(m_listingCache::put);
+        return listings.get(dirString);
+    }
 
-        final List<FtpPath> files = new LinkedList<>();
-        for (FTPFile ftpFile : ftpFiles) {
-            final FtpPath path = dir.resolve(ftpFile.getName());
-            files.add(path);
-            // cache file attributes
-            cacheAttributes(path, new FtpFileAttributes(path, ftpFile));
+    /**
+     * @return whether a recursive listing of given directory or of a parent
+     *         failed within the listing cache TTL.
+     */
+    private boolean hasFailedRecursiveListing(final String dir) {
+        final long now = System.currentTimeMillis();
+        for (Map.Entry<String, Long> failed : m_failedRecursiveListings.entrySet()) {
+            final String root = failed.getKey();
+            if (now - failed.getValue() > m_config.getListingCacheTtl().toMillis()) {
+                m_failedRecursiveListings.remove(root, failed.getValue());
+            } else if (dir.equals(root) || dir.startsWith(root.endsWith(FtpFileSystem.PATH_SEPARATOR) ? root
+                    : (root + FtpFileSystem.PATH_SEPARATOR))) {
+                return true;
+            }
         }
-        return new FtpPathIterator(dir, files, filter);
+        return false;
+    }
+
+    /**
+     * Walks given directory tree listing the directories in parallel over up
+     * to {@link FtpFSConnectionConfig#getMaxConnectionPoolSize()} connections.
+     * The attributes of all the walked paths are cached.
+     *
+     * @param dir
+     *            directory to walk.
+     * @return given directory and all paths below it in the order of
+     *         {@link Files#walk(Path, java.nio.file.FileVisitOption...)}.
+     * @throws IOException
+     */
+    public List<FtpPath> walkTree(final FtpPath dir) throws IOException {
+        final Map<FtpPath, List<FTPFile>> listings = new FtpTreeWalker(this, m_walkPool).list(dir);
+        for (Map.Entry<FtpPath, List<FTPFile>> listing : listings.entrySet()) {
+            for (FTPFile file : listing.getValue()) {
+                final FtpPath path = listing.getKey().resolve(file.getName());
+                cacheAttributes(path, new FtpFileAttributes(path, file));
+            }
+        }
+        return FtpTreeWalker.toWalkOrder(dir, listings);
+    }
+
+    /**
+     * Deletes given directory with all its content. The directories are listed
+     * and the files are deleted in parallel over up to
+     * {@link FtpFSConnectionConfig#getMaxConnectionPoolSize()} connections.
+     *
+     * @param dir
+     *            directory to delete.
+     * @throws IOException
+     */
+    public void deleteTree(final FtpPath dir) throws IOException {
+        try {
+            new FtpTreeWalker(this, m_walkPool).delete(dir);
+        } finally {
+            getFileSystemInternal().removeFromAttributeCacheDeep(dir);
+            m_listingCache.invalidate(dir);
+        }
+    }
+
+    /**
+     * Copies given directory with all its content. The directories are listed
+     * in parallel over up to
+     * {@link FtpFSConnectionConfig#getMaxConnectionPoolSize()} connections, the
+     * files are copied in parallel by up to {@link #getMaxParallelCopies()}
+     * copies.
+     *
+     * @param source
+     *            directory to copy.
+     * @param target
+     *            target directory, must not exist.
+     * @throws IOException
+     */
+    public void copyTree(final FtpPath source, final FtpPath target) throws IOException {
+        if (exists(target)) {
+            throw new FileAlreadyExistsException(target.toString());
+        }
+        try {
+            new FtpTreeWalker(this, m_walkPool).copy(source, target);
+        } finally {
+            getFileSystemInternal().removeFromAttributeCacheDeep(target);
+            m_listingCache.invalidate(target);
+        }
+    }
+
+    /**
+     * @return number of files copied at the same time by a tree copy. Each
+     *         copy uses two connections, so the copies do not take the second
+     *         connection from each other.
+     */
+    int getMaxParallelCopies() {
+        return Math.max(1, m_config.getMaxConnectionPoolSize() / 2);
     }
 
     @Override
@@ -251,14 +643,23 @@ protected void createDirectoryInternal(final FtpPath dir, final FileAttribute<?>
             c.mkdir(dir);
             return null;
         });
+        m_listingCache.invalidate(dir);
     }
 
     @Override
     protected BaseFileAttributes fetchAttributesInternal(final FtpPath path, final Class<?> type) throws IOException {
-        FTPFile meta = invokeWithResource(c -> c.getFileInfo(path));
+        FTPFile meta = invokeWithResource(c -> getFileInfo(c, path));
         return new FtpFileAttributes(path, meta);
     }
 
+    private FTPFile getFileInfo(final FtpClient client, final FtpPath path) throws IOException {
+        if (path.isRoot() || client.getFeatures().ismListSupported() || !m_listingCache.isEnabled()) {
+            return client.getFileInfo(path);
+        }
+        // the parent folder has to be listed, the listing is shared by the siblings
+        return m_listingCache.getFileInfo(path, client::listFiles);
+    }
+
     @Override
     protected void checkAccessInternal(final FtpPath path, final AccessMode... modes) throws IOException {
         // nothing for now
@@ -286,6 +687,55 @@ void deleteInternal(final FtpPath path, final FTPFile meta) throws IOException {
             }
             return null;
         });
+        m_listingCache.invalidate(path);
+    }
+
+    @Override
+    public Map<String, Object> readAttributes(final Path path, final String attributes, final LinkOption... options)
+            throws IOException {
+        final int viewEnd = attributes.indexOf(':');
+        if (viewEnd < 0 || !FTP_ATTRIBUTE_VIEW.equals(attributes.substring(0, viewEnd))) {
+            return super.readAttributes(path, attributes, options);
+        }
+
+        if (!(path instanceof FtpPath) || path.getFileSystem().provider() != this) {
+            throw new ProviderMismatchException();
+        }
+        final FtpPath ftpPath = (FtpPath) path.toAbsolutePath().normalize();
+        final Map<String, Object> result = new LinkedHashMap<>();
+        for (String name : attributes.substring(viewEnd + 1).split(",")) {
+            final FtpChecksumAlgorithm algorithm = FtpChecksumAlgorithm.fromAttributeName(name);
+            result.put(name, getChecksum(ftpPath, algorithm));
+        }
+        return result;
+    }
+
+    /**
+     * Gets the checksum of the file. It is computed by server if supported,
+     * otherwise the file is downloaded and the checksum is computed locally.
+     *
+     * @param path
+     *            file path.
+     * @param algorithm
+     *            checksum algorithm.
+     * @return checksum as lower case hex string.
+     * @throws IOException
+     */
+    @SuppressWarnings("resource")
+    public String getChecksum(final FtpPath path, final FtpChecksumAlgorithm algorithm) throws IOException {
+        if (readAttributes(path, PosixFileAttributes.class).isDirectory()) {
+            throw new FileSystemException(path.toString(), null, "Checksum of a directory can't be computed");
+        }
+
+        final String checksum = invokeWithResource(c -> c.getChecksum(path.toString(), algorithm));
+        if (checksum != null) {
+            return checksum;
+        }
+
+        LOGGER.debug(algorithm.getHashName() + " checksum of " + path + " is computed locally");
+        try (InputStream in = newInputStreamInternal(path)) {
+            return algorithm.compute(in);
+        }
     }
 
     @Override
@@ -314,6 +764,57 @@ void copyFromRemote(final String path, final OutputStream out) throws IOExceptio
         });
     }
 
+    /**
+     * @return true if files should be downloaded in segments over several
+     *         connections at the same time.
+     * @throws IOException
+     */
+    private boolean isSegmentedDownloadEnabled() throws IOException {
+        return m_config.getDownloadParallelism() > 1 && m_config.getMaxConnectionPoolSize() > 1
+                && isRestStreamSupported();
+    }
+
+    /**
+     * @return true if transfers can be started at an offset.
+     * @throws IOException
+     */
+    private boolean isRestStreamSupported() throws IOException {
+        Boolean supported = m_restStreamSupported;
+        if (supported == null) {
+            // the features are the same for all connections, ask just once
+            supported = invokeWithResource(c -> c.getFeatures().isRestStreamSupported());
+            m_restStreamSupported = supported;
+        }
+        return supported;
+    }
+
+    /**
+     * @param path
+     *            source remote path.
+     * @param offset
+     *            offset of the first byte to read.
+     * @param length
+     *            number of bytes to read.
+     * @return the content of given range, is shorter than requested only if the
+     *         end of file is reached.
+     * @throws IOException
+     */
+    byte[] readRange(final String path, final long offset, final int length) throws IOException {
+        final byte[] buffer = new byte[length];
+        final int numRead = invokeWithResource(c -> c.readFileRange(path, offset, buffer, 0, length));
+        return numRead == length ? buffer : Arrays.copyOf(buffer, numRead);
+    }
+
+    /**
+     * @param dir
+     *            directory to list.
+     * @return directory entries.
+     * @throws IOException
+     */
+    FTPFile[] listFiles(final String dir) throws IOException {
+        return invokeWithResource(c -> c.listFiles(dir));
+    }
+
     /**
      * @param path
      *            file path.
@@ -326,6 +827,7 @@ void copyToRemote(final String path, final InputStream in) throws IOException {
             c.createFile(path, in);
             return null;
         });
+        m_listingCache.invalidate(getFileSystemInternal().getPath(path));
     }
 
     /**
@@ -371,10 +873,54 @@ private FtpClientResource takeResource() throws IOException {
         return resource;
     }
 
+    /**
+     * @return second resource of a copy or <code>null</code> if none gets
+     *         available within {@link #SECOND_CONNECTION_WAIT}.
+     * @throws IOException
+     */
+    private FtpClientResource takeSecondResource() throws IOException {
+        try {
+            return m_clientPool.tryTake(SECOND_CONNECTION_WAIT);
+        } catch (InterruptedException ex) { // NOSONAR there is better place to catch this exception.
+            throw ExceptionUtil.wrapAsIOException(ex);
+        }
+    }
+
     /**
      * Closes provider. Stops clients pool.
      */
     void prepareClose() {
+        m_transferExecutor.shutdownNow();
+        m_walkPool.shutdownNow();
+        m_listingCache.clear();
         m_clientPool.stop();
     }
+
+    /**
+     * Creates the workers of the tree walks.
+     */
+    private static final class WalkThreadFactory implements ForkJoinWorkerThreadFactory {
+        private final AtomicInteger m_threadNumber = new AtomicInteger();
+
+        @Override
+        public ForkJoinWorkerThread newThread(final ForkJoinPool pool) {
+            final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("knime-ftp-walk-" + m_threadNumber.incrementAndGet());
+            return thread;
+        }
+    }
+
+    /**
+     * Creates daemon threads for background transfers.
+     */
+    private static final class TransferThreadFactory implements ThreadFactory {
+        private final AtomicInteger m_threadNumber = new AtomicInteger();
+
+        @Override
+        public Thread newThread(final Runnable r) {
+            final Thread thread = new Thread(r, "knime-ftp-transfer-" + m_threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
 }
@@ -0,0 +1,493 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   2026-10-17 (Vyacheslav Soldatov): created
+ */
+package org.knime.ext.ftp.filehandling.fs;
+
+import java.time.LocalDate;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import org.apache.commons.net.ftp.FTPClientConfig;
+import org.apache.commons.net.ftp.FTPFile;
+import org.apache.commons.net.ftp.FTPFileEntryParser;
+import org.apache.commons.net.ftp.FTPFileEntryParserImpl;
+import org.apache.commons.net.ftp.parser.CompositeFileEntryParser;
+import org.apache.commons.net.ftp.parser.DefaultFTPFileEntryParserFactory;
+import org.apache.commons.net.ftp.parser.FTPFileEntryParserFactory;
+import org.apache.commons.net.ftp.parser.NTFTPEntryParser;
+import org.apache.commons.net.ftp.parser.UnixFTPEntryParser;
+
+/**
+ * Parser of the LIST entries in the Unix <code>ls -l</code> and the Windows
+ * (IIS) format which produces the same {@link FTPFile} as the regular
+ * expression based parsers of Commons Net. An entry is tokenized in one pass
+ * without regular expressions and date formats, and the raw listing line is
+ * not kept in the file. Entries which are not in the usual form, like device
+ * files, numeric dates or names of owners with spaces, are passed to the parser
+ * of Commons Net created for the server.
+ *
+ * @author Vyacheslav Soldatov <vyacheslav@redfield.se>
+ */
+final class FtpListEntryParser extends FTPFileEntryParserImpl {
+
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    private static final String MONTHS = "janfebmaraprmayjunjulaugsepoctnovdec";
+
+    private final FTPFileEntryParser m_unixFallback;
+
+    private final FTPFileEntryParser m_windowsFallback;
+
+    private final long m_serverOffset;
+
+    private final boolean m_lenientFutureDates;
+
+    private final Calendar m_serverCalendar;
+
+    /**
+     * @param unixFallback
+     *            Commons Net parser for the Unix entries not in the usual form
+     *            or <code>null</code> if the server does not list in the Unix
+     *            format.
+     * @param windowsFallback
+     *            Commons Net parser for the Windows entries not in the usual
+     *            form or <code>null</code> if the server does not list in the
+     *            Windows format.
+     * @param serverTimeZone
+     *            server time zone with a fixed offset.
+     * @param lenientFutureDates
+     *            whether the recent dates up to one day in the future are
+     *            accepted, see {@link FTPClientConfig#isLenientFutureDates()}.
+     */
+    FtpListEntryParser(final FTPFileEntryParser unixFallback, final FTPFileEntryParser windowsFallback,
+            final TimeZone serverTimeZone, final boolean lenientFutureDates) {
+        m_unixFallback = unixFallback;
+        m_windowsFallback = windowsFallback;
+        m_serverOffset = serverTimeZone.getRawOffset();
+        m_lenientFutureDates = lenientFutureDates;
+        m_serverCalendar = new GregorianCalendar(serverTimeZone);
+    }
+
+    @Override
+    public FTPFile parseFTPEntry(final String entry) {
+        if (entry.isEmpty()) {
+            return null;
+        }
+
+        // Windows entries start with the date, Unix entries with the file type
+        final char first = entry.charAt(0);
+        final FTPFile file;
+        final FTPFileEntryParser fallback;
+        if (m_windowsFallback != null && (m_unixFallback == null || (first >= '0' && first <= '9'))) {
+            file = parseWindows(entry);
+            fallback = m_windowsFallback;
+        } else {
+            file = parseUnix(entry);
+            fallback = m_unixFallback;
+        }
+        return file != null ? file : fallback.parseFTPEntry(entry);
+    }
+
+    /**
+     * Discards the "total nnn" lines like the {@link UnixFTPEntryParser} but
+     * without matching each line against a regular expression.
+     */
+    @Override
+    public List<String> preParse(final List<String> original) {
+        final Iterator<String> iter = original.iterator();
+        while (iter.hasNext()) {
+            final String entry = iter.next();
+            if (entry.startsWith("total ")
+                    && FtpMlsxEntryParser.parseNumber(entry, "total ".length(), entry.length()) >= 0) {
+                iter.remove();
+            }
+        }
+        return original;
+    }
+
+    /**
+     * Parses an entry like
+     * <code>drwxr-xr-x  2 user group  4096 Oct 17 00:56 name</code>.
+     */
+    private FTPFile parseUnix(final String entry) {
+        final int len = entry.length();
+        if (len < 11) {
+            return null;
+        }
+
+        final int type = toType(entry.charAt(0));
+        if (type < 0 || !isPermissions(entry)) {
+            return null;
+        }
+
+        int pos = entry.charAt(10) == '+' ? 11 : 10;
+
+        // link count may follow the permissions without a separator
+        pos = skipSpaces(entry, pos);
+        final int linksEnd = tokenEnd(entry, pos);
+        final long links = FtpMlsxEntryParser.parseNumber(entry, pos, linksEnd);
+
+        final int userStart = skipSpaces(entry, linksEnd);
+        final int userEnd = tokenEnd(entry, userStart);
+        final int groupStart = skipSpaces(entry, userEnd);
+        final int groupEnd = tokenEnd(entry, groupStart);
+        final int sizeStart = skipSpaces(entry, groupEnd);
+        final int sizeEnd = tokenEnd(entry, sizeStart);
+        final long size = FtpMlsxEntryParser.parseNumber(entry, sizeStart, sizeEnd);
+        if (links < 0 || links > Integer.MAX_VALUE || linksEnd == userStart || userStart == userEnd
+                || groupStart == groupEnd || size < 0) {
+            return null;
+        }
+
+        final int monthStart = skipSpaces(entry, sizeEnd);
+        final int monthEnd = tokenEnd(entry, monthStart);
+        final int dayStart = skipSpaces(entry, monthEnd);
+        final int dayEnd = tokenEnd(entry, dayStart);
+        final int timeStart = skipSpaces(entry, dayEnd);
+        final int timeEnd = tokenEnd(entry, timeStart);
+        // the name follows after exactly one separator
+        if (timeEnd >= len || !isSpace(entry.charAt(timeEnd))) {
+            return null;
+        }
+
+        final Calendar timestamp = parseUnixTimestamp(entry, monthStart, monthEnd, dayStart, dayEnd, timeStart,
+                timeEnd);
+        if (timestamp == null) {
+            return null;
+        }
+
+        final FTPFile file = new FTPFile();
+        file.setType(type);
+        for (int access = 0; access < 3; access++) {
+            final int p = 1 + access * 3;
+            file.setPermission(access, FTPFile.READ_PERMISSION, entry.charAt(p) != '-');
+            file.setPermission(access, FTPFile.WRITE_PERMISSION, entry.charAt(p + 1) != '-');
+            final char exec = entry.charAt(p + 2);
+            file.setPermission(access, FTPFile.EXECUTE_PERMISSION, exec != '-' && !Character.isUpperCase(exec));
+        }
+        file.setHardLinkCount((int) links);
+        file.setUser(entry.substring(userStart, userEnd));
+        file.setGroup(entry.substring(groupStart, groupEnd));
+        file.setSize(size);
+        file.setTimestamp(timestamp);
+
+        final int nameStart = timeEnd + 1;
+        final int linkStart = type == FTPFile.SYMBOLIC_LINK_TYPE ? entry.indexOf(" -> ", nameStart) : -1;
+        if (linkStart < 0) {
+            file.setName(entry.substring(nameStart));
+        } else {
+            file.setName(entry.substring(nameStart, linkStart));
+            file.setLink(entry.substring(linkStart + 4));
+        }
+        return file;
+    }
+
+    /**
+     * @return the file type or -1 for the device files and unknown types.
+     */
+    private static int toType(final char ch) {
+        switch (ch) {
+            case 'd':
+                return FTPFile.DIRECTORY_TYPE;
+            case 'e':
+            case 'l':
+                return FTPFile.SYMBOLIC_LINK_TYPE;
+            case 'f':
+            case '-':
+                return FTPFile.FILE_TYPE;
+            case 'm':
+            case 'p':
+            case 's':
+            case 'S':
+                return FTPFile.UNKNOWN_TYPE;
+            default:
+                return -1;
+        }
+    }
+
+    private static boolean isPermissions(final String entry) {
+        for (int p = 1; p < 10; p += 3) {
+            final char read = entry.charAt(p);
+            final char write = entry.charAt(p + 1);
+            if ((read != 'r' && read != '-') || (write != 'w' && write != '-')
+                    || "xsStTL-".indexOf(entry.charAt(p + 2)) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parses a time stamp like <code>Oct 17 00:56</code> or
+     * <code>Oct 17 2020</code>.
+     */
+    private Calendar parseUnixTimestamp(final String entry, final int monthStart, final int monthEnd,
+            final int dayStart, final int dayEnd, final int timeStart, final int timeEnd) {
+        final int month = monthEnd - monthStart == 3 ? parseMonth(entry, monthStart) : -1;
+        final int day = dayEnd - dayStart <= 2 ? (int) FtpMlsxEntryParser.parseNumber(entry, dayStart, dayEnd) : -1;
+        if (month < 0 || day < 1) {
+            return null;
+        }
+
+        final int colon = FtpMlsxEntryParser.indexOf(entry, ':', timeStart, timeEnd);
+        if (colon < 0) {
+            // the date with year, e.g. Oct 17 2020
+            final int year = timeEnd - timeStart == 4 ? FtpMlsxEntryParser.parseDigits(entry, timeStart, 4) : -1;
+            if (!isValidDate(year, month, day)) {
+                return null;
+            }
+            return toCalendar(toServerMillis(year, month, day, 0, 0), Calendar.HOUR_OF_DAY);
+        }
+
+        // the recent date without year, e.g. Oct 17 00:56
+        final int hour = colon - timeStart <= 2 ? (int) FtpMlsxEntryParser.parseNumber(entry, timeStart, colon) : -1;
+        final int minute = timeEnd - colon == 3 ? FtpMlsxEntryParser.parseDigits(entry, colon + 1, 2) : -1;
+        // Feb 29 would need the year to be known to be valid, 2001 is no leap year
+        if (hour < 0 || hour > 23 || minute < 0 || minute > 59 || !isValidDate(2001, month, day)) {
+            return null;
+        }
+        return toCalendar(toRecentMillis(month, day, hour, minute), Calendar.SECOND);
+    }
+
+    /**
+     * Parses an entry like <code>10-17-20  12:56AM  &lt;DIR&gt;  name</code>
+     * or <code>10-17-20  12:56AM  4096 name</code>.
+     */
+    private FTPFile parseWindows(final String entry) {
+        final int dateEnd = tokenEnd(entry, 0);
+        final int timeStart = skipSpaces(entry, dateEnd);
+        final int timeEnd = tokenEnd(entry, timeStart);
+        final int sizeStart = skipSpaces(entry, timeEnd);
+        final int sizeEnd = tokenEnd(entry, sizeStart);
+        final int nameStart = skipSpaces(entry, sizeEnd);
+        if (nameStart == entry.length() || nameStart == sizeEnd) {
+            return null;
+        }
+
+        final Calendar timestamp = parseWindowsTimestamp(entry, dateEnd, timeStart, timeEnd);
+        final boolean isDir = sizeEnd - sizeStart == 5 && entry.startsWith("<DIR>", sizeStart);
+        final long size = isDir ? 0 : FtpMlsxEntryParser.parseNumber(entry, sizeStart, sizeEnd);
+        final String name = entry.substring(nameStart);
+        // Commons Net skips "." and ".." entries
+        if (timestamp == null || size < 0 || ".".equals(name) || "..".equals(name)) {
+            return null;
+        }
+
+        final FTPFile file = new FTPFile();
+        file.setType(isDir ? FTPFile.DIRECTORY_TYPE : FTPFile.FILE_TYPE);
+        file.setSize(size);
+        file.setTimestamp(timestamp);
+        file.setName(name);
+        return file;
+    }
+
+    /**
+     * Parses a time stamp like <code>10-17-20 12:56AM</code>.
+     */
+    private Calendar parseWindowsTimestamp(final String entry, final int dateEnd, final int timeStart,
+            final int timeEnd) {
+        if (dateEnd != 8 || entry.charAt(2) != '-' || entry.charAt(5) != '-' || timeEnd - timeStart < 6
+                || timeEnd - timeStart > 7) {
+            return null;
+        }
+
+        final int month = FtpMlsxEntryParser.parseDigits(entry, 0, 2);
+        final int day = FtpMlsxEntryParser.parseDigits(entry, 3, 2);
+        final int year = toFourDigitYear(FtpMlsxEntryParser.parseDigits(entry, 6, 2));
+
+        final int colon = timeEnd - 5;
+        final int hour = (int) FtpMlsxEntryParser.parseNumber(entry, timeStart, colon);
+        final int minute = FtpMlsxEntryParser.parseDigits(entry, colon + 1, 2);
+        final boolean am = entry.regionMatches(true, timeEnd - 2, "AM", 0, 2);
+        final boolean pm = entry.regionMatches(true, timeEnd - 2, "PM", 0, 2);
+        if (entry.charAt(colon) != ':' || !isValidDate(year, month, day) || hour < 1 || hour > 12 || minute < 0
+                || minute > 59 || !(am || pm)) {
+            return null;
+        }
+        return toCalendar(toServerMillis(year, month, day, hour % 12 + (pm ? 12 : 0), minute), Calendar.SECOND);
+    }
+
+    /**
+     * Resolves a two digit year to the century that starts 80 years ago like
+     * {@link java.text.SimpleDateFormat}.
+     *
+     * @return four digit year or -1 if it is at the boundary of the century.
+     */
+    private static int toFourDigitYear(final int twoDigitYear) {
+        if (twoDigitYear < 0) {
+            return -1;
+        }
+        final int startYear = LocalDate.now().getYear() - 80;
+        int year = startYear / 100 * 100 + twoDigitYear;
+        if (year < startYear) {
+            year += 100;
+        }
+        return year == startYear ? -1 : year;
+    }
+
+    private static boolean isValidDate(final int year, final int month, final int day) {
+        // the Gregorian calendar switches to the Julian one in earlier years
+        return year >= 1600 && month >= 1 && month <= 12 && day >= 1
+                && day <= LocalDate.of(year, month, 1).lengthOfMonth();
+    }
+
+    /**
+     * @return zero based month index of the English short month name or -1.
+     */
+    private static int parseMonth(final String entry, final int start) {
+        for (int i = 0; i < MONTHS.length(); i += 3) {
+            if (entry.regionMatches(true, start, MONTHS, i, 3)) {
+                return i / 3 + 1;
+            }
+        }
+        return -1;
+    }
+
+    private long toServerMillis(final int year, final int month, final int day, final int hour, final int minute) {
+        return LocalDate.of(year, month, day).toEpochDay() * MILLIS_PER_DAY + (hour * 60L + minute) * 60_000L
+                - m_serverOffset;
+    }
+
+    /**
+     * The recent dates are within the last year, the year is the current one
+     * unless the date would be in the future, see
+     * {@link org.apache.commons.net.ftp.parser.FTPTimestampParserImpl}.
+     */
+    private long toRecentMillis(final int month, final int day, final int hour, final int minute) {
+        final long now = System.currentTimeMillis() + (m_lenientFutureDates ? MILLIS_PER_DAY : 0);
+        final int year = LocalDate.ofEpochDay(Math.floorDiv(now + m_serverOffset, MILLIS_PER_DAY)).getYear();
+
+        final long millis = toServerMillis(year, month, day, hour, minute);
+        return millis > now ? toServerMillis(year - 1, month, day, hour, minute) : millis;
+    }
+
+    /**
+     * @param clearField
+     *            the unit below the precision of the listing which is flagged
+     *            up as unset like Commons Net does.
+     */
+    private Calendar toCalendar(final long millis, final int clearField) {
+        final Calendar calendar = (Calendar) m_serverCalendar.clone();
+        calendar.setTimeInMillis(millis);
+        calendar.clear(clearField);
+        return calendar;
+    }
+
+    private static boolean isSpace(final char ch) {
+        return ch == ' ' || ch == '\t';
+    }
+
+    private static int skipSpaces(final String entry, final int start) {
+        int pos = start;
+        while (pos < entry.length() && isSpace(entry.charAt(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static int tokenEnd(final String entry, final int start) {
+        int pos = start;
+        while (pos < entry.length() && !isSpace(entry.charAt(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+
+    /**
+     * Factory which creates the fast parser for Unix and Windows servers and
+     * the parsers of Commons Net for the other systems or if the date format
+     * is configured.
+     */
+    static final class Factory implements FTPFileEntryParserFactory {
+        private final DefaultFTPFileEntryParserFactory m_defaultFactory = new DefaultFTPFileEntryParserFactory();
+
+        @Override
+        public FTPFileEntryParser createFileEntryParser(final String key) {
+            return m_defaultFactory.createFileEntryParser(key);
+        }
+
+        @Override
+        public FTPFileEntryParser createFileEntryParser(final FTPClientConfig config) {
+            // the parsers of Commons Net set their date formats to the configuration
+            final boolean defaultDateFormats = hasDefaultDateFormats(config);
+            final FTPClientConfig original = new FTPClientConfig(config);
+            final FTPFileEntryParser parser = m_defaultFactory.createFileEntryParser(config);
+
+            final TimeZone timeZone = original.getServerTimeZoneId() == null ? TimeZone.getDefault()
+                    : TimeZone.getTimeZone(original.getServerTimeZoneId());
+            if (!defaultDateFormats || !timeZone.toZoneId().getRules().isFixedOffset()) {
+                return parser;
+            }
+
+            final String key = original.getServerSystemKey().toUpperCase(Locale.ENGLISH);
+            final boolean lenient = original.isLenientFutureDates();
+            if (parser.getClass() == UnixFTPEntryParser.class
+                    && !key.contains(FTPClientConfig.SYST_UNIX_TRIM_LEADING)) {
+                return new FtpListEntryParser(parser, null, timeZone, lenient);
+            } else if (parser instanceof NTFTPEntryParser) {
+                return new FtpListEntryParser(null, parser, timeZone, lenient);
+            } else if (parser instanceof CompositeFileEntryParser && key.contains(FTPClientConfig.SYST_NT)) {
+                // the composite parser sticks to the format of the first entry it
+                // parsed, which may differ from the entries passed to it here
+                return new FtpListEntryParser(new UnixFTPEntryParser(new FTPClientConfig(original)),
+                        new NTFTPEntryParser(new FTPClientConfig(original)), timeZone, lenient);
+            }
+            return parser;
+        }
+
+        private static boolean hasDefaultDateFormats(final FTPClientConfig config) {
+            return config.getDefaultDateFormatStr() == null && config.getRecentDateFormatStr() == null
+                    && config.getShortMonthNames() == null
+                    && (config.getServerLanguageCode() == null || "en".equals(config.getServerLanguageCode()));
+        }
+    }
+}
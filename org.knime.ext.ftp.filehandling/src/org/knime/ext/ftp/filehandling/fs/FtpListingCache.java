@@ -0,0 +1,287 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   2026-10-17 (Vyacheslav Soldatov): created
+ */
+package org.knime.ext.ftp.filehandling.fs;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.NoSuchFileException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.net.ftp.FTPFile;
+import org.knime.filehandling.core.defaultnodesettings.ExceptionUtil;
+
+/**
+ * Cache of directory listings used to get the metadata of a single file on
+ * servers without MLST support. Such servers can answer the metadata of a file
+ * just by listing its parent directory, the cache allows to answer all the
+ * siblings of the file from one LIST command. Files missing in a cached
+ * listing are reported as not existing without asking the server again.
+ * Concurrent lookups in the same directory share one LIST command. The cache
+ * can be also filled with the listings of a whole tree from a recursive
+ * listing.
+ *
+ * @author Vyacheslav Soldatov <vyacheslav@redfield.se>
+ */
+public final class FtpListingCache {
+
+    /**
+     * Lists a directory.
+     */
+    @FunctionalInterface
+    interface DirectoryLister {
+        /**
+         * @param dir
+         *            directory to list.
+         * @return directory entries without "." and "..".
+         * @throws IOException
+         */
+        FTPFile[] list(String dir) throws IOException;
+    }
+
+    private static final class Listing {
+        private final long m_expiresAt;
+
+        private final FutureTask<Map<String, FTPFile>> m_task;
+
+        Listing(final long expiresAt, final FutureTask<Map<String, FTPFile>> task) {
+            m_expiresAt = expiresAt;
+            m_task = task;
+        }
+
+        boolean isExpired(final long now) {
+            return now - m_expiresAt >= 0;
+        }
+    }
+
+    private final long m_ttlNanos;
+
+    private final Map<String, Listing> m_listings = new ConcurrentHashMap<>();
+
+    private final LongAdder m_numHits = new LongAdder();
+
+    private final LongAdder m_numMisses = new LongAdder();
+
+    private final LongAdder m_numInvalidations = new LongAdder();
+
+    /**
+     * @param ttl
+     *            time to live of a cached listing. Zero or negative value
+     *            disables the cache.
+     */
+    FtpListingCache(final Duration ttl) {
+        m_ttlNanos = ttl.toNanos();
+    }
+
+    /**
+     * @return true if the listings are cached.
+     */
+    boolean isEnabled() {
+        return m_ttlNanos > 0;
+    }
+
+    /**
+     * @param path
+     *            path to get metadata for, is not root.
+     * @param lister
+     *            lister of the parent directory if the listing is not cached.
+     * @return metadata of given file.
+     * @throws NoSuchFileException
+     *             if the file is missing in the listing of its parent.
+     * @throws IOException
+     */
+    FTPFile getFileInfo(final FtpPath path, final DirectoryLister lister) throws IOException {
+        final String dir = path.getParent().toString();
+        final FTPFile file = getListing(dir, lister).get(path.getFileName().toString());
+        if (file == null) {
+            throw new NoSuchFileException(path.toString());
+        }
+        return file;
+    }
+
+    private Map<String, FTPFile> getListing(final String dir, final DirectoryLister lister) throws IOException {
+        while (true) {
+            final long now = System.nanoTime();
+            final Listing cached = m_listings.get(dir);
+            if (cached != null && !cached.isExpired(now)) {
+                m_numHits.increment();
+                return await(dir, cached);
+            }
+
+            final Listing loading = new Listing(now + m_ttlNanos, new FutureTask<>(() -> toMap(Arrays.asList(lister.list(dir)))));
+            final boolean isOwner = cached == null ? m_listings.putIfAbsent(dir, loading) == null
+                    : m_listings.replace(dir, cached, loading);
+            if (isOwner) {
+                // the directory is listed by the calling thread, other threads
+                // looking up the same directory wait for the result
+                m_numMisses.increment();
+                loading.m_task.run();
+                return await(dir, loading);
+            }
+        }
+    }
+
+    private Map<String, FTPFile> await(final String dir, final Listing listing) throws IOException {
+        try {
+            return listing.m_task.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw (InterruptedIOException) new InterruptedIOException("Listing of " + dir + " interrupted")
+                    .initCause(ex);
+        } catch (ExecutionException ex) {
+            // do not cache failures
+            m_listings.remove(dir, listing);
+            throw ExceptionUtil.wrapAsIOException(ex.getCause());
+        }
+    }
+
+    private static Map<String, FTPFile> toMap(final Iterable<FTPFile> files) {
+        final Map<String, FTPFile> map = new LinkedHashMap<>();
+        for (FTPFile file : files) {
+            map.put(file.getName(), file);
+        }
+        return map;
+    }
+
+    /**
+     * @param dir
+     *            directory path.
+     * @return entries of the directory in listing order or <code>null</code>
+     *         if there is no valid listing of the directory in the cache.
+     * @throws IOException
+     */
+    Collection<FTPFile> getCachedListing(final String dir) throws IOException {
+        final Listing cached = m_listings.get(dir);
+        if (cached == null || cached.isExpired(System.nanoTime()) || !cached.m_task.isDone()) {
+            return null; // NOSONAR null means not cached
+        }
+        m_numHits.increment();
+        return await(dir, cached).values();
+    }
+
+    /**
+     * @param dir
+     *            directory path.
+     * @param files
+     *            directory entries.
+     */
+    void put(final String dir, final List<FTPFile> files) {
+        if (isEnabled()) {
+            final FutureTask<Map<String, FTPFile>> task = new FutureTask<>(() -> toMap(files));
+            task.run();
+            m_listings.put(dir, new Listing(System.nanoTime() + m_ttlNanos, task));
+        }
+    }
+
+    /**
+     * Removes the listing of the parent of given path, the listing of the path
+     * itself and of all its descendants. Should be called whenever the path is
+     * created, modified, deleted or renamed.
+     *
+     * @param path
+     *            changed path.
+     */
+    void invalidate(final FtpPath path) {
+        if (!isEnabled() || m_listings.isEmpty()) {
+            return;
+        }
+        m_numInvalidations.increment();
+
+        final String dir = path.toString();
+        final String prefix = dir.endsWith(FtpFileSystem.PATH_SEPARATOR) ? dir : dir + FtpFileSystem.PATH_SEPARATOR;
+        m_listings.keySet().removeIf(key -> key.equals(dir) || key.startsWith(prefix));
+
+        final FtpPath parent = path.getParent();
+        if (parent != null) {
+            m_listings.remove(parent.toString());
+        }
+    }
+
+    /**
+     * Removes all cached listings.
+     */
+    void clear() {
+        m_listings.clear();
+    }
+
+    /**
+     * @return number of lookups answered from a cached listing.
+     */
+    public long getNumHits() {
+        return m_numHits.sum();
+    }
+
+    /**
+     * @return number of lookups which had to list the directory.
+     */
+    public long getNumMisses() {
+        return m_numMisses.sum();
+    }
+
+    /**
+     * @return number of invalidations because of modifications.
+     */
+    public long getNumInvalidations() {
+        return m_numInvalidations.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("hits=%d, misses=%d, invalidations=%d, directories=%d", getNumHits(), getNumMisses(),
+                getNumInvalidations(), m_listings.size());
+    }
+}
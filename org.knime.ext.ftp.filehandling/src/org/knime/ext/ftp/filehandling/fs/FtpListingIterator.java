@@ -0,0 +1,161 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   2026-10-17 (Vyacheslav Soldatov): created
+ */
+package org.knime.ext.ftp.filehandling.fs;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
+
+import org.apache.commons.net.ftp.FTPFile;
+import org.apache.commons.net.ftp.FTPListParseEngine;
+
+/**
+ * Iterator over the entries of a directory listing. {@link FtpPath} and
+ * {@link FtpFileAttributes} instances are created when the entry is reached
+ * and not for the whole directory in advance. A listing read by
+ * {@link FTPListParseEngine} is parsed page by page, see
+ * {@link #pages(FTPListParseEngine)}.
+ * <p>
+ * The engine holds the raw lines of the whole listing, the iteration does not
+ * start before the listing is transferred. The data connection is not kept
+ * open while iterating on purpose: each open directory stream would hold a
+ * pooled connection, so the nested streams of a deep walk would exhaust the
+ * pool and wait for each other, and a stream which is neither exhausted nor
+ * closed would never return its connection.
+ *
+ * @author Vyacheslav Soldatov <vyacheslav@redfield.se>
+ */
+final class FtpListingIterator implements Iterator<FtpPath> {
+
+    /**
+     * Number of listing entries parsed at once.
+     */
+    static final int PAGE_SIZE = 1000;
+
+    private final FtpPath m_dir;
+
+    private final Iterator<FTPFile> m_files;
+
+    private final BiConsumer<FtpPath, FtpFileAttributes> m_attributesConsumer;
+
+    private FtpPath m_next;
+
+    /**
+     * @param dir
+     *            listed directory.
+     * @param files
+     *            the directory entries, can contain the "." and ".." entries
+     *            and <code>null</code> for the entries which could not be
+     *            parsed.
+     * @param attributesConsumer
+     *            consumer of the attributes of the entries, is invoked when the
+     *            entry is reached.
+     */
+    FtpListingIterator(final FtpPath dir, final Iterator<FTPFile> files,
+            final BiConsumer<FtpPath, FtpFileAttributes> attributesConsumer) {
+        m_dir = dir;
+        m_files = files;
+        m_attributesConsumer = attributesConsumer;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (m_next == null && m_files.hasNext()) {
+            final FTPFile file = m_files.next();
+            // unparsable lines are returned as null
+            if (file != null && !".".equals(file.getName()) && !"..".equals(file.getName())) {
+                m_next = m_dir.resolve(file.getName());
+                m_attributesConsumer.accept(m_next, new FtpFileAttributes(m_next, file));
+            }
+        }
+        return m_next != null;
+    }
+
+    @Override
+    public FtpPath next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        final FtpPath next = m_next;
+        m_next = null;
+        return next;
+    }
+
+    /**
+     * @param engine
+     *            parse engine holding a directory listing.
+     * @return iterator over the entries of the listing, the entries are parsed
+     *         in pages of {@link #PAGE_SIZE}.
+     */
+    static Iterator<FTPFile> pages(final FTPListParseEngine engine) {
+        return new Iterator<FTPFile>() {
+            private final Deque<FTPFile> m_page = new ArrayDeque<>(PAGE_SIZE);
+
+            @Override
+            public boolean hasNext() {
+                while (m_page.isEmpty() && engine.hasNext()) {
+                    // ArrayDeque does not permit null entries
+                    Arrays.stream(engine.getNext(PAGE_SIZE)).filter(f -> f != null).forEach(m_page::add);
+                }
+                return !m_page.isEmpty();
+            }
+
+            @Override
+            public FTPFile next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return m_page.poll();
+            }
+        };
+    }
+}
@@ -0,0 +1,312 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   2026-10-17 (Vyacheslav Soldatov): created
+ */
+package org.knime.ext.ftp.filehandling.fs;
+
+import java.time.LocalDate;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+
+import org.apache.commons.net.ftp.FTPFile;
+import org.apache.commons.net.ftp.FTPFileEntryParserImpl;
+import org.apache.commons.net.ftp.parser.MLSxEntryParser;
+
+/**
+ * Parser of the MLSD and MLST entries (RFC 3659) which produces the same
+ * {@link FTPFile} as the {@link MLSxEntryParser} of Commons Net. The facts are
+ * scanned in place without splitting the entry, lower casing the fact names or
+ * creating a date format for each time stamp, and the raw listing line is not
+ * kept in the file. Entries which are not in the usual form are passed to the
+ * {@link MLSxEntryParser}.
+ *
+ * @author Vyacheslav Soldatov <vyacheslav@redfield.se>
+ */
+final class FtpMlsxEntryParser extends FTPFileEntryParserImpl {
+    /**
+     * The parser is stateless, therefore one instance can be shared.
+     */
+    static final FtpMlsxEntryParser INSTANCE = new FtpMlsxEntryParser();
+
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    private static final int[] UNIX_GROUPS = { FTPFile.USER_ACCESS, FTPFile.GROUP_ACCESS, FTPFile.WORLD_ACCESS };
+
+    private static final Calendar GMT_CALENDAR = new GregorianCalendar(TimeZone.getTimeZone("GMT"));
+
+    private FtpMlsxEntryParser() {
+    }
+
+    @Override
+    public FTPFile parseFTPEntry(final String entry) {
+        final FTPFile file = parseFacts(entry);
+        return file != null ? file : MLSxEntryParser.parseEntry(entry);
+    }
+
+    /**
+     * @return parsed file or <code>null</code> if the entry should be parsed by
+     *         the {@link MLSxEntryParser}.
+     */
+    private static FTPFile parseFacts(final String entry) {
+        final int factsEnd = entry.indexOf(' ');
+        // no facts, no name or facts not terminated by ';'
+        if (factsEnd < 1 || factsEnd == entry.length() - 1 || entry.charAt(factsEnd - 1) != ';') {
+            return null;
+        }
+
+        final FTPFile file = new FTPFile();
+        file.setName(entry.substring(factsEnd + 1));
+
+        boolean hasUnixMode = false;
+        int permStart = -1;
+        int permEnd = -1;
+
+        int factStart = 0;
+        while (factStart < factsEnd) {
+            final int factEnd = entry.indexOf(';', factStart);
+            final int eq = indexOf(entry, '=', factStart, factEnd);
+            if (eq < 0 || indexOf(entry, '=', eq + 1, factEnd) >= 0) {
+                // invalid fact
+                return null;
+            }
+
+            final int valueStart = eq + 1;
+            if (isFact(entry, factStart, eq, "unix.mode")) {
+                // commons net ignores the "perm" fact even if the mode is empty
+                hasUnixMode = true;
+            }
+
+            if (valueStart < factEnd) {
+                if (isFact(entry, factStart, eq, "perm")) {
+                    permStart = valueStart;
+                    permEnd = factEnd;
+                } else if (!parseFact(file, entry, factStart, eq, factEnd)) {
+                    return null;
+                }
+            }
+            factStart = factEnd + 1;
+        }
+
+        if (!hasUnixMode && permStart >= 0) {
+            setPermissions(file, entry, permStart, permEnd);
+        }
+        return file;
+    }
+
+    private static boolean parseFact(final FTPFile file, final String entry, final int factStart, final int eq,
+            final int factEnd) {
+        final int valueStart = eq + 1;
+        if (isFact(entry, factStart, eq, "size") || isFact(entry, factStart, eq, "sizd")) {
+            final long size = parseNumber(entry, valueStart, factEnd);
+            if (size < 0) {
+                return false;
+            }
+            file.setSize(size);
+        } else if (isFact(entry, factStart, eq, "modify")) {
+            final Calendar timestamp = parseTimestamp(entry, valueStart, factEnd);
+            if (timestamp == null) {
+                return false;
+            }
+            file.setTimestamp(timestamp);
+        } else if (isFact(entry, factStart, eq, "type")) {
+            file.setType(parseType(entry, valueStart, factEnd));
+        } else if (isFact(entry, factStart, eq, "unix.group")) {
+            file.setGroup(entry.substring(valueStart, factEnd));
+        } else if (isFact(entry, factStart, eq, "unix.owner")) {
+            file.setUser(entry.substring(valueStart, factEnd));
+        } else if (isFact(entry, factStart, eq, "unix.mode")) {
+            if (factEnd - valueStart < 3) {
+                return false;
+            }
+            setUnixMode(file, entry, factEnd - 3);
+        }
+        // other facts are ignored
+        return true;
+    }
+
+    private static boolean isFact(final String entry, final int factStart, final int eq, final String name) {
+        return eq - factStart == name.length() && entry.regionMatches(true, factStart, name, 0, name.length());
+    }
+
+    private static int parseType(final String entry, final int start, final int end) {
+        final int len = end - start;
+        if (len == 4 && entry.regionMatches(true, start, "file", 0, 4)) {
+            return FTPFile.FILE_TYPE;
+        }
+        if ((len == 3 && entry.regionMatches(true, start, "dir", 0, 3))
+                || (len == 4 && (entry.regionMatches(true, start, "cdir", 0, 4)
+                        || entry.regionMatches(true, start, "pdir", 0, 4)))) {
+            return FTPFile.DIRECTORY_TYPE;
+        }
+        return FTPFile.UNKNOWN_TYPE;
+    }
+
+    /**
+     * Sets the permissions of the last three octal digits of the mode.
+     */
+    private static void setUnixMode(final FTPFile file, final String entry, final int start) {
+        for (int i = 0; i < 3; i++) {
+            final int digit = entry.charAt(start + i) - '0';
+            if (digit >= 0 && digit <= 7) {
+                file.setPermission(UNIX_GROUPS[i], FTPFile.READ_PERMISSION, (digit & 4) != 0);
+                file.setPermission(UNIX_GROUPS[i], FTPFile.WRITE_PERMISSION, (digit & 2) != 0);
+                file.setPermission(UNIX_GROUPS[i], FTPFile.EXECUTE_PERMISSION, (digit & 1) != 0);
+            }
+        }
+    }
+
+    /**
+     * Maps the "perm" fact to the user permissions the same way as Commons Net.
+     */
+    private static void setPermissions(final FTPFile file, final String entry, final int start, final int end) {
+        for (int i = start; i < end; i++) {
+            switch (Character.toLowerCase(entry.charAt(i))) {
+                case 'a':
+                case 'c':
+                case 'd':
+                case 'm':
+                case 'p':
+                case 'w':
+                    file.setPermission(FTPFile.USER_ACCESS, FTPFile.WRITE_PERMISSION, true);
+                    break;
+                case 'e':
+                case 'r':
+                    file.setPermission(FTPFile.USER_ACCESS, FTPFile.READ_PERMISSION, true);
+                    break;
+                case 'l':
+                    file.setPermission(FTPFile.USER_ACCESS, FTPFile.EXECUTE_PERMISSION, true);
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Parses a GMT time stamp of the form yyyyMMddHHmmss[.SSS].
+     *
+     * @return the time stamp or <code>null</code> if it is not in the usual
+     *         form.
+     */
+    private static Calendar parseTimestamp(final String entry, final int start, final int end) {
+        final int len = end - start;
+        final boolean hasMillis = len == 18 && entry.charAt(start + 14) == '.';
+        if (len != 14 && !hasMillis) {
+            return null;
+        }
+
+        final int year = parseDigits(entry, start, 4);
+        final int month = parseDigits(entry, start + 4, 2);
+        final int day = parseDigits(entry, start + 6, 2);
+        final int hour = parseDigits(entry, start + 8, 2);
+        final int minute = parseDigits(entry, start + 10, 2);
+        final int second = parseDigits(entry, start + 12, 2);
+        final int millis = hasMillis ? parseDigits(entry, start + 15, 3) : 0;
+
+        // the Gregorian calendar switches to the Julian one in earlier years
+        if (year < 1600 || month < 1 || month > 12 || day < 1 || hour < 0 || hour > 23 || minute < 0
+                || minute > 59 || second < 0 || second > 59 || millis < 0
+                || day > LocalDate.of(year, month, 1).lengthOfMonth()) {
+            return null;
+        }
+
+        final long epochDay = LocalDate.of(year, month, day).toEpochDay();
+        final Calendar calendar = (Calendar) GMT_CALENDAR.clone();
+        calendar.setTimeInMillis(
+                epochDay * MILLIS_PER_DAY + ((hour * 60L + minute) * 60L + second) * 1000L + millis);
+        if (!hasMillis) {
+            // flag up missing milliseconds like Commons Net
+            calendar.clear(Calendar.MILLISECOND);
+        }
+        return calendar;
+    }
+
+    /**
+     * @return the value of given number of decimal digits or -1 if a character
+     *         is not a digit.
+     */
+    static int parseDigits(final String s, final int start, final int numDigits) {
+        int value = 0;
+        for (int i = start; i < start + numDigits; i++) {
+            final int digit = s.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /**
+     * @return the value of the decimal number or -1 if it is empty, contains a
+     *         non digit character or is too long.
+     */
+    static long parseNumber(final String s, final int start, final int end) {
+        if (start == end || end - start > 18) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            final int digit = s.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    static int indexOf(final String s, final char ch, final int start, final int end) {
+        for (int i = start; i < end; i++) {
+            if (s.charAt(i) == ch) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
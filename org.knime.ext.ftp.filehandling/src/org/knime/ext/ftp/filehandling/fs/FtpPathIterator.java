@@ -51,7 +51,7 @@
 import java.io.IOException;
 import java.nio.file.DirectoryStream.Filter;
 import java.nio.file.Path;
-import java.util.List;
+import java.util.Iterator;
 
 import org.knime.filehandling.core.connections.base.BasePathIterator;
 
@@ -63,16 +63,16 @@
 public final class FtpPathIterator extends BasePathIterator<FtpPath> {
     /**
      * @param files
-     *            file list.
+     *            iterator over the directory entries, is consumed lazily.
      * @param filter
      *            path filter.
      * @param path
      *            path to list.
      * @throws IOException
      */
-    public FtpPathIterator(final FtpPath path, final List<FtpPath> files,
+    public FtpPathIterator(final FtpPath path, final Iterator<FtpPath> files,
             final Filter<? super Path> filter) throws IOException {
         super(path, filter != null ? filter : p -> true);
-        setFirstPage(files.iterator());
+        setFirstPage(files);
     }
 }
@@ -0,0 +1,254 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   2026-10-17 (Vyacheslav Soldatov): created
+ */
+package org.knime.ext.ftp.filehandling.fs;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.knime.filehandling.core.defaultnodesettings.ExceptionUtil;
+
+/**
+ * Read-only FTP implementation of {@link SeekableByteChannel}. In opposite to
+ * {@link FtpSeekableByteChannel} the file is not downloaded completely when
+ * opened. Instead the file is read in blocks requested by REST + RETR for the
+ * current position. Recently used blocks are cached and the next block is
+ * prefetched when the channel is read sequentially.
+ *
+ * @author Vyacheslav Soldatov <vyacheslav@redfield.se>
+ */
+final class FtpReadOnlySeekableByteChannel implements SeekableByteChannel {
+
+    /**
+     * Size of a block requested from server.
+     */
+    static final int BLOCK_SIZE = 512 * 1024;
+
+    /**
+     * Max number of cached blocks.
+     */
+    static final int MAX_CACHED_BLOCKS = 16;
+
+    private final FtpFileSystemProvider m_provider;
+
+    private final String m_path;
+
+    private final long m_size;
+
+    private final ExecutorService m_prefetchExecutor;
+
+    private final Map<Long, Future<byte[]>> m_blocks = new LinkedHashMap<Long, Future<byte[]>>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<Long, Future<byte[]>> eldest) {
+            if (size() > MAX_CACHED_BLOCKS) {
+                eldest.getValue().cancel(false);
+                return true;
+            }
+            return false;
+        }
+    };
+
+    private long m_position;
+
+    private long m_lastReadBlock = -1;
+
+    private boolean m_isOpen = true;
+
+    /**
+     * @param provider
+     *            file system provider.
+     * @param path
+     *            file path.
+     * @param size
+     *            file size.
+     * @param prefetchExecutor
+     *            executor to prefetch blocks with.
+     */
+    FtpReadOnlySeekableByteChannel(final FtpFileSystemProvider provider, final String path, final long size,
+            final ExecutorService prefetchExecutor) {
+        m_provider = provider;
+        m_path = path;
+        m_size = size;
+        m_prefetchExecutor = prefetchExecutor;
+    }
+
+    @Override
+    public synchronized boolean isOpen() {
+        return m_isOpen;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (m_isOpen) {
+            m_isOpen = false;
+            for (Future<byte[]> block : m_blocks.values()) {
+                block.cancel(false);
+            }
+            m_blocks.clear();
+        }
+    }
+
+    @Override
+    public synchronized int read(final ByteBuffer dst) throws IOException {
+        checkOpen();
+
+        if (m_position >= m_size) {
+            return -1;
+        }
+        if (!dst.hasRemaining()) {
+            return 0;
+        }
+
+        int numRead = 0;
+        while (dst.hasRemaining() && m_position < m_size) {
+            final long blockIndex = m_position / BLOCK_SIZE;
+            final byte[] block = getBlock(blockIndex);
+
+            final int offsetInBlock = (int) (m_position - blockIndex * BLOCK_SIZE);
+            if (offsetInBlock >= block.length) {
+                // file is shorter than expected
+                break;
+            }
+
+            final int n = Math.min(dst.remaining(), block.length - offsetInBlock);
+            dst.put(block, offsetInBlock, n);
+            m_position += n;
+            numRead += n;
+
+            if (m_lastReadBlock >= 0 && blockIndex == m_lastReadBlock + 1) {
+                // sequential read, request the next block in background
+                prefetch(blockIndex + 1);
+            }
+            m_lastReadBlock = blockIndex;
+        }
+
+        return numRead == 0 ? -1 : numRead;
+    }
+
+    private byte[] getBlock(final long blockIndex) throws IOException {
+        Future<byte[]> block = m_blocks.get(blockIndex);
+        if (block == null) {
+            block = CompletableFuture.completedFuture(readBlock(blockIndex));
+            m_blocks.put(blockIndex, block);
+        }
+
+        try {
+            return block.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            final InterruptedIOException ioe = new InterruptedIOException("Reading of " + m_path + " interrupted");
+            ioe.initCause(ex);
+            throw ioe;
+        } catch (ExecutionException ex) {
+            // do not keep the failed prefetch
+            m_blocks.remove(blockIndex);
+            throw ExceptionUtil.wrapAsIOException(ex.getCause());
+        }
+    }
+
+    private void prefetch(final long blockIndex) {
+        if (blockIndex * BLOCK_SIZE < m_size && !m_blocks.containsKey(blockIndex)) {
+            m_blocks.put(blockIndex, m_prefetchExecutor.submit(() -> readBlock(blockIndex)));
+        }
+    }
+
+    private byte[] readBlock(final long blockIndex) throws IOException {
+        final long offset = blockIndex * BLOCK_SIZE;
+        return m_provider.readRange(m_path, offset, (int) Math.min(BLOCK_SIZE, m_size - offset));
+    }
+
+    @Override
+    public int write(final ByteBuffer src) throws IOException {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public synchronized long position() throws IOException {
+        checkOpen();
+        return m_position;
+    }
+
+    @Override
+    public synchronized SeekableByteChannel position(final long newPosition) throws IOException {
+        checkOpen();
+        if (newPosition < 0) {
+            throw new IllegalArgumentException("Negative position: " + newPosition);
+        }
+        m_position = newPosition;
+        return this;
+    }
+
+    @Override
+    public synchronized long size() throws IOException {
+        checkOpen();
+        return m_size;
+    }
+
+    @Override
+    public SeekableByteChannel truncate(final long size) throws IOException {
+        throw new NonWritableChannelException();
+    }
+
+    private void checkOpen() throws ClosedChannelException {
+        if (!m_isOpen) {
+            throw new ClosedChannelException();
+        }
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   2026-10-17 (Vyacheslav Soldatov): created
+ */
+package org.knime.ext.ftp.filehandling.fs;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.net.ftp.FTPClientConfig;
+import org.apache.commons.net.ftp.FTPFile;
+import org.apache.commons.net.ftp.FTPFileEntryParser;
+
+/**
+ * Parser of a recursive directory listing in <code>ls -lR</code> format as
+ * returned by <code>STAT -R</code>. The listing consists of blocks of entries,
+ * each block except the first one is headed by the directory path followed by
+ * a colon. Only the directories up to {@link #MAX_DEPTH} levels below the
+ * listed one are kept, the deeper ones are listed again when walked.
+ *
+ * @author Vyacheslav Soldatov <vyacheslav@redfield.se>
+ */
+final class FtpRecursiveListingParser {
+
+    /**
+     * Maximum number of lines of one listing, larger trees are listed
+     * directory by directory.
+     */
+    static final int MAX_ENTRIES = 1_000_000;
+
+    /**
+     * Maximum depth of the kept listings below the listed directory, a walk
+     * must not keep the whole subtree, e.g. when the root is listed.
+     */
+    static final int MAX_DEPTH = 3;
+
+    /**
+     * Maximum time of reading one listing, slower listings are aborted and
+     * the tree is listed directory by directory.
+     */
+    static final Duration MAX_DURATION = Duration.ofSeconds(30);
+
+    private final FTPFileEntryParser m_entryParser;
+
+    /**
+     * @param serverTimeZoneOffset
+     *            server time zone offset to interpret the time stamps with.
+     */
+    FtpRecursiveListingParser(final Duration serverTimeZoneOffset) {
+        final FTPClientConfig config = new FTPClientConfig(FTPClientConfig.SYST_UNIX);
+        config.setServerTimeZoneId(FtpClientFactory.constructServerTimeZoneId(serverTimeZoneOffset));
+        m_entryParser = new FtpListEntryParser.Factory().createFileEntryParser(config);
+    }
+
+    /**
+     * @param dir
+     *            listed directory.
+     * @param lines
+     *            listing lines.
+     * @return entries of the listed directories up to {@link #MAX_DEPTH} by
+     *         absolute directory path in listing order or <code>null</code> if
+     *         the listing is not recursive, i.e. a sub directory was not
+     *         listed.
+     */
+    Map<String, List<FTPFile>> parse(final String dir, final List<String> lines) {
+        final Map<String, List<FTPFile>> listings = new LinkedHashMap<>();
+
+        List<FTPFile> current = new ArrayList<>();
+        listings.put(dir, current);
+
+        for (String line : lines) {
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+
+            final FTPFile file = m_entryParser.parseFTPEntry(line);
+            if (file == null) {
+                if (line.endsWith(":")) {
+                    // header of next directory block, deeper blocks are skipped
+                    final String header = resolveHeader(dir, line.substring(0, line.length() - 1));
+                    current = getDepth(dir, header) <= MAX_DEPTH
+                            ? listings.computeIfAbsent(header, k -> new ArrayList<>())
+                            : null;
+                }
+                // other unparsable lines like "total 42" are skipped
+            } else if (current != null && !".".equals(file.getName()) && !"..".equals(file.getName())) {
+                current.add(file);
+            }
+        }
+
+        return isComplete(dir, listings) ? listings : null;
+    }
+
+    private static String resolveHeader(final String dir, final String header) {
+        String path = header;
+        if (path.equals(".")) {
+            return dir;
+        }
+        if (path.startsWith("./")) {
+            path = path.substring(2);
+        }
+        if (!path.startsWith(FtpFileSystem.PATH_SEPARATOR)) {
+            path = dir.endsWith(FtpFileSystem.PATH_SEPARATOR) ? dir + path : dir + FtpFileSystem.PATH_SEPARATOR + path;
+        }
+        while (path.length() > 1 && path.endsWith(FtpFileSystem.PATH_SEPARATOR)) {
+            path = path.substring(0, path.length() - 1);
+        }
+        return path;
+    }
+
+    /**
+     * @return number of levels of given path below the directory or
+     *         {@link Integer#MAX_VALUE} if it is not below the directory.
+     */
+    private static int getDepth(final String dir, final String path) {
+        if (path.equals(dir)) {
+            return 0;
+        }
+        final String prefix = withSeparator(dir);
+        if (!path.startsWith(prefix)) {
+            return Integer.MAX_VALUE;
+        }
+        return (int) path.substring(prefix.length()).chars().filter(c -> c == '/').count() + 1;
+    }
+
+    private static String withSeparator(final String dir) {
+        return dir.endsWith(FtpFileSystem.PATH_SEPARATOR) ? dir : dir + FtpFileSystem.PATH_SEPARATOR;
+    }
+
+    /**
+     * Servers which do not support the recursive listing just ignore the option
+     * and list the top level directory only. The sub directories of the
+     * deepest kept listings are not expected.
+     */
+    private static boolean isComplete(final String root, final Map<String, List<FTPFile>> listings) {
+        for (Map.Entry<String, List<FTPFile>> listing : listings.entrySet()) {
+            final String dir = listing.getKey();
+            if (getDepth(root, dir) >= MAX_DEPTH) {
+                continue;
+            }
+            final String prefix = withSeparator(dir);
+            for (FTPFile file : listing.getValue()) {
+                if (file.isDirectory() && !listings.containsKey(prefix + file.getName())) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
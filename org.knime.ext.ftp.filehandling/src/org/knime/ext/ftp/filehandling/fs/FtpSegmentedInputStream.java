@@ -0,0 +1,208 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   2026-10-17 (Vyacheslav Soldatov): created
+ */
+package org.knime.ext.ftp.filehandling.fs;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.knime.filehandling.core.defaultnodesettings.ExceptionUtil;
+
+/**
+ * Input stream which downloads a file in segments. Several segments are
+ * fetched at the same time over different pooled connections using REST +
+ * RETR and are returned to the consumer in order. At most
+ * <code>parallelism</code> segments are held in memory in addition to the
+ * currently consumed one.
+ *
+ * @author Vyacheslav Soldatov <vyacheslav@redfield.se>
+ */
+final class FtpSegmentedInputStream extends InputStream {
+
+    private final FtpFileSystemProvider m_provider;
+
+    private final String m_path;
+
+    private final long m_fileSize;
+
+    private final int m_segmentSize;
+
+    private final ExecutorService m_executor;
+
+    private final Deque<Future<byte[]>> m_pendingSegments = new ArrayDeque<>();
+
+    private long m_nextSegmentOffset;
+
+    private byte[] m_segment = new byte[0];
+
+    private int m_segmentPosition;
+
+    private boolean m_isOpen = true;
+
+    /**
+     * @param provider
+     *            file system provider.
+     * @param path
+     *            file path.
+     * @param fileSize
+     *            file size.
+     * @param segmentSize
+     *            size of one segment.
+     * @param parallelism
+     *            number of segments to download at the same time.
+     * @param executor
+     *            executor to download the segments with.
+     */
+    FtpSegmentedInputStream(final FtpFileSystemProvider provider, final String path, final long fileSize,
+            final int segmentSize, final int parallelism, final ExecutorService executor) {
+        m_provider = provider;
+        m_path = path;
+        m_fileSize = fileSize;
+        m_segmentSize = segmentSize;
+        m_executor = executor;
+
+        for (int i = 0; i < parallelism; i++) {
+            submitNextSegment();
+        }
+    }
+
+    private void submitNextSegment() {
+        if (m_nextSegmentOffset >= m_fileSize) {
+            return;
+        }
+
+        final long offset = m_nextSegmentOffset;
+        final int length = (int) Math.min(m_segmentSize, m_fileSize - offset);
+        m_nextSegmentOffset += length;
+
+        m_pendingSegments.add(m_executor.submit(() -> m_provider.readRange(m_path, offset, length)));
+    }
+
+    /**
+     * @return true if there are bytes available in current segment.
+     */
+    private boolean ensureSegment() throws IOException {
+        if (!m_isOpen) {
+            throw new IOException("Stream closed");
+        }
+
+        while (m_segmentPosition >= m_segment.length) {
+            final Future<byte[]> next = m_pendingSegments.poll();
+            if (next == null) {
+                return false;
+            }
+
+            // keep the pipeline full while the consumer reads this segment
+            submitNextSegment();
+
+            m_segment = waitForSegment(next);
+            m_segmentPosition = 0;
+        }
+        return true;
+    }
+
+    private static byte[] waitForSegment(final Future<byte[]> segment) throws IOException {
+        try {
+            return segment.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            final InterruptedIOException ioe = new InterruptedIOException("Segmented download interrupted");
+            ioe.initCause(ex);
+            throw ioe;
+        } catch (ExecutionException ex) {
+            throw ExceptionUtil.wrapAsIOException(ex.getCause());
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!ensureSegment()) {
+            return -1;
+        }
+        return m_segment[m_segmentPosition++] & 0xFF;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!ensureSegment()) {
+            return -1;
+        }
+
+        final int n = Math.min(len, m_segment.length - m_segmentPosition);
+        System.arraycopy(m_segment, m_segmentPosition, b, off, n);
+        m_segmentPosition += n;
+        return n;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return m_isOpen ? m_segment.length - m_segmentPosition : 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (m_isOpen) {
+            m_isOpen = false;
+            // running downloads are completed by the workers and release its resources
+            for (Future<byte[]> segment : m_pendingSegments) {
+                segment.cancel(false);
+            }
+            m_pendingSegments.clear();
+            m_segment = new byte[0];
+        }
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   2026-10-17 (Vyacheslav Soldatov): created
+ */
+package org.knime.ext.ftp.filehandling.fs;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Copies an input stream to an output stream through a bounded set of in
+ * memory buffers. The input stream is read by a background task while the
+ * output stream is written by the calling thread, so reading from one FTP
+ * connection and writing to another one overlap.
+ *
+ * @author Vyacheslav Soldatov <vyacheslav@redfield.se>
+ */
+final class FtpTransferPipe {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final int NUM_BUFFERS = 8;
+
+    /**
+     * Filled buffer. The chunk with negative length marks the end of input.
+     */
+    private static final class Chunk {
+        private final byte[] m_buffer;
+
+        private final int m_length;
+
+        Chunk(final byte[] buffer, final int length) {
+            m_buffer = buffer;
+            m_length = length;
+        }
+    }
+
+    private static final Chunk END_OF_INPUT = new Chunk(new byte[0], -1);
+
+    private final BlockingQueue<byte[]> m_freeBuffers = new ArrayBlockingQueue<>(NUM_BUFFERS);
+
+    private final BlockingQueue<Chunk> m_filledBuffers = new ArrayBlockingQueue<>(NUM_BUFFERS + 1);
+
+    private final CountDownLatch m_readerDone = new CountDownLatch(1);
+
+    private volatile IOException m_readError;
+
+    private final Object m_readerLock = new Object();
+
+    private Thread m_readerThread;
+
+    private boolean m_aborted;
+
+    private FtpTransferPipe() {
+        for (int i = 0; i < NUM_BUFFERS; i++) {
+            m_freeBuffers.add(new byte[BUFFER_SIZE]);
+        }
+    }
+
+    /**
+     * Copies given input stream to given output stream. The streams are not
+     * closed. When the method returns, the input stream is not accessed by the
+     * background task anymore.
+     *
+     * @param in
+     *            input stream.
+     * @param out
+     *            output stream.
+     * @param executor
+     *            executor to run the reading task with.
+     * @throws IOException
+     */
+    static void copy(final InputStream in, final OutputStream out, final ExecutorService executor)
+            throws IOException {
+        new FtpTransferPipe().copyImpl(in, out, executor);
+    }
+
+    private void copyImpl(final InputStream in, final OutputStream out, final ExecutorService executor)
+            throws IOException {
+        executor.execute(() -> read(in));
+        try {
+            write(out);
+            if (m_readError != null) {
+                throw m_readError;
+            }
+        } finally {
+            abortReader();
+            awaitReader();
+        }
+    }
+
+    private void abortReader() {
+        synchronized (m_readerLock) {
+            m_aborted = true;
+            if (m_readerThread != null) {
+                m_readerThread.interrupt();
+            }
+        }
+    }
+
+    private void read(final InputStream in) {
+        synchronized (m_readerLock) {
+            if (m_aborted) {
+                m_readerDone.countDown();
+                return;
+            }
+            m_readerThread = Thread.currentThread();
+        }
+
+        try {
+            while (true) {
+                final byte[] buffer = m_freeBuffers.take();
+                final int length = in.read(buffer);
+                if (length < 0) {
+                    break;
+                }
+                m_filledBuffers.put(new Chunk(buffer, length));
+            }
+        } catch (InterruptedException ex) { // NOSONAR is interrupted by writer, no need to keep the flag
+            m_readError = (IOException) new InterruptedIOException("Transfer interrupted").initCause(ex);
+        } catch (IOException ex) {
+            m_readError = ex;
+        } finally {
+            // the queue has room for the end marker in any case
+            m_filledBuffers.offer(END_OF_INPUT);
+
+            synchronized (m_readerLock) {
+                m_readerThread = null;
+                // clear the interrupt of the writer, the executor thread is reused
+                Thread.interrupted(); // NOSONAR
+            }
+            m_readerDone.countDown();
+        }
+    }
+
+    private void write(final OutputStream out) throws IOException {
+        try {
+            while (true) {
+                final Chunk chunk = m_filledBuffers.take();
+                if (chunk == END_OF_INPUT) {
+                    break;
+                }
+                out.write(chunk.m_buffer, 0, chunk.m_length);
+                m_freeBuffers.put(chunk.m_buffer);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw (IOException) new InterruptedIOException("Transfer interrupted").initCause(ex);
+        }
+    }
+
+    /**
+     * Waits until the reading task stops accessing the input stream. An
+     * interrupt does not stop the waiting, the reader is aborted again and the
+     * interrupt flag is restored when it is done.
+     */
+    private void awaitReader() {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                m_readerDone.await();
+                break;
+            } catch (InterruptedException ex) { // NOSONAR the flag is restored below
+                interrupted = true;
+                abortReader();
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,360 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   2026-10-17 (Vyacheslav Soldatov): created
+ */
+package org.knime.ext.ftp.filehandling.fs;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.Semaphore;
+
+import org.apache.commons.net.ftp.FTPFile;
+import org.knime.filehandling.core.defaultnodesettings.ExceptionUtil;
+
+/**
+ * Walks a directory tree in parallel. The directories are listed and the
+ * files are deleted or copied by the tasks of a work stealing
+ * {@link ForkJoinPool}, each task uses its own pooled connection, so up to
+ * the parallelism of the fork join pool connections are used at the same
+ * time. The results are assembled in the order of a sequential depth first
+ * walk regardless of the order the tasks complete in.
+ * <p>
+ * An operation is cancelled by interrupting the calling thread. The tasks
+ * which have not started yet are skipped and the running requests are
+ * completed.
+ * </p>
+ *
+ * @author Vyacheslav Soldatov <vyacheslav@redfield.se>
+ */
+final class FtpTreeWalker {
+
+    /**
+     * Action on a remote path.
+     */
+    @FunctionalInterface
+    private interface RemoteAction {
+        void run() throws IOException;
+    }
+
+    private final FtpFileSystemProvider m_provider;
+
+    private final ForkJoinPool m_pool;
+
+    private volatile boolean m_isCancelled;
+
+    /**
+     * @param provider
+     *            file system provider.
+     * @param pool
+     *            pool to run the tasks with.
+     */
+    FtpTreeWalker(final FtpFileSystemProvider provider, final ForkJoinPool pool) {
+        m_provider = provider;
+        m_pool = pool;
+    }
+
+    /**
+     * Lists given directory and all its sub directories.
+     *
+     * @param root
+     *            directory to list.
+     * @return the entries by directory, the directories are ordered as they
+     *         are visited by a depth first walk.
+     * @throws IOException
+     */
+    Map<FtpPath, List<FTPFile>> list(final FtpPath root) throws IOException {
+        final ListTask task = new ListTask(root);
+        run(task);
+
+        final Map<FtpPath, List<FTPFile>> listings = new LinkedHashMap<>();
+        task.collect(listings);
+        return listings;
+    }
+
+    /**
+     * @param root
+     *            walked directory.
+     * @param listings
+     *            listings of the directory tree as returned by
+     *            {@link #list(FtpPath)}.
+     * @return given directory and all paths below it in depth first order.
+     */
+    static List<FtpPath> toWalkOrder(final FtpPath root, final Map<FtpPath, List<FTPFile>> listings) {
+        final List<FtpPath> paths = new ArrayList<>();
+        addSubtree(root, listings, paths);
+        return paths;
+    }
+
+    private static void addSubtree(final FtpPath dir, final Map<FtpPath, List<FTPFile>> listings,
+            final List<FtpPath> paths) {
+        paths.add(dir);
+        for (FTPFile file : listings.getOrDefault(dir, Collections.emptyList())) {
+            final FtpPath path = dir.resolve(file.getName());
+            if (file.isDirectory()) {
+                addSubtree(path, listings, paths);
+            } else {
+                paths.add(path);
+            }
+        }
+    }
+
+    /**
+     * Deletes given directory with all its content. The files are deleted
+     * first, then the directories from the deepest level up.
+     *
+     * @param root
+     *            directory to delete.
+     * @throws IOException
+     */
+    void delete(final FtpPath root) throws IOException {
+        final Map<FtpPath, List<FTPFile>> listings = list(root);
+
+        final List<RemoteAction> fileDeletes = new ArrayList<>();
+        for (Map.Entry<FtpPath, List<FTPFile>> listing : listings.entrySet()) {
+            for (FTPFile file : listing.getValue()) {
+                if (!file.isDirectory()) {
+                    final FtpPath path = listing.getKey().resolve(file.getName());
+                    fileDeletes.add(() -> m_provider.deleteInternal(path, file));
+                }
+            }
+        }
+        run(new ForEachTask(fileDeletes));
+
+        final List<List<FtpPath>> levels = new ArrayList<>(groupByDepth(listings.keySet()).values());
+        Collections.reverse(levels);
+        for (List<FtpPath> level : levels) {
+            final List<RemoteAction> dirDeletes = new ArrayList<>();
+            for (FtpPath dir : level) {
+                dirDeletes.add(() -> m_provider.deleteInternal(dir, directoryMeta(dir)));
+            }
+            run(new ForEachTask(dirDeletes));
+        }
+    }
+
+    private static FTPFile directoryMeta(final FtpPath dir) {
+        final FTPFile meta = new FTPFile();
+        meta.setName(dir.toString());
+        meta.setType(FTPFile.DIRECTORY_TYPE);
+        return meta;
+    }
+
+    /**
+     * Copies given directory with all its content. The directories are created
+     * level by level from the top, then the files are copied. A file copy
+     * takes two connections, so at most
+     * {@link FtpFileSystemProvider#getMaxParallelCopies()} files are copied at
+     * the same time.
+     *
+     * @param source
+     *            directory to copy.
+     * @param target
+     *            not existing target directory.
+     * @throws IOException
+     */
+    void copy(final FtpPath source, final FtpPath target) throws IOException {
+        final Map<FtpPath, List<FTPFile>> listings = list(source);
+
+        for (List<FtpPath> level : groupByDepth(listings.keySet()).values()) {
+            final List<RemoteAction> mkdirs = new ArrayList<>();
+            for (FtpPath dir : level) {
+                mkdirs.add(() -> m_provider.createDirectoryInternal(map(source, target, dir)));
+            }
+            run(new ForEachTask(mkdirs));
+        }
+
+        final Semaphore copySlots = new Semaphore(m_provider.getMaxParallelCopies());
+        final List<RemoteAction> fileCopies = new ArrayList<>();
+        for (Map.Entry<FtpPath, List<FTPFile>> listing : listings.entrySet()) {
+            final FtpPath targetDir = map(source, target, listing.getKey());
+            for (FTPFile file : listing.getValue()) {
+                if (!file.isDirectory()) {
+                    final String from = listing.getKey().resolve(file.getName()).toString();
+                    final String to = targetDir.resolve(file.getName()).toString();
+                    fileCopies.add(() -> copyFile(copySlots, from, to));
+                }
+            }
+        }
+        run(new ForEachTask(fileCopies));
+    }
+
+    private void copyFile(final Semaphore slots, final String source, final String target) throws IOException {
+        try {
+            slots.acquire();
+        } catch (InterruptedException ex) {
+            m_isCancelled = true;
+            Thread.currentThread().interrupt();
+            throw (InterruptedIOException) new InterruptedIOException("FTP tree operation cancelled")
+                    .initCause(ex);
+        }
+        try {
+            m_provider.copyFile(source, target);
+        } finally {
+            slots.release();
+        }
+    }
+
+    private static FtpPath map(final FtpPath source, final FtpPath target, final FtpPath path) {
+        return path.equals(source) ? target : target.resolve(source.relativize(path).toString());
+    }
+
+    private static Map<Integer, List<FtpPath>> groupByDepth(final Iterable<FtpPath> dirs) {
+        final Map<Integer, List<FtpPath>> levels = new TreeMap<>();
+        for (FtpPath dir : dirs) {
+            levels.computeIfAbsent(dir.getNameCount(), k -> new ArrayList<>()).add(dir);
+        }
+        return levels;
+    }
+
+    private void run(final ForkJoinTask<?> task) throws IOException {
+        checkCancelled();
+        m_pool.execute(task);
+        try {
+            task.get();
+        } catch (InterruptedException ex) {
+            // let the tasks which have not started yet skip its work
+            m_isCancelled = true;
+            task.cancel(false);
+            Thread.currentThread().interrupt();
+            throw (InterruptedIOException) new InterruptedIOException("FTP tree operation cancelled")
+                    .initCause(ex);
+        } catch (ExecutionException ex) {
+            final Throwable cause = ex.getCause();
+            throw ExceptionUtil.wrapAsIOException(cause instanceof UncheckedIOException ? cause.getCause() : cause);
+        } catch (CancellationException ex) {
+            throw (InterruptedIOException) new InterruptedIOException("FTP tree operation cancelled").initCause(ex);
+        }
+    }
+
+    private void checkCancelled() throws InterruptedIOException {
+        if (m_isCancelled || Thread.currentThread().isInterrupted()) {
+            m_isCancelled = true;
+            throw new InterruptedIOException("FTP tree operation cancelled");
+        }
+    }
+
+    private void runRemote(final RemoteAction action) {
+        try {
+            checkCancelled();
+            action.run();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Lists a directory and forks the listing of its sub directories.
+     */
+    private final class ListTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final FtpPath m_dir;
+
+        private List<FTPFile> m_files = Collections.emptyList();
+
+        private final List<ListTask> m_subDirs = new ArrayList<>();
+
+        ListTask(final FtpPath dir) {
+            m_dir = dir;
+        }
+
+        @Override
+        protected void compute() {
+            runRemote(() -> m_files = Arrays.asList(m_provider.listFiles(m_dir.toString())));
+            for (FTPFile file : m_files) {
+                if (file.isDirectory()) {
+                    m_subDirs.add(new ListTask(m_dir.resolve(file.getName())));
+                }
+            }
+            invokeAll(m_subDirs);
+        }
+
+        void collect(final Map<FtpPath, List<FTPFile>> listings) {
+            listings.put(m_dir, m_files);
+            for (ListTask subDir : m_subDirs) {
+                subDir.collect(listings);
+            }
+        }
+    }
+
+    /**
+     * Runs independent remote actions, the list is split until each task runs
+     * a single action, so idle workers can steal the remaining ones.
+     */
+    private final class ForEachTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<RemoteAction> m_actions;
+
+        ForEachTask(final List<RemoteAction> actions) {
+            m_actions = actions;
+        }
+
+        @Override
+        protected void compute() {
+            if (m_actions.size() == 1) {
+                runRemote(m_actions.get(0));
+            } else if (m_actions.size() > 1) {
+                final int middle = m_actions.size() / 2;
+                invokeAll(new ForEachTask(m_actions.subList(0, middle)),
+                        new ForEachTask(m_actions.subList(middle, m_actions.size())));
+            }
+        }
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   2026-10-17 (Vyacheslav Soldatov): created
+ */
+package org.knime.ext.ftp.filehandling.fs;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonReadableChannelException;
+import java.nio.channels.SeekableByteChannel;
+
+/**
+ * Write-only FTP implementation of {@link SeekableByteChannel}. In opposite to
+ * {@link FtpSeekableByteChannel} the content is not buffered in a local
+ * temporary file but is streamed directly to the server. Therefore the channel
+ * can be positioned forward only, the gap is filled with zeros.
+ *
+ * @author Vyacheslav Soldatov <vyacheslav@redfield.se>
+ */
+final class FtpWriteOnlySeekableByteChannel implements SeekableByteChannel {
+
+    private static final int ZEROS_BUFFER_SIZE = 8192;
+
+    private final FtpPath m_path;
+
+    private final OutputStream m_out;
+
+    private final Runnable m_onClose;
+
+    private long m_position;
+
+    private boolean m_isOpen = true;
+
+    /**
+     * @param path
+     *            file path.
+     * @param out
+     *            output stream to the file.
+     * @param initialPosition
+     *            the position the output stream writes to, that is the size of
+     *            the file for appending and zero otherwise.
+     * @param onClose
+     *            action to run after the output stream is closed.
+     */
+    FtpWriteOnlySeekableByteChannel(final FtpPath path, final OutputStream out, final long initialPosition,
+            final Runnable onClose) {
+        m_path = path;
+        m_out = out;
+        m_position = initialPosition;
+        m_onClose = onClose;
+    }
+
+    @Override
+    public synchronized boolean isOpen() {
+        return m_isOpen;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (m_isOpen) {
+            m_isOpen = false;
+            try {
+                m_out.close();
+            } finally {
+                m_onClose.run();
+            }
+        }
+    }
+
+    @Override
+    public int read(final ByteBuffer dst) throws IOException {
+        throw new NonReadableChannelException();
+    }
+
+    @Override
+    public synchronized int write(final ByteBuffer src) throws IOException {
+        checkOpen();
+
+        final int length = src.remaining();
+        if (src.hasArray()) {
+            m_out.write(src.array(), src.arrayOffset() + src.position(), length);
+            src.position(src.limit());
+        } else {
+            final byte[] buffer = new byte[length];
+            src.get(buffer);
+            m_out.write(buffer);
+        }
+
+        m_position += length;
+        return length;
+    }
+
+    @Override
+    public synchronized long position() throws IOException {
+        checkOpen();
+        return m_position;
+    }
+
+    @Override
+    public synchronized SeekableByteChannel position(final long newPosition) throws IOException {
+        checkOpen();
+        if (newPosition < m_position) {
+            throw new IOException(String.format(
+                    "Can't seek backwards to %d in %s, the file is written sequentially (current position is %d)",
+                    newPosition, m_path, m_position));
+        }
+
+        // fill the gap with zeros
+        final byte[] zeros = new byte[(int) Math.min(ZEROS_BUFFER_SIZE, newPosition - m_position)];
+        while (m_position < newPosition) {
+            final int length = (int) Math.min(zeros.length, newPosition - m_position);
+            m_out.write(zeros, 0, length);
+            m_position += length;
+        }
+        return this;
+    }
+
+    @Override
+    public synchronized long size() throws IOException {
+        checkOpen();
+        return m_position;
+    }
+
+    @Override
+    public synchronized SeekableByteChannel truncate(final long size) throws IOException {
+        checkOpen();
+        if (size < m_position) {
+            throw new IOException(String.format("Can't truncate %s to %d, the file is written sequentially", m_path,
+                    size));
+        }
+        return this;
+    }
+
+    private void checkOpen() throws ClosedChannelException {
+        if (!m_isOpen) {
+            throw new ClosedChannelException();
+        }
+    }
+}
@@ -55,10 +55,14 @@
 import java.net.Socket;
 import java.util.Locale;
 
+import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLSession;
 import javax.net.ssl.SSLSessionContext;
 import javax.net.ssl.SSLSocket;
 
+import org.apache.commons.net.ftp.FTPCmd;
+import org.apache.commons.net.ftp.FTPFileEntryParser;
+import org.apache.commons.net.ftp.FTPListParseEngine;
 import org.apache.commons.net.ftp.FTPSClient;
 import org.knime.core.node.NodeLogger;
 import org.knime.core.node.util.CheckUtils;
@@ -83,7 +87,7 @@
  *
  * @author Vyacheslav Soldatov <vyacheslav@redfield.se>
  */
-class FtpsClientWithSslSessionReuse extends FTPSClient {
+class FtpsClientWithSslSessionReuse extends FTPSClient implements MlsdParsingClient {
 
     private static final NodeLogger LOGGER = NodeLogger.getLogger(FtpsClientWithSslSessionReuse.class);
 
@@ -120,6 +124,38 @@ public FtpsClientWithSslSessionReuse(final SslSessionReuseFailureListener failur
         m_sessionReuseFailureListener = failureListener;
     }
 
+    /**
+     * Constructor with SSL context which may be shared with other clients. The
+     * TLS sessions are cached by the SSL context, so the control connections of
+     * all clients sharing the context resume the session of the first one and
+     * the data connections resume the session of their control connection.
+     *
+     * @param failureListener
+     *            Listener that gets notified when SSL session reuse has failed.
+     * @param useImplicitFTPS
+     *            whether implicit FTPS should be used.
+     * @param context
+     *            SSL context.
+     */
+    public FtpsClientWithSslSessionReuse(final SslSessionReuseFailureListener failureListener,
+            final boolean useImplicitFTPS, final SSLContext context) {
+        super(useImplicitFTPS, context);
+        CheckUtils.checkArgumentNotNull(failureListener, "SslSessionReuseFailureListener must not be null");
+        m_sessionReuseFailureListener = failureListener;
+    }
+
+    @Override
+    public FTPListParseEngine initiateMListParsing(final String dir, final FTPFileEntryParser parser)
+            throws IOException {
+        return MlsdParsingClient.readListing(this, _openDataConnection_(FTPCmd.MLSD, dir), parser);
+    }
+
+    @Override
+    public int sendCommand(final String command, final String args, final ReplyLineHandler handler)
+            throws IOException {
+        return MlsdParsingClient.sendCommand(_controlOutput_, _controlInput_, command, args, handler);
+    }
+
     /**
      * copied and adapted from https://eng.wealthfront.com/2016/06/10/
      * connecting-to-an-ftps-server-with-ssl-session-reuse-in-java-7-and-8/,
@@ -0,0 +1,194 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   2026-10-17 (Vyacheslav Soldatov): created
+ */
+package org.knime.ext.ftp.filehandling.fs;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.net.Socket;
+
+import org.apache.commons.net.MalformedServerReplyException;
+import org.apache.commons.net.ftp.FTPClient;
+import org.apache.commons.net.ftp.FTPConnectionClosedException;
+import org.apache.commons.net.ftp.FTPFileEntryParser;
+import org.apache.commons.net.ftp.FTPListParseEngine;
+
+/**
+ * Native FTP client which reads MLSD listings with a given entry parser and
+ * long replies line by line. Commons Net always parses the listings with its
+ * own parser and keeps whole replies, the data connection and the control
+ * connection streams can only be accessed by a subclass of the client.
+ *
+ * @author Vyacheslav Soldatov <vyacheslav@redfield.se>
+ */
+interface MlsdParsingClient {
+
+    /**
+     * Reads the MLSD listing of a directory like
+     * {@link FTPClient#initiateMListParsing(String)} does.
+     *
+     * @param dir
+     *            directory to list.
+     * @param parser
+     *            parser of the MLSD entries.
+     * @return list parse engine.
+     * @throws IOException
+     */
+    FTPListParseEngine initiateMListParsing(String dir, FTPFileEntryParser parser) throws IOException;
+
+    /**
+     * Sends a command and passes the lines of its multi-line reply to given
+     * handler as they are read, the first and last status line are not
+     * passed. Unlike {@link FTPClient#sendCommand(String, String)} the reply
+     * is not kept by the client.
+     *
+     * @param command
+     *            command.
+     * @param args
+     *            command arguments.
+     * @param handler
+     *            handler of the reply lines.
+     * @return reply code.
+     * @throws IOException
+     *             also when thrown by the handler, then the rest of the reply
+     *             is not read and the connection can't be used anymore.
+     */
+    int sendCommand(String command, String args, ReplyLineHandler handler) throws IOException;
+
+    /**
+     * Handler of the lines of a multi-line reply.
+     */
+    @FunctionalInterface
+    interface ReplyLineHandler {
+        /**
+         * @param line
+         *            reply line.
+         * @throws IOException
+         *             to stop reading the reply.
+         */
+        void accept(String line) throws IOException;
+    }
+
+    /**
+     * Reads the listing from the data connection and completes the command.
+     *
+     * @param client
+     *            native client the data connection belongs to.
+     * @param socket
+     *            data connection or <code>null</code> if it could not be
+     *            opened.
+     * @param parser
+     *            entry parser.
+     * @return list parse engine.
+     * @throws IOException
+     */
+    static FTPListParseEngine readListing(final FTPClient client, final Socket socket,
+            final FTPFileEntryParser parser) throws IOException {
+        final FTPListParseEngine engine = new FTPListParseEngine(parser);
+        if (socket == null) {
+            return engine;
+        }
+
+        try (Socket s = socket) {
+            engine.readServerList(s.getInputStream(), client.getControlEncoding());
+        } finally {
+            client.completePendingCommand();
+        }
+        return engine;
+    }
+
+    /**
+     * Sends a command over the control connection and reads its reply.
+     *
+     * @param out
+     *            control connection output.
+     * @param in
+     *            control connection input.
+     * @param command
+     *            command.
+     * @param args
+     *            command arguments.
+     * @param handler
+     *            handler of the reply lines.
+     * @return reply code.
+     * @throws IOException
+     */
+    static int sendCommand(final BufferedWriter out, final BufferedReader in, final String command,
+            final String args, final ReplyLineHandler handler) throws IOException {
+        out.write(command + ' ' + args + "\r\n");
+        out.flush();
+
+        final String status = readReplyLine(in);
+        final int code;
+        try {
+            code = Integer.parseInt(status.substring(0, 3));
+        } catch (NumberFormatException | IndexOutOfBoundsException ex) {
+            throw new MalformedServerReplyException("Could not parse response code: " + status);
+        }
+
+        if (status.length() > 3 && status.charAt(3) == '-') {
+            // multi-line reply ends with the line starting with the code and a space
+            final String end = status.substring(0, 3) + ' ';
+            String line = readReplyLine(in);
+            while (!line.startsWith(end)) {
+                handler.accept(line);
+                line = readReplyLine(in);
+            }
+        }
+        return code;
+    }
+
+    private static String readReplyLine(final BufferedReader in) throws IOException {
+        final String line = in.readLine();
+        if (line == null) {
+            throw new FTPConnectionClosedException("Connection closed without indication.");
+        }
+        return line;
+    }
+}
@@ -50,12 +50,14 @@
 
 import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.knime.core.node.CanceledExecutionException;
 import org.knime.core.node.ExecutionContext;
 import org.knime.core.node.ExecutionMonitor;
 import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.NodeLogger;
 import org.knime.core.node.port.PortObject;
 import org.knime.core.node.port.PortObjectSpec;
 import org.knime.core.node.port.PortType;
@@ -75,6 +77,8 @@
 @SuppressWarnings({ "deprecation", "restriction" })
 class FtpConnectorNodeModel extends WebUINodeModel<FtpConnectorNodeParameters> {
 
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(FtpConnectorNodeModel.class);
+
     private String m_fsId;
 
     private FtpFSConnection m_fsConnection;
@@ -105,6 +109,7 @@ protected PortObject[] execute(final PortObject[] inObjects, final ExecutionCont
 
         final var config = params.toFSConnectionConfig(getCredentialsProvider());
 
+        final long startTime = System.nanoTime();
         try {
             m_fsConnection = new FtpFSConnection(config);
         } catch (Exception ex) { // NOSONAR
@@ -112,11 +117,23 @@ protected PortObject[] execute(final PortObject[] inObjects, final ExecutionCont
             setWarningMessage(ExceptionUtils.getMessage(rootCause));
             throw ex;
         }
+        logConnectTime(config, System.nanoTime() - startTime);
 
         FSConnectionRegistry.getInstance().register(m_fsId, m_fsConnection);
         return new PortObject[] { new FileSystemPortObject(createSpec(config)) };
     }
 
+    private void logConnectTime(final FtpFSConnectionConfig config, final long nanos) {
+        if (LOGGER.isDebugEnabled()) {
+            final var stats = m_fsConnection.getFileSystem().provider().getPoolStatistics();
+            LOGGER.debug(String.format(
+                    "Connected to %s:%d in %d ms: %d sessions opened in %d ms, avg session %d ms, max session %d ms",
+                    config.getHost(), config.getPort(), TimeUnit.NANOSECONDS.toMillis(nanos),
+                    stats.getNumCreatedConnections(), stats.getStartupTime().toMillis(),
+                    stats.getAverageConnectLatency().toMillis(), stats.getMaxConnectLatency().toMillis()));
+        }
+    }
+
     private FileSystemPortObjectSpec createSpec(final FtpFSConnectionConfig config) {
         return new FileSystemPortObjectSpec(FtpFileSystem.FS_TYPE.getTypeId(), m_fsId,
                 FtpFileSystem.createFSLocationSpec(config));
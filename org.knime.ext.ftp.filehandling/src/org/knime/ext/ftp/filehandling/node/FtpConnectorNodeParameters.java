@@ -126,6 +126,10 @@ final class FtpConnectorNodeParameters implements NodeParameters {
 
     private static final NodeLogger LOGGER = NodeLogger.getLogger(FtpConnectorNodeParameters.class);
 
+    private static final int BYTES_PER_MB = 1024 * 1024;
+
+    private static final int MAX_DOWNLOAD_SEGMENT_SIZE_MB = 1024;
+
     // ----- LAYOUTS -----
 
     @Section(title = "Connection")
@@ -271,6 +275,78 @@ public void validate(final Integer currentValue) throws InvalidSettingsException
     interface UseProxyRef extends ParameterReference<Boolean> {
     }
 
+    @Layout(ConnectionSection.class)
+    @Advanced
+    @Widget(title = "Use transfer compression (MODE Z)", description = """
+            If this option is selected and the server supports it, then the transferred file contents are compressed
+            (MODE Z). This speeds up transfers of well compressible files, e.g. text files, over slow networks, but
+            costs CPU time on both sides.""")
+    @ValueReference(UseCompressionRef.class)
+    boolean m_useCompression;
+
+    interface UseCompressionRef extends ParameterReference<Boolean> {
+    }
+
+    @Layout(ConnectionSection.class)
+    @Advanced
+    @Widget(title = "Parallel download segments", description = """
+            Number of segments of a file that are downloaded at the same time over separate connections. Files
+            larger than the segment size are downloaded in segments if the server supports to start a transfer at
+            an offset (REST STREAM). The value 1 downloads each file over a single connection.""")
+    @NumberInputWidget(minValidation = IsPositiveIntegerValidation.class)
+    int m_downloadParallelism = FtpFSConnectionConfig.DEFAULT_DOWNLOAD_PARALLELISM;
+
+    @Layout(ConnectionSection.class)
+    @Advanced
+    @Widget(title = "Download segment size (MB)", description = """
+            Size of one segment of a parallel download in megabytes. At most as many segments as are downloaded
+            in parallel are held in memory.""")
+    @NumberInputWidget(minValidation = IsPositiveIntegerValidation.class,
+            maxValidation = SegmentSizeMaxValidation.class)
+    int m_downloadSegmentSize = FtpFSConnectionConfig.DEFAULT_DOWNLOAD_SEGMENT_SIZE / BYTES_PER_MB;
+
+    @Layout(ConnectionSection.class)
+    @Advanced
+    @Widget(title = "Copy files server to server (FXP)", description = """
+            If this option is selected, then files are copied by the server itself: one connection sends the file
+            directly to the data port of another one, so the content is not transferred via the local host. Both
+            ends of the copy must allow such transfers. The option is ignored for FTPS and HTTP proxy connections.
+            If the server rejects it, the files are copied via the local host.""")
+    boolean m_useServerToServerCopy;
+
+    @Layout(ConnectionSection.class)
+    @Advanced
+    @Widget(title = "Directory listing cache (seconds)", description = """
+            Number of seconds a directory listing is cached to answer the metadata of the files in it, or 0 to
+            disable the cache. The cache saves round trips on servers without MLST support, but files changed by
+            other clients in the meantime are reported as they were listed.""")
+    @NumberInputWidget(minValidation = IsNonNegativeValidation.class)
+    int m_listingCacheTtl = (int) FtpFSConnectionConfig.DEFAULT_LISTING_CACHE_TTL.toSeconds();
+
+    @Layout(ConnectionSection.class)
+    @Advanced
+    @Widget(title = "List directory trees in one request", description = """
+            If this option is selected and the server supports it (STAT -R), then a directory is listed together
+            with all its sub directories in one round trip and the listings are kept in the directory listing
+            cache. This speeds up walking large trees over slow networks, but slows down listing a single directory
+            of a large tree. The option has effect only if the directory listing cache is enabled.""")
+    boolean m_useRecursiveListing;
+
+    @Layout(ConnectionSection.class)
+    @Advanced
+    @Widget(title = "Validate idle connections", description = """
+            If this option is selected, then a pooled connection which was not used for 30 seconds is checked with
+            a NOOP command before it is used. Connections dropped by the server or a firewall in the meantime are
+            replaced instead of failing the operation, at the cost of one round trip after idle periods.""")
+    boolean m_validateOnBorrow;
+
+    static final class SegmentSizeMaxValidation extends MaxValidation {
+        @Override
+        protected double getMax() {
+            return MAX_DOWNLOAD_SEGMENT_SIZE_MB;
+        }
+    }
+
     // ----- AUTHENTICATION PARAMETERS -----
 
     @Layout(AuthenticationSection.class)
@@ -531,6 +607,7 @@ static final class FtpFSConnectionProvider implements StateProvider<FSConnection
             private Supplier<Integer> m_minConnections;
             private Supplier<Integer> m_maxConnections;
             private Supplier<Boolean> m_useProxy;
+            private Supplier<Boolean> m_useCompression;
             private Supplier<Integer> m_connectionTimeout;
             private Supplier<Integer> m_readTimeout;
             private Supplier<Boolean> m_useFtps;
@@ -550,6 +627,7 @@ public void init(final StateProviderInitializer initializer) {
                 m_minConnections = initializer.computeFromValueSupplier(MinConnectionsRef.class);
                 m_maxConnections = initializer.computeFromValueSupplier(MaxConnectionsRef.class);
                 m_useProxy = initializer.computeFromValueSupplier(UseProxyRef.class);
+                m_useCompression = initializer.computeFromValueSupplier(UseCompressionRef.class);
                 m_connectionTimeout = initializer.computeFromValueSupplier(ConnectionTimeoutRef.class);
                 m_readTimeout = initializer.computeFromValueSupplier(ReadTimeoutRef.class);
                 m_useFtps = initializer.computeFromValueSupplier(UseFtpsRef.class);
@@ -579,6 +657,7 @@ private FtpConnectorNodeParameters createParameters(final CredentialsProvider cr
                 result.m_minConnections = m_minConnections.get();
                 result.m_maxConnections = m_maxConnections.get();
                 result.m_useProxy = m_useProxy.get();
+                result.m_useCompression = m_useCompression.get();
                 result.m_connectionTimeout = m_connectionTimeout.get();
                 result.m_readTimeout = m_readTimeout.get();
                 result.m_useFtps = m_useFtps.get();
@@ -641,6 +720,19 @@ void validateOnConfigure(final CredentialsProvider provider) throws InvalidSetti
                     "Minimum number of FTP connections must be less or equal to maximum number of FTP connections");
         }
 
+        if (m_downloadParallelism < 1) {
+            throw new InvalidSettingsException("Number of parallel download segments must be at least 1.");
+        }
+
+        if (m_downloadSegmentSize < 1 || m_downloadSegmentSize > MAX_DOWNLOAD_SEGMENT_SIZE_MB) {
+            throw new InvalidSettingsException(
+                    "Download segment size must be between 1 and " + MAX_DOWNLOAD_SEGMENT_SIZE_MB + " MB.");
+        }
+
+        if (m_listingCacheTtl < 0) {
+            throw new InvalidSettingsException("Directory listing cache time must not be negative.");
+        }
+
         if (m_auth.m_type == AuthenticationMethod.USERNAME_PASSWORD) {
             final var creds = m_auth.m_userPassword.toCredentials(provider);
             if (StringUtils.isBlank(creds.getUsername())) {
@@ -694,6 +786,13 @@ FtpFSConnectionConfig toFSConnectionConfig(final CredentialsProvider credentials
         conf.setVerifyHostname(m_verifyHostname);
         conf.setUseImplicitFTPS(m_useImplicitFtps);
         conf.setReuseSSLSession(m_reuseSSLSession);
+        conf.setUseCompression(m_useCompression);
+        conf.setDownloadParallelism(m_downloadParallelism);
+        conf.setDownloadSegmentSize(m_downloadSegmentSize * BYTES_PER_MB);
+        conf.setUseServerToServerCopy(m_useServerToServerCopy);
+        conf.setListingCacheTtl(Duration.ofSeconds(m_listingCacheTtl));
+        conf.setUseRecursiveListing(m_useRecursiveListing);
+        conf.setValidateOnBorrow(m_validateOnBorrow);
 
         if (m_auth.m_type == AuthenticationMethod.USERNAME_PASSWORD) {
             final var creds = m_auth.m_userPassword.toCredentials(credentialsProvider);
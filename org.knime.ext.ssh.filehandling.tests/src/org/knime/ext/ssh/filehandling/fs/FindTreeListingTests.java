@@ -0,0 +1,324 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   2026-10-17 (Vyacheslav Soldatov): created
+ */
+package org.knime.ext.ssh.filehandling.fs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.apache.sshd.server.session.ServerSession;
+import org.apache.sshd.sftp.server.DirectoryHandle;
+import org.apache.sshd.sftp.server.Handle;
+import org.apache.sshd.sftp.server.SftpEventListener;
+import org.apache.sshd.sftp.server.SftpSubsystemFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.knime.ext.ssh.filehandling.tests.EmbeddedSshServer;
+import org.knime.filehandling.core.connections.base.attributes.BaseFileAttributes;
+
+/**
+ * Tests of the server-side directory tree listing with {@code find}, see
+ * {@link FindTreeListing}.
+ *
+ * @author Vyacheslav Soldatov <vyacheslav@redfield.se>
+ */
+public class FindTreeListingTests {
+    private static final AtomicInteger OPENED_DIRECTORIES = new AtomicInteger();
+
+    private static Path m_homeDirectory;
+    private static EmbeddedSshServer m_sshServer;
+
+    private SshFileSystem m_fileSystem;
+
+    @BeforeAll
+    static void setupServer() throws IOException, InterruptedException {
+        // the server executes the commands with /bin/sh and GNU find
+        final Process find = new ProcessBuilder("find", ".", "-maxdepth", "0", "-printf", "x").start();
+        assumeTrue(find.waitFor() == 0 && "x".equals(new String(find.getInputStream().readAllBytes())));
+
+        m_homeDirectory = Files.createTempDirectory("knime-find-").toRealPath();
+        m_sshServer = EmbeddedSshServer.createWithShell();
+        final SftpSubsystemFactory sftp = (SftpSubsystemFactory) m_sshServer.getServer().getSubsystemFactories()
+                .get(0);
+        sftp.addSftpEventListener(new SftpEventListener() {
+            @Override
+            public void open(final ServerSession session, final String remoteHandle, final Handle localHandle) {
+                if (localHandle instanceof DirectoryHandle) {
+                    OPENED_DIRECTORIES.incrementAndGet();
+                }
+            }
+        });
+
+        for (int i = 0; i < 3; i++) {
+            final Path dir = Files.createDirectories(m_homeDirectory.resolve("dir " + i).resolve("sub"));
+            for (int j = 0; j < 10; j++) {
+                Files.write(dir.resolve("file-" + j), new byte[j]);
+                Files.write(dir.getParent().resolve("it's $(file)-" + j + ".txt"), new byte[2 * j]);
+            }
+        }
+        Files.createDirectory(m_homeDirectory.resolve("empty"));
+        Files.createSymbolicLink(m_homeDirectory.resolve("link"), m_homeDirectory.resolve("dir 0"));
+    }
+
+    @AfterAll
+    static void teardownServer() throws IOException {
+        if (m_sshServer != null) {
+            m_sshServer.close();
+        }
+        if (m_homeDirectory != null) {
+            try (Stream<Path> files = Files.walk(m_homeDirectory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            }
+        }
+    }
+
+    @BeforeEach
+    void beforeTestCase() {
+        OPENED_DIRECTORIES.set(0);
+    }
+
+    @AfterEach
+    void afterTestCase() throws IOException {
+        if (m_fileSystem != null) {
+            m_fileSystem.close();
+        }
+    }
+
+    @Test
+    void test_walk_equals_sftp_walk() throws IOException {
+        m_fileSystem = createFileSystem(m_sshServer, false);
+        final Map<String, String> sftpWalk = walk(m_homeDirectory.toString());
+        assertTrue(OPENED_DIRECTORIES.get() > 0);
+
+        m_fileSystem.close();
+        OPENED_DIRECTORIES.set(0);
+        m_fileSystem = createFileSystem(m_sshServer, true);
+        final Map<String, String> findWalk = walk(m_homeDirectory.toString());
+
+        assertEquals(0, OPENED_DIRECTORIES.get());
+        assertEquals(3 * 21 + 5, findWalk.size());
+        assertEquals(sftpWalk, findWalk);
+    }
+
+    @Test
+    void test_listed_attributes() throws IOException {
+        m_fileSystem = createFileSystem(m_sshServer, true);
+        walk(m_homeDirectory.resolve("dir 1").toString());
+
+        final Path local = m_homeDirectory.resolve("dir 1").resolve("sub").resolve("file-7");
+        final BaseFileAttributes attrs = m_fileSystem.getCachedAttributes(m_fileSystem.getPath(local.toString()))
+                .orElseThrow();
+        assertTrue(attrs.isRegularFile());
+        assertEquals(7, attrs.size());
+        assertEquals(Files.getLastModifiedTime(local).toMillis() / 1000,
+                attrs.lastModifiedTime().toMillis() / 1000);
+        assertEquals(Files.getPosixFilePermissions(local), attrs.permissions());
+    }
+
+    @Test
+    void test_symbolic_links_are_not_cached() throws IOException {
+        m_fileSystem = createFileSystem(m_sshServer, true);
+        final Map<String, String> listing = walk(m_homeDirectory.toString());
+
+        final String link = m_homeDirectory.resolve("link").toString();
+        assertTrue(listing.containsKey(link));
+        assertFalse(m_fileSystem.getCachedAttributes(m_fileSystem.getPath(link)).isPresent());
+    }
+
+    @Test
+    void test_list_with_filter() throws IOException {
+        m_fileSystem = createFileSystem(m_sshServer, true);
+
+        final Iterator<SshPath> iter = m_fileSystem.provider().createPathIterator(
+                m_fileSystem.getPath(m_homeDirectory.resolve("dir 2").toString()),
+                p -> p.getFileName().toString().endsWith(".txt"));
+        int count = 0;
+        while (iter.hasNext()) {
+            assertTrue(iter.next().toString().endsWith(".txt"));
+            count++;
+        }
+        assertEquals(10, count);
+        assertEquals(0, OPENED_DIRECTORIES.get());
+    }
+
+    @Test
+    void test_listing_is_refreshed_after_write() throws IOException {
+        m_fileSystem = createFileSystem(m_sshServer, true);
+        final String dir = m_homeDirectory.resolve("empty").toString();
+        assertEquals(0, walk(dir).size());
+
+        final SshPath file = m_fileSystem.getPath(dir + "/new-file");
+        try (OutputStream out = m_fileSystem.provider().newOutputStream(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE)) {
+            out.write(1);
+        }
+        try {
+            assertEquals(1, walk(dir).size());
+        } finally {
+            Files.delete(Paths.get(file.toString()));
+        }
+    }
+
+    @Test
+    void test_fallback_without_shell() throws IOException {
+        try (EmbeddedSshServer server = new EmbeddedSshServer(m_homeDirectory)) {
+            m_fileSystem = createFileSystem(server, true);
+            assertEquals(3 * 21 + 5, walk("/").size());
+        }
+    }
+
+    @Test
+    void test_fallback_for_missing_directory() throws IOException {
+        m_fileSystem = createFileSystem(m_sshServer, true);
+        final SshPath missing = m_fileSystem.getPath(m_homeDirectory.resolve("missing").toString());
+        assertThrows(NoSuchFileException.class, () -> m_fileSystem.provider().createPathIterator(missing, null));
+    }
+
+    @Test
+    void test_listing_depth_is_limited() throws IOException {
+        final Path root = m_homeDirectory.resolve("deep");
+        Path dir = root;
+        for (int i = 1; i <= FindTreeListing.MAX_DEPTH + 2; i++) {
+            dir = dir.resolve(Integer.toString(i));
+        }
+        Files.createDirectories(dir);
+        Files.write(dir.resolve("file"), new byte[1]);
+        try {
+            m_fileSystem = createFileSystem(m_sshServer, true);
+            m_fileSystem.provider().createPathIterator(m_fileSystem.getPath(root.toString()), null);
+
+            Path deepest = root;
+            for (int i = 1; i <= FindTreeListing.MAX_DEPTH; i++) {
+                deepest = deepest.resolve(Integer.toString(i));
+            }
+            assertTrue(m_fileSystem.getCachedAttributes(m_fileSystem.getPath(deepest.toString())).isPresent());
+            assertFalse(m_fileSystem
+                    .getCachedAttributes(m_fileSystem.getPath(deepest.resolve("4").toString())).isPresent());
+
+            // the directories below the maximum depth are listed with another command
+            final Map<String, String> listing = walk(root.toString());
+            assertEquals(FindTreeListing.MAX_DEPTH + 3, listing.size());
+            assertTrue(listing.containsKey(dir.resolve("file").toString()));
+            assertEquals(0, OPENED_DIRECTORIES.get());
+        } finally {
+            try (Stream<Path> files = Files.walk(root)) {
+                files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            }
+        }
+    }
+
+    @Test
+    void test_listing_is_aborted_after_deadline() throws IOException {
+        m_fileSystem = createFileSystem(m_sshServer, true);
+        final SshPath root = m_fileSystem.getPath(m_homeDirectory.toString());
+        final InputStream in = new ByteArrayInputStream(new byte[0]);
+        assertThrows(IOException.class, () -> FindTreeListing.parse(root, in, System.nanoTime() - 1));
+    }
+
+    /**
+     * Walks the tree without following symbolic links.
+     *
+     * @return the paths of the tree mapped to their cached attributes.
+     */
+    private Map<String, String> walk(final String dir) throws IOException {
+        final Map<String, String> paths = new TreeMap<>();
+        final Iterator<SshPath> iter = m_fileSystem.provider().createPathIterator(m_fileSystem.getPath(dir), null);
+        while (iter.hasNext()) {
+            final SshPath path = iter.next();
+            // the attributes of symbolic links are not cached
+            final Optional<BaseFileAttributes> attrs = m_fileSystem.getCachedAttributes(path);
+            paths.put(path.toString(), attrs.map(FindTreeListingTests::describe).orElse("not cached"));
+            if (attrs.isPresent() && attrs.get().isDirectory()) {
+                paths.putAll(walk(path.toString()));
+            }
+        }
+        return paths;
+    }
+
+    private static String describe(final BaseFileAttributes attrs) {
+        // the embedded server reports the size of directories as 0, find as the
+        // size of the directory entries like OpenSSH does
+        return String.join(" ", //
+                attrs.isRegularFile() ? "f" : "d", //
+                attrs.isRegularFile() ? Long.toString(attrs.size()) : "-", //
+                attrs.lastModifiedTime().toString(), //
+                attrs.permissions().toString());
+    }
+
+    private static SshFileSystem createFileSystem(final EmbeddedSshServer server, final boolean useFind)
+            throws IOException {
+        final SshFSConnectionConfig cfg = server.createConfig();
+        cfg.setConnectionTimeout(Duration.ofSeconds(5));
+        cfg.setUseServerSideListing(useFind);
+        return new SshFileSystem(cfg);
+    }
+}
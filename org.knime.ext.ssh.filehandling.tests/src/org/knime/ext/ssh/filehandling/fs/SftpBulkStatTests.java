@@ -0,0 +1,230 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   2026-10-17 (Vyacheslav Soldatov): created
+ */
+package org.knime.ext.ssh.filehandling.fs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.apache.sshd.sftp.SftpModuleProperties;
+import org.apache.sshd.sftp.client.SftpClient;
+import org.apache.sshd.sftp.common.SftpConstants;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.knime.ext.ssh.filehandling.tests.EmbeddedSshServer;
+import org.knime.filehandling.core.connections.base.attributes.BaseFileAttributes;
+
+/**
+ * Tests of reading the attributes of many paths with {@link SftpBulkStat}.
+ *
+ * @author Vyacheslav Soldatov <vyacheslav@redfield.se>
+ */
+public class SftpBulkStatTests {
+    private static Path m_homeDirectory;
+    private static EmbeddedSshServer m_sshServer;
+
+    private SshFileSystem m_fileSystem;
+    private ConnectionResourcePool m_pool;
+    private ConnectionResource m_resource;
+
+    @BeforeAll
+    static void setupServer() throws IOException {
+        m_homeDirectory = Files.createTempDirectory("knime-sftp-");
+        m_sshServer = new EmbeddedSshServer(m_homeDirectory);
+        Files.write(m_homeDirectory.resolve("file"), new byte[] { 1, 2, 3 });
+        Files.createDirectory(m_homeDirectory.resolve("dir"));
+        Files.createSymbolicLink(m_homeDirectory.resolve("link"), m_homeDirectory.resolve("file"));
+        for (int i = 0; i < 100; i++) {
+            Files.write(m_homeDirectory.resolve("dir").resolve("file-" + i), new byte[i]);
+        }
+    }
+
+    @AfterAll
+    static void teardownServer() throws IOException {
+        if (m_sshServer != null) {
+            m_sshServer.close();
+        }
+        try (Stream<Path> files = Files.walk(m_homeDirectory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @BeforeEach
+    void beforeTestCase() throws IOException {
+        // the server speaks SFTP v3 like OpenSSH
+        SftpModuleProperties.SFTP_VERSION.set(m_sshServer.getServer(), SftpConstants.SFTP_V3);
+        final SshFSConnectionConfig cfg = m_sshServer.createConfig();
+        m_fileSystem = new SshFileSystem(cfg);
+        m_pool = new ConnectionResourcePool(cfg);
+        m_pool.start();
+        m_resource = m_pool.take();
+    }
+
+    @AfterEach
+    void afterTestCase() throws IOException {
+        m_pool.release(m_resource);
+        m_pool.stop();
+        m_fileSystem.close();
+        SftpModuleProperties.SFTP_VERSION.remove(m_sshServer.getServer());
+    }
+
+    @Test
+    void test_attributes_in_order_of_paths() throws IOException {
+        final SftpClient client = m_resource.getClient();
+        assertEquals(SftpConstants.SFTP_V3, client.getVersion());
+
+        final List<SshPath> paths = new ArrayList<>();
+        for (int i = 99; i >= 0; i--) {
+            paths.add(path("dir/file-" + i));
+        }
+        final List<SftpClient.Attributes> attrs = SftpBulkStat.stat(client, paths, true, 8);
+
+        assertEquals(paths.size(), attrs.size());
+        for (int i = 0; i < paths.size(); i++) {
+            assertEquals(99 - i, attrs.get(i).getSize());
+            assertTrue(attrs.get(i).isRegularFile());
+            assertEquals(client.stat(paths.get(i).toSftpString()).getModifyTime(), attrs.get(i).getModifyTime());
+        }
+    }
+
+    @Test
+    void test_missing_paths() throws IOException {
+        final List<SftpClient.Attributes> attrs = SftpBulkStat.stat(m_resource.getClient(),
+                Arrays.asList(path("missing"), path("file"), path("dir/missing"), path("dir")), true, 2);
+
+        assertNull(attrs.get(0));
+        assertEquals(3, attrs.get(1).getSize());
+        assertNull(attrs.get(2));
+        assertTrue(attrs.get(3).isDirectory());
+    }
+
+    @Test
+    void test_links_followed_or_not() throws IOException {
+        final List<SshPath> paths = Arrays.asList(path("link"));
+        assertTrue(SftpBulkStat.stat(m_resource.getClient(), paths, true, 4).get(0).isRegularFile());
+        assertTrue(SftpBulkStat.stat(m_resource.getClient(), paths, false, 4).get(0).isSymbolicLink());
+    }
+
+    @Test
+    void test_same_attributes_with_other_versions() throws IOException {
+        final List<SshPath> paths = Arrays.asList(path("file"), path("missing"), path("dir"), path("link"));
+        final List<SftpClient.Attributes> v3Attrs = SftpBulkStat.stat(m_resource.getClient(), paths, false, 4);
+
+        SftpModuleProperties.SFTP_VERSION.remove(m_sshServer.getServer());
+        final ConnectionResourcePool pool = new ConnectionResourcePool(m_sshServer.createConfig());
+        pool.start();
+        final ConnectionResource resource = pool.take();
+        try {
+            assertNotEquals(SftpConstants.SFTP_V3, resource.getClient().getVersion());
+            final List<SftpClient.Attributes> attrs = SftpBulkStat.stat(resource.getClient(), paths, false, 4);
+            for (int i = 0; i < paths.size(); i++) {
+                assertEquals(toString(paths.get(i), v3Attrs.get(i)), toString(paths.get(i), attrs.get(i)));
+            }
+        } finally {
+            pool.release(resource);
+            pool.stop();
+        }
+    }
+
+    @Test
+    void test_read_attributes_fills_cache() throws IOException {
+        final SshPath file = m_fileSystem.getPath("/file");
+        final SshPath dir = m_fileSystem.getPath("/dir");
+        m_fileSystem.clearAttributeCache();
+
+        final List<BaseFileAttributes> attrs = m_fileSystem.readAttributes(
+                Arrays.asList(file, m_fileSystem.getPath("/missing"), dir));
+
+        assertEquals(3, attrs.get(0).size());
+        assertNull(attrs.get(1));
+        assertTrue(attrs.get(2).isDirectory());
+        assertSame(attrs.get(0), m_fileSystem.getCachedAttributes(file).get());
+        assertSame(attrs.get(2), m_fileSystem.getCachedAttributes(dir).get());
+
+        // cached attributes are not read again
+        assertSame(attrs.get(0), m_fileSystem.readAttributes(Arrays.asList(file)).get(0));
+        // not followed links are not cached
+        final SshPath link = m_fileSystem.getPath("/link");
+        assertTrue(m_fileSystem.readAttributes(Arrays.asList(link), LinkOption.NOFOLLOW_LINKS).get(0)
+                .isSymbolicLink());
+        assertTrue(m_fileSystem.getCachedAttributes(link).isEmpty());
+    }
+
+    private static String toString(final SshPath path, final SftpClient.Attributes attrs) {
+        if (attrs == null) {
+            return null;
+        }
+        final BaseFileAttributes base = NativeSftpProviderUtils.toBaseFileAttributes(path, attrs);
+        // SFTP v3 transfers the times in seconds, the server reports the size of
+        // directories depending on the version
+        return String.join(" ", Boolean.toString(base.isRegularFile()), Boolean.toString(base.isDirectory()),
+                Boolean.toString(base.isSymbolicLink()), base.isDirectory() ? "" : Long.toString(base.size()),
+                Long.toString(base.lastModifiedTime().to(TimeUnit.SECONDS)), base.permissions().toString());
+    }
+
+    private SshPath path(final String name) {
+        return m_fileSystem.getPath("/" + name);
+    }
+}
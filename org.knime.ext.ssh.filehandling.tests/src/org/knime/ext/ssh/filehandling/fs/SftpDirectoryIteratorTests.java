@@ -0,0 +1,195 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   2026-10-17 (Vyacheslav Soldatov): created
+ */
+package org.knime.ext.ssh.filehandling.fs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.knime.ext.ssh.filehandling.tests.EmbeddedSshServer;
+
+/**
+ * Tests of the lazy directory listing of {@link SftpDirectoryIterator}.
+ *
+ * @author Vyacheslav Soldatov <vyacheslav@redfield.se>
+ */
+public class SftpDirectoryIteratorTests {
+    private static final int NUM_FILES = 1000;
+
+    private static Path m_homeDirectory;
+    private static EmbeddedSshServer m_sshServer;
+
+    private SshFileSystem m_fileSystem;
+
+    @BeforeAll
+    static void setupServer() throws IOException {
+        m_homeDirectory = Files.createTempDirectory("knime-sftp-");
+        m_sshServer = new EmbeddedSshServer(m_homeDirectory);
+
+        for (String dir : new String[] { "a", "b" }) {
+            Files.createDirectory(m_homeDirectory.resolve(dir));
+            for (int i = 0; i < NUM_FILES; i++) {
+                Files.createFile(m_homeDirectory.resolve(dir).resolve("file-" + i));
+            }
+        }
+    }
+
+    @AfterAll
+    static void teardownServer() throws IOException {
+        if (m_sshServer != null) {
+            m_sshServer.close();
+        }
+        try (Stream<Path> files = Files.walk(m_homeDirectory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @AfterEach
+    void afterTestCase() throws IOException {
+        if (m_fileSystem != null) {
+            m_fileSystem.close();
+        }
+    }
+
+    @Test
+    void test_list_directory_in_batches() throws IOException {
+        m_fileSystem = createFileSystem(2);
+
+        final Set<String> names = new HashSet<>();
+        final Iterator<SshPath> iter = list("/a");
+        while (iter.hasNext()) {
+            names.add(iter.next().getFileName().toString());
+        }
+
+        assertEquals(NUM_FILES, names.size());
+        assertTrue(names.contains("file-0"));
+        assertFalse(names.contains("."));
+        assertFalse(names.contains(".."));
+    }
+
+    @Test
+    void test_list_with_filter() throws IOException {
+        m_fileSystem = createFileSystem(2);
+
+        final Iterator<SshPath> iter = m_fileSystem.provider().createPathIterator(m_fileSystem.getPath("/a"),
+                p -> p.getFileName().toString().endsWith("7"));
+        int count = 0;
+        while (iter.hasNext()) {
+            assertTrue(iter.next().toString().endsWith("7"));
+            count++;
+        }
+        assertEquals(NUM_FILES / 10, count);
+    }
+
+    @Test
+    void test_nested_listings_do_not_wait_for_sessions() throws IOException {
+        // the only SFTP session is held by the outer listing
+        m_fileSystem = createFileSystem(1);
+
+        final Iterator<SshPath> outer = list("/a");
+        outer.next();
+
+        assertEquals(NUM_FILES, count(list("/b")));
+        assertEquals(NUM_FILES - 1, count(outer));
+    }
+
+    @Test
+    void test_close_releases_session() throws IOException {
+        m_fileSystem = createFileSystem(1);
+
+        final Iterator<SshPath> iter = list("/a");
+        iter.next();
+        ((SftpDirectoryIterator) iter).close();
+
+        // would time out if the session was still held by the listing
+        assertTrue(m_fileSystem.provider().exists(m_fileSystem.getPath("/b")));
+    }
+
+    @Test
+    void test_list_missing_directory() throws IOException {
+        m_fileSystem = createFileSystem(1);
+        assertThrows(NoSuchFileException.class, () -> list("/missing"));
+    }
+
+    private Iterator<SshPath> list(final String dir) throws IOException {
+        return m_fileSystem.provider().createPathIterator(m_fileSystem.getPath(dir), null);
+    }
+
+    private static int count(final Iterator<SshPath> iter) {
+        int count = 0;
+        while (iter.hasNext()) {
+            iter.next();
+            count++;
+        }
+        return count;
+    }
+
+    private static SshFileSystem createFileSystem(final int sftpSessions) throws IOException {
+        final SshFSConnectionConfig cfg = m_sshServer.createConfig();
+        cfg.setMaxSftpSessionLimit(sftpSessions);
+        cfg.setConnectionTimeout(Duration.ofSeconds(5));
+        return new SshFileSystem(cfg);
+    }
+}
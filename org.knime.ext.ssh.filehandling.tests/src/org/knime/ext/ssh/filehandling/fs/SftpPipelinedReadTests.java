@@ -0,0 +1,246 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   2026-10-17 (Vyacheslav Soldatov): created
+ */
+package org.knime.ext.ssh.filehandling.fs;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.apache.sshd.sftp.client.SftpClient;
+import org.apache.sshd.sftp.client.SftpClient.OpenMode;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.knime.ext.ssh.filehandling.tests.EmbeddedSshServer;
+
+/**
+ * Tests of the pipelined SFTP reads of {@link SftpPipelinedInputStream} and
+ * {@link SshSeekableByteChannel}.
+ *
+ * @author Vyacheslav Soldatov <vyacheslav@redfield.se>
+ */
+@SuppressWarnings("restriction")
+public class SftpPipelinedReadTests {
+    private static final int CHUNK = SftpPipelinedInputStream.CHUNK_SIZE;
+
+    private static Path m_homeDirectory;
+    private static EmbeddedSshServer m_sshServer;
+
+    private ConnectionResourcePool m_pool;
+    private ConnectionResource m_resource;
+
+    @BeforeAll
+    static void setupServer() throws IOException {
+        m_homeDirectory = Files.createTempDirectory("knime-sftp-");
+        m_sshServer = new EmbeddedSshServer(m_homeDirectory);
+    }
+
+    @AfterAll
+    static void teardownServer() throws IOException {
+        if (m_sshServer != null) {
+            m_sshServer.close();
+        }
+        try (Stream<Path> files = Files.walk(m_homeDirectory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @BeforeEach
+    void beforeTestCase() throws IOException {
+        m_pool = new ConnectionResourcePool(m_sshServer.createConfig());
+        m_pool.start();
+        m_resource = m_pool.take();
+    }
+
+    @AfterEach
+    void afterTestCase() {
+        m_pool.release(m_resource);
+        m_pool.stop();
+    }
+
+    @Test
+    void test_read_files_of_different_sizes() throws IOException {
+        for (int size : new int[] { 0, 1, CHUNK - 1, CHUNK, CHUNK + 1, 10 * CHUNK + 17 }) {
+            final byte[] content = createFile("file-" + size, size);
+            for (int window : new int[] { 1, 4, 64 }) {
+                try (InputStream in = openStream("file-" + size, window)) {
+                    assertArrayEquals(content, in.readAllBytes(), "size=" + size + " window=" + window);
+                    assertEquals(-1, in.read());
+                }
+            }
+        }
+    }
+
+    @Test
+    void test_read_with_small_buffer() throws IOException {
+        final byte[] content = createFile("file", 3 * CHUNK + 5);
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = openStream("file", 8)) {
+            final byte[] buf = new byte[1000];
+            int n;
+            while ((n = in.read(buf, 0, buf.length)) >= 0) {
+                out.write(buf, 0, n);
+            }
+        }
+        assertArrayEquals(content, out.toByteArray());
+    }
+
+    @Test
+    void test_skip() throws IOException {
+        final byte[] content = createFile("file", 20 * CHUNK);
+
+        try (InputStream in = openStream("file", 64)) {
+            assertEquals(content[0], (byte) in.read());
+            // within the received data
+            assertEquals(100, in.skip(100));
+            assertEquals(content[101], (byte) in.read());
+            // far beyond the requested data
+            assertEquals(15 * CHUNK, in.skip(15 * CHUNK));
+            final byte[] rest = in.readAllBytes();
+            assertArrayEquals(Arrays.copyOfRange(content, 102 + 15 * CHUNK, content.length), rest);
+        }
+    }
+
+    @Test
+    void test_close_before_end_of_file() throws IOException {
+        final byte[] content = createFile("file", 100 * CHUNK);
+
+        try (InputStream in = openStream("file", 64)) {
+            in.readNBytes(10 * CHUNK);
+        }
+
+        // the responses to the outstanding requests must not be mistaken for
+        // the responses of the next requests
+        try (InputStream in = openStream("file", 64)) {
+            assertArrayEquals(content, in.readAllBytes());
+        }
+        assertEquals(content.length, m_resource.getClient().stat("/file").getSize());
+    }
+
+    @Test
+    void test_channel_read_ahead() throws IOException {
+        final byte[] content = createFile("file", 10 * CHUNK + 3);
+
+        try (SeekableByteChannel ch = openChannel("file", EnumSet.of(OpenMode.Read), 64)) {
+            final ByteBuffer buf = ByteBuffer.allocate(content.length + 10);
+            while (ch.read(buf) >= 0) {
+                // read until the end of file
+            }
+            assertEquals(content.length, buf.position());
+            assertEquals(content.length, ch.position());
+            assertArrayEquals(content, Arrays.copyOf(buf.array(), content.length));
+
+            // random access
+            final ByteBuffer direct = ByteBuffer.allocateDirect(10);
+            ch.position(CHUNK + 7);
+            assertEquals(10, ch.read(direct));
+            assertEquals(CHUNK + 17, ch.position());
+            direct.flip();
+            final byte[] bytes = new byte[10];
+            direct.get(bytes);
+            assertArrayEquals(Arrays.copyOfRange(content, CHUNK + 7, CHUNK + 17), bytes);
+        }
+    }
+
+    @Test
+    void test_channel_read_after_write() throws IOException {
+        final byte[] content = createFile("file", 4 * CHUNK);
+
+        try (SeekableByteChannel ch = openChannel("file", EnumSet.of(OpenMode.Read, OpenMode.Write), 64)) {
+            final ByteBuffer buf = ByteBuffer.allocate(CHUNK);
+            ch.read(buf);
+
+            // the data read ahead is outdated by the write
+            final byte[] changed = new byte[CHUNK];
+            Arrays.fill(changed, (byte) 7);
+            ch.write(ByteBuffer.wrap(changed));
+            System.arraycopy(changed, 0, content, CHUNK, CHUNK);
+
+            ch.position(0);
+            final ByteBuffer all = ByteBuffer.allocate(content.length);
+            while (all.hasRemaining() && ch.read(all) >= 0) {
+                // read until the end of file
+            }
+            assertArrayEquals(content, all.array());
+        }
+    }
+
+    private InputStream openStream(final String name, final int window) throws IOException {
+        final SftpClient client = m_resource.getClient();
+        return new SftpPipelinedInputStream(client, client.open("/" + name, EnumSet.of(OpenMode.Read)), true, 0,
+                window);
+    }
+
+    private SeekableByteChannel openChannel(final String name, final EnumSet<OpenMode> modes, final int window)
+            throws IOException {
+        return new SshSeekableByteChannel("/" + name, m_resource.getClient(), modes, window);
+    }
+
+    private static byte[] createFile(final String name, final int size) throws IOException {
+        final byte[] content = new byte[size];
+        new Random(size).nextBytes(content);
+        Files.write(m_homeDirectory.resolve(name), content);
+        return content;
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   2026-10-17 (Vyacheslav Soldatov): created
+ */
+package org.knime.ext.ssh.filehandling.fs;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.apache.sshd.server.session.ServerSession;
+import org.apache.sshd.sftp.client.SftpClient;
+import org.apache.sshd.sftp.client.SftpClient.OpenMode;
+import org.apache.sshd.sftp.server.FileHandle;
+import org.apache.sshd.sftp.server.SftpEventListener;
+import org.apache.sshd.sftp.server.SftpSubsystemFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.knime.ext.ssh.filehandling.tests.EmbeddedSshServer;
+
+/**
+ * Tests of the pipelined SFTP writes of {@link SftpPipelinedOutputStream}.
+ *
+ * @author Vyacheslav Soldatov <vyacheslav@redfield.se>
+ */
+@SuppressWarnings("restriction")
+public class SftpPipelinedWriteTests {
+    private static final int CHUNK = SftpPipelinedOutputStream.CHUNK_SIZE;
+
+    private static Path m_homeDirectory;
+    private static EmbeddedSshServer m_sshServer;
+
+    private ConnectionResourcePool m_pool;
+    private ConnectionResource m_resource;
+
+    @BeforeAll
+    static void setupServer() throws IOException {
+        m_homeDirectory = Files.createTempDirectory("knime-sftp-");
+        m_sshServer = new EmbeddedSshServer(m_homeDirectory);
+    }
+
+    @AfterAll
+    static void teardownServer() throws IOException {
+        if (m_sshServer != null) {
+            m_sshServer.close();
+        }
+        try (Stream<Path> files = Files.walk(m_homeDirectory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @BeforeEach
+    void beforeTestCase() throws IOException {
+        m_pool = new ConnectionResourcePool(m_sshServer.createConfig());
+        m_pool.start();
+        m_resource = m_pool.take();
+    }
+
+    @AfterEach
+    void afterTestCase() {
+        m_pool.release(m_resource);
+        m_pool.stop();
+    }
+
+    @Test
+    void test_write_files_of_different_sizes() throws IOException {
+        for (int size : new int[] { 0, 1, CHUNK - 1, CHUNK, CHUNK + 1, 10 * CHUNK + 17 }) {
+            final byte[] content = createContent(size);
+            for (int window : new int[] { 1, 4, 64 }) {
+                try (OutputStream out = openStream("file", EnumSet.of(OpenMode.Write, OpenMode.Create,
+                        OpenMode.Truncate), window)) {
+                    out.write(content);
+                }
+                assertArrayEquals(content, Files.readAllBytes(m_homeDirectory.resolve("file")),
+                        "size=" + size + " window=" + window);
+            }
+        }
+    }
+
+    @Test
+    void test_write_with_small_buffer() throws IOException {
+        final byte[] content = createContent(3 * CHUNK + 5);
+
+        try (OutputStream out = openStream("file", EnumSet.of(OpenMode.Write, OpenMode.Create, OpenMode.Truncate),
+                8)) {
+            out.write(content[0]);
+            for (int off = 1; off < content.length; off += 1000) {
+                out.write(content, off, Math.min(1000, content.length - off));
+            }
+        }
+        assertArrayEquals(content, Files.readAllBytes(m_homeDirectory.resolve("file")));
+    }
+
+    @Test
+    void test_flush_writes_data() throws IOException {
+        final byte[] content = createContent(CHUNK + 100);
+
+        try (OutputStream out = openStream("file", EnumSet.of(OpenMode.Write, OpenMode.Create, OpenMode.Truncate),
+                64)) {
+            out.write(content);
+            out.flush();
+            assertArrayEquals(content, Files.readAllBytes(m_homeDirectory.resolve("file")));
+        }
+    }
+
+    @Test
+    void test_append() throws IOException {
+        final byte[] content = createContent(2 * CHUNK + 3);
+        Files.write(m_homeDirectory.resolve("file"), Arrays.copyOf(content, CHUNK + 1));
+
+        try (OutputStream out = SftpPipelinedOutputStream.open(m_resource.getClient(), "/file",
+                EnumSet.of(OpenMode.Write, OpenMode.Append), 64)) {
+            out.write(content, CHUNK + 1, content.length - CHUNK - 1);
+        }
+        assertArrayEquals(content, Files.readAllBytes(m_homeDirectory.resolve("file")));
+    }
+
+    @Test
+    void test_write_error_reported_at_close() throws IOException {
+        final SftpSubsystemFactory sftp = (SftpSubsystemFactory) m_sshServer.getServer().getSubsystemFactories()
+                .get(0);
+        final SftpEventListener failingWrites = new SftpEventListener() {
+            @Override
+            public void writing(final ServerSession session, final String remoteHandle, final FileHandle localHandle,
+                    final long offset, final byte[] data, final int dataOffset, final int dataLen)
+                    throws IOException {
+                if (offset >= 2 * CHUNK) {
+                    throw new IOException("Disk full");
+                }
+            }
+        };
+        // the listeners are passed to the SFTP sessions when they are opened
+        sftp.addSftpEventListener(failingWrites);
+        final ConnectionResourcePool pool = new ConnectionResourcePool(m_sshServer.createConfig());
+        try {
+            pool.start();
+            final ConnectionResource resource = pool.take();
+            final OutputStream out = SftpPipelinedOutputStream.open(resource.getClient(), "/file",
+                    EnumSet.of(OpenMode.Write, OpenMode.Create, OpenMode.Truncate), 64);
+            // the failed request is still in flight
+            out.write(createContent(3 * CHUNK));
+            assertThrows(IOException.class, out::close);
+
+            // the client is still usable
+            assertEquals(2 * CHUNK, resource.getClient().stat("/file").getSize());
+            pool.release(resource);
+        } finally {
+            pool.stop();
+            sftp.removeSftpEventListener(failingWrites);
+        }
+    }
+
+    private OutputStream openStream(final String name, final EnumSet<OpenMode> modes, final int window)
+            throws IOException {
+        return SftpPipelinedOutputStream.open(m_resource.getClient(), "/" + name, modes, window);
+    }
+
+    private static byte[] createContent(final int size) {
+        final byte[] content = new byte[size];
+        new Random(size).nextBytes(content);
+        return content;
+    }
+}
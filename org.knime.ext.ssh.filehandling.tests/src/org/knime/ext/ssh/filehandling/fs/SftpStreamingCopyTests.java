@@ -0,0 +1,188 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   2026-10-17 (Vyacheslav Soldatov): created
+ */
+package org.knime.ext.ssh.filehandling.fs;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.apache.sshd.sftp.SftpModuleProperties;
+import org.apache.sshd.sftp.client.SftpClient;
+import org.apache.sshd.sftp.client.extensions.CopyFileExtension;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.knime.ext.ssh.filehandling.tests.EmbeddedSshServer;
+
+/**
+ * Tests of the copy through the client of {@link SftpStreamingCopy}, against
+ * a server without the copy-file extension.
+ *
+ * @author Vyacheslav Soldatov <vyacheslav@redfield.se>
+ */
+public class SftpStreamingCopyTests {
+    private static final int CHUNK = SftpPipelinedInputStream.CHUNK_SIZE;
+
+    private static final int WINDOW = 16;
+
+    private static Path m_homeDirectory;
+    private static EmbeddedSshServer m_sshServer;
+
+    private SshFileSystem m_fileSystem;
+    private ConnectionResourcePool m_pool;
+    private ConnectionResource m_readResource;
+    private ConnectionResource m_writeResource;
+
+    @BeforeAll
+    static void setupServer() throws IOException {
+        m_homeDirectory = Files.createTempDirectory("knime-sftp-");
+        m_sshServer = new EmbeddedSshServer(m_homeDirectory);
+        // the server announces only this extension, so copy-file is not supported
+        SftpModuleProperties.CLIENT_EXTENSIONS.set(m_sshServer.getServer(), "md5-hash");
+    }
+
+    @AfterAll
+    static void teardownServer() throws IOException {
+        if (m_sshServer != null) {
+            m_sshServer.close();
+        }
+        try (Stream<Path> files = Files.walk(m_homeDirectory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @BeforeEach
+    void beforeTestCase() throws IOException {
+        final SshFSConnectionConfig cfg = m_sshServer.createConfig();
+        cfg.setMaxSftpSessionLimit(2);
+        m_fileSystem = new SshFileSystem(cfg);
+        m_pool = new ConnectionResourcePool(cfg);
+        m_pool.start();
+        m_readResource = m_pool.take();
+        m_writeResource = m_pool.take();
+    }
+
+    @AfterEach
+    void afterTestCase() throws IOException {
+        m_pool.release(m_readResource);
+        m_pool.release(m_writeResource);
+        m_pool.stop();
+        m_fileSystem.close();
+    }
+
+    @Test
+    void test_copy_files_of_different_sizes() throws IOException {
+        for (int size : new int[] { 0, 1, CHUNK - 1, CHUNK, CHUNK + 1, 100 * CHUNK + 17 }) {
+            final byte[] content = createFile("source", size);
+            createCopy(m_writeResource.getClient()).copy(path("source"), path("target"));
+            assertArrayEquals(content, Files.readAllBytes(m_homeDirectory.resolve("target")), "size=" + size);
+        }
+    }
+
+    @Test
+    void test_copy_with_one_session() throws IOException {
+        final byte[] content = createFile("source", 10 * CHUNK + 5);
+        createCopy(m_readResource.getClient()).copy(path("source"), path("target"));
+        assertArrayEquals(content, Files.readAllBytes(m_homeDirectory.resolve("target")));
+    }
+
+    @Test
+    void test_copy_truncates_target() throws IOException {
+        final byte[] content = createFile("source", CHUNK + 5);
+        createFile("target", 3 * CHUNK);
+        createCopy(m_writeResource.getClient()).copy(path("source"), path("target"));
+        assertArrayEquals(content, Files.readAllBytes(m_homeDirectory.resolve("target")));
+    }
+
+    @Test
+    void test_copy_missing_source() throws IOException {
+        Files.deleteIfExists(m_homeDirectory.resolve("missing-target"));
+        assertThrows(NoSuchFileException.class, () -> createCopy(m_writeResource.getClient())
+                .copy(path("missing"), path("missing-target")));
+        assertFalse(Files.exists(m_homeDirectory.resolve("missing-target")));
+    }
+
+    @Test
+    void test_copy_internal_without_copy_file_extension() throws IOException {
+        final SftpClient client = m_readResource.getClient();
+        assertFalse(client.getExtension(CopyFileExtension.class).isSupported());
+
+        final byte[] content = createFile("source", 5 * CHUNK + 1);
+        final SshPath source = path("source");
+        NativeSftpProviderUtils.copyInternal(createCopy(m_writeResource.getClient()), source, path("target"),
+                NativeSftpProviderUtils.readRemoteAttributes(client, source), new HashSet<>());
+        assertArrayEquals(content, Files.readAllBytes(m_homeDirectory.resolve("target")));
+    }
+
+    private SftpStreamingCopy createCopy(final SftpClient writeClient) {
+        return new SftpStreamingCopy(m_readResource.getClient(), writeClient, WINDOW, WINDOW);
+    }
+
+    private SshPath path(final String name) {
+        return m_fileSystem.getPath("/" + name);
+    }
+
+    private static byte[] createFile(final String name, final int size) throws IOException {
+        final byte[] content = new byte[size];
+        new Random(size).nextBytes(content);
+        Files.write(m_homeDirectory.resolve(name), content);
+        return content;
+    }
+}
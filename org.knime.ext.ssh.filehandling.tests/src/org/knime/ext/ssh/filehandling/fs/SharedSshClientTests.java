@@ -0,0 +1,274 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   2026-10-17 (Vyacheslav Soldatov): created
+ */
+package org.knime.ext.ssh.filehandling.fs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.PublicKey;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.apache.sshd.client.session.ClientSession;
+import org.apache.sshd.common.config.keys.PublicKeyEntry;
+import org.apache.sshd.common.session.Session;
+import org.apache.sshd.common.session.SessionListener;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.knime.ext.ssh.filehandling.tests.EmbeddedSshServer;
+
+/**
+ * Tests of sharing the SSH client and the SSH sessions of several
+ * {@link ConnectionResourcePool}s with {@link SharedSshClient}.
+ *
+ * @author Vyacheslav Soldatov <vyacheslav@redfield.se>
+ */
+public class SharedSshClientTests {
+    private static Path m_homeDirectory;
+    private static EmbeddedSshServer m_sshServer;
+
+    private static final AtomicInteger OPENED_SESSIONS = new AtomicInteger();
+
+    private final List<ConnectionResourcePool> m_pools = new ArrayList<>();
+
+    @BeforeAll
+    static void setupServer() throws IOException {
+        m_homeDirectory = Files.createTempDirectory("knime-sftp-");
+        m_sshServer = new EmbeddedSshServer(m_homeDirectory);
+        m_sshServer.getServer().addSessionListener(new SessionListener() {
+            @Override
+            public void sessionCreated(final Session session) {
+                OPENED_SESSIONS.incrementAndGet();
+            }
+        });
+    }
+
+    @AfterAll
+    static void teardownServer() throws IOException {
+        if (m_sshServer != null) {
+            m_sshServer.close();
+        }
+        try (Stream<Path> files = Files.walk(m_homeDirectory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @BeforeEach
+    void beforeTestCase() {
+        OPENED_SESSIONS.set(0);
+    }
+
+    @AfterEach
+    void afterTestCase() throws InterruptedException {
+        for (ConnectionResourcePool pool : m_pools) {
+            pool.stop();
+        }
+        // the idle shared sessions are forgotten when the server closes them
+        m_sshServer.closeSessions();
+        awaitNoSharedSessions();
+    }
+
+    @Test
+    void test_equal_pools_share_sessions() throws IOException {
+        final ConnectionResourcePool first = startPool(2, true);
+        final ConnectionResourcePool second = startPool(2, true);
+        assertEquals(2, OPENED_SESSIONS.get());
+
+        assertEquals(getSessions(first, 2), getSessions(second, 2));
+    }
+
+    @Test
+    void test_pools_without_reuse_do_not_share_sessions() throws IOException {
+        final ConnectionResourcePool first = startPool(1, false);
+        final ConnectionResourcePool second = startPool(1, false);
+        assertEquals(2, OPENED_SESSIONS.get());
+
+        assertNotSame(first.take().getClient().getClientSession(), second.take().getClient().getClientSession());
+    }
+
+    @Test
+    void test_idle_session_reused_by_next_pool() throws IOException {
+        final ConnectionResourcePool first = startPool(1, true);
+        final ClientSession session = first.take().getClient().getClientSession();
+        first.stop();
+        assertTrue(session.isOpen());
+
+        final ConnectionResourcePool second = startPool(1, true);
+        assertSame(session, second.take().getClient().getClientSession());
+        assertEquals(1, OPENED_SESSIONS.get());
+    }
+
+    @Test
+    void test_closed_shared_session_reopened() throws Exception {
+        final ConnectionResourcePool first = startPool(1, true);
+        final ConnectionResourcePool second = startPool(1, true);
+        final ClientSession lost = first.take().getClient().getClientSession();
+        m_sshServer.closeSessions();
+        awaitClosed(lost);
+
+        final ConnectionResource resource = first.take();
+        resource.getClient().stat("/");
+        final ClientSession session = resource.getClient().getClientSession();
+        assertNotSame(lost, session);
+
+        final ConnectionResource other = second.take();
+        other.getClient().stat("/");
+        assertSame(session, other.getClient().getClientSession());
+        assertEquals(2, OPENED_SESSIONS.get());
+    }
+
+    @Test
+    void test_client_used_by_all_pools() throws IOException {
+        final int users = SharedSshClient.getUserCount();
+        final ConnectionResourcePool first = startPool(1, false);
+        final ConnectionResourcePool second = startPool(1, true);
+        assertEquals(users + 2, SharedSshClient.getUserCount());
+        assertEquals(1, SharedSshClient.getSessionCount());
+
+        first.stop();
+        second.stop();
+        assertEquals(users, SharedSshClient.getUserCount());
+        // the idle session is kept open
+        assertEquals(1, SharedSshClient.getSessionCount());
+    }
+
+    @Test
+    void test_open_locks_are_removed() throws IOException {
+        final ConnectionResourcePool first = startPool(2, true);
+        final ConnectionResourcePool second = startPool(2, true);
+        getSessions(first, 2);
+        getSessions(second, 2);
+        assertEquals(0, SharedSshClient.getOpenLockCount());
+    }
+
+    @Test
+    void test_pools_with_other_known_hosts_do_not_share_sessions() throws Exception {
+        final PublicKey hostKey = m_sshServer.getServer().getKeyPairProvider().loadKeys(null).iterator().next()
+                .getPublic();
+        final String entry = "[localhost]:" + m_sshServer.getServer().getPort() + " "
+                + PublicKeyEntry.toString(hostKey) + "\n";
+        final Path knownHosts = Files.writeString(m_homeDirectory.resolve("known_hosts"), entry);
+        final Path otherKnownHosts = Files.writeString(m_homeDirectory.resolve("other_known_hosts"),
+                "# other\n" + entry);
+
+        final ConnectionResourcePool first = startPool(1, true, knownHosts);
+        final ConnectionResourcePool second = startPool(1, true, knownHosts);
+        final ConnectionResourcePool third = startPool(1, true, otherKnownHosts);
+        assertEquals(2, OPENED_SESSIONS.get());
+
+        final ClientSession session = first.take().getClient().getClientSession();
+        assertSame(session, second.take().getClient().getClientSession());
+        assertNotSame(session, third.take().getClient().getClientSession());
+    }
+
+    private ConnectionResourcePool startPool(final int connections, final boolean reuse) throws IOException {
+        return startPool(connections, reuse, null);
+    }
+
+    private ConnectionResourcePool startPool(final int connections, final boolean reuse, final Path knownHosts)
+            throws IOException {
+        final SshFSConnectionConfig cfg = m_sshServer.createConfig();
+        cfg.setConnectionCount(connections);
+        cfg.setMaxSftpSessionLimit(2);
+        cfg.setReuseSessions(reuse);
+        if (knownHosts != null) {
+            cfg.setUseKnownHosts(true);
+            cfg.setBridge(new ConnectionToNodeModelBridge() {
+                @Override
+                public void doWithKnownHostsFile(final Consumer<Path> consumer) {
+                    consumer.accept(knownHosts);
+                }
+
+                @Override
+                public void doWithKeysFile(final Consumer<Path> consumer) {
+                    throw new UnsupportedOperationException();
+                }
+            });
+        }
+        final ConnectionResourcePool pool = new ConnectionResourcePool(cfg);
+        m_pools.add(pool);
+        pool.start();
+        return pool;
+    }
+
+    private static Set<ClientSession> getSessions(final ConnectionResourcePool pool, final int count)
+            throws IOException {
+        final Set<ClientSession> sessions = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            sessions.add(pool.take().getClient().getClientSession());
+        }
+        return sessions;
+    }
+
+    private static void awaitClosed(final ClientSession session) throws InterruptedException {
+        for (int i = 0; i < 1000 && session.isOpen(); i++) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static void awaitNoSharedSessions() throws InterruptedException {
+        for (int i = 0; i < 1000 && SharedSshClient.getSessionCount() > 0; i++) {
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,313 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   2026-10-17 (Vyacheslav Soldatov): created
+ */
+package org.knime.ext.ssh.filehandling.fs;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.IOException;
+import java.nio.file.CopyOption;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.apache.sshd.server.session.ServerSession;
+import org.apache.sshd.sftp.server.SftpEventListener;
+import org.apache.sshd.sftp.server.SftpSubsystemFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.knime.ext.ssh.filehandling.tests.EmbeddedSshServer;
+
+/**
+ * Tests of the tree operations of {@link SshFileSystemProvider} with shell
+ * commands and with the SFTP fallback.
+ *
+ * @author Vyacheslav Soldatov <vyacheslav@redfield.se>
+ */
+public class ShellTreeOperationsTests {
+    private static final AtomicInteger SFTP_REMOVALS = new AtomicInteger();
+
+    private static final AtomicBoolean FAIL_SFTP_RENAME = new AtomicBoolean();
+
+    private static final FileTime MODIFIED = FileTime.fromMillis(1_600_000_000_000L);
+
+    private static EmbeddedSshServer m_sshServer;
+
+    private Path m_workDirectory;
+
+    private SshFileSystem m_fileSystem;
+
+    @BeforeAll
+    static void setupServer() throws IOException {
+        assumeTrue(Files.isExecutable(Path.of("/bin/sh")));
+
+        m_sshServer = EmbeddedSshServer.createWithShell();
+        final SftpSubsystemFactory sftp = (SftpSubsystemFactory) m_sshServer.getServer().getSubsystemFactories()
+                .get(0);
+        sftp.addSftpEventListener(new SftpEventListener() {
+            @Override
+            public void removing(final ServerSession session, final Path path, final boolean isDirectory) {
+                SFTP_REMOVALS.incrementAndGet();
+            }
+
+            @Override
+            public void moving(final ServerSession session, final Path srcPath, final Path dstPath,
+                    final Collection<CopyOption> opts) throws IOException {
+                if (FAIL_SFTP_RENAME.get()) {
+                    throw new IOException("Invalid cross-device link");
+                }
+            }
+        });
+    }
+
+    @AfterAll
+    static void teardownServer() throws IOException {
+        if (m_sshServer != null) {
+            m_sshServer.close();
+        }
+    }
+
+    @BeforeEach
+    void beforeTestCase() throws IOException {
+        SFTP_REMOVALS.set(0);
+        FAIL_SFTP_RENAME.set(false);
+        m_workDirectory = Files.createTempDirectory("knime-tree-").toRealPath();
+    }
+
+    @AfterEach
+    void afterTestCase() throws IOException {
+        if (m_fileSystem != null) {
+            m_fileSystem.close();
+        }
+        try (Stream<Path> files = Files.walk(m_workDirectory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Test
+    void test_delete_tree_with_shell() throws IOException {
+        m_fileSystem = createFileSystem(true);
+        final Path tree = createTree("it's $(echo tree)");
+
+        m_fileSystem.provider().deleteTree(remote(tree));
+
+        assertFalse(Files.exists(tree, LinkOption.NOFOLLOW_LINKS));
+        assertEquals(0, SFTP_REMOVALS.get());
+    }
+
+    @Test
+    void test_delete_tree_with_sftp() throws IOException {
+        m_fileSystem = createFileSystem(false);
+        final Path tree = createTree("it's $(echo tree)");
+
+        m_fileSystem.provider().deleteTree(remote(tree));
+
+        assertFalse(Files.exists(tree, LinkOption.NOFOLLOW_LINKS));
+        assertTrue(SFTP_REMOVALS.get() > 0);
+    }
+
+    @Test
+    void test_delete_does_not_follow_links() throws IOException {
+        m_fileSystem = createFileSystem(true);
+        final Path tree = createTree("tree");
+        final Path link = Files.createSymbolicLink(m_workDirectory.resolve("link"), tree);
+
+        m_fileSystem.provider().deleteTree(remote(link));
+
+        assertFalse(Files.exists(link, LinkOption.NOFOLLOW_LINKS));
+        assertTrue(Files.exists(tree.resolve("sub").resolve("file-0")));
+    }
+
+    @Test
+    void test_delete_missing_tree() throws IOException {
+        m_fileSystem = createFileSystem(true);
+        assertThrows(NoSuchFileException.class,
+                () -> m_fileSystem.provider().deleteTree(remote(m_workDirectory.resolve("missing"))));
+    }
+
+    @Test
+    void test_copy_tree_with_shell() throws IOException {
+        m_fileSystem = createFileSystem(true);
+        testCopyTree();
+    }
+
+    @Test
+    void test_copy_tree_with_sftp() throws IOException {
+        m_fileSystem = createFileSystem(false);
+        testCopyTree();
+    }
+
+    private void testCopyTree() throws IOException {
+        final Path source = createTree("source 'tree'");
+        final Path target = m_workDirectory.resolve("target $HOME");
+
+        m_fileSystem.provider().copyTree(remote(source), remote(target));
+
+        assertTreeEquals(source, target);
+    }
+
+    @Test
+    void test_copy_to_existing_target() throws IOException {
+        m_fileSystem = createFileSystem(true);
+        final Path source = createTree("source");
+        final Path target = Files.createDirectory(m_workDirectory.resolve("target"));
+
+        assertThrows(FileAlreadyExistsException.class,
+                () -> m_fileSystem.provider().copyTree(remote(source), remote(target)));
+        try (Stream<Path> files = Files.list(target)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void test_move_tree() throws IOException {
+        m_fileSystem = createFileSystem(true);
+        final Path source = createTree("source");
+        final Path expected = createTree("expected");
+        final Path target = m_workDirectory.resolve("target");
+
+        m_fileSystem.provider().moveTree(remote(source), remote(target));
+
+        assertFalse(Files.exists(source));
+        assertTreeEquals(expected, target);
+    }
+
+    @Test
+    void test_move_tree_falls_back_to_shell() throws IOException {
+        m_fileSystem = createFileSystem(true);
+        final Path source = createTree("source");
+        final Path target = m_workDirectory.resolve("target");
+
+        FAIL_SFTP_RENAME.set(true);
+        m_fileSystem.provider().moveTree(remote(source), remote(target));
+
+        assertFalse(Files.exists(source));
+        assertTrue(Files.exists(target.resolve("sub").resolve("file-0")));
+    }
+
+    @Test
+    void test_move_tree_without_shell_fails() throws IOException {
+        m_fileSystem = createFileSystem(false);
+        final Path source = createTree("source");
+
+        FAIL_SFTP_RENAME.set(true);
+        assertThrows(IOException.class,
+                () -> m_fileSystem.provider().moveTree(remote(source), remote(m_workDirectory.resolve("target"))));
+        assertTrue(Files.exists(source));
+    }
+
+    /**
+     * Creates a directory with a file, a subdirectory with files and a
+     * symbolic link.
+     */
+    private Path createTree(final String name) throws IOException {
+        final Path root = Files.createDirectory(m_workDirectory.resolve(name));
+        final Path sub = Files.createDirectory(root.resolve("sub"));
+        for (int i = 0; i < 5; i++) {
+            Files.write(sub.resolve("file-" + i), new byte[i * 100]);
+        }
+        final Path file = Files.write(root.resolve("it's \"a\" file"), new byte[] { 1, 2, 3 });
+        Files.setPosixFilePermissions(file, PosixFilePermissions.fromString("rw-r-----"));
+        Files.setLastModifiedTime(file, MODIFIED);
+        Files.createSymbolicLink(root.resolve("link"), Path.of("sub", "file-1"));
+        Files.setLastModifiedTime(sub, MODIFIED);
+        return root;
+    }
+
+    private static void assertTreeEquals(final Path expected, final Path actual) throws IOException {
+        final Path file = actual.resolve("it's \"a\" file");
+        assertArrayEquals(new byte[] { 1, 2, 3 }, Files.readAllBytes(file));
+        assertEquals(PosixFilePermissions.fromString("rw-r-----"), Files.getPosixFilePermissions(file));
+        assertEquals(MODIFIED, Files.getLastModifiedTime(file));
+        assertEquals(MODIFIED, Files.getLastModifiedTime(actual.resolve("sub")));
+        assertTrue(Files.isSymbolicLink(actual.resolve("link")));
+        assertEquals(Path.of("sub", "file-1"), Files.readSymbolicLink(actual.resolve("link")));
+        for (int i = 0; i < 5; i++) {
+            assertEquals(i * 100, Files.size(actual.resolve("sub").resolve("file-" + i)));
+        }
+        try (Stream<Path> expectedFiles = Files.walk(expected); Stream<Path> actualFiles = Files.walk(actual)) {
+            assertEquals(expectedFiles.count(), actualFiles.count());
+        }
+    }
+
+    private SshPath remote(final Path local) {
+        return m_fileSystem.getPath(local.toString());
+    }
+
+    /**
+     * @param withShell
+     *            whether shell commands can be executed, without shell sessions
+     *            the tree operations use SFTP.
+     */
+    private static SshFileSystem createFileSystem(final boolean withShell) throws IOException {
+        final SshFSConnectionConfig cfg = m_sshServer.createConfig();
+        cfg.setConnectionTimeout(Duration.ofSeconds(5));
+        if (!withShell) {
+            cfg.setMaxExecChannelLimit(0);
+        }
+        return new SshFileSystem(cfg);
+    }
+}
@@ -0,0 +1,260 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   2026-10-17 (Vyacheslav Soldatov): created
+ */
+package org.knime.ext.ssh.filehandling.fs;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.apache.sshd.server.auth.password.PasswordAuthenticator;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.knime.ext.ssh.filehandling.tests.EmbeddedSshServer;
+import org.knime.filehandling.core.connections.base.attributes.BaseFileAttributes;
+
+/**
+ * Tests of reconnecting lost SSH connections. The connections are killed by
+ * the embedded server in the middle of reads, listings and writes.
+ *
+ * @author Vyacheslav Soldatov <vyacheslav@redfield.se>
+ */
+public class SshReconnectTests {
+    private static final int FILE_SIZE = 4 * 1024 * 1024;
+
+    private static final int DIR_SIZE = 1000;
+
+    private static Path m_homeDirectory;
+    private static EmbeddedSshServer m_sshServer;
+    private static byte[] m_content;
+
+    private SshFileSystem m_fileSystem;
+
+    @BeforeAll
+    static void setupServer() throws IOException {
+        m_homeDirectory = Files.createTempDirectory("knime-sftp-");
+        m_sshServer = new EmbeddedSshServer(m_homeDirectory);
+
+        m_content = new byte[FILE_SIZE];
+        new Random(1).nextBytes(m_content);
+        Files.write(m_homeDirectory.resolve("file"), m_content);
+
+        final Path dir = Files.createDirectory(m_homeDirectory.resolve("dir"));
+        for (int i = 0; i < DIR_SIZE; i++) {
+            Files.createFile(dir.resolve("file-" + i));
+        }
+    }
+
+    @AfterAll
+    static void teardownServer() throws IOException {
+        if (m_sshServer != null) {
+            m_sshServer.close();
+        }
+        try (Stream<Path> files = Files.walk(m_homeDirectory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @BeforeEach
+    void beforeTestCase() throws IOException {
+        m_fileSystem = new SshFileSystem(m_sshServer.createConfig());
+    }
+
+    @AfterEach
+    void afterTestCase() throws IOException {
+        m_fileSystem.close();
+    }
+
+    @Test
+    void test_read_continued_after_connection_lost() throws IOException {
+        final ByteArrayOutputStream read = new ByteArrayOutputStream(FILE_SIZE);
+        try (InputStream in = Files.newInputStream(m_fileSystem.getPath("/file"))) {
+            final byte[] buf = new byte[8 * 1024];
+            int n;
+            while ((n = in.read(buf)) >= 0) {
+                read.write(buf, 0, n);
+                if (read.size() == FILE_SIZE / 4) {
+                    m_sshServer.closeSessions();
+                }
+            }
+        }
+
+        assertArrayEquals(m_content, read.toByteArray());
+    }
+
+    @Test
+    void test_listing_continued_after_connection_lost() throws IOException {
+        final Set<String> names = new HashSet<>();
+        int count = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(m_fileSystem.getPath("/dir"))) {
+            final Iterator<Path> iter = stream.iterator();
+            while (iter.hasNext()) {
+                names.add(iter.next().getFileName().toString());
+                count++;
+                if (count == 10) {
+                    m_sshServer.closeSessions();
+                }
+            }
+        }
+
+        // every entry is returned once
+        assertEquals(DIR_SIZE, count);
+        assertEquals(DIR_SIZE, names.size());
+    }
+
+    @Test
+    void test_attributes_read_after_connection_lost() throws IOException {
+        final SshPath file = m_fileSystem.getPath("/file");
+        assertTrue(m_fileSystem.provider().exists(file));
+
+        m_sshServer.closeSessions();
+        m_fileSystem.clearAttributeCache();
+        assertTrue(m_fileSystem.provider().exists(file));
+
+        m_sshServer.closeSessions();
+        m_fileSystem.clearAttributeCache();
+        final List<BaseFileAttributes> attrs = m_fileSystem.readAttributes(Arrays.asList(file));
+        assertEquals(FILE_SIZE, attrs.get(0).size());
+    }
+
+    @Test
+    void test_write_fails_with_clear_error_after_connection_lost() throws IOException {
+        final Path file = m_fileSystem.getPath("/written");
+        final byte[] buf = new byte[64 * 1024];
+
+        final IOException error = assertThrows(IOException.class, () -> {
+            try (OutputStream out = newOutputStream(file)) {
+                out.write(buf);
+                m_sshServer.closeSessions();
+                // the lost connection is noticed by one of the next writes
+                for (int i = 0; i < 1000; i++) {
+                    out.write(buf);
+                }
+            }
+        });
+        assertTrue(error.getMessage().contains("connection was lost while writing /written"), error.getMessage());
+
+        // the next write uses the reestablished connection
+        try (OutputStream out = newOutputStream(file)) {
+            out.write(buf);
+        }
+        assertEquals(buf.length, Files.size(m_homeDirectory.resolve("written")));
+    }
+
+    @Test
+    void test_reconnect_delayed_after_failure() throws Exception {
+        final PasswordAuthenticator authenticator = m_sshServer.getServer().getPasswordAuthenticator();
+        final ConnectionResourcePool pool = new ConnectionResourcePool(m_sshServer.createConfig());
+        pool.start();
+        try {
+            m_sshServer.getServer().setPasswordAuthenticator((user, password, session) -> false);
+            m_sshServer.closeSessions();
+            awaitConnectionLost(pool);
+
+            // the failed reconnect delays the next one
+            assertThrows(IOException.class, pool::take);
+            final Duration delay = pool.getReconnectDelay();
+            assertTrue(delay.compareTo(Duration.ZERO) > 0, delay::toString);
+            assertTrue(delay.compareTo(ConnectionResourcePool.INITIAL_RECONNECT_DELAY) <= 0, delay::toString);
+
+            final IOException error = assertThrows(IOException.class, pool::take);
+            assertTrue(error.getMessage().contains("next reconnect"), error.getMessage());
+
+            // the delay doubles with the next failure
+            Thread.sleep(delay.toMillis() + 10);
+            assertThrows(IOException.class, pool::take);
+            assertTrue(pool.getReconnectDelay().compareTo(ConnectionResourcePool.INITIAL_RECONNECT_DELAY) > 0);
+
+            m_sshServer.getServer().setPasswordAuthenticator(authenticator);
+            Thread.sleep(pool.getReconnectDelay().toMillis() + 10);
+            final ConnectionResource resource = pool.take();
+            assertNotNull(resource);
+            assertEquals(Duration.ZERO, pool.getReconnectDelay());
+            pool.release(resource);
+        } finally {
+            m_sshServer.getServer().setPasswordAuthenticator(authenticator);
+            pool.stop();
+        }
+    }
+
+    private static OutputStream newOutputStream(final Path file) throws IOException {
+        return Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    private static void awaitConnectionLost(final ConnectionResourcePool pool) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (!pool.isConnectionLost() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(pool.isConnectionLost());
+    }
+}
@@ -46,15 +46,20 @@
 
 package org.knime.ext.ssh.filehandling.node;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
 import java.io.FileInputStream;
 import java.io.IOException;
 
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
 import org.knime.core.node.InvalidSettingsException;
 import org.knime.core.node.NodeSettings;
 import org.knime.core.webui.node.dialog.SettingsType;
 import org.knime.core.webui.node.dialog.defaultdialog.NodeParametersUtil;
+import org.knime.ext.ssh.filehandling.fs.SshFSConnectionConfig;
 import org.knime.testing.node.dialog.DefaultNodeSettingsSnapshotTest;
 import org.knime.testing.node.dialog.SnapshotTestConfiguration;
 
@@ -99,6 +104,22 @@ private static SnapshotTestConfiguration getConfig() {
                 .build();
     }
 
+    /**
+     * The stored settings were saved before the connection tuning options were
+     * added, so loading them has to fall back to the defaults.
+     */
+    @Test
+    void testLoadSettingsWithoutTuningOptions() {
+        final var params = readSettings();
+
+        assertEquals(SshFSConnectionConfig.DEFAULT_CONNECTION_COUNT, params.m_connectionCount);
+        assertEquals(SshFSConnectionConfig.DEFAULT_MAX_READ_REQUESTS, params.m_maxReadRequests);
+        assertEquals(SshFSConnectionConfig.DEFAULT_MAX_WRITE_REQUESTS, params.m_maxWriteRequests);
+        assertFalse(params.m_useServerSideListing);
+        assertFalse(params.m_usePriorityLane);
+        assertFalse(params.m_reuseSessions);
+    }
+
     private static SshConnectorNodeParameters readSettings() {
         try {
             var path = getSnapshotPath(SshConnectorNodeParameters.class).getParent().resolve("node_settings")
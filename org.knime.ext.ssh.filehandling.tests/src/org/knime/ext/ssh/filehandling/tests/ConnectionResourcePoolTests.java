@@ -0,0 +1,354 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   2026-10-17 (Vyacheslav Soldatov): created
+ */
+package org.knime.ext.ssh.filehandling.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.apache.sshd.client.channel.ChannelExec;
+import org.apache.sshd.client.session.ClientSession;
+import org.apache.sshd.server.auth.password.PasswordAuthenticator;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.knime.ext.ssh.filehandling.fs.BorrowWaitHistogram;
+import org.knime.ext.ssh.filehandling.fs.ConnectionResource;
+import org.knime.ext.ssh.filehandling.fs.ConnectionResourcePool;
+import org.knime.ext.ssh.filehandling.fs.SshFSConnectionConfig;
+
+/**
+ * Tests of spreading the SFTP sessions of the {@link ConnectionResourcePool}
+ * over several SSH connections and of the order the waiting callers are
+ * served in.
+ *
+ * @author Vyacheslav Soldatov <vyacheslav@redfield.se>
+ */
+public class ConnectionResourcePoolTests {
+
+    private static Path m_homeDirectory;
+    private static EmbeddedSshServer m_sshServer;
+
+    private ConnectionResourcePool m_pool;
+
+    @BeforeAll
+    static void setupServer() throws IOException {
+        m_homeDirectory = Files.createTempDirectory("knime-sftp-");
+        m_sshServer = new EmbeddedSshServer(m_homeDirectory);
+    }
+
+    @AfterAll
+    static void teardownServer() throws IOException {
+        if (m_sshServer != null) {
+            m_sshServer.close();
+        }
+        try (Stream<Path> files = Files.walk(m_homeDirectory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @AfterEach
+    void afterTestCase() {
+        if (m_pool != null) {
+            m_pool.stop();
+        }
+    }
+
+    @Test
+    void test_sessions_spread_over_connections() throws IOException {
+        m_pool = startPool(3, 7);
+
+        // the least loaded connection is used first
+        final List<ConnectionResource> resources = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            resources.add(m_pool.take());
+        }
+        assertEquals(3, countByConnection(resources).size());
+
+        for (int i = 3; i < 7; i++) {
+            resources.add(m_pool.take());
+        }
+        final Map<ClientSession, Integer> counts = countByConnection(resources);
+        assertEquals(3, counts.size());
+        for (int count : counts.values()) {
+            assertEquals(7 / 3.0, count, 1.0);
+        }
+    }
+
+    @Test
+    void test_single_connection_by_default() throws IOException {
+        final SshFSConnectionConfig cfg = m_sshServer.createConfig();
+        cfg.setMaxSftpSessionLimit(4);
+        m_pool = new ConnectionResourcePool(cfg);
+        m_pool.start();
+
+        final List<ConnectionResource> resources = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            resources.add(m_pool.take());
+        }
+        assertEquals(1, countByConnection(resources).size());
+    }
+
+    @Test
+    void test_lost_connection_is_reconnected() throws Exception {
+        m_pool = startPool(2, 4);
+
+        final ConnectionResource lost = m_pool.take();
+        final ClientSession lostSession = lost.getClient().getClientSession();
+        lostSession.close(true).await();
+        m_pool.release(lost);
+
+        // the SFTP sessions of the lost connection are opened again
+        final List<ConnectionResource> resources = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            final ConnectionResource resource = m_pool.take();
+            assertFalse(resource.isClosed());
+            assertNotSame(lostSession, resource.getClient().getClientSession());
+            resource.getClient().stat("/");
+            resources.add(resource);
+        }
+        assertEquals(2, countByConnection(resources).size());
+    }
+
+    @Test
+    void test_all_connections_closed_by_server() throws Exception {
+        m_pool = startPool(2, 2);
+        m_sshServer.closeSessions();
+        // the client notices the closed connections asynchronously
+        while (!m_pool.isConnectionLost()) {
+            Thread.sleep(1);
+        }
+
+        final ConnectionResource resource = m_pool.take();
+        resource.getClient().stat("/");
+        m_pool.release(resource);
+    }
+
+    @Test
+    void test_pool_usable_while_reconnecting() throws Exception {
+        m_pool = startPool(2, 2);
+        final ConnectionResource lost = m_pool.take();
+        lost.getClient().getClientSession().close(true).await();
+        m_pool.release(lost);
+
+        // the authentication of the reconnect waits until it is allowed to proceed
+        final PasswordAuthenticator authenticator = m_sshServer.getServer().getPasswordAuthenticator();
+        final CountDownLatch authenticating = new CountDownLatch(1);
+        final CountDownLatch proceed = new CountDownLatch(1);
+        m_sshServer.getServer().setPasswordAuthenticator((user, password, session) -> {
+            authenticating.countDown();
+            try {
+                proceed.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) { // NOSONAR
+                Thread.currentThread().interrupt();
+            }
+            return authenticator.authenticate(user, password, session);
+        });
+
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final Future<ConnectionResource> reconnected = executor.submit(() -> m_pool.take());
+            assertTrue(authenticating.await(10, TimeUnit.SECONDS));
+
+            // the resource of the open connection is taken without waiting for the reconnect
+            final ConnectionResource open = executor.submit(m_pool::tryTake).get(5, TimeUnit.SECONDS);
+            assertNotNull(open);
+            open.getClient().stat("/");
+
+            proceed.countDown();
+            final ConnectionResource resource = reconnected.get(10, TimeUnit.SECONDS);
+            resource.getClient().stat("/");
+            assertNotSame(open.getClient().getClientSession(), resource.getClient().getClientSession());
+        } finally {
+            proceed.countDown();
+            m_sshServer.getServer().setPasswordAuthenticator(authenticator);
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void test_waiters_served_in_arrival_order() throws Exception {
+        m_pool = startPool(1, 1);
+        assertEquals(Arrays.asList("first", "second", "third"),
+                serveWaiters("first", "second", "third"));
+    }
+
+    @Test
+    void test_priority_waiters_served_first() throws Exception {
+        m_pool = startPool(1, 1, true);
+        assertEquals(Arrays.asList("priority", "first", "second"),
+                serveWaiters("first", "second", "!priority"));
+    }
+
+    @Test
+    void test_priority_ignored_if_lane_disabled() throws Exception {
+        m_pool = startPool(1, 1);
+        assertEquals(Arrays.asList("first", "priority", "second"),
+                serveWaiters("first", "!priority", "second"));
+        assertEquals(0, m_pool.getPriorityWaitHistogram().getCount());
+    }
+
+    @Test
+    void test_wait_histograms() throws Exception {
+        final SshFSConnectionConfig cfg = m_sshServer.createConfig();
+        cfg.setMaxSftpSessionLimit(2);
+        cfg.setMaxExecChannelLimit(1);
+        cfg.setUsePriorityLane(true);
+        m_pool = new ConnectionResourcePool(cfg);
+        m_pool.start();
+
+        m_pool.release(m_pool.take());
+        m_pool.release(m_pool.take(true));
+        final ConnectionResource resource = m_pool.tryTake();
+        m_pool.release(resource);
+
+        final ChannelExec chan = m_pool.takeExecChannel("true", StandardCharsets.UTF_8, Duration.ofSeconds(1));
+        assertThrows(IOException.class,
+                () -> m_pool.takeExecChannel("true", StandardCharsets.UTF_8, Duration.ofMillis(100)));
+        m_pool.release(chan);
+
+        final BorrowWaitHistogram sftpWaits = m_pool.getSftpWaitHistogram();
+        assertEquals(1, sftpWaits.getCount());
+        assertEquals(1, Arrays.stream(sftpWaits.getBucketCounts()).sum());
+        assertEquals(BorrowWaitHistogram.getBucketBounds().length + 1, sftpWaits.getBucketCounts().length);
+        assertEquals(0, sftpWaits.getTimeoutCount());
+        assertEquals(1, m_pool.getPriorityWaitHistogram().getCount());
+
+        final BorrowWaitHistogram execWaits = m_pool.getExecWaitHistogram();
+        assertEquals(1, execWaits.getCount());
+        assertEquals(1, execWaits.getTimeoutCount());
+    }
+
+    /**
+     * Takes the only SFTP session and lets the given callers wait for it one
+     * after another, a name starting with {@code !} takes it with priority.
+     * Then the session is released.
+     *
+     * @return the names in the order the callers got the session.
+     */
+    private List<String> serveWaiters(final String... names) throws Exception {
+        final ConnectionResource busy = m_pool.take();
+        final List<String> served = Collections.synchronizedList(new ArrayList<>());
+        final List<Thread> threads = new ArrayList<>();
+        for (String name : names) {
+            final boolean priority = name.startsWith("!");
+            final Thread thread = new Thread(() -> {
+                try {
+                    final ConnectionResource resource = m_pool.take(priority);
+                    served.add(priority ? name.substring(1) : name);
+                    m_pool.release(resource);
+                } catch (IOException ex) {
+                    served.add(ex.getMessage());
+                }
+            });
+            thread.start();
+            awaitWaiting(thread);
+            threads.add(thread);
+        }
+
+        m_pool.release(busy);
+        for (Thread thread : threads) {
+            thread.join(10_000);
+        }
+        return served;
+    }
+
+    private static void awaitWaiting(final Thread thread) throws InterruptedException {
+        while (thread.getState() != Thread.State.WAITING && thread.getState() != Thread.State.TIMED_WAITING) {
+            Thread.sleep(1);
+        }
+    }
+
+    private static ConnectionResourcePool startPool(final int connections, final int sftpSessions)
+            throws IOException {
+        return startPool(connections, sftpSessions, false);
+    }
+
+    private static ConnectionResourcePool startPool(final int connections, final int sftpSessions,
+            final boolean usePriorityLane) throws IOException {
+        final SshFSConnectionConfig cfg = m_sshServer.createConfig();
+        cfg.setConnectionCount(connections);
+        cfg.setMaxSftpSessionLimit(sftpSessions);
+        cfg.setUsePriorityLane(usePriorityLane);
+        final ConnectionResourcePool pool = new ConnectionResourcePool(cfg);
+        pool.start();
+        return pool;
+    }
+
+    private static Map<ClientSession, Integer> countByConnection(final List<ConnectionResource> resources) {
+        final Map<ClientSession, Integer> counts = new HashMap<>();
+        for (ConnectionResource resource : resources) {
+            counts.merge(resource.getClient().getClientSession(), 1, Integer::sum);
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   2026-10-17 (Vyacheslav Soldatov): created
+ */
+package org.knime.ext.ssh.filehandling.tests;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collections;
+
+import org.apache.sshd.common.file.FileSystemFactory;
+import org.apache.sshd.common.file.nativefs.NativeFileSystemFactory;
+import org.apache.sshd.common.file.virtualfs.VirtualFileSystemFactory;
+import org.apache.sshd.common.session.helpers.AbstractSession;
+import org.apache.sshd.server.SshServer;
+import org.apache.sshd.server.keyprovider.SimpleGeneratorHostKeyProvider;
+import org.apache.sshd.server.shell.ProcessShellFactory;
+import org.apache.sshd.sftp.server.SftpSubsystemFactory;
+import org.knime.ext.ssh.filehandling.fs.SshFSConnectionConfig;
+
+/**
+ * Embedded Apache SSHD server with the SFTP subsystem serving a local
+ * directory, for the tests which do not need a real SSH server.
+ *
+ * @author Vyacheslav Soldatov <vyacheslav@redfield.se>
+ */
+public final class EmbeddedSshServer implements AutoCloseable {
+    private static final String USER_NAME = "knime";
+
+    private static final String PASSWORD = "knime";
+
+    private final SshServer m_sshServer;
+
+    /**
+     * Starts the server.
+     *
+     * @param homeDirectory
+     *            directory which is the root of the served file system.
+     * @throws IOException
+     */
+    public EmbeddedSshServer(final Path homeDirectory) throws IOException {
+        this(new VirtualFileSystemFactory(homeDirectory), false);
+    }
+
+    /**
+     * Starts a server serving the local file system, the SFTP paths are the
+     * absolute local paths. Commands are executed with {@code /bin/sh}.
+     *
+     * @return the started server.
+     * @throws IOException
+     */
+    public static EmbeddedSshServer createWithShell() throws IOException {
+        return new EmbeddedSshServer(new NativeFileSystemFactory(), true);
+    }
+
+    private EmbeddedSshServer(final FileSystemFactory fileSystemFactory, final boolean withShell)
+            throws IOException {
+        m_sshServer = SshServer.setUpDefaultServer();
+        m_sshServer.setPort(0); // 0 means use any available port
+        m_sshServer.setKeyPairProvider(new SimpleGeneratorHostKeyProvider());
+        m_sshServer.setPasswordAuthenticator(
+                (user, password, session) -> USER_NAME.equals(user) && PASSWORD.equals(password));
+        m_sshServer.setSubsystemFactories(Collections.singletonList(new SftpSubsystemFactory()));
+        m_sshServer.setFileSystemFactory(fileSystemFactory);
+        if (withShell) {
+            m_sshServer.setCommandFactory((channel, command) -> new ProcessShellFactory(command, "/bin/sh", "-c",
+                    command).createShell(channel));
+        }
+        m_sshServer.start();
+    }
+
+    /**
+     * @return native server.
+     */
+    public SshServer getServer() {
+        return m_sshServer;
+    }
+
+    /**
+     * @return configuration of a connection to this server.
+     */
+    public SshFSConnectionConfig createConfig() {
+        final SshFSConnectionConfig cfg = new SshFSConnectionConfig("/");
+        cfg.setHost("localhost");
+        cfg.setPort(m_sshServer.getPort());
+        cfg.setUserName(USER_NAME);
+        cfg.setPassword(PASSWORD);
+        cfg.setUseKnownHosts(false);
+        return cfg;
+    }
+
+    /**
+     * Closes the connections of all clients like a network failure does.
+     */
+    public void closeSessions() {
+        for (AbstractSession session : m_sshServer.getActiveSessions()) {
+            session.close(true);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        m_sshServer.stop(true);
+    }
+}
@@ -61,7 +61,7 @@
  * @author Jannik Löscher, KNIME GmbH, Konstanz, Germany
  */
 @SuppressWarnings("restriction")
-final class SshCommandUtil {
+public final class SshCommandUtil {
 
     private SshCommandUtil() {
         throw new UnsupportedOperationException("Utility class");
@@ -100,7 +100,14 @@ public static String getCommand(final SshCommandExecutorNodeSettings settings, f
         return result;
     }
 
-    static String escapeStringSh(final String str) {
+    /**
+     * Quotes a string as a single argument of a POSIX shell command.
+     *
+     * @param str
+     *            string to quote.
+     * @return quoted string.
+     */
+    public static String escapeStringSh(final String str) {
         return "'" + str.replace("'", "'\\''") + "'";
     }
 
@@ -0,0 +1,168 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   2026-10-17 (Vyacheslav Soldatov): created
+ */
+package org.knime.ext.ssh.filehandling.fs;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of the times callers waited to borrow a resource from the
+ * {@link ConnectionResourcePool}. The waits are counted in buckets with the
+ * upper bounds of {@link #getBucketBounds()}, the last bucket counts the
+ * longer waits. The histogram is thread safe and may be read while the pool is
+ * used.
+ *
+ * @author Vyacheslav Soldatov <vyacheslav@redfield.se>
+ */
+public final class BorrowWaitHistogram {
+
+    private static final long[] BOUNDS_MILLIS = { 1, 10, 100, 1_000, 10_000 };
+
+    private final AtomicLongArray m_buckets = new AtomicLongArray(BOUNDS_MILLIS.length + 1);
+    private final AtomicLong m_totalWaitNanos = new AtomicLong();
+    private final AtomicLong m_maxWaitNanos = new AtomicLong();
+    private final AtomicLong m_timeouts = new AtomicLong();
+
+    /**
+     * @param waitNanos
+     *            time in nanoseconds the caller waited for the resource.
+     */
+    void record(final long waitNanos) {
+        final long millis = TimeUnit.NANOSECONDS.toMillis(waitNanos);
+        int bucket = 0;
+        while (bucket < BOUNDS_MILLIS.length && millis >= BOUNDS_MILLIS[bucket]) {
+            bucket++;
+        }
+        m_buckets.incrementAndGet(bucket);
+        m_totalWaitNanos.addAndGet(waitNanos);
+        m_maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+
+    /**
+     * Counts a caller which gave up waiting.
+     */
+    void recordTimeout() {
+        m_timeouts.incrementAndGet();
+    }
+
+    /**
+     * @return exclusive upper bounds of the buckets except of the last one.
+     */
+    public static Duration[] getBucketBounds() {
+        final Duration[] bounds = new Duration[BOUNDS_MILLIS.length];
+        for (int i = 0; i < bounds.length; i++) {
+            bounds[i] = Duration.ofMillis(BOUNDS_MILLIS[i]);
+        }
+        return bounds;
+    }
+
+    /**
+     * @return number of borrows per bucket, one more than the number of bucket
+     *         bounds.
+     */
+    public long[] getBucketCounts() {
+        final long[] counts = new long[m_buckets.length()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = m_buckets.get(i);
+        }
+        return counts;
+    }
+
+    /**
+     * @return number of borrowed resources.
+     */
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < m_buckets.length(); i++) {
+            count += m_buckets.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * @return number of callers which gave up waiting.
+     */
+    public long getTimeoutCount() {
+        return m_timeouts.get();
+    }
+
+    /**
+     * @return sum of the waits of all borrowed resources.
+     */
+    public Duration getTotalWait() {
+        return Duration.ofNanos(m_totalWaitNanos.get());
+    }
+
+    /**
+     * @return longest wait of a borrowed resource.
+     */
+    public Duration getMaxWait() {
+        return Duration.ofNanos(m_maxWaitNanos.get());
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder();
+        sb.append("count=").append(getCount());
+        for (int i = 0; i < m_buckets.length(); i++) {
+            sb.append(", ");
+            if (i < BOUNDS_MILLIS.length) {
+                sb.append('<').append(BOUNDS_MILLIS[i]);
+            } else {
+                sb.append(">=").append(BOUNDS_MILLIS[BOUNDS_MILLIS.length - 1]);
+            }
+            sb.append("ms=").append(m_buckets.get(i));
+        }
+        sb.append(", max=").append(getMaxWait().toMillis()).append("ms");
+        sb.append(", timeouts=").append(getTimeoutCount());
+        return sb.toString();
+    }
+}
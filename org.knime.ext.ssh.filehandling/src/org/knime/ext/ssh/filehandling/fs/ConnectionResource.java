@@ -49,6 +49,11 @@
 
 package org.knime.ext.ssh.filehandling.fs;
 
+import java.time.Duration;
+import java.util.EnumSet;
+
+import org.apache.sshd.client.session.ClientSession;
+import org.apache.sshd.client.session.ClientSession.ClientSessionEvent;
 import org.apache.sshd.sftp.client.SftpClient;
 
 /**
@@ -59,6 +64,11 @@
  *
  */
 public class ConnectionResource {
+    /**
+     * Time to wait for the close of a connection after a call has failed.
+     */
+    private static final Duration CONNECTION_LOST_WAIT = Duration.ofMillis(200);
+
     private final SftpClient m_client;
 
     /**
@@ -93,4 +103,24 @@ public void close() {
     public boolean isClosed() {
         return !m_client.isOpen() || m_client.isClosing();
     }
+
+    /**
+     * Checks whether a call of the client has failed because the SSH
+     * connection is lost. A call may fail before the session notices that
+     * the connection is lost, so the close of the session is awaited for a
+     * short time.
+     *
+     * @param client
+     *            SFTP client of the failed call.
+     * @return true if the SFTP session or its SSH connection is closed.
+     */
+    static boolean isConnectionLost(final SftpClient client) {
+        if (!client.isOpen() || client.isClosing()) {
+            return true;
+        }
+        final ClientSession session = client.getClientSession();
+        return !session.isOpen()
+                || session.waitFor(EnumSet.of(ClientSessionEvent.CLOSED), CONNECTION_LOST_WAIT)
+                        .contains(ClientSessionEvent.CLOSED);
+    }
 }
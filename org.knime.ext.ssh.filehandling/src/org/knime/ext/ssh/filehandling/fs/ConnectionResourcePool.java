@@ -46,35 +46,62 @@
  * History
  *   2020-08-01 (Vyacheslav Soldatov): created
  */
-
 package org.knime.ext.ssh.filehandling.fs;
 
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
 
 import org.apache.sshd.client.channel.ChannelExec;
 import org.apache.sshd.client.session.ClientSession;
 import org.apache.sshd.common.channel.exception.SshChannelOpenException;
 import org.apache.sshd.common.session.Session;
 import org.apache.sshd.common.session.SessionListener;
+import org.apache.sshd.common.util.threads.SshdThreadFactory;
 import org.apache.sshd.sftp.client.SftpClient;
 import org.apache.sshd.sftp.client.SftpClientFactory;
 import org.knime.core.node.NodeLogger;
+import org.knime.filehandling.core.defaultnodesettings.ExceptionUtil;
 
 /**
- * This is the simple resource pool implementation. Main idea is for the most of
- * time to have just one free resource. Possible states is 0 free resources or 1
- * free resource. When the <code>take</code> method is called it is there free
- * resource it is returned immediately. Otherwise the resource is created and
- * registered as busy. When resource releasing and if the list of free resources
- * already contains one free resource, the releasing resource is just
- * immediately closed. Otherwise it is placed to free resources. It allows to
- * have one free resource during the most of time.
+ * This is the simple resource pool implementation. All SFTP sessions are
+ * opened when the pool is started and are handed out by the <code>take</code>
+ * method. If there is no free resource the caller waits until a resource is
+ * released.
+ *
+ * The SFTP sessions are channels which are spread over one or more SSH
+ * sessions (TCP connections), see
+ * {@link SshFSConnectionConfig#getConnectionCount()}. The SSH window of one
+ * connection limits the throughput of all of its channels, so with several
+ * connections parallel transfers are not capped by a single connection. A
+ * resource of the least loaded connection is taken first. If a connection is
+ * lost, it is reconnected independently of the others and its SFTP sessions
+ * are opened again. A failed reconnect is attempted again after a delay which
+ * doubles with every failure, see {@link #getReconnectDelay()}.
+ *
+ * The callers waiting for SFTP sessions and for execution channels are queued
+ * in separate lanes and served first come, first served. A released resource
+ * wakes only the first waiter of its own lane. If
+ * {@link SshFSConnectionConfig#isUsePriorityLane()} is set, the callers which
+ * take a resource with priority, e.g. to read attributes or to list a
+ * directory, are served before the other waiters, so they do not wait behind
+ * long transfers. The wait times are counted in {@link BorrowWaitHistogram}s.
  *
  * @author Vyacheslav Soldatov <vyacheslav@redfield.se>
  *
@@ -83,16 +110,40 @@ public class ConnectionResourcePool implements SessionListener {
 
     private static final NodeLogger LOG = NodeLogger.getLogger(ConnectionResourcePool.class);
 
+    /**
+     * Delay of the reconnect after the first failed reconnect of a connection,
+     * it is doubled with every further failure up to
+     * {@link #MAX_RECONNECT_DELAY}.
+     */
+    static final Duration INITIAL_RECONNECT_DELAY = Duration.ofMillis(500);
+
+    /**
+     * Maximum delay between the reconnects of a lost connection.
+     */
+    static final Duration MAX_RECONNECT_DELAY = Duration.ofSeconds(30);
+
+    private final ReentrantLock m_lock = new ReentrantLock();
+
     private final LinkedList<ConnectionResource> m_freeResources = new LinkedList<>();
     private final Set<ConnectionResource> m_busyResources = new HashSet<>();
 
     private final Set<ChannelExec> m_currentExecChannels = new HashSet<>();
 
+    private final WaitLane m_sftpLane;
+    private final WaitLane m_execLane;
+
+    private final BorrowWaitHistogram m_sftpWaits = new BorrowWaitHistogram();
+    private final BorrowWaitHistogram m_priorityWaits = new BorrowWaitHistogram();
+    private final BorrowWaitHistogram m_execWaits = new BorrowWaitHistogram();
+
     private final SftpSessionFactory m_sessionFactory;
-    private ClientSession m_session;
+    private final List<PooledSession> m_sessions = new ArrayList<>();
+    private boolean m_started;
 
     private final int m_maxResourcesLimit;
     private final int m_maxExecChannelLimit;
+    private final int m_connectionCount;
+    private final boolean m_usePriorityLane;
     private final Duration m_connectionTimeOut;
 
     /**
@@ -103,8 +154,13 @@ public ConnectionResourcePool(final SshFSConnectionConfig settings) {
         super();
         m_maxResourcesLimit = settings.getMaxSftpSessionLimit();
         m_maxExecChannelLimit = settings.getMaxExecChannelLimit();
+        m_connectionCount = Math.max(1, Math.min(settings.getConnectionCount(), m_maxResourcesLimit));
+        m_usePriorityLane = settings.isUsePriorityLane();
         m_connectionTimeOut = settings.getConnectionTimeout();
 
+        m_sftpLane = new WaitLane(() -> !m_freeResources.isEmpty());
+        m_execLane = new WaitLane(() -> m_currentExecChannels.size() < m_maxExecChannelLimit);
+
         m_sessionFactory = new SftpSessionFactory(settings);
     }
 
@@ -113,8 +169,43 @@ public ConnectionResourcePool(final SshFSConnectionConfig settings) {
      * @return resource.
      * @throws IOException
      */
-    public synchronized ConnectionResource take() throws IOException {
-        return take(this::takeImpl, m_connectionTimeOut, "Wait of resource time out exceed");
+    public ConnectionResource take() throws IOException {
+        return take(false);
+    }
+
+    /**
+     * Marks resource as busy and returns it.
+     *
+     * @param priority
+     *            whether the resource is taken for a short call, e.g. to read
+     *            attributes or to list a directory, which is served before the
+     *            other waiters if the priority lane is enabled.
+     * @return resource.
+     * @throws IOException
+     */
+    public ConnectionResource take(final boolean priority) throws IOException {
+        final boolean usePriority = priority && m_usePriorityLane;
+        return take(m_sftpLane, usePriority, this::takeImpl, m_connectionTimeOut,
+                "Wait of resource time out exceed", usePriority ? m_priorityWaits : m_sftpWaits);
+    }
+
+    /**
+     * Marks a free resource as busy and returns it without waiting. Like
+     * {@link java.util.concurrent.Semaphore#tryAcquire()} a free resource is
+     * returned even if other callers are waiting.
+     *
+     * @return resource or {@code null} if all resources are busy.
+     * @throws IOException
+     */
+    public ConnectionResource tryTake() throws IOException {
+        m_lock.lock();
+        try {
+            return takeImpl();
+        } catch (ResourcesLimitExceedException ignored) { // NOSONAR all resources are busy
+            return null;
+        } finally {
+            m_lock.unlock();
+        }
     }
 
     /**
@@ -132,94 +223,379 @@ public synchronized ConnectionResource take() throws IOException {
      * @return the newly created execution channel
      * @throws IOException
      */
-    public synchronized ChannelExec takeExecChannel(final String command, final Charset encoding,
+    public ChannelExec takeExecChannel(final String command, final Charset encoding,
             final Duration timeOut) throws IOException {
-        return take(() -> takeExecChannelImpl(command, encoding), timeOut,
+        return take(m_execLane, false, () -> takeExecChannelImpl(command, encoding), timeOut,
                 "Waiting for shell session timed out. "
                         + "Please consider decreasing the maximum SFTP sessions or increasing the maximum "
-                        + "shell sessions in the SSH Connector.");
+                        + "shell sessions in the SSH Connector.",
+                m_execWaits);
     }
 
-    private synchronized <R> R take(final TakeSupplier<R> supplier, final Duration timeout, final String timeoutMessage)
-            throws IOException {
-        if (timeout == null || timeout.isZero()) {
-            return takeWithoutTimeout(supplier);
-        } else {
-            return takeWithTimeout(supplier, timeout.toMillis(), timeoutMessage);
-        }
+    /**
+     * @return waits for SFTP sessions taken without priority.
+     */
+    public BorrowWaitHistogram getSftpWaitHistogram() {
+        return m_sftpWaits;
     }
 
-    private synchronized <R> R takeWithoutTimeout(final TakeSupplier<R> supplier) throws IOException {
-        while (true) {
-            try {
-                return supplier.take();
-            } catch (ResourcesLimitExceedException ignored) { // NOSONAR used for waiting
-                try {
-                    wait();
-                } catch (InterruptedException iex) { // NOSONAR
-                    throw new IOException("Thread interrupted", iex);
-                }
-            }
-        }
+    /**
+     * @return waits for SFTP sessions taken with priority, empty if the priority
+     *         lane is not enabled.
+     */
+    public BorrowWaitHistogram getPriorityWaitHistogram() {
+        return m_priorityWaits;
     }
 
-    private synchronized <R> R takeWithTimeout(final TakeSupplier<R> supplier, final long millis,
-            final String timeoutMessage) throws IOException {
-        long startTime = System.currentTimeMillis();
+    /**
+     * @return waits for execution channels.
+     */
+    public BorrowWaitHistogram getExecWaitHistogram() {
+        return m_execWaits;
+    }
+
+    private <R> R take(final WaitLane lane, final boolean priority, final TakeSupplier<R> supplier,
+            final Duration timeout, final String timeoutMessage, final BorrowWaitHistogram histogram)
+            throws IOException {
+        final long startTime = System.nanoTime();
+        final boolean withTimeout = timeout != null && !timeout.isZero();
+        final long timeoutNanos = withTimeout ? timeout.toNanos() : 0;
+
+        m_lock.lock();
+        try {
+            // do not overtake the waiters
+            if (!lane.hasWaiters(priority)) {
+                final R result = tryTake(supplier);
+                if (result != null) {
+                    histogram.record(System.nanoTime() - startTime);
+                    return result;
+                }
+            }
 
-        while (true) {
+            final Condition waiter = lane.enqueue(priority);
             try {
-                return supplier.take();
-            } catch (ResourcesLimitExceedException ignored) { // NOSONAR used for waiting
-                long waitTime = millis - (System.currentTimeMillis() - startTime);
-                if (waitTime > 0) {
-                    try {
-                        wait(waitTime);
-                    } catch (InterruptedException iex) { // NOSONAR
-                        Thread.currentThread().interrupt();
-                        throw new IOException("Thread interrupted", iex);
+                while (true) {
+                    if (lane.isFirst(waiter)) {
+                        final R result = tryTake(supplier);
+                        if (result != null) {
+                            histogram.record(System.nanoTime() - startTime);
+                            return result;
+                        }
+                    }
+
+                    if (!withTimeout) {
+                        waiter.await();
+                    } else {
+                        final long waitTime = timeoutNanos - (System.nanoTime() - startTime);
+                        if (waitTime <= 0) {
+                            histogram.recordTimeout();
+                            throw new IOException(timeoutMessage);
+                        }
+                        waiter.awaitNanos(waitTime);
                     }
-                } else {
-                    throw new IOException(timeoutMessage);
                 }
+            } catch (InterruptedException iex) { // NOSONAR
+                Thread.currentThread().interrupt();
+                throw new IOException("Thread interrupted", iex);
+            } finally {
+                lane.remove(waiter);
             }
+        } finally {
+            m_lock.unlock();
+        }
+    }
+
+    private static <R> R tryTake(final TakeSupplier<R> supplier) throws IOException {
+        try {
+            return supplier.take();
+        } catch (ResourcesLimitExceedException ignored) { // NOSONAR used for waiting
+            return null;
         }
     }
 
     private ConnectionResource takeImpl() throws IOException, ResourcesLimitExceedException {
         checkStarted();
-        makeSureSessionOpened();
+        makeSureSessionsOpened();
 
+        // take the free resource of the least loaded connection
         ConnectionResource resource = null;
-        if (!m_freeResources.isEmpty()) {
-            resource = m_freeResources.removeFirst();
-            m_busyResources.add(resource);
+        PooledSession session = null;
+        final Iterator<ConnectionResource> iter = m_freeResources.iterator();
+        while (iter.hasNext()) {
+            final ConnectionResource candidate = iter.next();
+            if (candidate.isClosed()) {
+                // the channel is lost before the pool is notified about the lost connection
+                iter.remove();
+                continue;
+            }
+            final PooledSession candidateSession = getPooledSession(candidate.getClient().getClientSession());
+            if (candidateSession != null && (session == null || candidateSession.getLoad() < session.getLoad())) {
+                resource = candidate;
+                session = candidateSession;
+            }
         }
 
         if (resource == null) {
             throw new ResourcesLimitExceedException();
         }
 
+        m_freeResources.remove(resource);
+        m_busyResources.add(resource);
+        session.m_busyResources++;
         return resource;
     }
 
     private ChannelExec takeExecChannelImpl(final String command, final Charset encoding)
             throws IOException, ResourcesLimitExceedException {
         checkStarted();
-        makeSureSessionOpened();
+        makeSureSessionsOpened();
 
-        if (m_currentExecChannels.size() < m_maxExecChannelLimit) {
-            final var newChan = createExecChannel(command, encoding);
+        final PooledSession session = getLeastLoadedSession();
+        // no connection is open while the lost ones are reconnected
+        if (session != null && m_currentExecChannels.size() < m_maxExecChannelLimit) {
+            final var newChan = createExecChannel(session.m_session, command, encoding);
             m_currentExecChannels.add(newChan);
+            session.m_execChannels++;
             return newChan;
         }
 
         throw new ResourcesLimitExceedException();
     }
 
-    private void makeSureSessionOpened() throws IOException {
-        if (!m_session.isOpen()) {
-            sessionClosed(m_session);
+    private PooledSession getLeastLoadedSession() {
+        PooledSession leastLoaded = null;
+        for (PooledSession session : m_sessions) {
+            if (session.isOpen() && (leastLoaded == null || session.getLoad() < leastLoaded.getLoad())) {
+                leastLoaded = session;
+            }
+        }
+        return leastLoaded;
+    }
+
+    private PooledSession getPooledSession(final Session session) {
+        for (PooledSession pooled : m_sessions) {
+            if (pooled.m_session == session) {
+                return pooled;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reconnects the lost connections. Fails only if no connection could be
+     * opened, otherwise the resources of the other connections are used and the
+     * reconnect is attempted again on the next take. After a failed reconnect
+     * the connection is not reconnected before its reconnect delay has
+     * elapsed. A connection reconnected by another thread is skipped, the
+     * callers wait for its resources.
+     */
+    private void makeSureSessionsOpened() throws IOException {
+        IOException lastError = null;
+        boolean anyOpen = false;
+        // the lock is released while reconnecting, so the pool may be stopped meanwhile
+        for (PooledSession session : new ArrayList<>(m_sessions)) {
+            if (session.m_reconnecting) {
+                continue;
+            }
+            if (!session.isOpen()) {
+                final long delay = session.getReconnectDelayNanos();
+                if (delay > 0) {
+                    lastError = new IOException(
+                            String.format("SSH connection is lost, the next reconnect is attempted in %d ms",
+                                    TimeUnit.NANOSECONDS.toMillis(delay)),
+                            session.m_reconnectError);
+                    continue;
+                }
+
+                try {
+                    reconnect(session);
+                } catch (IOException ex) {
+                    session.onReconnectFailed(ex);
+                    LOG.debug(String.format("Failed to reconnect SSH session (%d failures): %s",
+                            session.m_reconnectFailures, ex.getMessage()), ex);
+                    lastError = ex;
+                    continue;
+                }
+            }
+            anyOpen = true;
+        }
+
+        if (!anyOpen && lastError != null) {
+            throw lastError;
+        }
+    }
+
+    /**
+     * @return whether the pool is started, but none of its connections is open.
+     */
+    public boolean isConnectionLost() {
+        m_lock.lock();
+        try {
+            return m_started && getLeastLoadedSession() == null;
+        } finally {
+            m_lock.unlock();
+        }
+    }
+
+    /**
+     * @return time until a lost connection may be reconnected, zero if a
+     *         connection is open or may be reconnected on the next take.
+     */
+    public Duration getReconnectDelay() {
+        m_lock.lock();
+        try {
+            long delay = Long.MAX_VALUE;
+            for (PooledSession session : m_sessions) {
+                delay = Math.min(delay, session.isOpen() ? 0 : session.getReconnectDelayNanos());
+            }
+            return delay == Long.MAX_VALUE ? Duration.ZERO : Duration.ofNanos(delay);
+        } finally {
+            m_lock.unlock();
+        }
+    }
+
+    /**
+     * Reconnects a lost connection. Must be called with the lock held once.
+     * The connection is marked as reconnecting and the lock is released while
+     * the connection and its SFTP sessions are opened, so the resources of
+     * the other connections are taken and released meanwhile.
+     */
+    private void reconnect(final PooledSession session) throws IOException {
+        dropSession(session);
+        session.m_reconnecting = true;
+        final int count = session.m_sftpChannels;
+
+        ClientSession clientSession = null;
+        List<ConnectionResource> resources = null;
+        IOException error = null;
+        m_lock.unlock();
+        try {
+            clientSession = openSession(session.m_index);
+            resources = openResources(clientSession, count);
+        } catch (IOException ex) {
+            error = ex;
+            if (clientSession != null) {
+                clientSession.removeSessionListener(this);
+                m_sessionFactory.releaseSession(clientSession);
+            }
+        } finally {
+            m_lock.lock();
+            session.m_reconnecting = false;
+        }
+
+        if (!m_started) {
+            if (resources != null) {
+                resources.forEach(ConnectionResourcePool::close);
+                clientSession.removeSessionListener(this);
+                m_sessionFactory.releaseSession(clientSession);
+            }
+            checkStarted();
+        }
+
+        // notify resource consumers if any waits it
+        m_sftpLane.signalFirst();
+        m_execLane.signalFirst();
+
+        if (error != null) {
+            throw error;
+        }
+
+        session.m_session = clientSession;
+        session.m_busyResources = 0;
+        session.m_execChannels = 0;
+        session.m_sftpChannels = resources.size();
+        m_freeResources.addAll(resources);
+        session.m_reconnectFailures = 0;
+        session.m_reconnectError = null;
+        LOG.debug(String.format("SSH session reconnected with %d SFTP sessions", session.m_sftpChannels));
+    }
+
+    /**
+     * Forgets the resources of a lost connection. The busy ones are closed and
+     * not returned to the pool when released.
+     */
+    private void dropSession(final PooledSession session) {
+        final ClientSession clientSession = session.m_session;
+        if (clientSession == null) {
+            return;
+        }
+        session.m_session = null;
+        clientSession.removeSessionListener(this);
+
+        final Iterator<ConnectionResource> iter = m_freeResources.iterator();
+        while (iter.hasNext()) {
+            final ConnectionResource resource = iter.next();
+            if (resource.getClient().getClientSession() == clientSession) {
+                iter.remove();
+                close(resource);
+            }
+        }
+        m_busyResources.removeIf(r -> r.getClient().getClientSession() == clientSession);
+        m_currentExecChannels.removeIf(c -> c.getClientSession() == clientSession);
+
+        m_sessionFactory.releaseSession(clientSession);
+    }
+
+    private ClientSession openSession(final int index) throws IOException {
+        final ClientSession session = m_sessionFactory.takeSession(index);
+        session.addSessionListener(this);
+        return session;
+    }
+
+    /**
+     * Opens the SFTP sessions of one connection. Opening an SFTP session takes
+     * several round trips, so the sessions are opened in parallel. Does not
+     * access the state of the pool, so it is called without the lock.
+     *
+     * @return opened SFTP sessions, which are less than requested if the
+     *         server does not allow more channels per connection.
+     */
+    private static List<ConnectionResource> openResources(final ClientSession clientSession, final int count)
+            throws IOException {
+        final List<ConnectionResource> resources = new ArrayList<>(Math.max(count, 0));
+        if (count <= 0) {
+            return resources;
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(count,
+                new SshdThreadFactory("sftp-session-open"));
+        try {
+            final List<Future<ConnectionResource>> futures = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                futures.add(executor.submit(() -> createResource(clientSession)));
+            }
+
+            SshChannelOpenException channelOpenError = null;
+            IOException error = null;
+            for (Future<ConnectionResource> future : futures) {
+                try {
+                    resources.add(future.get());
+                } catch (ExecutionException ex) {
+                    if (ex.getCause() instanceof SshChannelOpenException) {
+                        channelOpenError = (SshChannelOpenException) ex.getCause();
+                    } else if (error == null) {
+                        error = ExceptionUtil.wrapAsIOException(ex.getCause());
+                    }
+                } catch (InterruptedException ex) { // NOSONAR
+                    Thread.currentThread().interrupt();
+                    error = new IOException("Thread interrupted", ex);
+                    break;
+                }
+            }
+
+            if (error != null) {
+                resources.forEach(ConnectionResourcePool::close);
+                throw error;
+            }
+            final int opened = resources.size();
+            if (channelOpenError != null) {
+                LOG.warn(String.format(
+                        "Failed to create %d SFTP sessions (%d sessions opened). Please consider decreasing the maximum SFTP sessions.",
+                        count - opened, opened), channelOpenError);
+            }
+            return resources;
+        } finally {
+            executor.shutdownNow();
         }
     }
 
@@ -228,8 +604,8 @@ private void makeSureSessionOpened() throws IOException {
      * @throws IOException
      */
     @SuppressWarnings("resource")
-    private ConnectionResource createResource() throws IOException {
-        final SftpClient client = SftpClientFactory.instance().createSftpClient(m_session);
+    private static ConnectionResource createResource(final ClientSession session) throws IOException {
+        final SftpClient client = SftpClientFactory.instance().createSftpClient(session);
         return new ConnectionResource(client);
     }
 
@@ -237,12 +613,13 @@ private ConnectionResource createResource() throws IOException {
      * @return SSH execution channel resource.
      * @throws IOException
      */
-    private ChannelExec createExecChannel(final String command, final Charset encoding) throws IOException {
-        return m_session.createExecChannel(command, encoding, null, null);
+    private static ChannelExec createExecChannel(final ClientSession session, final String command,
+            final Charset encoding) throws IOException {
+        return session.createExecChannel(command, encoding, null, null);
     }
 
     private void checkStarted() {
-        if (m_session == null) {
+        if (!m_started) {
             throw new IllegalStateException("Resource pool is not started");
         }
     }
@@ -251,14 +628,24 @@ private void checkStarted() {
      * Move resource as available again.
      * @param resource resource.
      */
-    public synchronized void release(final ConnectionResource resource) {
-        m_busyResources.remove(resource);
-        if (m_session != null && !resource.isClosed()) {
-            m_freeResources.add(resource);
-        }
+    public void release(final ConnectionResource resource) {
+        m_lock.lock();
+        try {
+            if (m_busyResources.remove(resource)) {
+                final PooledSession session = getPooledSession(resource.getClient().getClientSession());
+                if (session != null) {
+                    session.m_busyResources--;
+                }
+                if (m_started && session != null && !resource.isClosed()) {
+                    m_freeResources.add(resource);
+                }
+            }
 
-        // notify resource consumers if any waits it
-        notifyAll();
+            // notify the first resource consumer if any waits it
+            m_sftpLane.signalFirst();
+        } finally {
+            m_lock.unlock();
+        }
     }
 
     /**
@@ -267,22 +654,21 @@ public synchronized void release(final ConnectionResource resource) {
      * @param channel
      *            the channel.
      */
-    public synchronized void release(final ChannelExec channel) {
-        m_currentExecChannels.remove(channel);
-        close(channel);
-
-        // notify resource consumers if any waits it
-        notifyAll();
-    }
-
-    private void closeSession() {
-        if (m_session != null) {
-            ClientSession session = m_session;
-            m_session = null;
-            try {
-                session.close();
-            } catch (final Throwable ex) {
+    public void release(final ChannelExec channel) {
+        m_lock.lock();
+        try {
+            if (m_currentExecChannels.remove(channel)) {
+                final PooledSession session = getPooledSession(channel.getClientSession());
+                if (session != null) {
+                    session.m_execChannels--;
+                }
             }
+            close(channel);
+
+            // notify the first channel consumer if any waits it
+            m_execLane.signalFirst();
+        } finally {
+            m_lock.unlock();
         }
     }
 
@@ -291,54 +677,87 @@ private void closeSession() {
      *
      * @throws IOException
      */
-    public synchronized void start() throws IOException {
-        m_sessionFactory.init();
-        m_session = m_sessionFactory.createSession();
+    public void start() throws IOException {
+        m_lock.lock();
+        try {
+            m_sessionFactory.init();
+            m_started = true;
 
-        for (int i = 0; i < m_maxResourcesLimit; i++) {
-            try {
-                m_freeResources.add(createResource());
-            } catch (SshChannelOpenException e) {
-                LOG.warn(String.format(
-                        "Failed to create %d-th SFTP session (%d sessions already opened). Please consider decreasing the maximum SFTP sessions.",
-                        i + 1, i), e);
-                break;
+            for (int i = 0; i < m_connectionCount; i++) {
+                final PooledSession session = new PooledSession(i);
+                try {
+                    session.m_session = openSession(i);
+                } catch (IOException ex) {
+                    if (i == 0) {
+                        throw ex;
+                    }
+                    // a server may limit the connections per user, work with the opened ones
+                    LOG.warn(String.format("Failed to open %d-th SSH connection (%d connections already opened).",
+                            i + 1, i), ex);
+                    break;
+                }
+                m_sessions.add(session);
             }
+
+            // spread the SFTP sessions evenly over the connections
+            final int numSessions = m_sessions.size();
+            for (int i = 0; i < numSessions; i++) {
+                final PooledSession session = m_sessions.get(i);
+                final int count = m_maxResourcesLimit / numSessions + (i < m_maxResourcesLimit % numSessions ? 1 : 0);
+                final List<ConnectionResource> resources = openResources(session.m_session, count);
+                m_freeResources.addAll(resources);
+                session.m_sftpChannels = resources.size();
+            }
+        } finally {
+            m_lock.unlock();
         }
     }
-
     /**
      * Stops resource pool.
      */
-    public synchronized void stop() {
-        // close resources
-        List<ConnectionResource> toClose = new LinkedList<>(m_freeResources);
-        toClose.addAll(m_busyResources);
-        m_freeResources.clear();
-        m_busyResources.clear();
+    public void stop() {
+        m_lock.lock();
+        try {
+            m_started = false;
 
-        for (ConnectionResource res : toClose) {
-            close(res);
-        }
+            // close resources
+            List<ConnectionResource> toClose = new LinkedList<>(m_freeResources);
+            toClose.addAll(m_busyResources);
+            m_freeResources.clear();
+            m_busyResources.clear();
 
-        // close execution channels
-        List<ChannelExec> channelsToClose = new LinkedList<>(m_currentExecChannels);
-        m_currentExecChannels.clear();
+            for (ConnectionResource res : toClose) {
+                close(res);
+            }
 
-        for (var chan : channelsToClose) {
-            close(chan);
-        }
+            // close execution channels
+            List<ChannelExec> channelsToClose = new LinkedList<>(m_currentExecChannels);
+            m_currentExecChannels.clear();
 
-        // close session
-        closeSession();
+            for (var chan : channelsToClose) {
+                close(chan);
+            }
 
-        // destroy session factory
-        m_sessionFactory.destroy();
+            // close sessions
+            for (PooledSession session : m_sessions) {
+                dropSession(session);
+            }
+            m_sessions.clear();
 
-        // notify resource consumers if any waits it
-        notifyAll();
-    }
+            // destroy session factory
+            m_sessionFactory.destroy();
 
+            // notify resource consumers if any waits it
+            m_sftpLane.signalAll();
+            m_execLane.signalAll();
+
+            LOG.debug("SFTP session waits: " + m_sftpWaits);
+            LOG.debug("Prioritized SFTP session waits: " + m_priorityWaits);
+            LOG.debug("Shell session waits: " + m_execWaits);
+        } finally {
+            m_lock.unlock();
+        }
+    }
     /**
      * {@inheritDoc}
      */
@@ -349,21 +768,20 @@ public void sessionDisconnect(final Session session, final int reason, final Str
     }
 
     @Override
-    public synchronized void sessionClosed(final Session session) {
-        session.removeSessionListener(this);
-
-        if (m_session != null && m_session == session) { // is not closed by API
-            m_freeResources.clear();
-            m_busyResources.clear();
-            m_currentExecChannels.clear();
-
-            try {
-                m_session = m_sessionFactory.createSession();
-            } catch (IOException ex) {
+    public void sessionClosed(final Session session) {
+        m_lock.lock();
+        try {
+            // is not closed by API, the session is reconnected on next take
+            final PooledSession pooled = getPooledSession(session);
+            if (pooled != null) {
+                m_freeResources.removeIf(r -> r.getClient().getClientSession() == session);
+
+                // the first resource consumers reconnect if any waits it
+                m_sftpLane.signalFirst();
+                m_execLane.signalFirst();
             }
-
-            // notify resource consumers if any waits it
-            notifyAll();
+        } finally {
+            m_lock.unlock();
         }
     }
 
@@ -388,8 +806,119 @@ private static void close(final ChannelExec channel) {
         }
     }
 
+    /**
+     * SSH session (TCP connection) of the pool with the number of SFTP and
+     * execution channels opened on it.
+     */
+    private static final class PooledSession {
+        private final int m_index;
+        private ClientSession m_session;
+        private int m_sftpChannels;
+        private int m_busyResources;
+        private int m_execChannels;
+        private int m_reconnectFailures;
+        private long m_nextReconnect;
+        private IOException m_reconnectError;
+        private boolean m_reconnecting;
+
+        PooledSession(final int index) {
+            m_index = index;
+        }
+
+        void onReconnectFailed(final IOException error) {
+            m_reconnectFailures++;
+            m_reconnectError = error;
+
+            final long delay = Math.min(INITIAL_RECONNECT_DELAY.toNanos() << Math.min(m_reconnectFailures - 1, 16),
+                    MAX_RECONNECT_DELAY.toNanos());
+            m_nextReconnect = System.nanoTime() + delay;
+        }
+
+        long getReconnectDelayNanos() {
+            return m_reconnectFailures == 0 ? 0 : Math.max(0, m_nextReconnect - System.nanoTime());
+        }
+
+        boolean isOpen() {
+            return m_session != null && m_session.isOpen();
+        }
+
+        int getLoad() {
+            return m_busyResources + m_execChannels;
+        }
+    }
+
     @FunctionalInterface
     private interface TakeSupplier<R> {
         R take() throws IOException, ResourcesLimitExceedException;
     }
+
+    /**
+     * Queue of the callers waiting for one kind of resource. Every caller waits
+     * on its own condition of the pool lock, so a released resource wakes only
+     * the first waiter. The waiters with priority are served before the others,
+     * the waiters of the same kind in the order they arrived. All methods are
+     * called with the pool lock held.
+     */
+    private final class WaitLane {
+        private final Deque<Condition> m_priorityWaiters = new ArrayDeque<>();
+        private final Deque<Condition> m_waiters = new ArrayDeque<>();
+        private final BooleanSupplier m_hasFreeResource;
+
+        WaitLane(final BooleanSupplier hasFreeResource) {
+            m_hasFreeResource = hasFreeResource;
+        }
+
+        /**
+         * @return whether a caller with the given priority has to queue behind
+         *         other waiters.
+         */
+        boolean hasWaiters(final boolean priority) {
+            return !m_priorityWaiters.isEmpty() || (!priority && !m_waiters.isEmpty());
+        }
+
+        Condition enqueue(final boolean priority) {
+            final Condition waiter = m_lock.newCondition();
+            if (priority) {
+                m_priorityWaiters.addLast(waiter);
+            } else {
+                m_waiters.addLast(waiter);
+            }
+            return waiter;
+        }
+
+        boolean isFirst(final Condition waiter) {
+            return waiter == getFirst();
+        }
+
+        /**
+         * Removes a waiter which got a resource or gave up, the next one is
+         * woken if a resource is left.
+         */
+        void remove(final Condition waiter) {
+            final boolean wasFirst = isFirst(waiter);
+            if (!m_priorityWaiters.remove(waiter)) {
+                m_waiters.remove(waiter);
+            }
+            if (wasFirst && m_hasFreeResource.getAsBoolean()) {
+                signalFirst();
+            }
+        }
+
+        void signalFirst() {
+            final Condition first = getFirst();
+            if (first != null) {
+                first.signal();
+            }
+        }
+
+        void signalAll() {
+            m_priorityWaiters.forEach(Condition::signal);
+            m_waiters.forEach(Condition::signal);
+        }
+
+        private Condition getFirst() {
+            final Condition first = m_priorityWaiters.peekFirst();
+            return first != null ? first : m_waiters.peekFirst();
+        }
+    }
 }
@@ -0,0 +1,350 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   2026-10-17 (Vyacheslav Soldatov): created
+ */
+package org.knime.ext.ssh.filehandling.fs;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.sshd.client.channel.ChannelExec;
+import org.apache.sshd.client.channel.ClientChannelEvent;
+import org.apache.sshd.common.channel.ChannelPipedInputStream;
+import org.apache.sshd.sftp.client.SftpClient;
+import org.apache.sshd.sftp.common.SftpConstants;
+import org.knime.ext.ssh.commandexecutor.SshCommandUtil;
+import org.knime.filehandling.core.connections.base.attributes.BaseFileAttributes;
+
+/**
+ * Listing of a directory tree produced by one {@code find} command on the
+ * server. The attributes of all listed paths are added to the attribute cache,
+ * the children of the listed directories are kept until the listing expires,
+ * so walking the tree does not need any SSH_FXP_READDIR or SSH_FXP_STAT
+ * request. The listing covers at most {@link #MAX_DEPTH} levels below its
+ * root, deeper directories are listed with another command.
+ *
+ * @author Vyacheslav Soldatov <vyacheslav@redfield.se>
+ */
+final class FindTreeListing {
+    /**
+     * Command which succeeds with the output {@code x} only if the server has a
+     * POSIX shell with a {@code find} supporting {@code -printf} (GNU find).
+     */
+    static final String PROBE_COMMAND = "find . -maxdepth 0 -printf x";
+
+    static final String PROBE_OUTPUT = "x";
+
+    /**
+     * Maximum number of entries of one listing, larger trees are listed
+     * directory by directory.
+     */
+    static final int MAX_ENTRIES = 1_000_000;
+
+    /**
+     * Maximum depth of one listing below its root. Listing a single directory
+     * must not read the whole subtree, e.g. when the root of the file system
+     * is listed.
+     */
+    static final int MAX_DEPTH = 3;
+
+    /**
+     * Maximum time of reading one listing, slower listings are aborted and
+     * the tree is listed directory by directory.
+     */
+    static final Duration MAX_DURATION = Duration.ofSeconds(30);
+
+    /**
+     * type, size, modification time, access time, mode, user ID, group ID,
+     * depth and path of every entry, separated by NUL.
+     */
+    private static final String FORMAT = "'%y %s %T@ %A@ %m %U %G %d %p\\0'";
+
+    private static final int NUM_FIELDS = 8;
+
+    private final SshPath m_root;
+
+    private final Map<String, List<SshPath>> m_children = new HashMap<>();
+
+    private final long m_created = System.currentTimeMillis();
+
+    private FindTreeListing(final SshPath root) {
+        m_root = root;
+    }
+
+    /**
+     * @param dir
+     *            root of the tree to list.
+     * @return command listing the tree.
+     */
+    static String createCommand(final SshPath dir) {
+        return "find -H " + SshCommandUtil.escapeStringSh(dir.toSftpString()) + " -maxdepth " + MAX_DEPTH
+                + " -printf " + FORMAT;
+    }
+
+    /**
+     * Runs the command created by {@link #createCommand(SshPath)} and reads the
+     * listing.
+     *
+     * @param root
+     *            root of the listed tree.
+     * @param chan
+     *            not opened channel of the command.
+     * @param timeout
+     *            time out of opening the channel and of waiting for the exit
+     *            status once the output is read.
+     * @return the listing.
+     * @throws IOException
+     *             if the command fails, produces an unexpected output or takes
+     *             longer than {@link #MAX_DURATION}.
+     */
+    @SuppressWarnings("resource")
+    static FindTreeListing read(final SshPath root, final ChannelExec chan, final Duration timeout)
+            throws IOException {
+        final long deadline = System.nanoTime() + MAX_DURATION.toNanos();
+        final ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+        chan.setErr(stderr);
+        chan.open().verify(timeout);
+
+        final FindTreeListing listing = parse(root, chan.getInvertedOut(), deadline);
+
+        chan.waitFor(EnumSet.of(ClientChannelEvent.CLOSED), timeout);
+        ShellCommands.checkExitStatus(chan, stderr);
+        if (listing.getChildren(root) == null) {
+            throw new IOException("Not a directory: " + root);
+        }
+        return listing;
+    }
+
+    /**
+     * Runs the command {@link #PROBE_COMMAND}.
+     *
+     * @param chan
+     *            not opened channel of the command.
+     * @param timeout
+     *            time out of opening the channel and of waiting for the command.
+     * @return whether the command produced the expected output.
+     * @throws IOException
+     */
+    static boolean probe(final ChannelExec chan, final Duration timeout) throws IOException {
+        return PROBE_OUTPUT.equals(ShellCommands.run(chan, timeout, timeout));
+    }
+
+    /**
+     * @param dir
+     *            directory.
+     * @return children of the given directory or {@code null} if the
+     *         directory is not covered by this listing.
+     */
+    List<SshPath> getChildren(final SshPath dir) {
+        return m_children.get(dir.toSftpString());
+    }
+
+    /**
+     * @return root of the listed tree.
+     */
+    SshPath getRoot() {
+        return m_root;
+    }
+
+    /**
+     * @return {@code true} if the listing is older than the attribute cache
+     *         entries created with it.
+     */
+    boolean isExpired() {
+        return System.currentTimeMillis() - m_created > SshFileSystem.CACHE_TTL;
+    }
+
+    /**
+     * Reads the output of the command created by
+     * {@link #createCommand(SshPath)}.
+     *
+     * @param root
+     *            root of the listed tree.
+     * @param in
+     *            output of the command.
+     * @param deadline
+     *            {@link System#nanoTime()} until which the output must be
+     *            read.
+     * @return the listing.
+     * @throws IOException
+     *             if the output is unexpected or is not read until the
+     *             deadline.
+     */
+    static FindTreeListing parse(final SshPath root, final InputStream in, final long deadline)
+            throws IOException {
+        final FindTreeListing listing = new FindTreeListing(root);
+        final byte[] buffer = new byte[64 * 1024];
+        final ByteArrayOutputStream record = new ByteArrayOutputStream(256);
+        int numEntries = 0;
+
+        int len;
+        while ((len = readUntil(in, buffer, deadline)) >= 0) {
+            int start = 0;
+            for (int i = 0; i < len; i++) {
+                if (buffer[i] == 0) {
+                    record.write(buffer, start, i - start);
+                    if (++numEntries > MAX_ENTRIES) {
+                        throw new IOException("Directory tree has more than " + MAX_ENTRIES + " entries");
+                    }
+                    listing.addEntry(record.toString(StandardCharsets.UTF_8));
+                    record.reset();
+                    start = i + 1;
+                }
+            }
+            record.write(buffer, start, len - start);
+        }
+
+        if (record.size() > 0) {
+            throw new IOException("Unterminated entry in the output of find");
+        }
+        return listing;
+    }
+
+    private static int readUntil(final InputStream in, final byte[] buffer, final long deadline)
+            throws IOException {
+        final long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+            throw new IOException("Listing of the directory tree took longer than " + MAX_DURATION.toSeconds()
+                    + " seconds");
+        }
+        if (in instanceof ChannelPipedInputStream) {
+            // a command which stops writing must not block the read forever
+            ((ChannelPipedInputStream) in).setTimeout(Math.max(1, remaining / 1_000_000));
+        }
+        return in.read(buffer);
+    }
+
+    private void addEntry(final String entry) throws IOException {
+        final String[] fields = new String[NUM_FIELDS];
+        int start = 0;
+        for (int i = 0; i < NUM_FIELDS; i++) {
+            final int end = entry.indexOf(' ', start);
+            if (end < 0) {
+                throw new IOException("Unexpected output of find: " + entry);
+            }
+            fields[i] = entry.substring(start, end);
+            start = end + 1;
+        }
+        final String path = entry.substring(start);
+        final int depth;
+        try {
+            depth = Integer.parseInt(fields[7]);
+        } catch (NumberFormatException ex) {
+            throw new IOException("Unexpected output of find: " + entry, ex);
+        }
+
+        final SftpClient.Attributes attrs;
+        try {
+            attrs = toAttributes(fields);
+        } catch (NumberFormatException ex) {
+            throw new IOException("Unexpected output of find: " + entry, ex);
+        }
+
+        final SshPath sshPath = m_root.getFileSystem().getPath(path);
+        if (attrs.isDirectory() && depth < MAX_DEPTH) {
+            // the children of directories at the maximum depth are not listed
+            m_children.putIfAbsent(path, new ArrayList<>());
+        }
+
+        if (!path.equals(m_root.toSftpString())) {
+            final int slash = path.lastIndexOf('/');
+            final String parent = slash == 0 ? "/" : path.substring(0, Math.max(slash, 0));
+            m_children.computeIfAbsent(parent, p -> new ArrayList<>()).add(sshPath);
+        }
+
+        final BaseFileAttributes baseAttrs = NativeSftpProviderUtils.toBaseFileAttributes(sshPath, attrs);
+        if (!baseAttrs.isSymbolicLink()) {
+            // symbolic links below the root are not followed, see SftpDirectoryIterator
+            m_root.getFileSystem().addToAttributeCache(sshPath, baseAttrs);
+        }
+    }
+
+    private static SftpClient.Attributes toAttributes(final String[] fields) throws IOException {
+        final SftpClient.Attributes attrs = new SftpClient.Attributes();
+        attrs.setPermissions(toFileType(fields[0]) | Integer.parseInt(fields[4], 8));
+        attrs.setSize(Long.parseLong(fields[1]));
+        // SFTP v3 transfers the times in seconds
+        attrs.modifyTime(toSeconds(fields[2]));
+        attrs.accessTime(toSeconds(fields[3]));
+        attrs.owner(Integer.parseInt(fields[5]), Integer.parseInt(fields[6]));
+        return attrs;
+    }
+
+    private static long toSeconds(final String time) {
+        final int dot = time.indexOf('.');
+        return Long.parseLong(dot < 0 ? time : time.substring(0, dot));
+    }
+
+    private static int toFileType(final String type) throws IOException {
+        switch (type) {
+        case "f":
+            return SftpConstants.S_IFREG;
+        case "d":
+            return SftpConstants.S_IFDIR;
+        case "l":
+            return SftpConstants.S_IFLNK;
+        case "p":
+            return SftpConstants.S_IFIFO;
+        case "s":
+            return SftpConstants.S_IFSOCK;
+        case "b":
+            return SftpConstants.S_IFBLK;
+        case "c":
+            return SftpConstants.S_IFCHR;
+        default:
+            throw new IOException("Unknown file type: " + type);
+        }
+    }
+}
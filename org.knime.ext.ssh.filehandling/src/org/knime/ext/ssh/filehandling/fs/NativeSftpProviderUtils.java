@@ -51,13 +51,13 @@
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.Channels;
 import java.nio.channels.SeekableByteChannel;
 import java.nio.file.AccessDeniedException;
 import java.nio.file.CopyOption;
-import java.nio.file.DirectoryIteratorException;
 import java.nio.file.DirectoryStream.Filter;
 import java.nio.file.FileAlreadyExistsException;
-import java.nio.file.Files;
+import java.nio.file.FileSystemException;
 import java.nio.file.LinkOption;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.OpenOption;
@@ -70,20 +70,22 @@
 import java.nio.file.attribute.GroupPrincipal;
 import java.nio.file.attribute.PosixFilePermission;
 import java.nio.file.attribute.UserPrincipal;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.EnumSet;
-import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.sshd.common.SshException;
 import org.apache.sshd.common.util.GenericUtils;
 import org.apache.sshd.common.util.ValidateUtils;
 import org.apache.sshd.common.util.io.IoUtils;
+import org.apache.sshd.sftp.client.RawSftpClient;
 import org.apache.sshd.sftp.client.SftpClient;
 import org.apache.sshd.sftp.client.SftpClient.Attributes;
 import org.apache.sshd.sftp.client.SftpClient.DirEntry;
@@ -91,7 +93,6 @@
 import org.apache.sshd.sftp.client.extensions.CopyFileExtension;
 import org.apache.sshd.sftp.client.fs.SftpFileSystem;
 import org.apache.sshd.sftp.client.fs.SftpFileSystemProvider;
-import org.apache.sshd.sftp.client.impl.SftpRemotePathChannel;
 import org.apache.sshd.sftp.common.SftpConstants;
 import org.apache.sshd.sftp.common.SftpException;
 import org.knime.filehandling.core.connections.base.attributes.BaseFileAttributes;
@@ -107,10 +108,9 @@ public final class NativeSftpProviderUtils {
     private NativeSftpProviderUtils() {
     }
 
-    @SuppressWarnings({ "resource" })
     static SeekableByteChannel newByteChannelInternal(final ConnectionResource resource, final SshPath path,
-            final Set<? extends OpenOption> options, @SuppressWarnings("unused") final FileAttribute<?>... attrs)
-            throws IOException {
+            final Set<? extends OpenOption> options, final int maxReadRequests,
+            @SuppressWarnings("unused") final FileAttribute<?>... attrs) throws IOException {
 
         Collection<OpenMode> modes = OpenMode.fromOpenOptions(options);
         if (modes.isEmpty()) {
@@ -118,8 +118,7 @@ static SeekableByteChannel newByteChannelInternal(final ConnectionResource resou
         }
 
         try {
-            return new SshSeekableByteChannel(
-                    new SftpRemotePathChannel(path.toSftpString(), resource.getClient(), false, modes));
+            return new SshSeekableByteChannel(path.toSftpString(), resource.getClient(), modes, maxReadRequests);
         } catch (SftpException ex) {
             throw convertAndRethrow(ex, path);
         }
@@ -127,7 +126,8 @@ static SeekableByteChannel newByteChannelInternal(final ConnectionResource resou
 
     @SuppressWarnings("resource")
     static InputStream newInputStreamInternalImpl(final ConnectionResource resource, final SshPath path,
-            final OpenOption... options) throws IOException {
+            final int maxReadRequests, final SftpReconnector reconnector, final OpenOption... options)
+            throws IOException {
         final SftpClient sftpClient = resource.getClient();
         Collection<OpenMode> modes = OpenMode.fromOpenOptions(Arrays.asList(options));
         if (modes.isEmpty()) {
@@ -135,6 +135,10 @@ static InputStream newInputStreamInternalImpl(final ConnectionResource resource,
         }
 
         try {
+            if (maxReadRequests > 0 && sftpClient instanceof RawSftpClient) {
+                return new SftpResumableInputStream(sftpClient, path.toSftpString(), modes, maxReadRequests,
+                        reconnector);
+            }
             return sftpClient.read(path.toSftpString(), modes);
         } catch (SftpException ex) {
             throw convertAndRethrow(ex, path);
@@ -142,49 +146,31 @@ static InputStream newInputStreamInternalImpl(final ConnectionResource resource,
     }
 
     @SuppressWarnings("resource")
-    static Iterator<SshPath> createPathIteratorImpl(final ConnectionResource resource, final SshPath dir,
-            final Filter<? super Path> filter) throws IOException {
+    static OutputStream newOutputStreamInternalImpl(final ConnectionResource resource, final SshPath path,
+            final int maxWriteRequests, final OpenOption... options) throws IOException {
         final SftpClient sftpClient = resource.getClient();
+        final Set<OpenOption> opts = new HashSet<>(Arrays.asList(options));
+        if (maxWriteRequests <= 0 || !(sftpClient instanceof RawSftpClient)) {
+            return Channels.newOutputStream(newByteChannelInternal(resource, path, opts, 0));
+        }
 
-        try {
-            final List<SshPath> files = new LinkedList<>();
-            final Iterator<DirEntry> iter = sftpClient.readDir(dir.toSftpString()).iterator();
-
-            while (iter.hasNext()) {
-                final DirEntry entry = iter.next();
-                String fileName = entry.getFilename();
-
-                // ignore current and parent directory
-                if (".".equals(fileName) || "..".equals(fileName)) {
-                    continue;
-                }
-
-                final SshPath path = (SshPath) dir.resolve(fileName);
-
-                final BaseFileAttributes attrs = toBaseFileAttributes(path, entry.getAttributes());
-                if (!attrs.isSymbolicLink()) {
-                    // sftpClient.readDir() does not follow symbolic links.
-                    // We should avoid caching file attributes for symbolic links as the cache
-                    // entries usually create in methods that follow symlinks, which leads to
-                    // inconsistent behavior.
-                    dir.getFileSystem().addToAttributeCache(path, attrs);
-                }
+        Collection<OpenMode> modes = OpenMode.fromOpenOptions(opts);
+        if (modes.isEmpty()) {
+            modes = EnumSet.of(OpenMode.Read, OpenMode.Write);
+        }
 
-                try {
-                    if (filter == null || filter.accept(path)) {
-                        files.add(path);
-                    }
-                } catch (final IOException e) {
-                    throw new DirectoryIteratorException(e);
-                }
-            }
+        try {
+            return SftpPipelinedOutputStream.open(sftpClient, path.toSftpString(), modes, maxWriteRequests);
+        } catch (SftpException ex) {
+            throw convertAndRethrow(ex, path);
+        }
+    }
 
-            return files.iterator();
-        } catch (RuntimeException die) {
-            if (die.getCause() instanceof SftpException) {
-                throw convertAndRethrow((SftpException) die.getCause(), dir);
-            }
-            throw die;
+    static SftpDirectoryIterator createPathIteratorImpl(final ConnectionResource resource, final SshPath dir,
+            final Filter<? super Path> filter, final Consumer<SftpDirectoryIterator> onRelease,
+            final SftpReconnector reconnector) throws IOException {
+        try {
+            return new SftpDirectoryIterator(resource.getClient(), dir, filter, onRelease, reconnector);
         } catch (SftpException ex) {
             throw convertAndRethrow(ex, dir);
         }
@@ -237,11 +223,83 @@ static Void delete(final SftpClient sftp, final SshPath path, final BasicFileAtt
         }
     }
 
-    static Void copyInternal(final SftpClient sftpClient, //
+    /**
+     * Deletes a file or a directory tree with one SFTP request per entry.
+     * Symbolic links are deleted, not followed.
+     */
+    static Void deleteTree(final SftpClient sftp, final SshPath path) throws IOException {
+        try {
+            final Attributes attrs = sftp.lstat(path.toSftpString());
+            if (attrs.isDirectory()) {
+                for (String name : listNames(sftp, path)) {
+                    deleteTree(sftp, (SshPath) path.resolve(name));
+                }
+                sftp.rmdir(path.toSftpString());
+            } else {
+                sftp.remove(path.toSftpString());
+            }
+            return null;
+        } catch (SftpException ex) {
+            throw convertAndRethrow(ex, path);
+        }
+    }
+
+    /**
+     * Copies a file or a directory tree with the permissions and times like
+     * {@code cp -Rp} does, with SFTP requests per entry. Symbolic links are
+     * copied as links.
+     */
+    static Void copyTree(final SftpStreamingCopy copy, final SshPath source, final SshPath target)
+            throws IOException {
+        final SftpClient sftp = copy.getClient();
+        final Attributes attrs;
+        try {
+            attrs = sftp.lstat(source.toSftpString());
+        } catch (SftpException ex) {
+            throw convertAndRethrow(ex, source);
+        }
+
+        try {
+            if (attrs.isSymbolicLink()) {
+                sftp.symLink(target.toSftpString(), sftp.readLink(source.toSftpString()));
+                return null;
+            } else if (attrs.isDirectory()) {
+                sftp.mkdir(target.toSftpString());
+                for (String name : listNames(sftp, source)) {
+                    copyTree(copy, (SshPath) source.resolve(name), (SshPath) target.resolve(name));
+                }
+            } else {
+                copyInternal(copy, source, target, toBaseFileAttributes(source, attrs), new HashSet<>());
+            }
+
+            final Attributes preserved = new Attributes() //
+                    .perms(attrs.getPermissions() & 07777) //
+                    .modifyTime(attrs.getModifyTime()) //
+                    .accessTime(attrs.getAccessTime());
+            sftp.setStat(target.toSftpString(), preserved);
+        } catch (SftpException ex) {
+            throw convertAndRethrow(ex, target);
+        }
+        return null;
+    }
+
+    private static List<String> listNames(final SftpClient sftp, final SshPath dir) throws IOException {
+        final List<String> names = new ArrayList<>();
+        for (DirEntry entry : sftp.readDir(dir.toSftpString())) {
+            final String name = entry.getFilename();
+            if (!".".equals(name) && !"..".equals(name)) {
+                names.add(name);
+            }
+        }
+        return names;
+    }
+
+    static Void copyInternal(final SftpStreamingCopy copy, //
             final SshPath source, //
             final SshPath target, //
             final BasicFileAttributes sourceAttrs, //
             final Set<CopyOption> optionSet) throws IOException {
+        final SftpClient sftpClient = copy.getClient();
 
         // create directory or copy file
         if (sourceAttrs.isDirectory()) {
@@ -257,7 +315,7 @@ static Void copyInternal(final SftpClient sftpClient, //
                     throw convertAndRethrow(ex, target);
                 }
             } else {
-                copyUsingTempFile(sftpClient, source, target);
+                copy.copy(source, target);
             }
         }
 
@@ -269,30 +327,6 @@ static Void copyInternal(final SftpClient sftpClient, //
         return null;
     }
 
-    private static void copyUsingTempFile(final SftpClient sftpClient, final SshPath source, final SshPath target)
-            throws IOException {
-
-        final Path localTmpFile = Files.createTempFile("ssh", ".tmp");
-
-        try {
-            try (final InputStream in = sftpClient.read(source.toSftpString())) {
-                Files.copy(in, localTmpFile, StandardCopyOption.REPLACE_EXISTING);
-            } catch (SftpException ex) {
-                throw convertAndRethrow(ex, source);
-            }
-
-            try (final OutputStream out = sftpClient.write(target.toSftpString(), OpenMode.Write, OpenMode.Create,
-                    OpenMode.Truncate)) {
-
-                Files.copy(localTmpFile, out);
-            } catch (SftpException ex) {
-                throw convertAndRethrow(ex, target);
-            }
-        } finally {
-            Files.delete(localTmpFile);
-        }
-    }
-
     static Void setAttributes(final SftpClient sftpClient, final BasicFileAttributes attrs, final SshPath target,
             @SuppressWarnings("unused") final LinkOption... linkOptions) throws IOException {
         SftpClient.Attributes attributes = new SftpClient.Attributes();
@@ -362,7 +396,7 @@ static Void writeAttributes(final SftpClient client, final SshPath path, final A
         return null;
     }
 
-    private static IOException convertAndRethrow(final SftpException e, final SshPath file) throws IOException {
+    static IOException convertAndRethrow(final SftpException e, final SshPath file) throws IOException {
         final String path = file.toString();
         final int status = e.getStatus();
 
@@ -382,6 +416,27 @@ private static IOException convertAndRethrow(final SftpException e, final SshPat
         throw e;
     }
 
+    /**
+     * Writes are not idempotent, so they are not retried if the SSH connection
+     * is lost. The error of a write on a lost connection is replaced by one
+     * which tells that the file may be incomplete.
+     *
+     * @param client
+     *            SFTP client of the write.
+     * @param path
+     *            remote path of the written file.
+     * @param e
+     *            error of the write.
+     * @return error to report.
+     */
+    static IOException toWriteError(final SftpClient client, final String path, final IOException e) {
+        if (e instanceof SftpException || e instanceof FileSystemException
+                || e instanceof WriteConnectionLostException || !ConnectionResource.isConnectionLost(client)) {
+            return e;
+        }
+        return new WriteConnectionLostException(path, e);
+    }
+
     private static void addToAttributres(final SshPath path, final SftpClient.Attributes attributes,
             final String attribute, final Object value) {
         if (value == null) {
@@ -493,7 +548,7 @@ private static int attributesToPermissions(final Collection<PosixFilePermission>
         return pf;
     }
 
-    private static BaseFileAttributes toBaseFileAttributes(final SshPath path, final Attributes attrs) {
+    static BaseFileAttributes toBaseFileAttributes(final SshPath path, final Attributes attrs) {
         // SFTP v3 does not provide ctime file attributes, see
         // https://datatracker.ietf.org/doc/html/draft-ietf-secsh-filexfer-02#section-5
         // SFTP v3 is by far the most widely used SFTP version (e.g. OpenSSH only
@@ -517,4 +572,17 @@ private static BaseFileAttributes toBaseFileAttributes(final SshPath path, final
                 new SftpFileSystem.DefaultGroupPrincipal(group), //
                 SftpFileSystemProvider.permissionsToAttributes(attrs.getPermissions()));
     }
+
+    /**
+     * Error of a write which failed because the SSH connection is lost.
+     */
+    private static final class WriteConnectionLostException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        WriteConnectionLostException(final String path, final IOException cause) {
+            super("The SSH connection was lost while writing " + path
+                    + ", the file may be incomplete. The write is not retried, please write the file again.",
+                    cause);
+        }
+    }
 }
@@ -0,0 +1,199 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   2026-10-17 (Vyacheslav Soldatov): created
+ */
+package org.knime.ext.ssh.filehandling.fs;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import org.apache.sshd.common.SshException;
+import org.apache.sshd.common.util.buffer.Buffer;
+import org.apache.sshd.common.util.buffer.ByteArrayBuffer;
+import org.apache.sshd.sftp.client.RawSftpClient;
+import org.apache.sshd.sftp.client.SftpClient;
+import org.apache.sshd.sftp.common.SftpConstants;
+import org.apache.sshd.sftp.common.SftpException;
+
+/**
+ * Reads the attributes of many paths with several SSH_FXP_STAT or
+ * SSH_FXP_LSTAT requests in flight on one SFTP session, so the attributes of
+ * thousands of paths are not read with one round trip each.
+ *
+ * The responses are decoded in the format of SFTP v3, which is the version of
+ * OpenSSH and of most other servers. With other versions the attributes are
+ * read one path after another.
+ *
+ * @author Vyacheslav Soldatov <vyacheslav@redfield.se>
+ */
+final class SftpBulkStat {
+    /**
+     * Default maximum number of outstanding requests.
+     */
+    static final int DEFAULT_MAX_REQUESTS = 64;
+
+    private SftpBulkStat() {
+    }
+
+    /**
+     * @param client
+     *            SFTP client, must implement {@link RawSftpClient}.
+     * @param paths
+     *            absolute paths to read the attributes of.
+     * @param followLinks
+     *            whether to read the attributes of the targets of symbolic
+     *            links.
+     * @param maxRequests
+     *            maximum number of outstanding requests.
+     * @return attributes in the order of the paths, {@code null} for the paths
+     *         which do not exist.
+     * @throws IOException
+     *             if the attributes of a path can not be read for another
+     *             reason than that it does not exist.
+     */
+    static List<SftpClient.Attributes> stat(final SftpClient client, final List<SshPath> paths,
+            final boolean followLinks, final int maxRequests) throws IOException {
+        if (client.getVersion() != SftpConstants.SFTP_V3) {
+            return statOneByOne(client, paths, followLinks);
+        }
+
+        final RawSftpClient rawClient = (RawSftpClient) client;
+        final int cmd = followLinks ? SftpConstants.SSH_FXP_STAT : SftpConstants.SSH_FXP_LSTAT;
+        final List<SftpClient.Attributes> result = new ArrayList<>(paths.size());
+        final Deque<Integer> requests = new ArrayDeque<>();
+        int next = 0;
+        try {
+            while (result.size() < paths.size()) {
+                while (next < paths.size() && requests.size() < Math.max(1, maxRequests)) {
+                    requests.addLast(sendStat(client, cmd, paths.get(next)));
+                    next++;
+                }
+                final SshPath path = paths.get(result.size());
+                result.add(receiveAttributes(rawClient, requests.removeFirst(), path));
+            }
+        } finally {
+            // consume the responses of the outstanding requests, otherwise the
+            // client would keep them forever
+            while (!requests.isEmpty()) {
+                rawClient.receive(requests.removeFirst());
+            }
+        }
+        return result;
+    }
+
+    private static List<SftpClient.Attributes> statOneByOne(final SftpClient client, final List<SshPath> paths,
+            final boolean followLinks) throws IOException {
+        final List<SftpClient.Attributes> result = new ArrayList<>(paths.size());
+        for (SshPath path : paths) {
+            try {
+                result.add(followLinks ? client.stat(path.toSftpString()) : client.lstat(path.toSftpString()));
+            } catch (SftpException ex) {
+                if (ex.getStatus() != SftpConstants.SSH_FX_NO_SUCH_FILE) {
+                    throw NativeSftpProviderUtils.convertAndRethrow(ex, path);
+                }
+                result.add(null);
+            }
+        }
+        return result;
+    }
+
+    private static int sendStat(final SftpClient client, final int cmd, final SshPath path) throws IOException {
+        final String name = path.toSftpString();
+        final Buffer buffer = new ByteArrayBuffer(name.length() + Long.SIZE, false);
+        buffer.putString(name, client.getNameDecodingCharset());
+        return ((RawSftpClient) client).send(cmd, buffer);
+    }
+
+    private static SftpClient.Attributes receiveAttributes(final RawSftpClient rawClient, final int id,
+            final SshPath path) throws IOException {
+        final Buffer buffer = rawClient.receive(id);
+        buffer.getInt(); // length
+        final int type = buffer.getUByte();
+        buffer.getInt(); // request id
+
+        if (type == SftpConstants.SSH_FXP_ATTRS) {
+            return readAttributesV3(buffer);
+        } else if (type == SftpConstants.SSH_FXP_STATUS) {
+            final int status = buffer.getInt();
+            if (status == SftpConstants.SSH_FX_NO_SUCH_FILE) {
+                return null;
+            }
+            throw NativeSftpProviderUtils.convertAndRethrow(new SftpException(status, buffer.getString()), path);
+        } else {
+            throw new SshException("Unexpected SFTP response type: " + type);
+        }
+    }
+
+    /**
+     * Decodes the attributes in the format of SFTP v3, see
+     * https://datatracker.ietf.org/doc/html/draft-ietf-secsh-filexfer-02#section-5
+     */
+    private static SftpClient.Attributes readAttributesV3(final Buffer buffer) {
+        final SftpClient.Attributes attrs = new SftpClient.Attributes();
+        final int flags = buffer.getInt();
+        if ((flags & SftpConstants.SSH_FILEXFER_ATTR_SIZE) != 0) {
+            attrs.setSize(buffer.getLong());
+        }
+        if ((flags & SftpConstants.SSH_FILEXFER_ATTR_UIDGID) != 0) {
+            final int uid = buffer.getInt();
+            final int gid = buffer.getInt();
+            attrs.owner(uid, gid);
+        }
+        if ((flags & SftpConstants.SSH_FILEXFER_ATTR_PERMISSIONS) != 0) {
+            attrs.setPermissions(buffer.getInt());
+        }
+        if ((flags & SftpConstants.SSH_FILEXFER_ATTR_ACMODTIME) != 0) {
+            attrs.accessTime(buffer.getUInt());
+            attrs.modifyTime(buffer.getUInt());
+        }
+        // the extended attributes are not used
+        return attrs;
+    }
+}
@@ -0,0 +1,291 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   2026-10-17 (Vyacheslav Soldatov): created
+ */
+package org.knime.ext.ssh.filehandling.fs;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream.Filter;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.apache.sshd.sftp.client.SftpClient;
+import org.apache.sshd.sftp.client.SftpClient.CloseableHandle;
+import org.apache.sshd.sftp.client.SftpClient.DirEntry;
+import org.apache.sshd.sftp.common.SftpException;
+import org.knime.filehandling.core.connections.base.attributes.BaseFileAttributes;
+
+/**
+ * Iterator over a remote directory which reads the entries batch by batch
+ * (SSH_FXP_READDIR) while it is consumed. The attributes of the returned paths
+ * are added to the attribute cache as they arrive.
+ * <p>
+ * The SFTP session is held until the iterator is exhausted or closed, or until
+ * it is detached: then the remaining entries are read into memory, so another
+ * listing can use the session.
+ * <p>
+ * If the SSH connection is lost while reading, the directory is opened again
+ * with a new SFTP session and the entries which have already been returned
+ * are skipped.
+ *
+ * @author Vyacheslav Soldatov <vyacheslav@redfield.se>
+ */
+final class SftpDirectoryIterator implements Iterator<SshPath>, Closeable {
+    private final SshPath m_dir;
+    private final Filter<? super Path> m_filter;
+    private final Consumer<SftpDirectoryIterator> m_onRelease;
+    private final SftpReconnector m_reconnector;
+
+    /**
+     * Names of the entries read so far, which are skipped after a reconnect.
+     */
+    private final Set<String> m_readNames = new HashSet<>();
+
+    private SftpClient m_client;
+    private CloseableHandle m_handle;
+    private Iterator<DirEntry> m_entries = Collections.emptyIterator();
+    private SshPath m_next;
+    private IOException m_detachError;
+
+    /**
+     * @param client
+     *            SFTP client.
+     * @param dir
+     *            directory to list.
+     * @param filter
+     *            filter of the returned paths, may be {@code null}.
+     * @param onRelease
+     *            called once when the SFTP session is not used by the iterator
+     *            anymore.
+     * @param reconnector
+     *            provides a new SFTP client if the connection is lost.
+     * @throws IOException
+     */
+    SftpDirectoryIterator(final SftpClient client, final SshPath dir, final Filter<? super Path> filter,
+            final Consumer<SftpDirectoryIterator> onRelease, final SftpReconnector reconnector) throws IOException {
+        m_client = client;
+        m_dir = dir;
+        m_filter = filter;
+        m_onRelease = onRelease;
+        m_reconnector = reconnector;
+        m_handle = client.openDir(dir.toSftpString());
+    }
+
+    @Override
+    public synchronized boolean hasNext() {
+        if (m_next == null) {
+            try {
+                m_next = fetchNext();
+            } catch (IOException ex) {
+                closeQuietly();
+                throw new DirectoryIteratorException(convert(ex));
+            }
+        }
+        return m_next != null;
+    }
+
+    @Override
+    public synchronized SshPath next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        final SshPath next = m_next;
+        m_next = null;
+        return next;
+    }
+
+    /**
+     * Reads the remaining entries into memory and releases the SFTP session. A
+     * failure is reported when the entries read so far are consumed.
+     */
+    synchronized void detach() {
+        if (m_handle == null) {
+            return;
+        }
+
+        final List<DirEntry> entries = new ArrayList<>();
+        m_entries.forEachRemaining(entries::add);
+        try {
+            List<DirEntry> batch;
+            while ((batch = readDir()) != null) {
+                entries.addAll(batch);
+            }
+        } catch (IOException ex) {
+            m_detachError = ex;
+        }
+        m_entries = entries.iterator();
+        closeQuietly();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        m_entries = Collections.emptyIterator();
+        m_next = null;
+        release();
+    }
+
+    private SshPath fetchNext() throws IOException {
+        while (true) {
+            while (!m_entries.hasNext()) {
+                if (m_handle == null) {
+                    if (m_detachError != null) {
+                        throw m_detachError;
+                    }
+                    return null;
+                }
+
+                final List<DirEntry> batch = readDir();
+                if (batch == null) {
+                    release();
+                    return null;
+                }
+                m_entries = batch.iterator();
+            }
+
+            final SshPath path = toPath(m_entries.next());
+            if (path != null && (m_filter == null || m_filter.accept(path))) {
+                return path;
+            }
+        }
+    }
+
+    /**
+     * Reads the next batch of entries, after a lost connection the directory
+     * is read again from the beginning with a new SFTP client.
+     */
+    private List<DirEntry> readDir() throws IOException {
+        int attempt = 0;
+        boolean reopen = false;
+        while (true) {
+            try {
+                if (reopen) {
+                    m_handle = m_client.openDir(m_dir.toSftpString());
+                    reopen = false;
+                }
+
+                final List<DirEntry> batch = m_client.readDir(m_handle);
+                if (batch == null) {
+                    return null;
+                }
+
+                final List<DirEntry> unread = new ArrayList<>(batch.size());
+                for (DirEntry entry : batch) {
+                    if (m_readNames.add(entry.getFilename())) {
+                        unread.add(entry);
+                    }
+                }
+                if (!unread.isEmpty() || batch.isEmpty()) {
+                    return unread;
+                }
+            } catch (IOException ex) {
+                attempt++;
+                m_client = m_reconnector.reconnect(ex, attempt);
+                reopen = true;
+            }
+        }
+    }
+
+    private SshPath toPath(final DirEntry entry) {
+        final String fileName = entry.getFilename();
+
+        // ignore current and parent directory
+        if (".".equals(fileName) || "..".equals(fileName)) {
+            return null;
+        }
+
+        final SshPath path = (SshPath) m_dir.resolve(fileName);
+
+        final BaseFileAttributes attrs = NativeSftpProviderUtils.toBaseFileAttributes(path, entry.getAttributes());
+        if (!attrs.isSymbolicLink()) {
+            // sftpClient.readDir() does not follow symbolic links.
+            // We should avoid caching file attributes for symbolic links as the cache
+            // entries usually create in methods that follow symlinks, which leads to
+            // inconsistent behavior.
+            m_dir.getFileSystem().addToAttributeCache(path, attrs);
+        }
+        return path;
+    }
+
+    private IOException convert(final IOException ex) {
+        if (ex instanceof SftpException) {
+            try {
+                throw NativeSftpProviderUtils.convertAndRethrow((SftpException) ex, m_dir);
+            } catch (IOException converted) {
+                return converted;
+            }
+        }
+        return ex;
+    }
+
+    private void release() throws IOException {
+        if (m_handle != null) {
+            final CloseableHandle handle = m_handle;
+            m_handle = null;
+            try {
+                handle.close();
+            } finally {
+                m_onRelease.accept(this);
+            }
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            release();
+        } catch (IOException ex) { // NOSONAR the listing is already read or failed
+        }
+    }
+}
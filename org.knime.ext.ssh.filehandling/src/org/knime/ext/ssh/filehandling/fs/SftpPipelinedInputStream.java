@@ -0,0 +1,288 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   2026-10-17 (Vyacheslav Soldatov): created
+ */
+package org.knime.ext.ssh.filehandling.fs;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import org.apache.sshd.common.SshException;
+import org.apache.sshd.common.util.buffer.Buffer;
+import org.apache.sshd.common.util.buffer.ByteArrayBuffer;
+import org.apache.sshd.sftp.client.RawSftpClient;
+import org.apache.sshd.sftp.client.SftpClient;
+import org.apache.sshd.sftp.client.SftpClient.Handle;
+import org.apache.sshd.sftp.common.SftpConstants;
+import org.apache.sshd.sftp.common.SftpException;
+
+/**
+ * Input stream which reads a remote file with several SSH_FXP_READ requests in
+ * flight, the same way the OpenSSH sftp client does. The number of outstanding
+ * requests starts with one and grows with every complete response up to the
+ * configured window, so short or randomly accessed reads do not fetch much more
+ * than needed while sequential reads of large files are not bounded by the
+ * round trip time.
+ *
+ * @author Vyacheslav Soldatov <vyacheslav@redfield.se>
+ */
+final class SftpPipelinedInputStream extends InputStream {
+    /**
+     * Size of the data requested by one SSH_FXP_READ request.
+     */
+    static final int CHUNK_SIZE = 32 * 1024;
+
+    private final SftpClient m_client;
+    private final RawSftpClient m_rawClient;
+    private final Handle m_handle;
+    private final boolean m_closeHandle;
+    private final int m_maxRequests;
+
+    private final Deque<ReadRequest> m_requests = new ArrayDeque<>();
+
+    /**
+     * Number of requests to keep in flight, grows up to {@link #m_maxRequests}.
+     */
+    private int m_window = 1;
+    private long m_requestOffset;
+    private long m_position;
+    private Buffer m_data;
+    private boolean m_eof;
+    private boolean m_closed;
+
+    /**
+     * @param client
+     *            SFTP client, must implement {@link RawSftpClient}.
+     * @param handle
+     *            handle of the file opened for reading.
+     * @param closeHandle
+     *            whether to close the handle when the stream is closed.
+     * @param position
+     *            file offset to start reading from.
+     * @param maxRequests
+     *            maximum number of outstanding read requests.
+     */
+    SftpPipelinedInputStream(final SftpClient client, final Handle handle, final boolean closeHandle,
+            final long position, final int maxRequests) {
+        m_client = client;
+        m_rawClient = (RawSftpClient) client;
+        m_handle = handle;
+        m_closeHandle = closeHandle;
+        m_maxRequests = Math.max(1, maxRequests);
+        m_position = position;
+        m_requestOffset = position;
+    }
+
+    /**
+     * @return file offset of the next byte returned by this stream.
+     */
+    long position() {
+        return m_position;
+    }
+
+    @Override
+    public int read() throws IOException {
+        final byte[] b = new byte[1];
+        final int n = read(b, 0, 1);
+        return n < 0 ? -1 : b[0] & 0xFF;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        ensureOpen();
+        if (len == 0) {
+            return 0;
+        }
+
+        while (m_data == null || m_data.available() == 0) {
+            if (m_eof) {
+                return -1;
+            }
+            receiveNext();
+        }
+
+        final int n = Math.min(len, m_data.available());
+        m_data.getRawBytes(b, off, n);
+        m_position += n;
+        return n;
+    }
+
+    @Override
+    public long skip(final long n) throws IOException {
+        ensureOpen();
+        if (n <= 0) {
+            return 0;
+        }
+
+        final int buffered = m_data == null ? 0 : m_data.available();
+        if (n <= buffered) {
+            m_data.rpos(m_data.rpos() + (int) n);
+            m_position += n;
+        } else {
+            // the skipped data is not requested at all, the read-ahead starts
+            // again from the new offset
+            cancelRequests();
+            m_position += n;
+            m_requestOffset = m_position;
+            m_window = 1;
+            m_eof = false;
+        }
+        return n;
+    }
+
+    @Override
+    public int available() throws IOException {
+        ensureOpen();
+        return m_data == null ? 0 : m_data.available();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (m_closed) {
+            return;
+        }
+        m_closed = true;
+
+        try {
+            cancelRequests();
+        } finally {
+            if (m_closeHandle) {
+                m_client.close(m_handle);
+            }
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (m_closed) {
+            throw new IOException("Stream is closed");
+        }
+    }
+
+    private void receiveNext() throws IOException {
+        sendRequests();
+
+        final ReadRequest request = m_requests.removeFirst();
+        final Buffer buffer = m_rawClient.receive(request.m_id);
+        buffer.getInt(); // length
+        final int type = buffer.getUByte();
+        buffer.getInt(); // request id
+
+        if (type == SftpConstants.SSH_FXP_DATA) {
+            final int length = buffer.getInt();
+            if (length == 0) {
+                onEof();
+                return;
+            }
+            // ignore the optional end-of-file flag which may follow the data
+            buffer.wpos(buffer.rpos() + length);
+            m_data = buffer;
+
+            if (length < request.m_length) {
+                // the server returned less than requested, the rest is requested
+                // before the responses already in flight are consumed
+                m_requests.addFirst(sendRead(request.m_offset + length, request.m_length - length));
+            } else if (m_window < m_maxRequests) {
+                m_window++;
+            }
+        } else if (type == SftpConstants.SSH_FXP_STATUS) {
+            final int status = buffer.getInt();
+            if (status == SftpConstants.SSH_FX_EOF) {
+                onEof();
+            } else {
+                throw new SftpException(status, buffer.getString());
+            }
+        } else {
+            throw new SshException("Unexpected SFTP response type: " + type);
+        }
+    }
+
+    private void onEof() {
+        m_data = null;
+        m_eof = true;
+    }
+
+    private void sendRequests() throws IOException {
+        while (!m_eof && m_requests.size() < m_window) {
+            m_requests.addLast(sendRead(m_requestOffset, CHUNK_SIZE));
+            m_requestOffset += CHUNK_SIZE;
+        }
+    }
+
+    private ReadRequest sendRead(final long offset, final int length) throws IOException {
+        final byte[] id = m_handle.getIdentifier();
+        final Buffer buffer = new ByteArrayBuffer(id.length + Long.SIZE, false);
+        buffer.putBytes(id);
+        buffer.putLong(offset);
+        buffer.putUInt(length);
+        return new ReadRequest(m_rawClient.send(SftpConstants.SSH_FXP_READ, buffer), offset, length);
+    }
+
+    /**
+     * Consumes the responses of the outstanding requests, otherwise the client
+     * would keep them forever.
+     */
+    private void cancelRequests() throws IOException {
+        m_data = null;
+        while (!m_requests.isEmpty()) {
+            m_rawClient.receive(m_requests.removeFirst().m_id);
+        }
+    }
+
+    private static final class ReadRequest {
+        private final int m_id;
+        private final long m_offset;
+        private final int m_length;
+
+        ReadRequest(final int id, final long offset, final int length) {
+            m_id = id;
+            m_offset = offset;
+            m_length = length;
+        }
+    }
+}
@@ -0,0 +1,312 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   2026-10-17 (Vyacheslav Soldatov): created
+ */
+package org.knime.ext.ssh.filehandling.fs;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+
+import org.apache.sshd.common.SshException;
+import org.apache.sshd.common.util.buffer.Buffer;
+import org.apache.sshd.common.util.buffer.ByteArrayBuffer;
+import org.apache.sshd.sftp.client.RawSftpClient;
+import org.apache.sshd.sftp.client.SftpClient;
+import org.apache.sshd.sftp.client.SftpClient.CloseableHandle;
+import org.apache.sshd.sftp.client.SftpClient.Handle;
+import org.apache.sshd.sftp.client.SftpClient.OpenMode;
+import org.apache.sshd.sftp.common.SftpConstants;
+import org.apache.sshd.sftp.common.SftpException;
+
+/**
+ * Output stream which writes a remote file with several SSH_FXP_WRITE requests
+ * in flight. The written data is collected in a request buffer which is sent
+ * as soon as it is full, the acknowledgements of the server are only awaited
+ * when the maximum number of outstanding requests is reached and on
+ * {@link #flush()} and {@link #close()}. Hence a failed write may be reported
+ * by a later call than the one which has written the data. Writes are not
+ * retried if the SSH connection is lost, the stream fails with an error which
+ * tells that the file may be incomplete.
+ *
+ * @author Vyacheslav Soldatov <vyacheslav@redfield.se>
+ */
+final class SftpPipelinedOutputStream extends OutputStream {
+    /**
+     * Size of the data sent by one SSH_FXP_WRITE request.
+     */
+    static final int CHUNK_SIZE = 32 * 1024;
+
+    /**
+     * Space reserved in front of the request for the SFTP packet header, so the
+     * client sends the request buffer without copying it.
+     */
+    private static final int HEADER_SIZE = 9;
+
+    private final SftpClient m_client;
+    private final RawSftpClient m_rawClient;
+    private final String m_path;
+    private final Handle m_handle;
+    private final int m_maxRequests;
+
+    private final Deque<Integer> m_requests = new ArrayDeque<>();
+
+    /**
+     * Buffer of the next request, it is reused since it is completely handed
+     * over to the SSH channel when {@link RawSftpClient#send(int, Buffer)}
+     * returns.
+     */
+    private final Buffer m_request;
+    private final int m_dataStart;
+
+    private long m_position;
+    private IOException m_error;
+    private boolean m_closed;
+
+    /**
+     * @param client
+     *            SFTP client, must implement {@link RawSftpClient}.
+     * @param path
+     *            remote path of the file.
+     * @param handle
+     *            handle of the file opened for writing, it is closed with the
+     *            stream.
+     * @param position
+     *            file offset to start writing at.
+     * @param maxRequests
+     *            maximum number of outstanding write requests.
+     */
+    SftpPipelinedOutputStream(final SftpClient client, final String path, final Handle handle,
+            final long position, final int maxRequests) {
+        m_client = client;
+        m_rawClient = (RawSftpClient) client;
+        m_path = path;
+        m_handle = handle;
+        m_maxRequests = Math.max(1, maxRequests);
+        m_position = position;
+
+        final byte[] id = handle.getIdentifier();
+        m_dataStart = HEADER_SIZE + Integer.BYTES + id.length + Long.BYTES + Integer.BYTES;
+        m_request = new ByteArrayBuffer(new byte[m_dataStart + CHUNK_SIZE], false);
+        m_request.rpos(HEADER_SIZE);
+        resetRequest();
+    }
+
+    /**
+     * Opens a remote file for writing.
+     *
+     * @param client
+     *            SFTP client, must implement {@link RawSftpClient}.
+     * @param path
+     *            remote path.
+     * @param modes
+     *            open modes, with {@link OpenMode#Append} the data is written
+     *            at the end of the existing file.
+     * @param maxRequests
+     *            maximum number of outstanding write requests.
+     * @return output stream.
+     * @throws IOException
+     */
+    static SftpPipelinedOutputStream open(final SftpClient client, final String path,
+            final Collection<OpenMode> modes, final int maxRequests) throws IOException {
+        final CloseableHandle handle = client.open(path, modes);
+        try {
+            final long position = modes.contains(OpenMode.Append) ? client.stat(handle).getSize() : 0;
+            return new SftpPipelinedOutputStream(client, path, handle, position, maxRequests);
+        } catch (IOException ex) {
+            handle.close();
+            throw ex;
+        }
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        write(new byte[] { (byte) b }, 0, 1);
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+        ensureOpen();
+
+        int offset = off;
+        int remaining = len;
+        try {
+            while (remaining > 0) {
+                final int n = Math.min(remaining, m_dataStart + CHUNK_SIZE - m_request.wpos());
+                m_request.putRawBytes(b, offset, n);
+                offset += n;
+                remaining -= n;
+
+                if (m_request.wpos() == m_dataStart + CHUNK_SIZE) {
+                    sendRequest();
+                }
+            }
+        } catch (IOException ex) {
+            throw toWriteError(ex);
+        }
+    }
+
+    /**
+     * Sends the buffered data and waits until the server has acknowledged all
+     * written data.
+     */
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        try {
+            if (m_request.wpos() > m_dataStart) {
+                sendRequest();
+            }
+            while (!m_requests.isEmpty()) {
+                receiveAck();
+            }
+        } catch (IOException ex) {
+            throw toWriteError(ex);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (m_closed) {
+            return;
+        }
+
+        try {
+            flush();
+        } finally {
+            m_closed = true;
+            try {
+                // the responses are consumed even if a write has failed,
+                // otherwise the client would keep them forever
+                discardAcks();
+            } catch (IOException ex) {
+                throw toWriteError(ex);
+            } finally {
+                closeHandle();
+            }
+        }
+    }
+
+    private void closeHandle() throws IOException {
+        try {
+            m_client.close(m_handle);
+        } catch (IOException ex) {
+            throw toWriteError(ex);
+        }
+    }
+
+    /**
+     * The error of a write on a lost connection is kept, so the following
+     * calls fail with it as well.
+     */
+    private IOException toWriteError(final IOException ex) {
+        final IOException error = NativeSftpProviderUtils.toWriteError(m_client, m_path, ex);
+        if (error != ex) {
+            m_error = error;
+        }
+        return error;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (m_closed) {
+            throw new IOException("Stream is closed");
+        }
+        if (m_error != null) {
+            throw m_error;
+        }
+    }
+
+    private void resetRequest() {
+        m_request.wpos(m_request.rpos());
+        m_request.putBytes(m_handle.getIdentifier());
+        m_request.putLong(m_position);
+        m_request.putUInt(0); // data length, set when the request is sent
+    }
+
+    private void sendRequest() throws IOException {
+        if (m_requests.size() >= m_maxRequests) {
+            receiveAck();
+        }
+
+        final int length = m_request.wpos() - m_dataStart;
+        final int wpos = m_request.wpos();
+        m_request.wpos(m_dataStart - Integer.BYTES);
+        m_request.putUInt(length);
+        m_request.wpos(wpos);
+
+        m_requests.addLast(m_rawClient.send(SftpConstants.SSH_FXP_WRITE, m_request));
+        // the client may have moved the read position to add the header
+        m_request.rpos(HEADER_SIZE);
+        m_position += length;
+        resetRequest();
+    }
+
+    private void receiveAck() throws IOException {
+        final Buffer buffer = m_rawClient.receive(m_requests.removeFirst());
+        buffer.getInt(); // length
+        final int type = buffer.getUByte();
+        buffer.getInt(); // request id
+
+        if (type != SftpConstants.SSH_FXP_STATUS) {
+            m_error = new SshException("Unexpected SFTP response type: " + type);
+            throw m_error;
+        }
+        final int status = buffer.getInt();
+        if (status != SftpConstants.SSH_FX_OK) {
+            m_error = new SftpException(status, buffer.getString());
+            throw m_error;
+        }
+    }
+
+    private void discardAcks() throws IOException {
+        while (!m_requests.isEmpty()) {
+            m_rawClient.receive(m_requests.removeFirst());
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   2026-10-17 (Vyacheslav Soldatov): created
+ */
+package org.knime.ext.ssh.filehandling.fs;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+
+import org.apache.sshd.sftp.client.SftpClient;
+import org.apache.sshd.sftp.client.SftpClient.OpenMode;
+
+/**
+ * Input stream which reads a remote file with a {@link SftpPipelinedInputStream}
+ * and continues at the same file offset with a new SFTP session if the SSH
+ * connection is lost while reading. A read is idempotent, so the caller does
+ * not notice the reconnect.
+ *
+ * @author Vyacheslav Soldatov <vyacheslav@redfield.se>
+ */
+final class SftpResumableInputStream extends InputStream {
+    private final String m_path;
+    private final Collection<OpenMode> m_modes;
+    private final int m_maxRequests;
+    private final SftpReconnector m_reconnector;
+
+    private SftpPipelinedInputStream m_in;
+    private int m_failures;
+
+    /**
+     * @param client
+     *            SFTP client, must implement
+     *            {@link org.apache.sshd.sftp.client.RawSftpClient}.
+     * @param path
+     *            remote path.
+     * @param modes
+     *            open modes.
+     * @param maxRequests
+     *            maximum number of outstanding read requests.
+     * @param reconnector
+     *            provides a new SFTP client if the connection is lost.
+     * @throws IOException
+     */
+    SftpResumableInputStream(final SftpClient client, final String path, final Collection<OpenMode> modes,
+            final int maxRequests, final SftpReconnector reconnector) throws IOException {
+        m_path = path;
+        m_modes = modes;
+        m_maxRequests = maxRequests;
+        m_reconnector = reconnector;
+        m_in = open(client, 0);
+    }
+
+    @Override
+    public int read() throws IOException {
+        final byte[] b = new byte[1];
+        final int n = read(b, 0, 1);
+        return n < 0 ? -1 : b[0] & 0xFF;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        while (true) {
+            try {
+                final int n = m_in.read(b, off, len);
+                m_failures = 0;
+                return n;
+            } catch (IOException ex) {
+                reconnect(ex);
+            }
+        }
+    }
+
+    @Override
+    public long skip(final long n) throws IOException {
+        while (true) {
+            try {
+                return m_in.skip(n);
+            } catch (IOException ex) {
+                reconnect(ex);
+            }
+        }
+    }
+
+    @Override
+    public int available() throws IOException {
+        return m_in.available();
+    }
+
+    @Override
+    public void close() throws IOException {
+        m_in.close();
+    }
+
+    /**
+     * Opens the file again with a new SFTP client at the offset of the next
+     * byte, the data already buffered by the lost stream is read again.
+     */
+    private void reconnect(final IOException cause) throws IOException {
+        final SftpPipelinedInputStream lost = m_in;
+        IOException error = cause;
+        while (true) {
+            m_failures++;
+            try {
+                m_in = open(m_reconnector.reconnect(error, m_failures), lost.position());
+                break;
+            } catch (IOException ex) {
+                if (ex == error) {
+                    throw ex;
+                }
+                error = ex;
+            }
+        }
+
+        try {
+            lost.close();
+        } catch (IOException ex) { // NOSONAR the connection of the stream is lost
+        }
+    }
+
+    @SuppressWarnings("resource")
+    private SftpPipelinedInputStream open(final SftpClient client, final long position) throws IOException {
+        return new SftpPipelinedInputStream(client, client.open(m_path, m_modes), true, position, m_maxRequests);
+    }
+}
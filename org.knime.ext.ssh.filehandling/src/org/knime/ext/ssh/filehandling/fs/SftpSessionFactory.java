@@ -49,22 +49,25 @@
 package org.knime.ext.ssh.filehandling.fs;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.channels.UnresolvedAddressException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.security.KeyPair;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
+import java.util.HexFormat;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.SynchronousQueue;
-import java.util.concurrent.ThreadPoolExecutor.DiscardPolicy;
-import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 import org.apache.sshd.client.SshClient;
 import org.apache.sshd.client.auth.UserAuthFactory;
 import org.apache.sshd.client.auth.password.UserAuthPasswordFactory;
 import org.apache.sshd.client.auth.pubkey.UserAuthPublicKeyFactory;
-import org.apache.sshd.client.config.hosts.HostConfigEntryResolver;
 import org.apache.sshd.client.keyverifier.AcceptAllServerKeyVerifier;
 import org.apache.sshd.client.session.ClientSession;
 import org.apache.sshd.common.SshException;
@@ -72,14 +75,9 @@
 import org.apache.sshd.common.config.keys.loader.KeyPairResourceParser;
 import org.apache.sshd.common.config.keys.loader.openssh.OpenSSHKeyPairResourceParser;
 import org.apache.sshd.common.config.keys.loader.pem.PEMResourceParserUtils;
-import org.apache.sshd.common.io.nio2.Nio2ServiceFactoryFactory;
 import org.apache.sshd.common.keyprovider.FileKeyPairProvider;
-import org.apache.sshd.common.keyprovider.KeyIdentityProvider;
 import org.apache.sshd.common.signature.BuiltinSignatures;
 import org.apache.sshd.common.util.security.SecurityUtils;
-import org.apache.sshd.common.util.threads.CloseableExecutorService;
-import org.apache.sshd.common.util.threads.SshThreadPoolExecutor;
-import org.apache.sshd.common.util.threads.SshdThreadFactory;
 import org.apache.sshd.core.CoreModuleProperties;
 import org.apache.sshd.putty.PuttyKeyUtils;
 import org.knime.core.node.InvalidSettingsException;
@@ -102,12 +100,14 @@ public class SftpSessionFactory {
         SecurityUtils.setKeyPairResourceParser(parser);
     }
 
-    private SshClient m_sshClient;
+    private SharedSshClient m_sharedClient;
 
-    private CloseableExecutorService m_executorService;
+    private SshClient m_sshClient;
 
     private final SshFSConnectionConfig m_settings;
 
+    private String m_credentialsHash;
+
 
     /**
      * @param settings
@@ -118,49 +118,13 @@ public SftpSessionFactory(final SshFSConnectionConfig settings) {
     }
 
     /**
-     * Starts resource pool.
+     * Takes the SSH client shared by all connections.
      *
      * @throws IOException
      */
     public synchronized void init() throws IOException {
-        m_executorService = new SshThreadPoolExecutor(0, Integer.MAX_VALUE, //
-                10L, TimeUnit.SECONDS, //
-                new SynchronousQueue<>(), //
-                new SshdThreadFactory("ssh-client-worker"), //
-                new DiscardPolicy());
-
-        m_sshClient = SshClient.setUpDefaultClient();
-        m_sshClient.setIoServiceFactoryFactory(new Nio2ServiceFactoryFactory(() -> m_executorService));
-
-        m_sshClient.setServerKeyVerifier(AcceptAllServerKeyVerifier.INSTANCE);
-        m_sshClient.setHostConfigEntryResolver(HostConfigEntryResolver.EMPTY);
-        m_sshClient.setKeyIdentityProvider(KeyIdentityProvider.EMPTY_KEYS_PROVIDER);
-
-        if (m_settings.isUseKeyFile()) {
-            final UserAuthPublicKeyFactory authFactory = new UserAuthPublicKeyFactory(
-                    new LinkedList<>(BuiltinSignatures.VALUES));
-
-            final List<UserAuthFactory> fs = new LinkedList<>();
-            fs.add(authFactory);
-            m_sshClient.setUserAuthFactories(fs);
-        }
-
-        try {
-            m_sshClient.start();
-        } catch (final Exception exc) { // NOSONAR catch all, don't know what types might be thrown
-            m_sshClient.stop();
-            m_sshClient = null;
-            throw convertToCreateSshConnection(exc);
-        }
-    }
-
-    private static IOException convertToCreateSshConnection(final Throwable exc) {
-        // handle exception
-        if (exc instanceof IOException) {
-            return (IOException) exc;
-        } else {
-            return new IOException("Failed to create SSH connection: " + exc.getMessage(), exc);
-        }
+        m_sharedClient = SharedSshClient.acquire();
+        m_sshClient = m_sharedClient.getSshClient();
     }
 
     /**
@@ -182,14 +146,17 @@ public ClientSession createSession() throws IOException {
                 session.setServerKeyVerifier(AcceptAllServerKeyVerifier.INSTANCE);
             }
 
+            // the client is shared by all connections, so the authentication is set
+            // up for the session only
             if (m_settings.isUseKeyFile()) {
-                session.getFactoryManager().setUserAuthFactoriesNameList(UserAuthPublicKeyFactory.INSTANCE.getName());
+                final List<UserAuthFactory> factories = new LinkedList<>();
+                factories.add(new UserAuthPublicKeyFactory(new LinkedList<>(BuiltinSignatures.VALUES)));
+                session.setUserAuthFactories(factories);
                 addPublicKeys(session);
             } else {
                 final String password = m_settings.getPassword();
                 if (password != null && !password.isEmpty()) {
-                    session.getFactoryManager()
-                            .setUserAuthFactoriesNameList(UserAuthPasswordFactory.INSTANCE.getName());
+                    session.setUserAuthFactoriesNameList(UserAuthPasswordFactory.INSTANCE.getName());
                     session.addPasswordIdentity(password);
                 }
             }
@@ -255,18 +222,116 @@ private void addPublicKeys(final Path path, final ClientSession session) {
     }
 
     /**
-     * Destroys session factory.
+     * Takes a session for a connection of the resource pool. If
+     * {@link SshFSConnectionConfig#isReuseSessions()} is set, the session is
+     * shared with the equal connections of other pools, otherwise a new
+     * session is created.
+     *
+     * @param connection
+     *            index of the connection in the pool, the pools with several
+     *            connections share one session per index.
+     * @return SFTP session, which must be released with
+     *         {@link #releaseSession(ClientSession)}.
+     * @throws IOException
+     */
+    public ClientSession takeSession(final int connection) throws IOException {
+        if (!m_settings.isReuseSessions()) {
+            return createSession();
+        }
+        return m_sharedClient.takeSession(createSessionKey(connection), this::createSession);
+    }
+
+    /**
+     * Releases a session taken by {@link #takeSession(int)}, a session which
+     * is not shared is closed.
+     *
+     * @param session
+     *            session to release.
      */
-    public synchronized void destroy() {
-        if (m_sshClient != null) {
-            m_sshClient.stop();
-            m_sshClient = null;
+    public void releaseSession(final ClientSession session) {
+        if (m_settings.isReuseSessions()) {
+            m_sharedClient.releaseSession(session);
+        } else {
+            closeSessionSafely(session);
         }
+    }
+
+    private String createSessionKey(final int connection) throws IOException {
+        return String.format("%s@%s:%d#%d/%s", m_settings.getUserName(), m_settings.getHost(),
+                m_settings.getPort(), connection, getCredentialsHash());
+    }
 
-        if (m_executorService != null) {
-            // m_executorService.close(true);
-            m_executorService.shutdownNow();
-            m_executorService = null;
+    /**
+     * @return hash of the credentials and of the known hosts, so equal
+     *         sessions are found without keeping the credentials. A session
+     *         verified with other known hosts is not reused.
+     */
+    private synchronized String getCredentialsHash() throws IOException {
+        if (m_credentialsHash == null) {
+            final MessageDigest digest;
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException ex) {
+                throw new IOException(ex);
+            }
+
+            update(digest, m_settings.getPassword());
+            update(digest, Boolean.toString(m_settings.isUseKeyFile()));
+            update(digest, Boolean.toString(m_settings.isUseKnownHosts()));
+            if (m_settings.isUseKeyFile()) {
+                update(digest, m_settings.getKeyFilePassword());
+                updateWithFile(digest, m_settings.getBridge()::doWithKeysFile);
+            }
+            if (m_settings.isUseKnownHosts()) {
+                updateWithFile(digest, m_settings.getBridge()::doWithKnownHostsFile);
+            }
+            m_credentialsHash = HexFormat.of().formatHex(digest.digest());
+        }
+        return m_credentialsHash;
+    }
+
+    private static void updateWithFile(final MessageDigest digest, final FileAccess access) throws IOException {
+        try {
+            access.doWithFile(path -> {
+                try {
+                    digest.update(Files.readAllBytes(path));
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        } catch (UncheckedIOException ex) { // NOSONAR unwrap
+            throw ex.getCause();
+        } catch (InvalidSettingsException ex) {
+            throw new IOException(ex.getMessage(), ex);
+        }
+        // separate the values
+        digest.update((byte) 0);
+    }
+
+    private static void update(final MessageDigest digest, final String value) {
+        if (value != null) {
+            digest.update(value.getBytes(StandardCharsets.UTF_8));
+        }
+        // separate the values
+        digest.update((byte) 0);
+    }
+
+    /**
+     * Access to a file of the node, see {@link ConnectionToNodeModelBridge}.
+     */
+    @FunctionalInterface
+    private interface FileAccess {
+        void doWithFile(Consumer<Path> consumer) throws IOException, InvalidSettingsException;
+    }
+
+    /**
+     * Releases the shared SSH client.
+     */
+    public synchronized void destroy() {
+        if (m_sharedClient != null) {
+            m_sharedClient.release();
+            m_sharedClient = null;
+            m_sshClient = null;
         }
     }
 }
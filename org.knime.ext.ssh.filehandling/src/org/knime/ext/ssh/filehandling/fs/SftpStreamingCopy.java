@@ -0,0 +1,163 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   2026-10-17 (Vyacheslav Soldatov): created
+ */
+package org.knime.ext.ssh.filehandling.fs;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.EnumSet;
+
+import org.apache.sshd.sftp.client.RawSftpClient;
+import org.apache.sshd.sftp.client.SftpClient;
+import org.apache.sshd.sftp.client.SftpClient.OpenMode;
+import org.apache.sshd.sftp.common.SftpException;
+
+/**
+ * Copies files through the client when the server does not support the
+ * copy-file extension. The content is read with pipelined requests on one SFTP
+ * session and written with pipelined requests on another one, so reads and
+ * writes overlap and only a bounded number of chunks is in flight. No local
+ * temporary file is used.
+ *
+ * @author Vyacheslav Soldatov <vyacheslav@redfield.se>
+ */
+final class SftpStreamingCopy {
+    private final SftpClient m_readClient;
+    private final SftpClient m_writeClient;
+    private final int m_maxReadRequests;
+    private final int m_maxWriteRequests;
+
+    /**
+     * @param readClient
+     *            client to read the source with, also used for all other
+     *            requests of the copy.
+     * @param writeClient
+     *            client to write the target with, may be the read client.
+     * @param maxReadRequests
+     *            maximum number of read requests in flight, zero means the
+     *            read-ahead of the SSHD client is used.
+     * @param maxWriteRequests
+     *            maximum number of write requests in flight, zero means the
+     *            SSHD output stream is used.
+     */
+    SftpStreamingCopy(final SftpClient readClient, final SftpClient writeClient, final int maxReadRequests,
+            final int maxWriteRequests) {
+        m_readClient = readClient;
+        m_writeClient = writeClient;
+        m_maxReadRequests = maxReadRequests;
+        m_maxWriteRequests = maxWriteRequests;
+    }
+
+    /**
+     * @return client for the requests other than the writes of the content.
+     */
+    SftpClient getClient() {
+        return m_readClient;
+    }
+
+    /**
+     * Copies the content of a file, the target is created or truncated.
+     *
+     * @param source
+     *            source file.
+     * @param target
+     *            target file.
+     * @throws IOException
+     */
+    void copy(final SshPath source, final SshPath target) throws IOException {
+        final byte[] buffer = new byte[SftpPipelinedInputStream.CHUNK_SIZE];
+        try (InputStream in = openSource(source); OutputStream out = openTarget(target)) {
+            while (true) {
+                final int read;
+                try {
+                    read = in.read(buffer);
+                } catch (SftpException ex) {
+                    throw NativeSftpProviderUtils.convertAndRethrow(ex, source);
+                }
+                if (read < 0) {
+                    break;
+                }
+
+                try {
+                    out.write(buffer, 0, read);
+                } catch (SftpException ex) {
+                    throw NativeSftpProviderUtils.convertAndRethrow(ex, target);
+                }
+            }
+        } catch (SftpException ex) {
+            // failures of the writes still in flight are reported by close()
+            throw NativeSftpProviderUtils.convertAndRethrow(ex, target);
+        }
+    }
+
+    private InputStream openSource(final SshPath source) throws IOException {
+        try {
+            if (m_maxReadRequests > 0 && m_readClient instanceof RawSftpClient) {
+                return new SftpPipelinedInputStream(m_readClient,
+                        m_readClient.open(source.toSftpString(), EnumSet.of(OpenMode.Read)), true, 0,
+                        m_maxReadRequests);
+            }
+            return m_readClient.read(source.toSftpString());
+        } catch (SftpException ex) {
+            throw NativeSftpProviderUtils.convertAndRethrow(ex, source);
+        }
+    }
+
+    private OutputStream openTarget(final SshPath target) throws IOException {
+        final EnumSet<OpenMode> modes = EnumSet.of(OpenMode.Write, OpenMode.Create, OpenMode.Truncate);
+        try {
+            if (m_maxWriteRequests > 0 && m_writeClient instanceof RawSftpClient) {
+                return SftpPipelinedOutputStream.open(m_writeClient, target.toSftpString(), modes, m_maxWriteRequests);
+            }
+            return m_writeClient.write(target.toSftpString(), modes);
+        } catch (SftpException ex) {
+            throw NativeSftpProviderUtils.convertAndRethrow(ex, target);
+        }
+    }
+}
@@ -0,0 +1,389 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   2026-10-17 (Vyacheslav Soldatov): created
+ */
+package org.knime.ext.ssh.filehandling.fs;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.sshd.client.SshClient;
+import org.apache.sshd.client.config.hosts.HostConfigEntryResolver;
+import org.apache.sshd.client.keyverifier.AcceptAllServerKeyVerifier;
+import org.apache.sshd.client.session.ClientSession;
+import org.apache.sshd.common.io.nio2.Nio2ServiceFactoryFactory;
+import org.apache.sshd.common.keyprovider.KeyIdentityProvider;
+import org.apache.sshd.common.session.Session;
+import org.apache.sshd.common.session.SessionListener;
+import org.apache.sshd.common.util.threads.CloseableExecutorService;
+import org.apache.sshd.common.util.threads.SshThreadPoolExecutor;
+import org.apache.sshd.common.util.threads.SshdThreadFactory;
+import org.knime.core.node.NodeLogger;
+
+/**
+ * SSH client shared by all SSH connections of the process. The I/O events of
+ * all connections are handled by a bounded pool of
+ * {@link #EVENT_LOOP_THREADS} threads, which are stopped when they are idle.
+ * The client is started when the first {@link SftpSessionFactory} is
+ * initialized and stopped when the last one is destroyed and no shared
+ * session is open anymore.
+ *
+ * Authenticated sessions may be shared by several connections, similar to the
+ * ControlMaster of OpenSSH. A shared session is identified by a key, which
+ * contains the host, the user and a hash of the credentials, and is counted
+ * for every user. A session without users is kept open for
+ * {@link #IDLE_SESSION_TIMEOUT}, so a connection which is opened again soon
+ * after, e.g. in the next loop iteration of a workflow, does not need a new
+ * key exchange and authentication.
+ *
+ * @author Vyacheslav Soldatov <vyacheslav@redfield.se>
+ */
+final class SharedSshClient {
+
+    private static final NodeLogger LOG = NodeLogger.getLogger(SharedSshClient.class);
+
+    /**
+     * Maximum number of threads handling the I/O events of all connections.
+     */
+    static final int EVENT_LOOP_THREADS = Math.max(4, Runtime.getRuntime().availableProcessors());
+
+    /**
+     * Time a shared session without users is kept open.
+     */
+    static final Duration IDLE_SESSION_TIMEOUT = Duration.ofSeconds(30);
+
+    private static final Object LOCK = new Object();
+
+    private static SharedSshClient instance; // NOSONAR guarded by LOCK
+
+    private final SshClient m_sshClient;
+    private final CloseableExecutorService m_executorService;
+    private int m_users;
+
+    private final Map<String, ClientSession> m_sessions = new HashMap<>();
+    private final Map<ClientSession, SharedSession> m_sharedSessions = new HashMap<>();
+    private final Map<String, OpenLock> m_openLocks = new HashMap<>();
+
+    private final SessionListener m_sessionListener = new SessionListener() {
+        @Override
+        public void sessionClosed(final Session session) {
+            onSessionClosed(session);
+        }
+    };
+
+    private SharedSshClient() throws IOException {
+        final SshThreadPoolExecutor executor = new SshThreadPoolExecutor(EVENT_LOOP_THREADS, EVENT_LOOP_THREADS, //
+                10L, TimeUnit.SECONDS, //
+                new LinkedBlockingQueue<>(), //
+                new SshdThreadFactory("ssh-client-worker"));
+        executor.allowCoreThreadTimeOut(true);
+        m_executorService = executor;
+
+        m_sshClient = SshClient.setUpDefaultClient();
+        m_sshClient.setIoServiceFactoryFactory(new Nio2ServiceFactoryFactory(() -> m_executorService));
+
+        // the settings of a connection are set on its sessions
+        m_sshClient.setServerKeyVerifier(AcceptAllServerKeyVerifier.INSTANCE);
+        m_sshClient.setHostConfigEntryResolver(HostConfigEntryResolver.EMPTY);
+        m_sshClient.setKeyIdentityProvider(KeyIdentityProvider.EMPTY_KEYS_PROVIDER);
+
+        try {
+            m_sshClient.start();
+        } catch (final Exception exc) { // NOSONAR catch all, don't know what types might be thrown
+            m_sshClient.stop();
+            m_executorService.shutdownNow();
+            if (exc instanceof IOException) {
+                throw (IOException) exc;
+            }
+            throw new IOException("Failed to create SSH connection: " + exc.getMessage(), exc);
+        }
+    }
+
+    /**
+     * Starts the shared client if it is not running and counts the caller as
+     * its user.
+     *
+     * @return shared client.
+     * @throws IOException
+     */
+    static SharedSshClient acquire() throws IOException {
+        synchronized (LOCK) {
+            if (instance == null) {
+                instance = new SharedSshClient();
+            }
+            instance.m_users++;
+            return instance;
+        }
+    }
+
+    /**
+     * Releases the client taken by {@link #acquire()}.
+     */
+    void release() {
+        final boolean stop;
+        synchronized (LOCK) {
+            m_users--;
+            stop = detachIfUnused();
+        }
+        if (stop) {
+            stop();
+        }
+    }
+
+    /**
+     * @return the SSH client.
+     */
+    SshClient getSshClient() {
+        return m_sshClient;
+    }
+
+    /**
+     * Returns the open session of the given key or opens a new one. The session
+     * must be released with {@link #releaseSession(ClientSession)}.
+     *
+     * @param key
+     *            key which identifies equal sessions, i.e. sessions with the
+     *            same host, user and credentials.
+     * @param opener
+     *            opens a new authenticated session.
+     * @return shared session.
+     * @throws IOException
+     */
+    ClientSession takeSession(final String key, final SessionOpener opener) throws IOException {
+        final OpenLock openLock;
+        synchronized (LOCK) {
+            openLock = m_openLocks.computeIfAbsent(key, k -> new OpenLock());
+            openLock.m_waiters++;
+        }
+
+        // sessions of different keys are opened in parallel
+        try {
+            synchronized (openLock) {
+                synchronized (LOCK) {
+                    final ClientSession session = m_sessions.get(key);
+                    if (session != null && session.isOpen()) {
+                        m_sharedSessions.get(session).m_users++;
+                        return session;
+                    }
+                }
+
+                final ClientSession session = opener.open();
+                session.addSessionListener(m_sessionListener);
+                synchronized (LOCK) {
+                    // a closed session of the key is still counted until its users release it
+                    m_sessions.put(key, session);
+                    m_sharedSessions.put(session, new SharedSession(key));
+                }
+                return session;
+            }
+        } finally {
+            synchronized (LOCK) {
+                // the lock is only kept while sessions of the key are opened
+                openLock.m_waiters--;
+                if (openLock.m_waiters == 0) {
+                    m_openLocks.remove(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Releases a session taken by {@link #takeSession(String, SessionOpener)}.
+     * The session is closed when it has no users for
+     * {@link #IDLE_SESSION_TIMEOUT}.
+     *
+     * @param session
+     *            session to release.
+     */
+    void releaseSession(final ClientSession session) {
+        final boolean stop;
+        synchronized (LOCK) {
+            final SharedSession shared = m_sharedSessions.get(session);
+            if (shared == null) {
+                session.close(true);
+                return;
+            }
+
+            shared.m_users--;
+            if (shared.m_users > 0) {
+                return;
+            }
+
+            if (session.isOpen() && m_sessions.get(shared.m_key) == session) {
+                shared.m_idleSince = System.nanoTime();
+                m_sshClient.getScheduledExecutorService().schedule(() -> closeIfIdle(session),
+                        IDLE_SESSION_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+                return;
+            }
+            stop = closeSession(session, shared);
+        }
+        if (stop) {
+            stop();
+        }
+    }
+
+    /**
+     * Called by a thread of the client, which therefore is stopped by another
+     * thread.
+     */
+    private void closeIfIdle(final ClientSession session) {
+        synchronized (LOCK) {
+            final SharedSession shared = m_sharedSessions.get(session);
+            // the session may be used again or released later
+            if (shared != null && shared.m_users == 0
+                    && System.nanoTime() - shared.m_idleSince >= IDLE_SESSION_TIMEOUT.toNanos()) {
+                LOG.debug("Closing idle shared SSH session");
+                if (closeSession(session, shared)) {
+                    CompletableFuture.runAsync(this::stop);
+                }
+            }
+        }
+    }
+
+    /**
+     * Forgets a session without users which was closed by the server.
+     */
+    private void onSessionClosed(final Session session) {
+        synchronized (LOCK) {
+            final SharedSession shared = m_sharedSessions.get(session);
+            if (shared != null && shared.m_users == 0 && closeSession((ClientSession) session, shared)) {
+                CompletableFuture.runAsync(this::stop);
+            }
+        }
+    }
+
+    /**
+     * @return whether the client is not used anymore and must be stopped.
+     */
+    private boolean closeSession(final ClientSession session, final SharedSession shared) {
+        m_sharedSessions.remove(session);
+        m_sessions.remove(shared.m_key, session);
+        session.close(true);
+        return detachIfUnused();
+    }
+
+    /**
+     * @return whether the client is not used anymore and must be stopped, then
+     *         the next {@link #acquire()} starts a new one.
+     */
+    private boolean detachIfUnused() {
+        if (m_users == 0 && m_sharedSessions.isEmpty() && instance == this) {
+            instance = null;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Stops the client, must not be called with the lock held, because the
+     * threads of the client may wait for it.
+     */
+    private void stop() {
+        m_sshClient.stop();
+        m_executorService.shutdownNow();
+    }
+
+    /**
+     * @return number of users of the running client, zero if it is not running.
+     */
+    static int getUserCount() {
+        synchronized (LOCK) {
+            return instance != null ? instance.m_users : 0;
+        }
+    }
+
+    /**
+     * @return number of shared sessions of the running client including the
+     *         idle ones.
+     */
+    static int getSessionCount() {
+        synchronized (LOCK) {
+            return instance != null ? instance.m_sharedSessions.size() : 0;
+        }
+    }
+
+    /**
+     * @return number of session keys for which sessions are opened at the
+     *         moment.
+     */
+    static int getOpenLockCount() {
+        synchronized (LOCK) {
+            return instance != null ? instance.m_openLocks.size() : 0;
+        }
+    }
+
+    /**
+     * Opens a new authenticated session.
+     */
+    @FunctionalInterface
+    interface SessionOpener {
+        /**
+         * @return the opened session.
+         * @throws IOException
+         */
+        ClientSession open() throws IOException;
+    }
+
+    private static final class OpenLock {
+        private int m_waiters;
+    }
+
+    private static final class SharedSession {
+        private final String m_key;
+        private int m_users = 1;
+        private long m_idleSince;
+
+        SharedSession(final String key) {
+            m_key = key;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   2026-10-17 (Vyacheslav Soldatov): created
+ */
+package org.knime.ext.ssh.filehandling.fs;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.Objects;
+
+import org.apache.sshd.client.channel.ChannelExec;
+import org.apache.sshd.client.channel.ClientChannelEvent;
+import org.knime.ext.ssh.commandexecutor.SshCommandUtil;
+
+/**
+ * Shell commands which process whole directory trees on the server with one
+ * command instead of one SFTP request per entry.
+ *
+ * @author Vyacheslav Soldatov <vyacheslav@redfield.se>
+ */
+final class ShellCommands {
+    /**
+     * Argument of the probe command which is only printed unchanged by a shell
+     * which understands the quoting of {@link SshCommandUtil#escapeStringSh}.
+     */
+    private static final String PROBE_ARGUMENT = "it's $HOME `echo` $(echo) \"x\"";
+
+    /**
+     * Command which succeeds with the output {@link #PROBE_ARGUMENT} only in a
+     * POSIX shell.
+     */
+    static final String PROBE_COMMAND = "printf '%s' " + SshCommandUtil.escapeStringSh(PROBE_ARGUMENT);
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private ShellCommands() {
+    }
+
+    /**
+     * @param path
+     *            file or directory tree to delete.
+     * @return command deleting the tree.
+     */
+    static String createDeleteCommand(final SshPath path) {
+        return "rm -rf -- " + quote(path);
+    }
+
+    /**
+     * @param source
+     *            file or directory tree to copy.
+     * @param target
+     *            not existing target path.
+     * @return command copying the tree with the permissions and times.
+     */
+    static String createCopyCommand(final SshPath source, final SshPath target) {
+        return "cp -Rp -- " + quote(source) + " " + quote(target);
+    }
+
+    /**
+     * @param source
+     *            file or directory tree to move.
+     * @param target
+     *            not existing target path.
+     * @return command moving the tree.
+     */
+    static String createMoveCommand(final SshPath source, final SshPath target) {
+        return "mv -- " + quote(source) + " " + quote(target);
+    }
+
+    private static String quote(final SshPath path) {
+        return SshCommandUtil.escapeStringSh(path.toSftpString());
+    }
+
+    /**
+     * Runs {@link #PROBE_COMMAND}.
+     *
+     * @param chan
+     *            not opened channel of the command.
+     * @param timeout
+     *            time out of opening the channel and of waiting for the command.
+     * @return whether the server executes commands in a POSIX shell.
+     * @throws IOException
+     */
+    static boolean probe(final ChannelExec chan, final Duration timeout) throws IOException {
+        return PROBE_ARGUMENT.equals(run(chan, timeout, timeout));
+    }
+
+    /**
+     * Runs a command with a short output.
+     *
+     * @param chan
+     *            not opened channel of the command.
+     * @param openTimeout
+     *            time out of opening the channel.
+     * @param exitTimeout
+     *            time out of waiting for the command, {@code null} means no time
+     *            out.
+     * @return the standard output.
+     * @throws CommandFailedException
+     *             if the command returns a non-zero exit code.
+     * @throws IOException
+     *             if the command could not be executed.
+     */
+    static String run(final ChannelExec chan, final Duration openTimeout, final Duration exitTimeout)
+            throws IOException {
+        final ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+        final ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+        chan.setOut(stdout);
+        chan.setErr(stderr);
+        chan.open().verify(openTimeout);
+
+        // a server which does not execute commands may just keep the channel open
+        if (chan.waitFor(EnumSet.of(ClientChannelEvent.CLOSED), exitTimeout)
+                .contains(ClientChannelEvent.TIMEOUT)) {
+            throw new IOException("Command timed out");
+        }
+        checkExitStatus(chan, stderr);
+        return stdout.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param chan
+     *            closed channel.
+     * @param stderr
+     *            error output of the command.
+     * @throws CommandFailedException
+     *             if the command returned a non-zero exit code.
+     */
+    static void checkExitStatus(final ChannelExec chan, final ByteArrayOutputStream stderr)
+            throws CommandFailedException {
+        final Integer exit = chan.getExitStatus();
+        if (!Objects.equals(exit, 0)) {
+            String error = stderr.toString(StandardCharsets.UTF_8).trim();
+            if (error.length() > MAX_ERROR_LENGTH) {
+                error = error.substring(0, MAX_ERROR_LENGTH) + "...";
+            }
+            throw new CommandFailedException("Command returned exit code " + exit + ": " + error);
+        }
+    }
+
+    /**
+     * Command was executed, but failed.
+     */
+    static final class CommandFailedException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        CommandFailedException(final String message) {
+            super(message);
+        }
+    }
+}
@@ -59,12 +59,34 @@
  * @author Vyacheslav Soldatov <vyacheslav@redfield.se>
  */
 public class SshFSConnectionConfig extends BaseFSConnectionConfig {
+    /**
+     * Default number of SSH connections the SFTP sessions are spread over.
+     */
+    public static final int DEFAULT_CONNECTION_COUNT = 1;
+
+    /**
+     * Default maximum number of outstanding SFTP read requests, the same as used
+     * by the OpenSSH sftp client.
+     */
+    public static final int DEFAULT_MAX_READ_REQUESTS = 64;
+
+    /**
+     * Default maximum number of outstanding SFTP write requests.
+     */
+    public static final int DEFAULT_MAX_WRITE_REQUESTS = 64;
+
     private ConnectionToNodeModelBridge m_bridge;
 
     private Duration m_connectionTimeout = Duration
             .ofSeconds(SshConnectorNodeModel.DEFAULT_CONNECTION_TIMEOUT_SECONDS);
     private int m_maxSftpSessionLimit = SshConnectorNodeModel.DEFAULT_MAX_SESSION_COUNT;
     private int m_maxExecChannelLimit = SshConnectorNodeModel.DEFAULT_MAX_EXEC_CHANNEL_COUNT;
+    private int m_connectionCount = DEFAULT_CONNECTION_COUNT;
+    private int m_maxReadRequests = DEFAULT_MAX_READ_REQUESTS;
+    private int m_maxWriteRequests = DEFAULT_MAX_WRITE_REQUESTS;
+    private boolean m_useServerSideListing;
+    private boolean m_usePriorityLane;
+    private boolean m_reuseSessions;
     private int m_port = 22;
     private String m_host;
     private String m_userName;
@@ -250,4 +272,119 @@ public int getMaxExecChannelLimit() {
     public void setMaxExecChannelLimit(final int count) {
         this.m_maxExecChannelLimit = count;
     }
+
+    /**
+     * @return number of SSH connections (TCP connections) the SFTP sessions are
+     *         spread over.
+     */
+    public int getConnectionCount() {
+        return m_connectionCount;
+    }
+
+    /**
+     * @param count
+     *            number of SSH connections (TCP connections) the SFTP sessions
+     *            are spread over.
+     */
+    public void setConnectionCount(final int count) {
+        this.m_connectionCount = count;
+    }
+
+    /**
+     * @return maximum number of SFTP read requests kept in flight when reading a
+     *         file, zero means the read-ahead of the SSHD client is used.
+     */
+    public int getMaxReadRequests() {
+        return m_maxReadRequests;
+    }
+
+    /**
+     * @param count
+     *            maximum number of SFTP read requests kept in flight when
+     *            reading a file, zero means the read-ahead of the SSHD client is
+     *            used.
+     */
+    public void setMaxReadRequests(final int count) {
+        this.m_maxReadRequests = count;
+    }
+
+    /**
+     * @return maximum number of SFTP write requests kept in flight when writing
+     *         a file with an output stream, zero means every write waits for
+     *         the acknowledgement of the server.
+     */
+    public int getMaxWriteRequests() {
+        return m_maxWriteRequests;
+    }
+
+    /**
+     * @param count
+     *            maximum number of SFTP write requests kept in flight when
+     *            writing a file with an output stream, zero means every write
+     *            waits for the acknowledgement of the server.
+     */
+    public void setMaxWriteRequests(final int count) {
+        this.m_maxWriteRequests = count;
+    }
+
+    /**
+     * @return whether directory trees are listed with one {@code find} command
+     *         on the server instead of one SFTP listing per directory.
+     */
+    public boolean isUseServerSideListing() {
+        return m_useServerSideListing;
+    }
+
+    /**
+     * @param useServerSideListing
+     *            whether directory trees are listed with one {@code find}
+     *            command on the server instead of one SFTP listing per
+     *            directory. If the server can not run the command, the SFTP
+     *            listing is used.
+     */
+    public void setUseServerSideListing(final boolean useServerSideListing) {
+        this.m_useServerSideListing = useServerSideListing;
+    }
+
+    /**
+     * @return whether SFTP sessions taken to read attributes or to list
+     *         directories are handed out before the ones waited for by file
+     *         transfers.
+     */
+    public boolean isUsePriorityLane() {
+        return m_usePriorityLane;
+    }
+
+    /**
+     * @param usePriorityLane
+     *            whether SFTP sessions taken to read attributes or to list
+     *            directories are handed out before the ones waited for by file
+     *            transfers.
+     */
+    public void setUsePriorityLane(final boolean usePriorityLane) {
+        this.m_usePriorityLane = usePriorityLane;
+    }
+
+    /**
+     * @return whether authenticated SSH sessions are shared with the other
+     *         connections to the same host with the same user and credentials.
+     */
+    public boolean isReuseSessions() {
+        return m_reuseSessions;
+    }
+
+    /**
+     * @param reuseSessions
+     *            whether authenticated SSH sessions are shared with the other
+     *            connections to the same host with the same user and
+     *            credentials. A shared session is kept open for a while after
+     *            its last connection is closed, so opening the connection again
+     *            does not need a new key exchange and authentication. The SFTP
+     *            sessions of all sharing connections count for the limit of
+     *            channels per SSH session of the server, e.g.
+     *            {@code MaxSessions} of OpenSSH.
+     */
+    public void setReuseSessions(final boolean reuseSessions) {
+        this.m_reuseSessions = reuseSessions;
+    }
 }
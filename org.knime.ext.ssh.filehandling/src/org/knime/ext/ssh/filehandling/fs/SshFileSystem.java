@@ -53,14 +53,17 @@
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.nio.file.FileSystem;
+import java.nio.file.LinkOption;
 import java.nio.file.Path;
 import java.util.Collections;
+import java.util.List;
 import java.util.Locale;
 
 import org.knime.filehandling.core.connections.DefaultFSLocationSpec;
 import org.knime.filehandling.core.connections.FSCategory;
 import org.knime.filehandling.core.connections.FSLocationSpec;
 import org.knime.filehandling.core.connections.base.BaseFileSystem;
+import org.knime.filehandling.core.connections.base.attributes.BaseFileAttributes;
 import org.knime.filehandling.core.connections.meta.FSType;
 import org.knime.filehandling.core.connections.meta.FSTypeRegistry;
 
@@ -70,7 +73,7 @@
  * @author Vyacheslav Soldatov <vyacheslav@redfield.se>
  */
 public class SshFileSystem extends BaseFileSystem<SshPath> {
-    private static final long CACHE_TTL = 6000;
+    static final long CACHE_TTL = 6000;
 
     /**
      * The file system type of the SSH file system.
@@ -128,6 +131,23 @@ public String getSeparator() {
         return PATH_SEPARATOR;
     }
 
+    /**
+     * Reads the attributes of many paths at once with several SFTP requests in
+     * flight, see {@link SshFileSystemProvider#readAttributes(List, LinkOption...)}.
+     *
+     * @param paths
+     *            paths to read the attributes of.
+     * @param options
+     *            options indicating how symbolic links are handled.
+     * @return attributes in the order of the paths, {@code null} for the paths
+     *         which do not exist.
+     * @throws IOException
+     */
+    public List<BaseFileAttributes> readAttributes(final List<? extends Path> paths, final LinkOption... options)
+            throws IOException {
+        return provider().readAttributes(paths, options);
+    }
+
     @Override
     public Iterable<Path> getRootDirectories() {
         return Collections.singletonList(getPath(PATH_SEPARATOR));
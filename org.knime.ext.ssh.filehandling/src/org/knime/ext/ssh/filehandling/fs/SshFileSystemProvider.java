@@ -52,16 +52,21 @@
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.nio.channels.Channels;
 import java.nio.channels.SeekableByteChannel;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AccessDeniedException;
 import java.nio.file.AccessMode;
 import java.nio.file.CopyOption;
+import java.nio.file.DirectoryStream;
 import java.nio.file.DirectoryStream.Filter;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystemException;
 import java.nio.file.LinkOption;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.OpenOption;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.nio.file.attribute.AttributeView;
 import java.nio.file.attribute.BasicFileAttributeView;
 import java.nio.file.attribute.BasicFileAttributes;
@@ -70,37 +75,83 @@
 import java.nio.file.attribute.PosixFileAttributeView;
 import java.nio.file.attribute.PosixFileAttributes;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Deque;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.stream.Collectors;
 
+import org.apache.sshd.common.util.io.IoUtils;
 import org.apache.sshd.sftp.client.SftpClient;
+import org.apache.sshd.sftp.common.SftpException;
+import org.knime.ext.ssh.filehandling.fs.ShellCommands.CommandFailedException;
+import org.knime.core.node.NodeLogger;
 import org.knime.filehandling.core.connections.base.BaseFileSystemProvider;
 import org.knime.filehandling.core.connections.base.attributes.BaseFileAttributes;
 import org.knime.filehandling.core.defaultnodesettings.ExceptionUtil;
 
 /**
  * File system provider for {@link SshFileSystem}.
+ * <p>
+ * If the SSH connection is lost, the idempotent operations, i.e. reading
+ * attributes, listing directories and reading files with input streams, are
+ * retried with a new SFTP session once the connection is reestablished. Writes
+ * are not retried, they fail with an error which tells that the file may be
+ * incomplete.
  *
  * @author Vyacheslav Soldatov <vyacheslav@redfield.se>
  */
 public class SshFileSystemProvider extends BaseFileSystemProvider<SshPath, SshFileSystem> {
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(SshFileSystemProvider.class);
+
+    /**
+     * Time to wait for a shell session for a server-side listing before the
+     * SFTP listing is used.
+     */
+    private static final Duration EXEC_CHANNEL_WAIT = Duration.ofSeconds(1);
+
+    /**
+     * Maximum number of attempts of an idempotent operation if the SSH
+     * connection is lost. The attempts are delayed by the reconnect delay of
+     * the pool, which grows exponentially.
+     */
+    private static final int MAX_RETRY_ATTEMPTS = 5;
+
     private final ConnectionResourcePool m_resources;
+    private final int m_maxReadRequests;
+    private final int m_maxWriteRequests;
     private final Map<Closeable, ConnectionResourceHolder> m_closeables = new ConcurrentHashMap<>();
 
     private final ThreadLocal<ConnectionResourceHolder> m_resourceRef
         = new ThreadLocal<>();
 
+    private final Deque<SftpDirectoryIterator> m_openIterators = new ConcurrentLinkedDeque<>();
+    private final ThreadLocal<SftpDirectoryIterator> m_iteratorRef = new ThreadLocal<>();
+
+    private final boolean m_useServerSideListing;
+    private final Duration m_connectionTimeout;
+    private volatile Boolean m_findAvailable;
+    private volatile Boolean m_shellAvailable;
+    private final Map<String, FindTreeListing> m_treeListings = new ConcurrentHashMap<>();
+    private final Map<String, Long> m_failedTreeListings = new ConcurrentHashMap<>();
+
     /**
      * @param config
      *            SSH connection configuration.
      * @throws IOException
      */
     public SshFileSystemProvider(final SshFSConnectionConfig config) throws IOException {
+        m_maxReadRequests = config.getMaxReadRequests();
+        m_maxWriteRequests = config.getMaxWriteRequests();
+        m_useServerSideListing = config.isUseServerSideListing();
+        m_connectionTimeout = config.getConnectionTimeout();
         m_resources = new ConnectionResourcePool(config);
         m_resources.start();
     }
@@ -108,8 +159,12 @@ public SshFileSystemProvider(final SshFSConnectionConfig config) throws IOExcept
     @Override
     protected SeekableByteChannel newByteChannelInternal(final SshPath path, final Set<? extends OpenOption> options,
             final FileAttribute<?>... attrs) throws IOException {
+        if (options.contains(StandardOpenOption.WRITE) || options.contains(StandardOpenOption.APPEND)) {
+            m_treeListings.clear();
+        }
         return invokeWithResource(false,
-                resource -> NativeSftpProviderUtils.newByteChannelInternal(resource, path, options, attrs));
+                resource -> NativeSftpProviderUtils.newByteChannelInternal(resource, path, options,
+                        m_maxReadRequests, attrs));
     }
 
     @Override
@@ -130,6 +185,7 @@ protected void moveInternal(final SshPath source, final SshPath target, final Co
         }
 
         final BasicFileAttributes targetAttrs = readAttributesIfExists(target);
+        m_treeListings.clear();
 
         invokeWithClient(true,
                 client -> NativeSftpProviderUtils.moveInternal(client, source, target, targetAttrs, optionSet));
@@ -160,35 +216,377 @@ protected void copyInternal(final SshPath source, final SshPath target, final Co
         if (sourceAttrs.isSymbolicLink()) {
             throw new IOException("Copying of symbolic links not supported");
         }
+        m_treeListings.clear();
 
-        invokeWithClient(true,
-                client -> NativeSftpProviderUtils.copyInternal(client, source, target, sourceAttrs, optionSet));
+        invokeWithStreamingCopy(
+                copy -> NativeSftpProviderUtils.copyInternal(copy, source, target, sourceAttrs, optionSet));
     }
 
     @Override
     protected InputStream newInputStreamInternal(final SshPath path, final OpenOption... options) throws IOException {
+        final ConnectionResourceHolder holder = m_resourceRef.get();
         return invokeWithResource(false,
-                resource -> NativeSftpProviderUtils.newInputStreamInternalImpl(resource, path, options));
+                resource -> NativeSftpProviderUtils.newInputStreamInternalImpl(resource, path, m_maxReadRequests,
+                        (cause, attempt) -> replaceLostResource(holder, cause, attempt).getClient(), options));
     }
 
-    @SuppressWarnings("resource")
     @Override
     protected OutputStream newOutputStreamInternal(final SshPath path, final OpenOption... options) throws IOException {
-        final Set<OpenOption> opts = new HashSet<>(Arrays.asList(options));
-        return Channels.newOutputStream(newByteChannelInternal(path, opts));
+        m_treeListings.clear();
+        return invokeWithResource(false,
+                resource -> NativeSftpProviderUtils.newOutputStreamInternalImpl(resource, path,
+                        m_maxWriteRequests, options));
     }
 
     @Override
     protected Iterator<SshPath> createPathIterator(final SshPath dir, final Filter<? super Path> filter)
             throws IOException {
-        return invokeWithResource(
-                true,
-                resource -> NativeSftpProviderUtils.createPathIteratorImpl(resource, dir, filter));
+        if (m_useServerSideListing) {
+            final List<SshPath> children = listFromTree(dir);
+            if (children != null) {
+                final List<SshPath> accepted = new ArrayList<>(children.size());
+                for (SshPath child : children) {
+                    if (filter == null || filter.accept(child)) {
+                        accepted.add(child);
+                    }
+                }
+                return accepted.iterator();
+            }
+        }
+
+        for (int attempt = 1;; attempt++) {
+            final ConnectionResource resource = takeForDirectoryListing();
+            final ConnectionResourceHolder holder = new ConnectionResourceHolder();
+            holder.setResource(resource);
+            try {
+                final SftpDirectoryIterator iterator = NativeSftpProviderUtils.createPathIteratorImpl(resource, dir,
+                        filter, it -> {
+                            m_openIterators.remove(it);
+                            m_resources.release(holder.getResource());
+                        }, (cause, failures) -> replaceLostResource(holder, cause, failures).getClient());
+                m_openIterators.addLast(iterator);
+                m_iteratorRef.set(iterator);
+                return iterator;
+            } catch (Exception e) { // NOSONAR prevent resource leakage caused by non-IOEs being thrown
+                m_resources.release(resource);
+                final IOException ex = ExceptionUtil.wrapAsIOException(e);
+                if (!isRetryable(resource, ex, attempt)) {
+                    throw ex;
+                }
+                awaitReconnect(ex, attempt);
+            }
+        }
+    }
+
+    /**
+     * Lists the children of the given directory from a server-side listing of
+     * the directory or of one of its parents. The listing is read with one
+     * {@code find} command, so walking the next {@link FindTreeListing#MAX_DEPTH}
+     * levels below the directory needs no SFTP requests until the listing
+     * expires.
+     *
+     * @return children or {@code null} if the directory must be listed with
+     *         SFTP.
+     */
+    private List<SshPath> listFromTree(final SshPath dir) {
+        final String dirString = dir.toSftpString();
+        for (FindTreeListing listing : m_treeListings.values()) {
+            if (listing.isExpired()) {
+                m_treeListings.remove(listing.getRoot().toSftpString(), listing);
+            } else {
+                final List<SshPath> children = listing.getChildren(dir);
+                if (children != null) {
+                    return children;
+                }
+            }
+        }
+
+        if (!isFindAvailable() || hasFailedTreeListing(dirString)) {
+            return null;
+        }
+
+        try {
+            final FindTreeListing listing = invokeWithExecChannel(FindTreeListing.createCommand(dir),
+                    StandardCharsets.UTF_8, EXEC_CHANNEL_WAIT,
+                    chan -> FindTreeListing.read(dir, chan, m_connectionTimeout));
+            m_treeListings.put(dirString, listing);
+            return listing.getChildren(dir);
+        } catch (IOException ex) {
+            LOGGER.debug("Server-side listing of " + dirString + " failed, falling back to SFTP", ex);
+            m_failedTreeListings.put(dirString, System.currentTimeMillis());
+            return null;
+        }
+    }
+
+    /**
+     * @return whether a server-side listing of a parent failed recently, then
+     *         the subdirectories are listed with SFTP as well.
+     */
+    private boolean hasFailedTreeListing(final String dir) {
+        final long now = System.currentTimeMillis();
+        for (Map.Entry<String, Long> failed : m_failedTreeListings.entrySet()) {
+            final String root = failed.getKey();
+            if (now - failed.getValue() > SshFileSystem.CACHE_TTL) {
+                m_failedTreeListings.remove(root, failed.getValue());
+            } else if (dir.equals(root) || dir.startsWith(root.endsWith("/") ? root : (root + "/"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks once whether the server can run {@code find} with {@code -printf},
+     * like the SSH command executor checks for a POSIX shell.
+     */
+    private boolean isFindAvailable() {
+        Boolean available = m_findAvailable;
+        if (available == null) {
+            try {
+                available = invokeWithExecChannel(FindTreeListing.PROBE_COMMAND, StandardCharsets.UTF_8,
+                        EXEC_CHANNEL_WAIT, chan -> FindTreeListing.probe(chan, m_connectionTimeout));
+            } catch (IOException ex) {
+                LOGGER.debug("Server-side listing is not available, falling back to SFTP", ex);
+                available = Boolean.FALSE;
+            }
+            m_findAvailable = available;
+        }
+        return available;
+    }
+
+    /**
+     * Checks once whether the server executes commands in a POSIX shell, like
+     * the SSH command executor does.
+     */
+    private boolean isShellAvailable() {
+        Boolean available = m_shellAvailable;
+        if (available == null) {
+            try {
+                available = invokeWithExecChannel(ShellCommands.PROBE_COMMAND, StandardCharsets.UTF_8,
+                        EXEC_CHANNEL_WAIT, chan -> ShellCommands.probe(chan, m_connectionTimeout));
+            } catch (IOException ex) {
+                LOGGER.debug("Shell commands are not available, falling back to SFTP", ex);
+                available = Boolean.FALSE;
+            }
+            m_shellAvailable = available;
+        }
+        return available;
+    }
+
+    /**
+     * Runs a shell command on the server.
+     *
+     * @return {@code false} if the command could not be executed and the
+     *         operation must be done with SFTP.
+     * @throws CommandFailedException
+     *             if the command was executed, but failed.
+     */
+    private boolean runShellCommand(final String command) throws IOException {
+        if (!isShellAvailable()) {
+            return false;
+        }
+        try {
+            invokeWithExecChannel(command, StandardCharsets.UTF_8, EXEC_CHANNEL_WAIT,
+                    chan -> ShellCommands.run(chan, m_connectionTimeout, null));
+            return true;
+        } catch (CommandFailedException ex) {
+            throw ex;
+        } catch (IOException ex) {
+            LOGGER.debug("Could not execute shell command, falling back to SFTP", ex);
+            return false;
+        }
+    }
+
+    /**
+     * Reads the attributes of many paths at once. The attributes which are not
+     * cached are read with several SFTP requests in flight on one SFTP
+     * session, so thousands of paths do not need one round trip each. The read
+     * attributes are added to the attribute cache if symbolic links are
+     * followed.
+     *
+     * @param paths
+     *            paths to read the attributes of.
+     * @param options
+     *            options indicating how symbolic links are handled.
+     * @return attributes in the order of the paths, {@code null} for the paths
+     *         which do not exist.
+     * @throws IOException
+     *             if the attributes of a path can not be read for another
+     *             reason than that it does not exist.
+     */
+    public List<BaseFileAttributes> readAttributes(final List<? extends Path> paths, final LinkOption... options)
+            throws IOException {
+        final boolean followLinks = IoUtils.followLinks(options);
+        final SshFileSystem fs = getFileSystemInternal();
+
+        final List<BaseFileAttributes> result = new ArrayList<>(paths.size());
+        final List<Integer> toFetchIndexes = new ArrayList<>();
+        final List<SshPath> toFetch = new ArrayList<>();
+        for (Path path : paths) {
+            final SshPath sshPath = toAbsolutePath(path);
+            final Optional<BaseFileAttributes> cached = followLinks ? fs.getCachedAttributes(sshPath)
+                    : Optional.empty();
+            if (cached.isPresent()) {
+                result.add(cached.get());
+            } else {
+                toFetchIndexes.add(result.size());
+                toFetch.add(sshPath);
+                result.add(null);
+            }
+        }
+
+        if (!toFetch.isEmpty()) {
+            final List<SftpClient.Attributes> fetched = invokeWithRetry(false,
+                    client -> SftpBulkStat.stat(client, toFetch, followLinks, SftpBulkStat.DEFAULT_MAX_REQUESTS));
+            for (int i = 0; i < toFetch.size(); i++) {
+                final SftpClient.Attributes attrs = fetched.get(i);
+                if (attrs != null) {
+                    final SshPath sshPath = toFetch.get(i);
+                    final BaseFileAttributes baseAttrs = NativeSftpProviderUtils.toBaseFileAttributes(sshPath,
+                            attrs);
+                    if (followLinks) {
+                        fs.addToAttributeCache(sshPath, baseAttrs);
+                    }
+                    result.set(toFetchIndexes.get(i), baseAttrs);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Deletes a file or a whole directory tree. If the server executes
+     * commands in a POSIX shell, the tree is deleted with one {@code rm -rf},
+     * otherwise with one SFTP request per entry. Symbolic links are deleted,
+     * not followed.
+     *
+     * @param path
+     *            file or directory to delete.
+     * @throws IOException
+     */
+    public void deleteTree(final Path path) throws IOException {
+        final SshPath sshPath = toAbsolutePath(path);
+        if (sshPath.getNameCount() == 0) {
+            throw new AccessDeniedException(sshPath.toString(), null, "Cannot delete the root directory");
+        }
+        checkExistsNoFollow(sshPath);
+
+        try {
+            if (!runShellCommand(ShellCommands.createDeleteCommand(sshPath))) {
+                invokeWithClient(true, client -> NativeSftpProviderUtils.deleteTree(client, sshPath));
+            }
+        } finally {
+            invalidateTree(sshPath);
+        }
+    }
+
+    /**
+     * Copies a file or a whole directory tree with the permissions and times.
+     * If the server executes commands in a POSIX shell, the tree is copied on
+     * the server with one {@code cp -Rp}, otherwise with SFTP requests per
+     * entry. Symbolic links are copied as links.
+     *
+     * @param source
+     *            file or directory to copy.
+     * @param target
+     *            target path, which must not exist.
+     * @throws IOException
+     */
+    public void copyTree(final Path source, final Path target) throws IOException {
+        final SshPath sshSource = toAbsolutePath(source);
+        final SshPath sshTarget = toAbsolutePath(target);
+        checkExistsNoFollow(sshSource);
+        checkNotExistsNoFollow(sshTarget);
+
+        try {
+            if (!runShellCommand(ShellCommands.createCopyCommand(sshSource, sshTarget))) {
+                invokeWithStreamingCopy(copy -> NativeSftpProviderUtils.copyTree(copy, sshSource, sshTarget));
+            }
+        } finally {
+            invalidateTree(sshTarget);
+        }
+    }
+
+    /**
+     * Moves a file or a whole directory tree. The tree is renamed with SFTP,
+     * if the server can not rename it, e.g. because the target is on another
+     * device, it is moved with {@code mv} if the server executes commands in a
+     * POSIX shell.
+     *
+     * @param source
+     *            file or directory to move.
+     * @param target
+     *            target path, which must not exist.
+     * @throws IOException
+     */
+    public void moveTree(final Path source, final Path target) throws IOException {
+        final SshPath sshSource = toAbsolutePath(source);
+        final SshPath sshTarget = toAbsolutePath(target);
+        checkExistsNoFollow(sshSource);
+        checkNotExistsNoFollow(sshTarget);
+
+        try {
+            invokeWithClient(true, client -> NativeSftpProviderUtils.moveInternal(client, sshSource, sshTarget,
+                    null, new HashSet<>()));
+        } catch (NoSuchFileException | AccessDeniedException | FileAlreadyExistsException ex) {
+            throw ex;
+        } catch (IOException ex) {
+            if (!runShellCommand(ShellCommands.createMoveCommand(sshSource, sshTarget))) {
+                throw ex;
+            }
+        } finally {
+            invalidateTree(sshSource);
+            invalidateTree(sshTarget);
+        }
+    }
+
+    private static SshPath toAbsolutePath(final Path path) {
+        return (SshPath) path.toAbsolutePath().normalize();
+    }
+
+    private void checkExistsNoFollow(final SshPath path) throws IOException {
+        invokeWithRetry(false,
+                client -> NativeSftpProviderUtils.readRemoteAttributes(client, path, LinkOption.NOFOLLOW_LINKS));
+    }
+
+    private void checkNotExistsNoFollow(final SshPath path) throws IOException {
+        try {
+            checkExistsNoFollow(path);
+        } catch (NoSuchFileException e) { // NOSONAR expected behavior
+            return;
+        }
+        throw new FileAlreadyExistsException(path.toString());
+    }
+
+    @SuppressWarnings("resource")
+    private void invalidateTree(final SshPath path) {
+        m_treeListings.clear();
+        getFileSystemInternal().removeFromAttributeCacheDeep(path);
+    }
+
+    /**
+     * Open directory iterators hold their resources. When a deep directory tree
+     * is walked, all resources may be held by the iterators of the parent
+     * directories, so the oldest ones are detached instead of waiting for a
+     * resource which is never released.
+     */
+    private ConnectionResource takeForDirectoryListing() throws IOException {
+        ConnectionResource resource = m_resources.tryTake();
+        while (resource == null) {
+            final SftpDirectoryIterator oldest = m_openIterators.pollFirst();
+            if (oldest == null) {
+                return m_resources.take(true);
+            }
+            oldest.detach();
+            resource = m_resources.tryTake();
+        }
+        return resource;
     }
 
     @Override
     protected void createDirectoryInternal(final SshPath dir, final FileAttribute<?>... attrs)
             throws IOException {
+        m_treeListings.clear();
         invokeWithClient(true, client -> NativeSftpProviderUtils.createDirectoryInternal(client, dir, attrs));
     }
 
@@ -200,7 +598,7 @@ public boolean exists(final SshPath path) throws IOException {
         }
 
         try {
-            final BaseFileAttributes attrs = invokeWithClient(true,
+            final BaseFileAttributes attrs = invokeWithPriorityClient(
                     client -> NativeSftpProviderUtils.readRemoteAttributes(client, path));
             getFileSystemInternal().addToAttributeCache(path, attrs);
             return true;
@@ -215,7 +613,7 @@ protected BaseFileAttributes fetchAttributesInternal(final SshPath path, final C
             throw new UnsupportedOperationException("readAttributes(" + path + ")[" + type.getSimpleName() + "] N/A");
         }
 
-        return invokeWithClient(true, client -> NativeSftpProviderUtils.readRemoteAttributes(client, path));
+        return invokeWithPriorityClient(client -> NativeSftpProviderUtils.readRemoteAttributes(client, path));
     }
 
     @Override
@@ -227,6 +625,7 @@ protected void checkAccessInternal(final SshPath path, final AccessMode... modes
     @Override
     protected void deleteInternal(final SshPath path) throws IOException {
         final BasicFileAttributes attrs = readAttributes(path, BasicFileAttributes.class);
+        m_treeListings.clear();
         invokeWithClient(true, client -> NativeSftpProviderUtils.delete(client, path, attrs));
     }
 
@@ -268,8 +667,23 @@ void prepareClose() {
      */
     private <R> R invokeWithResource(final boolean releaseResource, final WithResourceInvocable<R> func)
             throws IOException {
+        return invokeWithResource(releaseResource, false, func);
+    }
 
-        final ConnectionResource resource = m_resources.take();
+    /**
+     * @param releaseResource
+     *            whether or not should release resource just after invoke method.
+     * @param priority
+     *            whether the resource is taken with priority, see
+     *            {@link ConnectionResourcePool#take(boolean)}.
+     * @param func
+     *            function to invoke with resource.
+     * @return invocation result.
+     */
+    private <R> R invokeWithResource(final boolean releaseResource, final boolean priority,
+            final WithResourceInvocable<R> func) throws IOException {
+
+        final ConnectionResource resource = m_resources.take(priority);
         try {
             final R result = func.invoke(resource);
             if (releaseResource) {
@@ -327,6 +741,128 @@ private <R> R invokeWithClient(final boolean releaseResource, final WithClientIn
         return invokeWithResource(releaseResource, resource -> func.invoke(resource.getClient()));
     }
 
+    /**
+     * Invokes a short metadata call with a resource taken with priority and
+     * released just after the call. The call must be idempotent, it is retried
+     * if the SSH connection is lost.
+     *
+     * @param func
+     *            function to invoke with client.
+     * @return invocation result.
+     */
+    private <R> R invokeWithPriorityClient(final WithClientInvocable<R> func) throws IOException {
+        return invokeWithRetry(true, func);
+    }
+
+    /**
+     * Invokes an idempotent call with a resource released just after the call.
+     * If the call fails because the SSH connection is lost, it is retried with
+     * a resource of the reestablished connection.
+     *
+     * @param priority
+     *            whether the resource is taken with priority, see
+     *            {@link ConnectionResourcePool#take(boolean)}.
+     * @param func
+     *            function to invoke with client.
+     * @return invocation result.
+     */
+    private <R> R invokeWithRetry(final boolean priority, final WithClientInvocable<R> func) throws IOException {
+        for (int attempt = 1;; attempt++) {
+            ConnectionResource resource = null;
+            try {
+                resource = m_resources.take(priority);
+                final R result = func.invoke(resource.getClient());
+                m_resources.release(resource);
+                return result;
+            } catch (Exception e) { // NOSONAR prevent resource leakage caused by non-IOEs being thrown
+                if (resource != null) {
+                    m_resources.release(resource);
+                }
+                final IOException ex = ExceptionUtil.wrapAsIOException(e);
+                if (!isRetryable(resource, ex, attempt)) {
+                    throw ex;
+                }
+                awaitReconnect(ex, attempt);
+            }
+        }
+    }
+
+    /**
+     * Replaces the resource of an open input stream or directory listing whose
+     * SSH connection is lost, see {@link SftpReconnector}.
+     *
+     * @param holder
+     *            holder of the resource, which is released when the stream or
+     *            listing is closed.
+     * @return the new resource.
+     */
+    private ConnectionResource replaceLostResource(final ConnectionResourceHolder holder, final IOException cause,
+            final int attempt) throws IOException {
+        final ConnectionResource lost = holder.getResource();
+        if (!isRetryable(lost, cause, attempt)) {
+            throw cause;
+        }
+        m_resources.release(lost);
+        awaitReconnect(cause, attempt);
+
+        final ConnectionResource resource = m_resources.take();
+        holder.setResource(resource);
+        return resource;
+    }
+
+    /**
+     * @param resource
+     *            resource of the failed call, {@code null} if no resource could
+     *            be taken.
+     * @return whether a failed idempotent call is retried, i.e. whether its
+     *         SSH connection is lost.
+     */
+    private boolean isRetryable(final ConnectionResource resource, final IOException error, final int attempt) {
+        if (attempt >= MAX_RETRY_ATTEMPTS || error instanceof SftpException
+                || error instanceof FileSystemException) {
+            // the server has answered the call
+            return false;
+        }
+        return resource != null ? ConnectionResource.isConnectionLost(resource.getClient())
+                : m_resources.isConnectionLost();
+    }
+
+    private void awaitReconnect(final IOException error, final int attempt) throws IOException {
+        final Duration delay = m_resources.getReconnectDelay();
+        LOGGER.debug(String.format("SSH connection is lost, retrying in %d ms (attempt %d of %d)", delay.toMillis(),
+                attempt + 1, MAX_RETRY_ATTEMPTS), error);
+        try {
+            Thread.sleep(delay.toMillis());
+        } catch (InterruptedException ex) { // NOSONAR
+            Thread.currentThread().interrupt();
+            throw error;
+        }
+    }
+
+    /**
+     * Invokes a copy which writes the content with a second SFTP session if
+     * one is free, otherwise the reads and the writes share one session.
+     *
+     * @param func
+     *            function to invoke with the clients.
+     * @return invocation result.
+     */
+    private <R> R invokeWithStreamingCopy(final WithStreamingCopyInvocable<R> func) throws IOException {
+        return invokeWithResource(true, resource -> {
+            final ConnectionResource writeResource = m_resources.tryTake();
+            try {
+                final SftpClient writeClient = writeResource != null ? writeResource.getClient()
+                        : resource.getClient();
+                return func.invoke(new SftpStreamingCopy(resource.getClient(), writeClient, m_maxReadRequests,
+                        m_maxWriteRequests));
+            } finally {
+                if (writeResource != null) {
+                    m_resources.release(writeResource);
+                }
+            }
+        });
+    }
+
     void unregisterCloseable(final Closeable closeable) {
         final ConnectionResourceHolder holder = m_closeables.remove(closeable);
         if (holder != null) {
@@ -390,6 +926,25 @@ public OutputStream newOutputStream(final Path path, final OpenOption... options
         return out;
     }
 
+    @Override
+    public DirectoryStream<Path> newDirectoryStream(final Path dir, final Filter<? super Path> filter)
+            throws IOException {
+        m_iteratorRef.remove();
+        try {
+            final DirectoryStream<Path> stream = super.newDirectoryStream(dir, filter);
+            final SftpDirectoryIterator iterator = m_iteratorRef.get();
+            return iterator == null ? stream : new SshDirectoryStream(stream, iterator);
+        } catch (IOException | RuntimeException e) {
+            final SftpDirectoryIterator iterator = m_iteratorRef.get();
+            if (iterator != null) {
+                iterator.close();
+            }
+            throw e;
+        } finally {
+            m_iteratorRef.remove();
+        }
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     protected <V extends FileAttributeView> V getFileAttributeViewInternal(final SshPath path, final Class<V> type,
@@ -407,4 +962,32 @@ protected <V extends FileAttributeView> V getFileAttributeViewInternal(final Ssh
     protected boolean isHiddenInternal(final SshPath path) throws IOException {
         return path != null && !path.isRoot() && path.getFileName().toString().startsWith(".");
     }
+
+    /**
+     * Closes the directory iterator together with the directory stream, so the
+     * resource is released even if the stream is not consumed completely.
+     */
+    private static final class SshDirectoryStream implements DirectoryStream<Path> {
+        private final DirectoryStream<Path> m_stream;
+        private final SftpDirectoryIterator m_iterator;
+
+        SshDirectoryStream(final DirectoryStream<Path> stream, final SftpDirectoryIterator iterator) {
+            m_stream = stream;
+            m_iterator = iterator;
+        }
+
+        @Override
+        public Iterator<Path> iterator() {
+            return m_stream.iterator();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                m_stream.close();
+            } finally {
+                m_iterator.close();
+            }
+        }
+    }
 }
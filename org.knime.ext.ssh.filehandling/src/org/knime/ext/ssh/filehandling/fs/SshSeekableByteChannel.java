@@ -51,20 +51,46 @@
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.SeekableByteChannel;
+import java.util.Collection;
+
+import org.apache.sshd.sftp.client.RawSftpClient;
+import org.apache.sshd.sftp.client.SftpClient;
+import org.apache.sshd.sftp.client.SftpClient.OpenMode;
+import org.apache.sshd.sftp.client.impl.SftpRemotePathChannel;
 
 /**
+ * Seekable byte channel of a remote file. Sequential reads are served by a
+ * {@link SftpPipelinedInputStream} which keeps several read requests in
+ * flight, it is discarded as soon as the channel is repositioned, written or
+ * truncated. Writes are not retried if the SSH connection is lost, they fail
+ * with an error which tells that the file may be incomplete.
  *
  * @author Vyacheslav Soldatov <vyacheslav@redfield.se>
  */
+@SuppressWarnings("restriction")
 class SshSeekableByteChannel implements SeekableByteChannel {
-    private final SeekableByteChannel m_channel;
+    private final String m_path;
+    private final RemoteChannel m_channel;
+    private final int m_maxReadRequests;
+    private SftpPipelinedInputStream m_readAhead;
 
     /**
-     * @param ch
-     *            channel.
+     * @param path
+     *            remote path.
+     * @param client
+     *            SFTP client.
+     * @param modes
+     *            open modes.
+     * @param maxReadRequests
+     *            maximum number of outstanding read requests of the read-ahead,
+     *            zero disables it.
+     * @throws IOException
      */
-    public SshSeekableByteChannel(final SeekableByteChannel ch) {
-        m_channel = ch;
+    public SshSeekableByteChannel(final String path, final SftpClient client, final Collection<OpenMode> modes,
+            final int maxReadRequests) throws IOException {
+        m_path = path;
+        m_channel = new RemoteChannel(path, client, modes);
+        m_maxReadRequests = client instanceof RawSftpClient && modes.contains(OpenMode.Read) ? maxReadRequests : 0;
     }
 
     @Override
@@ -74,17 +100,49 @@ public boolean isOpen() {
 
     @Override
     public void close() throws IOException {
-        m_channel.close();
+        try {
+            discardReadAhead();
+        } finally {
+            m_channel.close();
+        }
     }
 
     @Override
     public int read(final ByteBuffer dst) throws IOException {
-        return m_channel.read(dst);
+        if (m_maxReadRequests <= 0 || !m_channel.isOpen()) {
+            return m_channel.read(dst);
+        }
+
+        if (m_readAhead == null) {
+            m_readAhead = new SftpPipelinedInputStream(m_channel.getClient(), m_channel.getHandle(), false,
+                    m_channel.position(), m_maxReadRequests);
+        }
+
+        final int n;
+        if (dst.hasArray()) {
+            n = m_readAhead.read(dst.array(), dst.arrayOffset() + dst.position(), dst.remaining());
+            if (n > 0) {
+                dst.position(dst.position() + n);
+            }
+        } else {
+            final byte[] buf = new byte[Math.min(dst.remaining(), SftpPipelinedInputStream.CHUNK_SIZE)];
+            n = m_readAhead.read(buf, 0, buf.length);
+            if (n > 0) {
+                dst.put(buf, 0, n);
+            }
+        }
+        m_channel.position(m_readAhead.position());
+        return n;
     }
 
     @Override
     public int write(final ByteBuffer src) throws IOException {
-        return m_channel.write(src);
+        discardReadAhead();
+        try {
+            return m_channel.write(src);
+        } catch (IOException ex) {
+            throw NativeSftpProviderUtils.toWriteError(m_channel.getClient(), m_path, ex);
+        }
     }
 
     @Override
@@ -94,6 +152,9 @@ public long position() throws IOException {
 
     @Override
     public SeekableByteChannel position(final long newPosition) throws IOException {
+        if (m_readAhead != null && m_readAhead.position() != newPosition) {
+            discardReadAhead();
+        }
         m_channel.position(newPosition);
         return this;
     }
@@ -105,7 +166,38 @@ public long size() throws IOException {
 
     @Override
     public SeekableByteChannel truncate(final long size) throws IOException {
-        m_channel.truncate(Math.min(m_channel.size(), size));
+        discardReadAhead();
+        try {
+            m_channel.truncate(Math.min(m_channel.size(), size));
+        } catch (IOException ex) {
+            throw NativeSftpProviderUtils.toWriteError(m_channel.getClient(), m_path, ex);
+        }
         return this;
     }
+
+    private void discardReadAhead() throws IOException {
+        if (m_readAhead != null) {
+            final SftpPipelinedInputStream readAhead = m_readAhead;
+            m_readAhead = null;
+            readAhead.close();
+        }
+    }
+
+    /**
+     * Gives access to the handle of the opened file.
+     */
+    private static final class RemoteChannel extends SftpRemotePathChannel {
+        RemoteChannel(final String path, final SftpClient client, final Collection<OpenMode> modes)
+                throws IOException {
+            super(path, client, false, modes);
+        }
+
+        SftpClient getClient() {
+            return sftp;
+        }
+
+        SftpClient.Handle getHandle() {
+            return handle;
+        }
+    }
 }
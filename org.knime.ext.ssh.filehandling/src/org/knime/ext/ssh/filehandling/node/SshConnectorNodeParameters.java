@@ -190,6 +190,58 @@ static interface MaxSessionCountRef extends ParameterReference<Integer> {
     static interface MaxExecChannelCountRef extends ParameterReference<Integer> {
     }
 
+    @Layout(ConnectionSection.class)
+    @Widget(title = "SSH connections", description = """
+            Number of SSH (TCP) connections the SFTP sessions are spread over. Several connections increase the
+            throughput of parallel transfers when a single connection is limited by its window size or by the
+            encryption speed of one CPU core. Each connection needs its own key exchange and authentication.""")
+    @NumberInputWidget(minValidation = IsPositiveIntegerValidation.class)
+    @Advanced
+    int m_connectionCount = SshFSConnectionConfig.DEFAULT_CONNECTION_COUNT;
+
+    @Layout(ConnectionSection.class)
+    @Widget(title = "Outstanding read requests", description = """
+            Maximum number of SFTP read requests sent ahead when a file is read sequentially. More requests in
+            flight hide the network latency on slow links, but need more memory per open file. The value 0 uses
+            the read-ahead of the SFTP client.""")
+    @NumberInputWidget(minValidation = IsNonNegativeValidation.class)
+    @Advanced
+    int m_maxReadRequests = SshFSConnectionConfig.DEFAULT_MAX_READ_REQUESTS;
+
+    @Layout(ConnectionSection.class)
+    @Widget(title = "Outstanding write requests", description = """
+            Maximum number of SFTP write requests sent without waiting for the acknowledgement of the server when
+            a file is written. More requests in flight hide the network latency on slow links. The value 0 waits
+            for every acknowledgement.""")
+    @NumberInputWidget(minValidation = IsNonNegativeValidation.class)
+    @Advanced
+    int m_maxWriteRequests = SshFSConnectionConfig.DEFAULT_MAX_WRITE_REQUESTS;
+
+    @Layout(ConnectionSection.class)
+    @Widget(title = "List directory trees with find", description = """
+            If this option is selected and the server has a POSIX shell with GNU find, then a directory is listed
+            together with the next levels of its sub directories by one find command instead of SFTP requests.
+            This speeds up walking large trees over slow networks. If the command fails, the directories are
+            listed with SFTP.""")
+    @Advanced
+    boolean m_useServerSideListing;
+
+    @Layout(ConnectionSection.class)
+    @Widget(title = "Prioritize metadata requests", description = """
+            If this option is selected, then reading file attributes and listing directories do not wait behind
+            file transfers for a free SFTP session. This keeps browsing responsive while large files are
+            transferred.""")
+    @Advanced
+    boolean m_usePriorityLane;
+
+    @Layout(ConnectionSection.class)
+    @Widget(title = "Share SSH connections", description = """
+            If this option is selected, then SSH connections with the same host, user, credentials and known hosts
+            are shared with other connector nodes and kept open for a short time after the node is reset. This
+            avoids the key exchange and authentication when a workflow connects to the same server repeatedly.""")
+    @Advanced
+    boolean m_reuseSessions;
+
     // ----- AUTHENTICATION PARAMETERS -----
 
     @Layout(AuthenticationSection.class)
@@ -578,6 +630,9 @@ void validateOnConfigure(final CredentialsProvider credentialsProvider) throws I
         CheckUtils.checkSetting(m_maxSessionCount >= 0, "Maximum number of SFTP sessions must not be negative.");
         CheckUtils.checkSetting(m_maxExecChannelCount >= 0,
                 "Maximum number of concurrent shell sessions must not be negative.");
+        CheckUtils.checkSetting(m_connectionCount > 0, "Number of SSH connections must be at least 1.");
+        CheckUtils.checkSetting(m_maxReadRequests >= 0, "Number of outstanding read requests must not be negative.");
+        CheckUtils.checkSetting(m_maxWriteRequests >= 0, "Number of outstanding write requests must not be negative.");
 
         CheckUtils.checkSetting(m_connectionTimeout >= 0, "Connection timeout must not be negative.");
 
@@ -626,6 +681,12 @@ SshFSConnectionConfig toFSConnectionConfig(final CredentialsProvider credentials
         cfg.setPort(m_port);
         cfg.setMaxSftpSessionLimit(m_maxSessionCount);
         cfg.setMaxExecChannelLimit(m_maxExecChannelCount);
+        cfg.setConnectionCount(m_connectionCount);
+        cfg.setMaxReadRequests(m_maxReadRequests);
+        cfg.setMaxWriteRequests(m_maxWriteRequests);
+        cfg.setUseServerSideListing(m_useServerSideListing);
+        cfg.setUsePriorityLane(m_usePriorityLane);
+        cfg.setReuseSessions(m_reuseSessions);
 
         // auth
         cfg.setUseKeyFile(m_authentication.m_type == AuthenticationParameters.AuthenticationMethod.KEY_FILE);